@@ -2,10 +2,21 @@ package controller;
 
 import model.Incident;
 import model.IncidentStatistics;
+import service.IncidentFilter;
+import service.IncidentPage;
+import service.IncidentQuery;
+import service.IncidentResponseTimes;
+import service.IncidentRollups;
 import service.IncidentService;
+import service.IncidentSketches;
+import service.IncidentSurgeDetector;
 import service.IIncidentRepository;
-import service.JsonIncidentRepository;
+import service.IncidentRepositoryFactory;
+import util.ReportDates;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,7 +32,7 @@ public class DashboardController {
     // ==================== Constructor (Dependency Injection) ====================
     
     public DashboardController() {
-        IIncidentRepository repository = new JsonIncidentRepository();
+        IIncidentRepository repository = IncidentRepositoryFactory.getCachedRepository();
         this.incidentService = new IncidentService(repository);
     }
     
@@ -57,6 +68,151 @@ public class DashboardController {
                                                     locationFilter, searchText);
     }
     
+    /**
+     * Run a query, e.g. the most recent incidents of a type in a date range.
+     * @param query The query
+     * @return Matching incidents
+     */
+    public List<Incident> queryIncidents(IncidentQuery query) {
+        return incidentService.queryIncidents(query);
+    }
+    
+    /**
+     * Get the most recently reported incidents, newest first.
+     * @param count Maximum number of incidents
+     * @return The latest incidents
+     */
+    public List<Incident> getLatestIncidents(int count) {
+        return incidentService.queryIncidents(IncidentQuery.builder()
+            .orderBy(IncidentQuery.Order.NEWEST_FIRST)
+            .limit(count)
+            .build());
+    }
+    
+    /**
+     * Get the incidents reported within a recent period, newest first.
+     * The query starts at the start of the minute, or for periods over an
+     * hour the hour, holding the bound, like the rollup windows, so repeated
+     * calls share one query cache entry; reports before the exact bound are
+     * then dropped.
+     * @param period How far back to look, e.g. Duration.ofHours(6)
+     * @return Incidents reported since then
+     */
+    public List<Incident> getIncidentsReportedWithin(Duration period) {
+        long since = ReportDates.now() - period.toMillis();
+        long bucket = period.compareTo(Duration.ofHours(1)) <= 0
+                      ? ReportDates.MILLIS_PER_MINUTE : Duration.ofHours(1).toMillis();
+        List<Incident> incidents = new ArrayList<>(incidentService.queryIncidents(IncidentQuery.builder()
+            .reportedBetween(Math.floorDiv(since, bucket) * bucket, Long.MAX_VALUE)
+            .orderBy(IncidentQuery.Order.NEWEST_FIRST)
+            .build()));
+        incidents.removeIf(incident -> incident.getTimestamp() < since);
+        return incidents;
+    }
+    
+    /**
+     * Run a query and convert the matches straight to table rows.
+     * @param query The query
+     * @return 2D array for table model
+     */
+    public Object[][] queryTableData(IncidentQuery query) {
+        return incidentService.queryIncidents(query, Incident::toTableRow).toArray(new Object[0][]);
+    }
+    
+    /**
+     * Get one page of filtered incidents, for tables over large histories.
+     * @param typeFilter Type filter
+     * @param statusFilter Status filter
+     * @param locationFilter Location filter
+     * @param searchText Search text
+     * @param cursor IncidentPage.FIRST, or the previous page's next cursor
+     * @param pageSize Maximum number of rows
+     * @return The page and the cursor of the next one
+     */
+    public IncidentPage getIncidentPage(String typeFilter, String statusFilter, String locationFilter,
+                                        String searchText, long cursor, int pageSize) {
+        IncidentFilter filter = new IncidentFilter(typeFilter, statusFilter, locationFilter, searchText);
+        return incidentService.getIncidentPage(filter, cursor, pageSize);
+    }
+    
+    /**
+     * Count filtered incidents without loading them.
+     * @param typeFilter Type filter
+     * @param statusFilter Status filter
+     * @param locationFilter Location filter
+     * @param searchText Search text
+     * @return Number of matching incidents
+     */
+    public long countIncidents(String typeFilter, String statusFilter,
+                               String locationFilter, String searchText) {
+        IncidentFilter filter = new IncidentFilter(typeFilter, statusFilter, locationFilter, searchText);
+        return incidentService.countIncidents(filter);
+    }
+    
+    /**
+     * Move an incident to a new status.
+     * @param id Incident id
+     * @param status New status (Pending, Responding or Resolved)
+     * @return True if the status was changed, false otherwise
+     */
+    public boolean updateIncidentStatus(String id, String status) {
+        return incidentService.updateIncidentStatus(id, status);
+    }
+    
+    /**
+     * Find an incident by its id.
+     * @param id Incident id
+     * @return The incident, or null if it no longer exists
+     */
+    public Incident findIncident(String id) {
+        return incidentService.findIncident(id);
+    }
+    
+    /**
+     * Get statistics over every stored incident.
+     * @return IncidentStatistics object
+     */
+    public IncidentStatistics getStatistics() {
+        return incidentService.getStatistics();
+    }
+    
+    /**
+     * Count reports made in a recent window.
+     * @param window Last hour, day or week
+     * @return Total, per-type and per-location counts
+     */
+    public IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window) {
+        return incidentService.getRecentCounts(window);
+    }
+    
+    /**
+     * Estimate distinct reporters and the most reported barangays and types
+     * over a date range, in whole weeks.
+     * @param from First report day, or null for no lower bound
+     * @param before Day after the last report day, or null for no upper bound
+     * @return Distinct contact and reporter counts and top locations and types
+     */
+    public IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before) {
+        return incidentService.getReportSummary(from, before);
+    }
+    
+    /**
+     * Get response-time percentiles for the dashboard.
+     * @param metric Time to respond or time to resolve
+     * @return p50, p90 and p99 in total, per type and per barangay
+     */
+    public IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric) {
+        return incidentService.getResponseTimes(metric);
+    }
+    
+    /**
+     * Get the current surge alert level for the dashboard.
+     * @return Overall level and the raised barangays and types
+     */
+    public IncidentSurgeDetector.Status getSurgeStatus() {
+        return incidentService.getSurgeStatus();
+    }
+    
     /**
      * Calculate statistics from a list of incidents.
      * @param incidents List of incidents
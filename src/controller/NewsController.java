@@ -0,0 +1,39 @@
+package controller;
+
+import service.IIncidentRepository;
+import service.IncidentRepositoryFactory;
+import service.IncidentService;
+import service.IncidentSurgeDetector;
+
+/**
+ * Controller for News operations.
+ * Supplies the live incident alert level shown on the News page.
+ */
+public class NewsController {
+    
+    private final IncidentService incidentService;
+    
+    // ==================== Constructor ====================
+    
+    public NewsController() {
+        this(IncidentRepositoryFactory.getCachedRepository());
+    }
+    
+    /**
+     * Constructor for testing with custom repository.
+     * @param repository Custom repository implementation
+     */
+    public NewsController(IIncidentRepository repository) {
+        this.incidentService = new IncidentService(repository);
+    }
+    
+    // ==================== Public Controller Methods ====================
+    
+    /**
+     * Get the current surge alert level.
+     * @return Overall level and the raised barangays and types
+     */
+    public IncidentSurgeDetector.Status getSurgeStatus() {
+        return incidentService.getSurgeStatus();
+    }
+}
@@ -3,7 +3,7 @@ package controller;
 import model.Incident;
 import service.IncidentService;
 import service.IIncidentRepository;
-import service.JsonIncidentRepository;
+import service.IncidentRepositoryFactory;
 import util.IValidator;
 import util.NameValidator;
 import util.PhoneNumberValidator;
@@ -23,7 +23,7 @@ public class ReportIncidentController {
     // ==================== Constructor ====================
     
     public ReportIncidentController() {
-        IIncidentRepository repository = new JsonIncidentRepository();
+        IIncidentRepository repository = IncidentRepositoryFactory.getBatchingWriter();
         this.incidentService = new IncidentService(repository);
         this.nameValidator = new NameValidator();
         this.phoneValidator = new PhoneNumberValidator();
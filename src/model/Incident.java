@@ -1,16 +1,22 @@
 package model;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import util.ReportDates;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Model class representing an Incident Report.
  * Follows Encapsulation principle - all fields are private with public getters/setters.
+ *
+ * The report date is kept both as display text and as a timestamp (see
+ * ReportDates), so incidents sort and filter by time without re-parsing.
+ * Incidents created in the app only format their date when it is shown.
+ *
+ * The first time an incident reaches Responding and Resolved is kept as
+ * well, in the same wall-clock form, so response times can be measured.
  */
 public class Incident {
     
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMMM dd, yyyy hh:mm a");
-    
+    private String id;
     private String type;
     private String location;
     private String description;
@@ -18,12 +24,16 @@ public class Incident {
     private String contact;
     private String status;
     private String date;
+    private long timestamp;
+    private long respondedAt = ReportDates.UNKNOWN;
+    private long resolvedAt = ReportDates.UNKNOWN;
     
     // ==================== Constructors ====================
     
     public Incident() {
+        this.id = newId();
         this.status = "Pending";
-        this.date = LocalDateTime.now().format(DATE_FORMATTER);
+        this.timestamp = ReportDates.now();
     }
     
     public Incident(String type, String location, String description, 
@@ -38,6 +48,12 @@ public class Incident {
     
     public Incident(String type, String location, String description, 
                     String reporter, String contact, String status, String date) {
+        this(null, type, location, description, reporter, contact, status, date);
+    }
+    
+    public Incident(String id, String type, String location, String description, 
+                    String reporter, String contact, String status, String date) {
+        this.id = id;
         this.type = type;
         this.location = location;
         this.description = description;
@@ -45,10 +61,35 @@ public class Incident {
         this.contact = contact;
         this.status = status;
         this.date = date;
+        this.timestamp = ReportDates.parse(date);
+    }
+    
+    /**
+     * Creates an incident from a stored timestamp; the date text is
+     * formatted the first time it is needed.
+     */
+    public Incident(String id, String type, String location, String description, 
+                    String reporter, String contact, String status, long timestamp) {
+        this.id = id;
+        this.type = type;
+        this.location = location;
+        this.description = description;
+        this.reporter = reporter;
+        this.contact = contact;
+        this.status = status;
+        this.timestamp = timestamp;
     }
     
     // ==================== Getters and Setters (Encapsulation) ====================
     
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
     public String getType() {
         return type;
     }
@@ -97,22 +138,131 @@ public class Incident {
         this.status = status;
     }
     
+    /**
+     * @return the report date as shown to users
+     */
     public String getDate() {
+        if (date == null && timestamp != ReportDates.UNKNOWN) {
+            date = ReportDates.formatReportDate(timestamp);
+        }
         return date;
     }
     
     public void setDate(String date) {
         this.date = date;
+        this.timestamp = ReportDates.parse(date);
+    }
+    
+    /**
+     * @return the report date as wall-clock milliseconds, or
+     *         ReportDates.UNKNOWN if the date text is not readable
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+        this.date = null;
+    }
+    
+    /**
+     * @return when the incident first became Responding, or ReportDates.UNKNOWN
+     */
+    public long getRespondedAt() {
+        return respondedAt;
+    }
+    
+    public void setRespondedAt(long respondedAt) {
+        this.respondedAt = respondedAt;
+    }
+    
+    /**
+     * @return when the incident first became Resolved, or ReportDates.UNKNOWN
+     */
+    public long getResolvedAt() {
+        return resolvedAt;
+    }
+    
+    public void setResolvedAt(long resolvedAt) {
+        this.resolvedAt = resolvedAt;
     }
     
     // ==================== Business Logic ====================
     
+    /**
+     * Generates a new unique incident id. Ids begin with the creation time in
+     * hex, so sorting ids also sorts incidents by when they were created.
+     * @return 20-character hex id
+     */
+    public static String newId() {
+        return String.format("%012x%08x", System.currentTimeMillis(), ThreadLocalRandom.current().nextInt());
+    }
+    
+    /**
+     * Copies this incident with a different status, leaving this one unchanged.
+     * @param newStatus Status of the copy
+     * @return the copy
+     */
+    public Incident withStatus(String newStatus) {
+        Incident copy = new Incident(id, type, location, description, reporter, contact, newStatus, timestamp);
+        copy.date = date;
+        copy.respondedAt = respondedAt;
+        copy.resolvedAt = resolvedAt;
+        return copy;
+    }
+    
+    /**
+     * Copies this incident with a different status, recording when the copy
+     * first reached Responding or Resolved.
+     * @param newStatus Status of the copy
+     * @param changedAt Time of the change (see ReportDates)
+     * @return the copy
+     */
+    public Incident withStatus(String newStatus, long changedAt) {
+        Incident copy = withStatus(newStatus);
+        copy.changeStatus(newStatus, changedAt);
+        return copy;
+    }
+    
+    /**
+     * Sets the status and records the first time the incident reaches
+     * Responding or Resolved. An incident resolved without passing through
+     * Responding counts as responded to when it is resolved.
+     * @param newStatus New status
+     * @param changedAt Time of the change, or ReportDates.UNKNOWN to record none
+     */
+    public void changeStatus(String newStatus, long changedAt) {
+        this.status = newStatus;
+        if (changedAt == ReportDates.UNKNOWN) {
+            return;
+        }
+        boolean resolved = "Resolved".equalsIgnoreCase(newStatus);
+        if ((resolved || "Responding".equalsIgnoreCase(newStatus)) && respondedAt == ReportDates.UNKNOWN) {
+            respondedAt = changedAt;
+        }
+        if (resolved && resolvedAt == ReportDates.UNKNOWN) {
+            resolvedAt = changedAt;
+        }
+    }
+    
+    /**
+     * Assigns a new id if the incident does not have one yet.
+     * @return the incident's id
+     */
+    public String ensureId() {
+        if (id == null || id.isEmpty()) {
+            id = newId();
+        }
+        return id;
+    }
+    
     /**
      * Converts the incident to a table row representation.
      * @return Object array containing all incident data
      */
     public Object[] toTableRow() {
-        return new Object[]{type, location, description, contact, reporter, date, status};
+        return new Object[]{type, location, description, contact, reporter, getDate(), status};
     }
     
     /**
@@ -120,15 +270,33 @@ public class Incident {
      * @return JSON string representation
      */
     public String toJson() {
+        return toJson("\n  ", "\n");
+    }
+    
+    /**
+     * Converts the incident to JSON on a single line, as used by JSON Lines storage.
+     * Newlines inside values are escaped, so the result never spans lines.
+     * @return single-line JSON string representation
+     */
+    public String toJsonLine() {
+        return toJson(" ", " ");
+    }
+    
+    private String toJson(String fieldBreak, String endBreak) {
+        String idField = id == null ? "" : "\"id\": \"" + escapeJson(id) + "\"," + fieldBreak;
+        // Transition times are only written once known, so older readers see the usual fields
+        String timeFields = timeField("respondedAt", respondedAt, fieldBreak)
+                            + timeField("resolvedAt", resolvedAt, fieldBreak);
         return String.format(
-            "{\n" +
-            "  \"type\": \"%s\",\n" +
-            "  \"location\": \"%s\",\n" +
-            "  \"description\": \"%s\",\n" +
-            "  \"reporter\": \"%s\",\n" +
-            "  \"contact\": \"%s\",\n" +
-            "  \"status\": \"%s\",\n" +
-            "  \"date\": \"%s\"\n" +
+            "{" + fieldBreak +
+            idField.replace("%", "%%") +
+            "\"type\": \"%s\"," + fieldBreak +
+            "\"location\": \"%s\"," + fieldBreak +
+            "\"description\": \"%s\"," + fieldBreak +
+            "\"reporter\": \"%s\"," + fieldBreak +
+            "\"contact\": \"%s\"," + fieldBreak +
+            "\"status\": \"%s\"," + fieldBreak +
+            "\"date\": \"%s\"" + timeFields.replace("%", "%%") + endBreak +
             "}",
             escapeJson(type),
             escapeJson(location),
@@ -136,10 +304,15 @@ public class Incident {
             escapeJson(reporter),
             escapeJson(contact),
             escapeJson(status),
-            escapeJson(date)
+            escapeJson(getDate())
         );
     }
     
+    private static String timeField(String name, long time, String fieldBreak) {
+        return time == ReportDates.UNKNOWN ? ""
+            : "," + fieldBreak + "\"" + name + "\": \"" + ReportDates.formatReportDate(time) + "\"";
+    }
+    
     private String escapeJson(String value) {
         if (value == null) return "";
         return value.replace("\\", "\\\\")
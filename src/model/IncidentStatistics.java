@@ -1,21 +1,29 @@
 package model;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
 /**
  * Model class for holding incident statistics.
  * Follows Encapsulation principle.
+ *
+ * Counts are kept per type and per status name, ignoring case, so categories
+ * without a dedicated getter (such as "Landslide") are kept as well. In-memory
+ * repositories fill it from the roll-ups of their count cube; the named
+ * getters read the dashboard categories from those counts.
+ *
+ * Statistics are an accumulator: add counts one incident and merge adds
+ * another object's counts. Merging is associative, so partial statistics
+ * over parts of a list can be computed on separate threads and combined in
+ * any grouping (see collector()).
  */
 public class IncidentStatistics {
     
     private int totalIncidents;
-    private int pendingCount;
-    private int respondingCount;
-    private int resolvedCount;
-    
-    private int fireCount;
-    private int floodCount;
-    private int accidentCount;
-    private int crimeCount;
-    private int medicalCount;
+    private final Map<String, Integer> typeCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, Integer> statusCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     
     // ==================== Constructors ====================
     
@@ -34,67 +42,99 @@ public class IncidentStatistics {
     }
     
     public int getPendingCount() {
-        return pendingCount;
+        return getStatusCount("Pending");
     }
     
     public void setPendingCount(int pendingCount) {
-        this.pendingCount = pendingCount;
+        statusCounts.put("Pending", pendingCount);
     }
     
     public int getRespondingCount() {
-        return respondingCount;
+        return getStatusCount("Responding");
     }
     
     public void setRespondingCount(int respondingCount) {
-        this.respondingCount = respondingCount;
+        statusCounts.put("Responding", respondingCount);
     }
     
     public int getResolvedCount() {
-        return resolvedCount;
+        return getStatusCount("Resolved");
     }
     
     public void setResolvedCount(int resolvedCount) {
-        this.resolvedCount = resolvedCount;
+        statusCounts.put("Resolved", resolvedCount);
     }
     
     public int getFireCount() {
-        return fireCount;
+        return getTypeCount("Fire");
     }
     
     public void setFireCount(int fireCount) {
-        this.fireCount = fireCount;
+        typeCounts.put("Fire", fireCount);
     }
     
     public int getFloodCount() {
-        return floodCount;
+        return getTypeCount("Flood");
     }
     
     public void setFloodCount(int floodCount) {
-        this.floodCount = floodCount;
+        typeCounts.put("Flood", floodCount);
     }
     
     public int getAccidentCount() {
-        return accidentCount;
+        return getTypeCount("Accident");
     }
     
     public void setAccidentCount(int accidentCount) {
-        this.accidentCount = accidentCount;
+        typeCounts.put("Accident", accidentCount);
     }
     
     public int getCrimeCount() {
-        return crimeCount;
+        return getTypeCount("Crime");
     }
     
     public void setCrimeCount(int crimeCount) {
-        this.crimeCount = crimeCount;
+        typeCounts.put("Crime", crimeCount);
     }
     
     public int getMedicalCount() {
-        return medicalCount;
+        return getTypeCount("Medical");
     }
     
     public void setMedicalCount(int medicalCount) {
-        this.medicalCount = medicalCount;
+        typeCounts.put("Medical", medicalCount);
+    }
+    
+    /**
+     * Get the count for any incident type.
+     * @param type The type of incident, ignoring case
+     * @return number of incidents of that type
+     */
+    public int getTypeCount(String type) {
+        return type == null ? 0 : typeCounts.getOrDefault(type, 0);
+    }
+    
+    /**
+     * Get the count for any status.
+     * @param status The status, ignoring case
+     * @return number of incidents with that status
+     */
+    public int getStatusCount(String status) {
+        return status == null ? 0 : statusCounts.getOrDefault(status, 0);
+    }
+    
+    /**
+     * @return counts of every type seen, sorted by type name
+     */
+    public Map<String, Integer> getTypeCounts() {
+        return Collections.unmodifiableMap(typeCounts);
+    }
+    
+    /**
+     * @return counts of every status seen, sorted by status name
+     */
+    public Map<String, Integer> getStatusCounts() {
+        return Collections.unmodifiableMap(statusCounts);
     }
     
     // ==================== Business Logic ====================
@@ -104,12 +144,17 @@ public class IncidentStatistics {
      * @param type The type of incident
      */
     public void incrementTypeCount(String type) {
-        switch (type.toLowerCase()) {
-            case "fire" -> fireCount++;
-            case "flood" -> floodCount++;
-            case "accident" -> accidentCount++;
-            case "crime" -> crimeCount++;
-            case "medical" -> medicalCount++;
+        addTypeCount(type, 1);
+    }
+    
+    /**
+     * Add to the count for a specific incident type.
+     * @param type The type of incident
+     * @param count Number of incidents of that type
+     */
+    public void addTypeCount(String type, int count) {
+        if (type != null) {
+            typeCounts.merge(type, count, Integer::sum);
         }
     }
     
@@ -118,10 +163,17 @@ public class IncidentStatistics {
      * @param status The status of incident
      */
     public void incrementStatusCount(String status) {
-        switch (status.toLowerCase()) {
-            case "pending" -> pendingCount++;
-            case "responding" -> respondingCount++;
-            case "resolved" -> resolvedCount++;
+        addStatusCount(status, 1);
+    }
+    
+    /**
+     * Add to the count for a specific status.
+     * @param status The status of incident
+     * @param count Number of incidents with that status
+     */
+    public void addStatusCount(String status, int count) {
+        if (status != null) {
+            statusCounts.merge(status, count, Integer::sum);
         }
     }
     
@@ -131,4 +183,36 @@ public class IncidentStatistics {
     public void incrementTotal() {
         totalIncidents++;
     }
-}
+    
+    /**
+     * Count one incident in the total, its type and its status.
+     * @param incident The incident
+     */
+    public void add(Incident incident) {
+        totalIncidents++;
+        addTypeCount(incident.getType(), 1);
+        addStatusCount(incident.getStatus(), 1);
+    }
+    
+    /**
+     * Add the counts of other statistics to these.
+     * @param other Statistics over other incidents
+     * @return this object, for use as a combiner
+     */
+    public IncidentStatistics merge(IncidentStatistics other) {
+        totalIncidents += other.totalIncidents;
+        other.typeCounts.forEach(this::addTypeCount);
+        other.statusCounts.forEach(this::addStatusCount);
+        return this;
+    }
+    
+    /**
+     * Collector counting the incidents of a stream. On a parallel stream each
+     * thread counts its own part and the parts are merged.
+     * @return the collector
+     */
+    public static Collector<Incident, ?, IncidentStatistics> collector() {
+        return Collector.of(IncidentStatistics::new, IncidentStatistics::add, IncidentStatistics::merge,
+                            Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+}
\ No newline at end of file
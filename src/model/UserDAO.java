@@ -1,12 +1,18 @@
 package model;
 
+import util.AtomicFiles;
+import util.DurabilityPolicy;
+
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserDAO {
     // path to the file where users are stored
     private final String filePath = "UserDatabase.json";
+    // whether saves are forced to disk, see DurabilityPolicy
+    private final DurabilityPolicy durability = DurabilityPolicy.configured();
 
     public List<User> loadUsers() {
         List<User> users = new ArrayList<>();
@@ -40,19 +46,22 @@ public class UserDAO {
     }
 
     public void saveUsers(List<User> users) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            // manually write the json file structure
-            writer.write("{\n  \"users\": [\n");
-            for (int i = 0; i < users.size(); i++) {
-                User u = users.get(i);
-                // format and write each user object
-                writer.write(String.format(
-                    "    {\n      \"username\": \"%s\",\n      \"password\": \"%s\",\n      \"firstName\": \"%s\",\n      \"lastName\": \"%s\"\n    }%s\n",
-                    u.getUsername(), u.getPassword(), u.getFirstName(), u.getLastName(),
-                    (i < users.size() - 1 ? "," : "")
-                ));
-            }
-            writer.write("  ]\n}");
+        try {
+            // write to a temp file and rename it over the old one, so a crash never loses every account
+            AtomicFiles.writeText(Paths.get(filePath), writer -> {
+                // manually write the json file structure
+                writer.write("{\n  \"users\": [\n");
+                for (int i = 0; i < users.size(); i++) {
+                    User u = users.get(i);
+                    // format and write each user object
+                    writer.write(String.format(
+                        "    {\n      \"username\": \"%s\",\n      \"password\": \"%s\",\n      \"firstName\": \"%s\",\n      \"lastName\": \"%s\"\n    }%s\n",
+                        u.getUsername(), u.getPassword(), u.getFirstName(), u.getLastName(),
+                        (i < users.size() - 1 ? "," : "")
+                    ));
+                }
+                writer.write("  ]\n}");
+            }, durability.forcesRewrites());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,242 @@
+package service;
+
+import model.Incident;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Group-commit writer stage in front of an IIncidentRepository.
+ *
+ * Callers enqueue incidents and receive a future for their own result. A
+ * single writer thread drains the queue and commits everything waiting in one
+ * saveIncidents call, so a surge of reports costs one write (and at most one
+ * flush) per batch instead of one file open, write and close per report.
+ *
+ * Reads pass straight through to the wrapped repository, so this class can be
+ * used wherever an IIncidentRepository is expected; saveIncident then blocks
+ * until the batch holding the incident has been committed.
+ */
+public class BatchingIncidentWriter implements IIncidentRepository, Closeable {
+    
+    /** Default time the first queued incident waits for others to join its batch */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 2;
+    
+    /** Default upper bound on the number of incidents committed together */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    
+    /** Queued by close() to tell the writer thread to finish */
+    private static final PendingWrite STOP = new PendingWrite(null);
+    
+    private final IIncidentRepository delegate;
+    private final long maxDelayMillis;
+    private final int maxBatchSize;
+    private final boolean force;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    
+    private volatile boolean closed;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * @param delegate Repository that actually stores the incidents
+     */
+    public BatchingIncidentWriter(IIncidentRepository delegate) {
+        this(delegate, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_BATCH_SIZE, false);
+    }
+    
+    /**
+     * @param delegate Repository that actually stores the incidents
+     * @param maxDelayMillis Longest time a queued incident waits for others before it is committed
+     * @param maxBatchSize Maximum number of incidents committed in one write
+     * @param force Whether each batch is flushed to the storage device before it completes
+     */
+    public BatchingIncidentWriter(IIncidentRepository delegate, long maxDelayMillis,
+                                  int maxBatchSize, boolean force) {
+        this.delegate = delegate;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.force = force;
+        this.writer = new Thread(this::run, "incident-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    // ==================== Interface Implementation ====================
+    
+    @Override
+    public List<Incident> loadAllIncidents() {
+        return delegate.loadAllIncidents();
+    }
+    
+    /**
+     * Queues the incident and waits for its batch to be committed.
+     *
+     * @param incident the incident to save
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public boolean saveIncident(Incident incident) {
+        return submit(incident).join();
+    }
+    
+    @Override
+    public List<Incident> getFilteredIncidents(String typeFilter, String statusFilter,
+                                               String locationFilter, String searchText) {
+        return delegate.getFilteredIncidents(typeFilter, statusFilter, locationFilter, searchText);
+    }
+    
+    @Override
+    public List<Incident> query(IncidentQuery query) {
+        return delegate.query(query);
+    }
+    
+    @Override
+    public Stream<Incident> streamIncidents() {
+        return delegate.streamIncidents();
+    }
+    
+    @Override
+    public long count(IncidentFilter filter) {
+        return delegate.count(filter);
+    }
+    
+    @Override
+    public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        return delegate.getPage(filter, cursor, pageSize);
+    }
+    
+    @Override
+    public Incident findById(String id) {
+        return delegate.findById(id);
+    }
+    
+    /**
+     * Updates directly through the wrapped repository. An incident passed to
+     * submit must have been committed (its future completed) before its
+     * status can be changed.
+     */
+    @Override
+    public boolean updateStatus(String id, String status, long changedAt) {
+        return delegate.updateStatus(id, status, changedAt);
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Queues an incident for the next batch.
+     * @param incident The incident to save
+     * @return future completed with true once the incident is stored, or false if saving failed
+     */
+    public CompletableFuture<Boolean> submit(Incident incident) {
+        if (incident == null || closed) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        PendingWrite pending = new PendingWrite(incident);
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            // Closed while we were enqueuing and the writer has already drained
+            pending.result.complete(false);
+        }
+        return pending.result;
+    }
+    
+    /**
+     * Stops accepting incidents, commits everything already queued and stops
+     * the writer thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // A marker instead of an interrupt, which would close the delegate's file channel
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // ==================== Writer Thread ====================
+    
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+                collect(batch);
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+            stopping |= batch.remove(STOP);
+            commit(batch);
+            batch.clear();
+        }
+    }
+    
+    /** Waits up to the flush delay for more incidents to join the batch */
+    private void collect(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || batch.contains(STOP)) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            if (next == STOP) {
+                return;
+            }
+        }
+    }
+    
+    private void commit(List<PendingWrite> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        List<Incident> incidents = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            incidents.add(pending.incident);
+        }
+        
+        boolean saved;
+        try {
+            saved = delegate.saveIncidents(incidents, force);
+        } catch (RuntimeException e) {
+            System.err.println("Error saving incident batch: " + e.getMessage());
+            e.printStackTrace();
+            saved = false;
+        }
+        for (PendingWrite pending : batch) {
+            pending.result.complete(saved);
+        }
+    }
+    
+    // ==================== Pending Write ====================
+    
+    /**
+     * An incident waiting in the queue together with its caller's future.
+     */
+    private static class PendingWrite {
+        
+        final Incident incident;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        
+        PendingWrite(Incident incident) {
+            this.incident = incident;
+        }
+    }
+}
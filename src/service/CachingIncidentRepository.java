@@ -0,0 +1,425 @@
+package service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Caching decorator for IIncidentRepository.
+ * Keeps a parsed snapshot of all incidents in memory and only reloads from the
+ * wrapped repository after the backing file changes (detected by modification
+ * time and size). Filtering runs entirely against the in-memory snapshot.
+ *
+ * When given an IncidentSnapshotFile, a fresh binary snapshot is loaded in
+ * place of parsing the data file, and the snapshot is rewritten periodically
+ * and on clean shutdown.
+ *
+ * Status updates go through the wrapped repository and replace the cached
+ * incident with an updated copy. The status log kept beside the data file
+ * counts as part of the source, so changes to either one are noticed.
+ *
+ * An id-to-slot index over the snapshot answers findById without a scan;
+ * bitmap, full-text and time indexes narrow queries to candidate incidents
+ * instead of comparing every incident, and answer date-ordered queries
+ * without sorting. Results of recent queries are kept in an LRU cache that
+ * every change to the snapshot invalidates. A count cube over type, status,
+ * location and day is updated on every write and stored in the binary
+ * snapshot, so statistics and cross-tabs never need a pass over the
+ * incidents; sliding-window rollups answer "last hour / day / week" counts.
+ * These indexes also back its IIncidentAnalytics implementation. Each index
+ * is built on first use, so a snapshot load is not held up by indexes the
+ * first screen does not need.
+ */
+public class CachingIncidentRepository implements IIncidentRepository, IIncidentAnalytics {
+    
+    /** Default minimum time between checks of the backing file */
+    public static final long DEFAULT_RECHECK_MILLIS = 1000;
+    
+    private final IIncidentRepository delegate;
+    private final Path source;
+    private final Path statusLog;
+    private final long recheckMillis;
+    private final IncidentSnapshotFile snapshotFile;
+    
+    private List<Incident> snapshot;
+    private Map<String, Integer> slots;
+    private IncidentIndexes indexes;
+    private final IncidentQueryCache queryCache;
+    private boolean snapshotDirty;
+    private long sourceModified;
+    private long sourceSize;
+    private long lastCheck;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * @param delegate Repository that actually reads and writes the data
+     * @param source File backing the delegate, watched for external changes
+     */
+    public CachingIncidentRepository(IIncidentRepository delegate, Path source) {
+        this(delegate, source, DEFAULT_RECHECK_MILLIS);
+    }
+    
+    /**
+     * @param delegate Repository that actually reads and writes the data
+     * @param source File backing the delegate, watched for external changes
+     * @param recheckMillis Minimum time between checks of the file; 0 checks on every call
+     */
+    public CachingIncidentRepository(IIncidentRepository delegate, Path source, long recheckMillis) {
+        this(delegate, source, recheckMillis, null);
+    }
+    
+    /**
+     * @param delegate Repository that actually reads and writes the data
+     * @param source File backing the delegate, watched for external changes
+     * @param recheckMillis Minimum time between checks of the file; 0 checks on every call
+     * @param snapshotFile Binary snapshot used for fast startup, or null for none
+     */
+    public CachingIncidentRepository(IIncidentRepository delegate, Path source, long recheckMillis,
+                                     IncidentSnapshotFile snapshotFile) {
+        this.delegate = delegate;
+        this.source = source;
+        this.statusLog = IncidentStatusLog.pathFor(source);
+        this.recheckMillis = recheckMillis;
+        this.snapshotFile = snapshotFile;
+        this.queryCache = new IncidentQueryCache(IncidentQueryCache.DEFAULT_CAPACITY);
+    }
+    
+    // ==================== Interface Implementation ====================
+    
+    @Override
+    public synchronized List<Incident> loadAllIncidents() {
+        ensureFresh();
+        return new ArrayList<>(snapshot);
+    }
+    
+    /**
+     * Saves through the wrapped repository and adds the incident to the
+     * snapshot directly, so the write does not trigger a reload.
+     */
+    @Override
+    public synchronized boolean saveIncident(Incident incident) {
+        boolean stale = snapshot == null || sourceChanged();
+        
+        if (!delegate.saveIncident(incident)) {
+            return false;
+        }
+        
+        if (stale) {
+            reload();
+        } else {
+            addToSnapshot(incident);
+            recordSourceState();
+        }
+        snapshotDirty = true;
+        return true;
+    }
+    
+    /**
+     * Saves the batch through the wrapped repository and adds it to the
+     * snapshot directly.
+     */
+    @Override
+    public synchronized boolean saveIncidents(List<Incident> incidents, boolean force) {
+        boolean stale = snapshot == null || sourceChanged();
+        
+        if (!delegate.saveIncidents(incidents, force)) {
+            return false;
+        }
+        
+        if (stale) {
+            reload();
+        } else {
+            incidents.forEach(this::addToSnapshot);
+            recordSourceState();
+        }
+        snapshotDirty = true;
+        return true;
+    }
+    
+    @Override
+    public List<Incident> getFilteredIncidents(String typeFilter, String statusFilter,
+                                               String locationFilter, String searchText) {
+        return query(IncidentQuery.of(new IncidentFilter(typeFilter, statusFilter, locationFilter, searchText)));
+    }
+    
+    /**
+     * Answers repeated queries from the query cache; other queries are
+     * planned against the indexes and their results cached.
+     */
+    @Override
+    public synchronized List<Incident> query(IncidentQuery query) {
+        ensureFresh();
+        List<Incident> cached = queryCache.get(query);
+        if (cached != null) {
+            return cached;
+        }
+        List<Incident> result = indexes.plan(query).execute(snapshot);
+        queryCache.put(query, result);
+        return result;
+    }
+    
+    /**
+     * Streams a point-in-time copy of the snapshot, so later saves do not
+     * disturb a stream that is still being consumed.
+     */
+    @Override
+    public synchronized Stream<Incident> streamIncidents() {
+        ensureFresh();
+        return new ArrayList<>(snapshot).stream();
+    }
+    
+    @Override
+    public synchronized long count(IncidentFilter filter) {
+        ensureFresh();
+        return indexes.plan(IncidentQuery.of(filter)).count(snapshot);
+    }
+    
+    @Override
+    public synchronized IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        ensureFresh();
+        IncidentQueryPlan plan = indexes.plan(IncidentQuery.of(filter));
+        return IncidentPage.fromBitmap(snapshot, plan.candidates(snapshot.size()), plan::verify, cursor, pageSize);
+    }
+    
+    /**
+     * Updates through the wrapped repository and replaces the cached incident
+     * with an updated copy, so the change does not trigger a reload.
+     */
+    @Override
+    public synchronized boolean updateStatus(String id, String status, long changedAt) {
+        boolean stale = snapshot == null || sourceChanged();
+        
+        if (!delegate.updateStatus(id, status, changedAt)) {
+            return false;
+        }
+        
+        Integer slot = stale ? null : slots.get(id);
+        if (slot == null) {
+            reload();
+        } else {
+            Incident updated = snapshot.get(slot).withStatus(status, changedAt);
+            indexes.replaced(slot, snapshot.get(slot), updated);
+            snapshot.set(slot, updated);
+            queryCache.invalidate();
+            recordSourceState();
+        }
+        snapshotDirty = true;
+        return true;
+    }
+    
+    @Override
+    public synchronized Incident findById(String id) {
+        ensureFresh();
+        Integer slot = id == null ? null : slots.get(id);
+        return slot == null ? null : snapshot.get(slot);
+    }
+    
+    /**
+     * Rolls up the live count cube instead of counting the snapshot.
+     */
+    @Override
+    public synchronized IncidentStatistics getStatistics() {
+        ensureFresh();
+        return indexes.cube().statistics();
+    }
+    
+    @Override
+    public synchronized Map<String, Integer> rollUp(IncidentCube.Dimension dimension, IncidentCube.Slice slice) {
+        ensureFresh();
+        return indexes.cube().rollUp(dimension, slice);
+    }
+    
+    @Override
+    public synchronized IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window) {
+        ensureFresh();
+        return indexes.rollups().counts(window);
+    }
+    
+    @Override
+    public synchronized IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before) {
+        ensureFresh();
+        return indexes.sketches().summarize(from, before);
+    }
+    
+    @Override
+    public synchronized IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric) {
+        ensureFresh();
+        return indexes.responseTimes().breakdown(metric);
+    }
+    
+    @Override
+    public synchronized IncidentSurgeDetector.Status getSurgeStatus() {
+        ensureFresh();
+        return indexes.surges().status();
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Drops the snapshot so the next call reloads from the wrapped repository.
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+        slots = null;
+        indexes = null;
+        queryCache.invalidate();
+    }
+    
+    /**
+     * @return hit, miss and eviction counters of the query result cache
+     */
+    public synchronized IncidentQueryCache.Stats getQueryCacheStats() {
+        return queryCache.getStats();
+    }
+    
+    /**
+     * Writes the binary snapshot if the in-memory data changed since it was
+     * last written and still matches the data file.
+     * @return true if a snapshot was written
+     */
+    public synchronized boolean writeSnapshot() {
+        if (snapshotFile == null || snapshot == null || !snapshotDirty || sourceChanged()) {
+            return false;
+        }
+        
+        try {
+            snapshotFile.write(snapshot, sourceModified, sourceSize);
+            snapshotDirty = false;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing incident snapshot: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Writes the snapshot every interval on a background thread and once more
+     * when the JVM shuts down cleanly.
+     * @param intervalMillis Time between snapshot writes
+     */
+    public void scheduleSnapshots(long intervalMillis) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "incident-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::writeSnapshot, intervalMillis, intervalMillis,
+                                         TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writeSnapshot, "incident-snapshot-shutdown"));
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Reloads the snapshot if it is missing or the file has changed */
+    private void ensureFresh() {
+        if (snapshot == null) {
+            reload();
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (now - lastCheck < recheckMillis) {
+            return;
+        }
+        lastCheck = now;
+        
+        if (sourceChanged()) {
+            reload();
+        }
+    }
+    
+    private void reload() {
+        recordSourceState();
+        
+        if (snapshotFile != null) {
+            IncidentSnapshotFile.Contents stored = snapshotFile.readContentsIfFresh(sourceModified, sourceSize);
+            if (stored != null) {
+                snapshot = stored.getIncidents();
+                snapshotDirty = false;
+                indexSlots(stored);
+                return;
+            }
+        }
+        
+        snapshot = new ArrayList<>(delegate.loadAllIncidents());
+        snapshotDirty = true;
+        indexSlots(null);
+    }
+    
+    /**
+     * Rebuilds the id-to-slot map and the indexes.
+     * @param stored Snapshot file contents the snapshot came from, or null to count it
+     */
+    private void indexSlots(IncidentSnapshotFile.Contents stored) {
+        slots = new HashMap<>(snapshot.size() * 2);
+        for (int i = 0; i < snapshot.size(); i++) {
+            String id = snapshot.get(i).getId();
+            if (id != null) {
+                slots.put(id, i);
+            }
+        }
+        indexes = IncidentIndexes.of(snapshot, stored);
+        queryCache.invalidate();
+    }
+    
+    private void addToSnapshot(Incident incident) {
+        if (incident.getId() != null) {
+            slots.put(incident.getId(), snapshot.size());
+        }
+        indexes.add(snapshot.size(), incident);
+        snapshot.add(incident);
+        queryCache.invalidate();
+    }
+    
+    private boolean sourceChanged() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long[] log = statusLogState();
+            return Math.max(attributes.lastModifiedTime().toMillis(), log[0]) != sourceModified
+                || attributes.size() + log[1] != sourceSize;
+        } catch (IOException e) {
+            // A missing file counts as changed only if we had seen it before
+            return sourceSize != -1;
+        }
+    }
+    
+    /**
+     * Records the state of the data file and its status log as one stamp:
+     * the later modification time and the combined size.
+     */
+    private void recordSourceState() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long[] log = statusLogState();
+            sourceModified = Math.max(attributes.lastModifiedTime().toMillis(), log[0]);
+            sourceSize = attributes.size() + log[1];
+        } catch (IOException e) {
+            sourceModified = -1;
+            sourceSize = -1;
+        }
+        lastCheck = System.currentTimeMillis();
+    }
+    
+    /** @return modification time and size of the status log, or zeros if there is none */
+    private long[] statusLogState() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(statusLog, BasicFileAttributes.class);
+            return new long[]{attributes.lastModifiedTime().toMillis(), attributes.size()};
+        } catch (IOException e) {
+            return new long[]{0, 0};
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min sketch: approximate counts of many keys in fixed memory.
+ *
+ * The sketch is depth rows of width counters. A key is hashed once to 64
+ * bits, and the two halves of the hash are combined to pick one counter
+ * per row; adding a key increments those counters, and its estimate is the
+ * smallest of them. Collisions can only add to a counter, so an estimate is
+ * never below the true count, and with the default 4 x 512 counters (8 KB)
+ * it exceeds it by more than 0.5% of all counts with probability under 2%.
+ *
+ * Sketches of the same shape merge by adding their counters. Not
+ * thread-safe; owners synchronize access.
+ */
+public class CountMinSketch {
+    
+    /** Default number of rows */
+    public static final int DEFAULT_DEPTH = 4;
+    
+    /** Default number of counters per row */
+    public static final int DEFAULT_WIDTH = 512;
+    
+    private final int depth;
+    private final int width;
+    private final int[] cells;
+    private long total;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Creates an empty sketch of the default shape.
+     */
+    public CountMinSketch() {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+    
+    /**
+     * @param depth Number of rows
+     * @param width Number of counters per row
+     */
+    public CountMinSketch(int depth, int width) {
+        this(depth, width, new int[checkShape(depth, width)]);
+    }
+    
+    /**
+     * Restores a sketch from counters read back from storage, row by row.
+     */
+    CountMinSketch(int depth, int width, int[] cells) {
+        if (cells.length != checkShape(depth, width)) {
+            throw new IllegalArgumentException("Expected " + depth * width + " counters: " + cells.length);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.cells = cells;
+        // Every key adds to exactly one counter of the first row
+        for (int i = 0; i < width; i++) {
+            total += cells[i];
+        }
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Counts one occurrence of a key.
+     */
+    public void add(String key) {
+        addHash(SketchHash.of(key), 1);
+    }
+    
+    /**
+     * @return the estimated number of occurrences of a key, never less than the true count
+     */
+    public int estimate(String key) {
+        return estimateHash(SketchHash.of(key));
+    }
+    
+    /**
+     * Adds another sketch's counts to this one.
+     * @param other Sketch of the same shape
+     * @return this sketch
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge a " + other.depth + "x" + other.width
+                                               + " sketch into " + depth + "x" + width);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] += other.cells[i];
+        }
+        total += other.total;
+        return this;
+    }
+    
+    /**
+     * @return an independent copy of this sketch
+     */
+    public CountMinSketch copy() {
+        return new CountMinSketch(depth, width, Arrays.copyOf(cells, cells.length));
+    }
+    
+    /**
+     * @return the number of occurrences counted, of all keys
+     */
+    public long getTotal() {
+        return total;
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    // ==================== Package Methods ====================
+    
+    /** The counters themselves, row by row, for storage */
+    int[] cells() {
+        return cells;
+    }
+    
+    void addHash(long hash, int count) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            cells[row * width + Math.floorMod(h1 + row * h2, width)] += count;
+        }
+        total += count;
+    }
+    
+    int estimateHash(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, cells[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return min;
+    }
+    
+    private static int checkShape(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Depth and width must be positive: " + depth + "x" + width);
+        }
+        return depth * width;
+    }
+}
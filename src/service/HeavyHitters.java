@@ -0,0 +1,193 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate top-K: the most frequent values of a stream, such as the
+ * barangays with the most reports, in fixed memory.
+ *
+ * Every value is counted in a Count-Min sketch. Next to it a bounded set of
+ * candidates holds the values with the highest estimates seen so far; a
+ * value that is not a candidate replaces the weakest one when its own
+ * estimate is higher. Values are matched ignoring case and surrounding
+ * spaces, and each candidate keeps the spelling it was first seen with.
+ * Candidates are keyed by their 64-bit hash, so counting a value that is
+ * already a candidate allocates nothing.
+ *
+ * Two instances of the same shape merge by adding their sketches and
+ * keeping the strongest of both candidate sets, re-estimated against the
+ * merged sketch. The top values can only be wrong when a value frequent
+ * overall was never frequent within any merged part. Not thread-safe;
+ * owners synchronize access.
+ */
+public class HeavyHitters {
+    
+    /** Default number of candidates kept, enough headroom for a top 10 */
+    public static final int DEFAULT_CAPACITY = 32;
+    
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<Long, Candidate> candidates = new HashMap<>();
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Creates an empty instance with the default sketch and capacity.
+     */
+    public HeavyHitters() {
+        this(new CountMinSketch(), DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * @param sketch Sketch to count in, usually empty
+     * @param capacity Number of candidates kept
+     */
+    public HeavyHitters(CountMinSketch sketch, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.sketch = sketch;
+        this.capacity = capacity;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Counts one occurrence of a value. Null and blank values are ignored.
+     */
+    public void add(String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String trimmed = value.trim();
+        long hash = SketchHash.ofIgnoreCase(trimmed);
+        sketch.addHash(hash, 1);
+        if (!candidates.containsKey(hash)) {
+            offer(new Candidate(trimmed, hash));
+        }
+    }
+    
+    /**
+     * @return the estimated number of occurrences of a value, ignoring case
+     */
+    public int estimate(String value) {
+        return value == null ? 0 : sketch.estimateHash(SketchHash.ofIgnoreCase(value.trim()));
+    }
+    
+    /**
+     * @param k Number of values wanted, at most the capacity
+     * @return the k values with the highest estimates and their estimates,
+     *         most frequent first, ties in alphabetical order
+     */
+    public Map<String, Integer> top(int k) {
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingInt((Candidate candidate) -> -sketch.estimateHash(candidate.hash))
+                              .thenComparing(candidate -> candidate.value, String.CASE_INSENSITIVE_ORDER));
+        
+        Map<String, Integer> top = new LinkedHashMap<>();
+        for (Candidate candidate : ranked.subList(0, Math.min(k, ranked.size()))) {
+            top.put(candidate.value, sketch.estimateHash(candidate.hash));
+        }
+        return top;
+    }
+    
+    /**
+     * Adds another instance's counts and candidates to this one.
+     * @param other Instance whose sketch has the same shape
+     * @return this instance
+     */
+    public HeavyHitters merge(HeavyHitters other) {
+        sketch.merge(other.sketch);
+        for (Candidate candidate : other.candidates.values()) {
+            if (!candidates.containsKey(candidate.hash)) {
+                offer(candidate);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * @return an independent copy of this instance
+     */
+    public HeavyHitters copy() {
+        HeavyHitters copy = new HeavyHitters(sketch.copy(), capacity);
+        copy.candidates.putAll(candidates);
+        return copy;
+    }
+    
+    /**
+     * @return the number of occurrences counted, of all values
+     */
+    public long getTotal() {
+        return sketch.getTotal();
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    // ==================== Package Methods ====================
+    
+    /** The sketch itself, for storage */
+    CountMinSketch sketch() {
+        return sketch;
+    }
+    
+    /** The candidate values as first seen, for storage */
+    List<String> candidateValues() {
+        List<String> values = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates.values()) {
+            values.add(candidate.value);
+        }
+        return values;
+    }
+    
+    /** Restores a candidate read back from storage */
+    void addCandidate(String value) {
+        String trimmed = value.trim();
+        offer(new Candidate(trimmed, SketchHash.ofIgnoreCase(trimmed)));
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Adds a value that is not a candidate, evicting the weakest one if it is stronger */
+    private void offer(Candidate candidate) {
+        if (candidates.size() < capacity) {
+            candidates.put(candidate.hash, candidate);
+            return;
+        }
+        Candidate weakest = null;
+        int weakestEstimate = Integer.MAX_VALUE;
+        for (Candidate existing : candidates.values()) {
+            int estimate = sketch.estimateHash(existing.hash);
+            if (estimate < weakestEstimate) {
+                weakest = existing;
+                weakestEstimate = estimate;
+            }
+        }
+        if (sketch.estimateHash(candidate.hash) > weakestEstimate) {
+            candidates.remove(weakest.hash);
+            candidates.put(candidate.hash, candidate);
+        }
+    }
+    
+    /**
+     * A value kept as a candidate, with its hash so that re-estimating it
+     * does not hash the string again.
+     */
+    private static class Candidate {
+        
+        final String value;
+        final long hash;
+        
+        Candidate(String value, long hash) {
+            this.value = value;
+            this.hash = hash;
+        }
+    }
+}
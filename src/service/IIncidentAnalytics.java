@@ -0,0 +1,62 @@
+package service;
+
+import model.IncidentStatistics;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Read-side analytics over stored incidents: counts, recent windows,
+ * sketches, response times and surge alerts.
+ * Kept apart from IIncidentRepository (Interface Segregation Principle) so
+ * storage implementations only deal with storage. Repositories holding their
+ * incidents in memory implement it from live indexes; IncidentService falls
+ * back to ScanningIncidentAnalytics for any other repository.
+ */
+public interface IIncidentAnalytics {
+    
+    /**
+     * Count incidents by type and status for the dashboard.
+     * @return a new statistics object; changing it does not affect the store
+     */
+    IncidentStatistics getStatistics();
+    
+    /**
+     * Count incidents in a slice grouped by one dimension, for cross-tabs
+     * such as pending floods per location.
+     * @param dimension Dimension to group by
+     * @param slice Type, status, location and report days to count
+     * @return counts by value, ignoring case and sorted by value
+     */
+    Map<String, Integer> rollUp(IncidentCube.Dimension dimension, IncidentCube.Slice slice);
+    
+    /**
+     * Count reports made in a recent window, in total, by type and by location.
+     * @param window The window, ending now
+     * @return the counts
+     */
+    IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window);
+    
+    /**
+     * Estimate distinct contact numbers and reporters and the most reported
+     * locations and types over a date range, counted in whole weeks.
+     * @param from First report day, or null for no lower bound
+     * @param before Day after the last report day, or null for no upper bound
+     * @return the summary
+     */
+    IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before);
+    
+    /**
+     * Read p50, p90 and p99 of time to respond or time to resolve, in total,
+     * by type and by location.
+     * @param metric Time to respond or time to resolve
+     * @return the percentiles
+     */
+    IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric);
+    
+    /**
+     * Read the current surge alert levels, for the municipality, per barangay
+     * and per barangay and type.
+     * @return the overall level and the raised series
+     */
+    IncidentSurgeDetector.Status getSurgeStatus();
+}
@@ -1,7 +1,11 @@
 package service;
 
 import model.Incident;
+import util.ReportDates;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Incident data operations.
@@ -23,6 +27,21 @@ public interface IIncidentRepository {
      */
     boolean saveIncident(Incident incident);
     
+    /**
+     * Save several incidents as one batch.
+     * Implementations should commit the whole batch in a single write.
+     * @param incidents The incidents to save
+     * @param force Whether the batch must reach the storage device before returning
+     * @return true if every incident was saved, false otherwise
+     */
+    default boolean saveIncidents(List<Incident> incidents, boolean force) {
+        boolean saved = true;
+        for (Incident incident : incidents) {
+            saved &= saveIncident(incident);
+        }
+        return saved;
+    }
+    
     /**
      * Get filtered incidents based on criteria.
      * @param typeFilter Type filter or null for all
@@ -33,4 +52,105 @@ public interface IIncidentRepository {
      */
     List<Incident> getFilteredIncidents(String typeFilter, String statusFilter, 
                                         String locationFilter, String searchText);
+    
+    /**
+     * Run a query: criteria, report date range, order and limit.
+     * Implementations with indexes should use them to find candidates; the
+     * default checks every incident, stopping early when a storage-order
+     * query reaches its limit.
+     * @param query The query
+     * @return matching incidents, ordered and limited as the query asks
+     */
+    default List<Incident> query(IncidentQuery query) {
+        try (Stream<Incident> incidents = streamIncidents()) {
+            return query.execute(incidents);
+        }
+    }
+    
+    /**
+     * Run a query and map each result, e.g. to the fields a table shows.
+     * @param query The query
+     * @param projection Mapping applied to each matching incident
+     * @return the mapped results, in the query's order
+     */
+    default <T> List<T> query(IncidentQuery query, Function<? super Incident, ? extends T> projection) {
+        List<Incident> matches = query(query);
+        List<T> projected = new ArrayList<>(matches.size());
+        for (Incident incident : matches) {
+            projected.add(projection.apply(incident));
+        }
+        return projected;
+    }
+    
+    /**
+     * Stream all incidents lazily, in storage order.
+     * File-backed implementations read records as the stream is consumed, so
+     * the stream must be closed (for example with try-with-resources).
+     * @return stream of all incidents
+     */
+    default Stream<Incident> streamIncidents() {
+        return loadAllIncidents().stream();
+    }
+    
+    /**
+     * Count the incidents matching a filter without building a list.
+     * @param filter Criteria to match
+     * @return number of matching incidents
+     */
+    default long count(IncidentFilter filter) {
+        try (Stream<Incident> incidents = streamIncidents()) {
+            return incidents.filter(filter).count();
+        }
+    }
+    
+    /**
+     * Get one page of incidents matching a filter, resuming after the previous page.
+     * @param filter Criteria to match
+     * @param cursor IncidentPage.FIRST, or the previous page's next cursor
+     * @param pageSize Maximum number of incidents to return
+     * @return the page and the cursor of the next one
+     */
+    default IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        return IncidentPage.fromList(loadAllIncidents(), filter, cursor, pageSize);
+    }
+    
+    /**
+     * Change the status of an incident, e.g. from Pending to Responding,
+     * recording the change as made now.
+     * @param id Incident id
+     * @param status New status
+     * @return true if updated, false if the incident does not exist, writing
+     *         failed, or the store does not support updates
+     */
+    default boolean updateStatus(String id, String status) {
+        return updateStatus(id, status, ReportDates.now());
+    }
+    
+    /**
+     * Change the status of an incident and record when the change was made.
+     * Stores should record the change without rewriting every incident, and
+     * keep the first time the incident reached Responding and Resolved.
+     * @param id Incident id
+     * @param status New status
+     * @param changedAt Time of the change (see ReportDates)
+     * @return true if updated, false if the incident does not exist, writing
+     *         failed, or the store does not support updates
+     */
+    default boolean updateStatus(String id, String status, long changedAt) {
+        return false;
+    }
+    
+    /**
+     * Find an incident by its id.
+     * @param id Incident id
+     * @return the incident, or null if there is none with that id
+     */
+    default Incident findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        try (Stream<Incident> incidents = streamIncidents()) {
+            return incidents.filter(incident -> id.equals(incident.getId())).findFirst().orElse(null);
+        }
+    }
 }
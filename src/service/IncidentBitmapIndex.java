@@ -0,0 +1,147 @@
+package service;
+
+import model.Incident;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bitmap indexes over the low-cardinality incident columns: type, status
+ * and location.
+ *
+ * Each distinct value (compared ignoring case, like IncidentFilter) owns a
+ * BitSet with one bit per slot of an in-memory incident list. A combined
+ * filter resolves to the intersection of at most three bitmaps, so the cost
+ * depends on the list size divided by 64 rather than on per-incident string
+ * comparisons. Not thread-safe; owners synchronize access.
+ */
+public class IncidentBitmapIndex {
+    
+    private final Map<String, BitSet> types = new HashMap<>();
+    private final Map<String, BitSet> statuses = new HashMap<>();
+    private final Map<String, BitSet> locations = new HashMap<>();
+    private int size;
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Builds an index over a list, using list positions as slots.
+     * @param incidents Incidents to index
+     * @return the index
+     */
+    public static IncidentBitmapIndex of(List<Incident> incidents) {
+        IncidentBitmapIndex index = new IncidentBitmapIndex();
+        for (int i = 0; i < incidents.size(); i++) {
+            index.add(i, incidents.get(i));
+        }
+        return index;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Indexes an incident stored at a slot.
+     * @param slot Position of the incident in the owner's list
+     * @param incident The incident
+     */
+    public void add(int slot, Incident incident) {
+        bitmap(types, incident.getType()).set(slot);
+        bitmap(statuses, incident.getStatus()).set(slot);
+        bitmap(locations, incident.getLocation()).set(slot);
+        size = Math.max(size, slot + 1);
+    }
+    
+    /**
+     * Moves a slot from one status bitmap to another.
+     * @param slot Position of the incident
+     * @param oldStatus Status before the change
+     * @param newStatus Status after the change
+     */
+    public void statusChanged(int slot, String oldStatus, String newStatus) {
+        BitSet old = statuses.get(key(oldStatus));
+        if (old != null) {
+            old.clear(slot);
+        }
+        bitmap(statuses, newStatus).set(slot);
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Resolves the type, status and location criteria of a filter. Search
+     * text is not indexed here and still has to be checked per candidate.
+     * @param filter Criteria to match
+     * @return a new bitmap of the matching slots
+     */
+    public BitSet select(IncidentFilter filter) {
+        BitSet result = null;
+        result = intersect(result, types, filter.getTypeFilter());
+        result = intersect(result, statuses, filter.getStatusFilter());
+        result = intersect(result, locations, filter.getLocationFilter());
+        
+        if (result == null) {
+            result = new BitSet(size);
+            result.set(0, size);
+        }
+        return result;
+    }
+    
+    /**
+     * Estimates how many slots select would return: the size of the smallest
+     * bitmap among the criteria set, which bounds their intersection.
+     * @param filter Criteria to match
+     * @return the estimate, or -1 if the filter sets no column criteria
+     */
+    public int estimate(IncidentFilter filter) {
+        int estimate = -1;
+        estimate = smallest(estimate, types, filter.getTypeFilter());
+        estimate = smallest(estimate, statuses, filter.getStatusFilter());
+        estimate = smallest(estimate, locations, filter.getLocationFilter());
+        return estimate;
+    }
+    
+    /**
+     * @return number of slots indexed
+     */
+    public int size() {
+        return size;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** ANDs the bitmap for a criterion into the result; a null criterion leaves it unchanged */
+    private static BitSet intersect(BitSet result, Map<String, BitSet> column, String criterion) {
+        if (criterion == null) {
+            return result;
+        }
+        BitSet bits = column.get(key(criterion));
+        if (bits == null) {
+            return new BitSet();
+        }
+        if (result == null) {
+            return (BitSet) bits.clone();
+        }
+        result.and(bits);
+        return result;
+    }
+    
+    /** Lowers the estimate to the size of a criterion's bitmap; a null criterion leaves it unchanged */
+    private static int smallest(int estimate, Map<String, BitSet> column, String criterion) {
+        if (criterion == null) {
+            return estimate;
+        }
+        BitSet bits = column.get(key(criterion));
+        int size = bits == null ? 0 : bits.cardinality();
+        return estimate < 0 ? size : Math.min(estimate, size);
+    }
+    
+    private static BitSet bitmap(Map<String, BitSet> column, String value) {
+        return column.computeIfAbsent(key(value), k -> new BitSet());
+    }
+    
+    private static String key(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
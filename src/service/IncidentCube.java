@@ -0,0 +1,447 @@
+package service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import util.ReportDates;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Count cube over the incidents of an in-memory store: the number of
+ * incidents for every combination of type, status, location and report day.
+ *
+ * Each dimension has a dictionary mapping its values, exactly as stored, to
+ * dense ids, and the counts live in a flat int array indexed by those ids,
+ * with days innermost. A second array holds the totals over all days, so
+ * slices without a date range only touch type x status x location cells.
+ * Recording a save or a status change is a few hash lookups and increments.
+ * When a dimension runs out of ids its capacity doubles and the cells are
+ * copied into the larger layout, so new categories such as "Landslide" are
+ * counted like any other.
+ *
+ * Slices and roll-ups match and group values ignoring case, like
+ * IncidentFilter. Incidents without a readable date are counted in a day
+ * bucket of their own that never matches a date range. Not thread-safe;
+ * owners synchronize access.
+ */
+public class IncidentCube {
+    
+    /** Dimensions counts can be grouped by */
+    public enum Dimension {
+        TYPE, STATUS, LOCATION,
+        /** Report day, as an ISO date */
+        DAY
+    }
+    
+    /** Day bucket of incidents without a readable date */
+    private static final long UNDATED = Long.MIN_VALUE;
+    
+    private final Dictionary types = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary locations = new Dictionary();
+    private final Map<Long, Integer> dayIds = new HashMap<>();
+    private long[] days = new long[16];
+    private int dayCount;
+    private long lastDay = UNDATED;
+    private int lastDayId = -1;
+    
+    private int typeCapacity = 8;
+    private int statusCapacity = 4;
+    private int locationCapacity = 16;
+    private int dayCapacity = 16;
+    private int[] totals = new int[typeCapacity * statusCapacity * locationCapacity];
+    private int[] cells = new int[totals.length * dayCapacity];
+    private int total;
+    
+    // ==================== Factory Methods ====================
+    
+    /**
+     * Counts the incidents of a list.
+     * @param incidents Incidents to count
+     * @return the cube
+     */
+    public static IncidentCube of(List<Incident> incidents) {
+        IncidentCube cube = new IncidentCube();
+        for (Incident incident : incidents) {
+            cube.add(incident);
+        }
+        return cube;
+    }
+    
+    /**
+     * Creates an empty cube with dictionaries read back from storage, for
+     * restoring counts with addCount.
+     */
+    static IncidentCube withDictionaries(String[] types, String[] statuses, String[] locations, long[] days) {
+        IncidentCube cube = new IncidentCube();
+        for (String type : types) {
+            cube.types.id(type);
+        }
+        for (String status : statuses) {
+            cube.statuses.id(status);
+        }
+        for (String location : locations) {
+            cube.locations.id(location);
+        }
+        for (long day : days) {
+            cube.dayId(day);
+        }
+        cube.ensureCapacity();
+        return cube;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Counts a newly stored incident.
+     */
+    public void add(Incident incident) {
+        int t = types.id(incident.getType());
+        int s = statuses.id(incident.getStatus());
+        int l = locations.id(incident.getLocation());
+        int d = dayId(day(incident));
+        ensureCapacity();
+        addCount(t, s, l, d, 1);
+    }
+    
+    /**
+     * Moves an incident replaced by a copy with a new status from its old
+     * status to the new one. The type, location and date of a copy never
+     * change.
+     */
+    public void replaced(Incident before, Incident after) {
+        int t = types.id(before.getType());
+        int l = locations.id(before.getLocation());
+        int d = dayId(day(before));
+        int s = statuses.id(after.getStatus());
+        ensureCapacity();
+        addCount(t, statuses.id(before.getStatus()), l, d, -1);
+        addCount(t, s, l, d, 1);
+    }
+    
+    /**
+     * Adds to the count of one cell, given by dictionary ids.
+     */
+    void addCount(int type, int status, int location, int day, int count) {
+        int cell = cell(type, status, location);
+        totals[cell] += count;
+        cells[cell * dayCapacity + day] += count;
+        total += count;
+    }
+    
+    // ==================== Queries ====================
+    
+    /** @return number of incidents counted */
+    public int getTotal() {
+        return total;
+    }
+    
+    /**
+     * Counts the incidents in a slice.
+     * @param slice Values to match in each dimension
+     * @return number of incidents
+     */
+    public int count(Slice slice) {
+        return sum(null, slice)[0];
+    }
+    
+    /**
+     * Counts the incidents in a slice, grouped by one dimension.
+     * @param dimension Dimension to group by
+     * @param slice Values to match in each dimension
+     * @return counts by value, ignoring case and sorted by value; values
+     *         with no incidents in the slice are left out, as are undated
+     *         incidents when grouping by day
+     */
+    public Map<String, Integer> rollUp(Dimension dimension, Slice slice) {
+        int[] sums = sum(dimension, slice);
+        Map<String, Integer> result = dimension == Dimension.DAY
+            ? new TreeMap<>() : new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int id = 0; id < sums.length; id++) {
+            if (sums[id] != 0) {
+                String value = dimension == Dimension.DAY ? formatDay(days[id]) : dictionary(dimension).value(id);
+                if (value != null) {
+                    result.merge(value, sums[id], Integer::sum);
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Rolls the cube up into the dashboard statistics.
+     * @return a new statistics object; later writes do not change it, and
+     *         changing it does not affect the cube
+     */
+    public IncidentStatistics statistics() {
+        IncidentStatistics stats = new IncidentStatistics();
+        stats.setTotalIncidents(total);
+        rollUp(Dimension.TYPE, Slice.ALL).forEach(stats::addTypeCount);
+        rollUp(Dimension.STATUS, Slice.ALL).forEach(stats::addStatusCount);
+        return stats;
+    }
+    
+    // ==================== Storage Access ====================
+    
+    /** @return the values of a text dimension in id order */
+    List<String> values(Dimension dimension) {
+        return dictionary(dimension).values;
+    }
+    
+    /** @return the report days in id order, as epoch days; Long.MIN_VALUE for undated */
+    long[] days() {
+        return Arrays.copyOf(days, dayCount);
+    }
+    
+    /**
+     * Visits every non-zero cell by dictionary ids.
+     */
+    void forEachCell(CellVisitor visitor) {
+        for (int t = 0; t < types.size(); t++) {
+            for (int s = 0; s < statuses.size(); s++) {
+                for (int l = 0; l < locations.size(); l++) {
+                    int base = cell(t, s, l) * dayCapacity;
+                    for (int d = 0; d < dayCount; d++) {
+                        if (cells[base + d] != 0) {
+                            visitor.visit(t, s, l, d, cells[base + d]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /** Receives one cell of the cube */
+    interface CellVisitor {
+        void visit(int type, int status, int location, int day, int count);
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Sums the cells in a slice, grouped by the ids of a dimension, or into
+     * a single total when the dimension is null.
+     */
+    private int[] sum(Dimension by, Slice slice) {
+        boolean[] typeMask = types.matching(slice.type);
+        boolean[] statusMask = statuses.matching(slice.status);
+        boolean[] locationMask = locations.matching(slice.location);
+        boolean byDay = by == Dimension.DAY;
+        int[] dayIdsInRange = null;
+        if (slice.hasDays() || byDay) {
+            dayIdsInRange = new int[dayCount];
+            int n = 0;
+            for (int d = 0; d < dayCount; d++) {
+                if (days[d] != UNDATED && days[d] >= slice.fromDay && days[d] < slice.beforeDay) {
+                    dayIdsInRange[n++] = d;
+                }
+            }
+            dayIdsInRange = Arrays.copyOf(dayIdsInRange, n);
+        }
+        
+        int[] sums = new int[by == null ? 1 : byDay ? dayCount : dictionary(by).size()];
+        for (int t = 0; t < types.size(); t++) {
+            if (!typeMask[t]) {
+                continue;
+            }
+            for (int s = 0; s < statuses.size(); s++) {
+                if (!statusMask[s]) {
+                    continue;
+                }
+                for (int l = 0; l < locations.size(); l++) {
+                    if (!locationMask[l]) {
+                        continue;
+                    }
+                    int cell = cell(t, s, l);
+                    int group = by == Dimension.TYPE ? t : by == Dimension.STATUS ? s
+                        : by == Dimension.LOCATION ? l : 0;
+                    if (dayIdsInRange == null) {
+                        sums[group] += totals[cell];
+                        continue;
+                    }
+                    int base = cell * dayCapacity;
+                    for (int d : dayIdsInRange) {
+                        sums[byDay ? d : group] += cells[base + d];
+                    }
+                }
+            }
+        }
+        return sums;
+    }
+    
+    private Dictionary dictionary(Dimension dimension) {
+        return switch (dimension) {
+            case TYPE -> types;
+            case STATUS -> statuses;
+            case LOCATION -> locations;
+            case DAY -> throw new IllegalArgumentException("Days have no dictionary");
+        };
+    }
+    
+    private int cell(int type, int status, int location) {
+        return (type * statusCapacity + status) * locationCapacity + location;
+    }
+    
+    private static long day(Incident incident) {
+        long timestamp = incident.getTimestamp();
+        return timestamp == ReportDates.UNKNOWN ? UNDATED : Math.floorDiv(timestamp, ReportDates.MILLIS_PER_DAY);
+    }
+    
+    private static String formatDay(long day) {
+        return day == UNDATED ? null : ReportDates.formatDay(day * ReportDates.MILLIS_PER_DAY);
+    }
+    
+    /** Finds or assigns the id of a day; most reports share the latest day */
+    private int dayId(long day) {
+        if (day == lastDay && lastDayId >= 0) {
+            return lastDayId;
+        }
+        Integer id = dayIds.get(day);
+        if (id == null) {
+            id = dayCount;
+            dayIds.put(day, id);
+            if (dayCount == days.length) {
+                days = Arrays.copyOf(days, dayCount * 2);
+            }
+            days[dayCount++] = day;
+        }
+        lastDay = day;
+        lastDayId = id;
+        return id;
+    }
+    
+    /** Grows every dimension that has more values than room, then copies the cells over */
+    private void ensureCapacity() {
+        int newTypes = grown(typeCapacity, types.size());
+        int newStatuses = grown(statusCapacity, statuses.size());
+        int newLocations = grown(locationCapacity, locations.size());
+        int newDays = grown(dayCapacity, dayCount);
+        if (newTypes == typeCapacity && newStatuses == statusCapacity
+                && newLocations == locationCapacity && newDays == dayCapacity) {
+            return;
+        }
+        
+        int[] newTotals = new int[newTypes * newStatuses * newLocations];
+        int[] newCells = new int[newTotals.length * newDays];
+        for (int t = 0; t < typeCapacity; t++) {
+            for (int s = 0; s < statusCapacity; s++) {
+                for (int l = 0; l < locationCapacity; l++) {
+                    int from = cell(t, s, l);
+                    int to = (t * newStatuses + s) * newLocations + l;
+                    newTotals[to] = totals[from];
+                    System.arraycopy(cells, from * dayCapacity, newCells, to * newDays, dayCapacity);
+                }
+            }
+        }
+        typeCapacity = newTypes;
+        statusCapacity = newStatuses;
+        locationCapacity = newLocations;
+        dayCapacity = newDays;
+        totals = newTotals;
+        cells = newCells;
+    }
+    
+    private static int grown(int capacity, int needed) {
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+    
+    // ==================== Nested Types ====================
+    
+    /**
+     * Values to match in each dimension: a type, status and location
+     * (ignoring case, null for any) and a range of report days. Slices are
+     * immutable; each method returns a narrowed copy.
+     */
+    public static final class Slice {
+        
+        /** Slice matching every incident */
+        public static final Slice ALL = new Slice(null, null, null, Long.MIN_VALUE, Long.MAX_VALUE);
+        
+        private final String type;
+        private final String status;
+        private final String location;
+        private final long fromDay;
+        private final long beforeDay;
+        
+        private Slice(String type, String status, String location, long fromDay, long beforeDay) {
+            this.type = type;
+            this.status = status;
+            this.location = location;
+            this.fromDay = fromDay;
+            this.beforeDay = beforeDay;
+        }
+        
+        public Slice type(String type) {
+            return new Slice(type, status, location, fromDay, beforeDay);
+        }
+        
+        public Slice status(String status) {
+            return new Slice(type, status, location, fromDay, beforeDay);
+        }
+        
+        public Slice location(String location) {
+            return new Slice(type, status, location, fromDay, beforeDay);
+        }
+        
+        /**
+         * Matches incidents reported on a range of days. Incidents without a
+         * readable date never match a range.
+         * @param from First day (inclusive), or null for no bound
+         * @param before Day reports must precede (exclusive), or null for no bound
+         */
+        public Slice days(LocalDate from, LocalDate before) {
+            return new Slice(type, status, location,
+                             from == null ? Long.MIN_VALUE : from.toEpochDay(),
+                             before == null ? Long.MAX_VALUE : before.toEpochDay());
+        }
+        
+        boolean hasDays() {
+            return fromDay != Long.MIN_VALUE || beforeDay != Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Values of one dimension, numbered in order of first appearance.
+     */
+    private static class Dictionary {
+        
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        
+        int id(String value) {
+            String key = value == null ? "" : value;
+            Integer id = ids.get(key);
+            if (id == null) {
+                id = values.size();
+                ids.put(key, id);
+                values.add(key);
+            }
+            return id;
+        }
+        
+        String value(int id) {
+            return values.get(id);
+        }
+        
+        int size() {
+            return values.size();
+        }
+        
+        /** @return which ids match a value ignoring case; all of them for null */
+        boolean[] matching(String value) {
+            boolean[] mask = new boolean[values.size()];
+            for (int i = 0; i < mask.length; i++) {
+                mask[i] = value == null || values.get(i).equalsIgnoreCase(value);
+            }
+            return mask;
+        }
+    }
+}
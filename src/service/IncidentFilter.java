@@ -0,0 +1,111 @@
+package service;
+
+import model.Incident;
+import java.util.function.Predicate;
+
+/**
+ * Filter criteria used by the dashboard: type, status, location and search text.
+ * Shared by repository implementations so they all match incidents the same way.
+ * A null or "[None]" criterion matches every incident.
+ */
+public class IncidentFilter implements Predicate<Incident> {
+    
+    /** Sentinel the dashboard combo boxes use for "no filter" */
+    public static final String NONE = "[None]";
+    
+    private final String typeFilter;
+    private final String statusFilter;
+    private final String locationFilter;
+    private final String searchLower;
+    
+    // ==================== Constructor ====================
+    
+    public IncidentFilter(String typeFilter, String statusFilter,
+                          String locationFilter, String searchText) {
+        this.typeFilter = normalize(typeFilter);
+        this.statusFilter = normalize(statusFilter);
+        this.locationFilter = normalize(locationFilter);
+        this.searchLower = searchText == null || searchText.trim().isEmpty()
+            ? null : searchText.toLowerCase();
+    }
+    
+    // ==================== Getters ====================
+    
+    /** @return type to match, or null for any */
+    public String getTypeFilter() {
+        return typeFilter;
+    }
+    
+    /** @return status to match, or null for any */
+    public String getStatusFilter() {
+        return statusFilter;
+    }
+    
+    /** @return location to match, or null for any */
+    public String getLocationFilter() {
+        return locationFilter;
+    }
+    
+    /** @return lowercased search text, or null for no search */
+    public String getSearchText() {
+        return searchLower;
+    }
+    
+    /** @return true if no criterion is set and every incident matches */
+    public boolean isEmpty() {
+        return typeFilter == null && statusFilter == null
+            && locationFilter == null && searchLower == null;
+    }
+    
+    // ==================== Matching ====================
+    
+    @Override
+    public boolean test(Incident incident) {
+        return matchesTypeFilter(incident)
+            && matchesStatusFilter(incident)
+            && matchesLocationFilter(incident)
+            && matchesSearchText(incident);
+    }
+    
+    /** Checks if incident matches selected type filter */
+    public boolean matchesTypeFilter(Incident incident) {
+        return typeFilter == null || incident.getType().equalsIgnoreCase(typeFilter);
+    }
+    
+    /** Checks if incident matches selected status filter */
+    public boolean matchesStatusFilter(Incident incident) {
+        return statusFilter == null || incident.getStatus().equalsIgnoreCase(statusFilter);
+    }
+    
+    /** Checks if incident matches selected location filter */
+    public boolean matchesLocationFilter(Incident incident) {
+        return locationFilter == null || incident.getLocation().equalsIgnoreCase(locationFilter);
+    }
+    
+    /** Checks if incident contains the search text */
+    public boolean matchesSearchText(Incident incident) {
+        return searchLower == null || searchableText(incident).contains(searchLower);
+    }
+    
+    /**
+     * Builds the lowercased text that search queries are matched against.
+     * @param incident The incident
+     * @return concatenation of the searchable fields
+     */
+    public static String searchableText(Incident incident) {
+        return (
+            incident.getType() + 
+            incident.getLocation() + 
+            incident.getDescription() + 
+            incident.getContact() + 
+            incident.getReporter() + 
+            incident.getStatus()
+        ).toLowerCase();
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private static String normalize(String filter) {
+        return filter == null || filter.equals(NONE) ? null : filter;
+    }
+}
@@ -0,0 +1,263 @@
+package service;
+
+import model.Incident;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The secondary indexes kept over an in-memory incident list: bitmap indexes
+ * for the filter columns, the trigram index for search and the time index
+ * for report dates, plus the count cube, the sliding-window rollups, the
+ * report sketches, the response-time histograms and the surge detector.
+ * Repositories holding their incidents in memory keep one of these next to
+ * the list and report every append and replacement to it.
+ *
+ * Each index is built from the list the first time it is needed, so loading
+ * a snapshot only pays for the indexes the first screen actually uses.
+ * Appends and replacements reported before an index is built are skipped;
+ * the index sees them in the list when it is built. Not thread-safe; owners
+ * synchronize access.
+ */
+class IncidentIndexes {
+    
+    /**
+     * Candidate count above which another index is intersected in, rather
+     * than checking the remaining criteria on every candidate, and above
+     * which ordered results are read from the time index rather than sorted
+     */
+    static final int INTERSECT_THRESHOLD = 1024;
+    
+    private final List<Incident> incidents;
+    private IncidentBitmapIndex columns;
+    private IncidentTextIndex text;
+    private IncidentTimeIndex time;
+    private IncidentCube cube;
+    private IncidentRollups rollups;
+    private IncidentSketches sketches;
+    private IncidentResponseTimes responseTimes;
+    private IncidentSurgeDetector surges;
+    
+    private IncidentIndexes(List<Incident> incidents) {
+        this.incidents = incidents;
+    }
+    
+    /**
+     * Indexes a list, using list positions as slots. The owner must report
+     * every later change to the list.
+     * @param incidents Incidents to index; kept, not copied
+     * @return the indexes
+     */
+    static IncidentIndexes of(List<Incident> incidents) {
+        return of(incidents, null);
+    }
+    
+    /**
+     * Indexes a list, taking the count cube and the report sketches from a
+     * snapshot when they cover the whole list.
+     * @param incidents Incidents to index; kept, not copied
+     * @param stored Snapshot the list was read from, or null to count the list
+     * @return the indexes
+     */
+    static IncidentIndexes of(List<Incident> incidents, IncidentSnapshotFile.Contents stored) {
+        IncidentIndexes indexes = new IncidentIndexes(incidents);
+        if (stored != null && stored.getCube() != null && stored.getCube().getTotal() == incidents.size()) {
+            indexes.cube = stored.getCube();
+        }
+        if (stored != null && stored.getSketches() != null && stored.getSketches().getTotal() == incidents.size()) {
+            indexes.sketches = stored.getSketches();
+        }
+        return indexes;
+    }
+    
+    /**
+     * Indexes an incident appended at a slot. Called before the incident is
+     * added to the list.
+     */
+    void add(int slot, Incident incident) {
+        if (columns != null) {
+            columns.add(slot, incident);
+        }
+        if (text != null) {
+            text.add(slot, incident);
+        }
+        if (time != null) {
+            time.add(slot, incident);
+        }
+        if (cube != null) {
+            cube.add(incident);
+        }
+        if (rollups != null) {
+            rollups.add(incident);
+        }
+        if (sketches != null) {
+            sketches.add(incident);
+        }
+        if (responseTimes != null) {
+            responseTimes.add(incident);
+        }
+        if (surges != null) {
+            surges.add(incident);
+        }
+    }
+    
+    /**
+     * Re-indexes a slot whose incident was replaced by a copy with a new
+     * status. Called before the copy is put in the list. The report date of
+     * a copy never changes, and it keeps the transition times already
+     * recorded.
+     */
+    void replaced(int slot, Incident before, Incident after) {
+        if (columns != null) {
+            columns.statusChanged(slot, before.getStatus(), after.getStatus());
+        }
+        if (text != null) {
+            text.replaced(slot, before, after);
+        }
+        if (cube != null) {
+            cube.replaced(before, after);
+        }
+        if (responseTimes != null) {
+            responseTimes.replaced(before, after);
+        }
+    }
+    
+    /**
+     * @return the count cube, kept current with the list
+     */
+    IncidentCube cube() {
+        if (cube == null) {
+            cube = IncidentCube.of(incidents);
+        }
+        return cube;
+    }
+    
+    /**
+     * @return the sliding-window rollups, kept current with the list
+     */
+    IncidentRollups rollups() {
+        if (rollups == null) {
+            rollups = IncidentRollups.of(incidents, time());
+        }
+        return rollups;
+    }
+    
+    /**
+     * @return the report sketches, kept current with the list
+     */
+    IncidentSketches sketches() {
+        if (sketches == null) {
+            sketches = IncidentSketches.of(incidents);
+        }
+        return sketches;
+    }
+    
+    /**
+     * @return the response-time histograms, kept current with the list
+     */
+    IncidentResponseTimes responseTimes() {
+        if (responseTimes == null) {
+            responseTimes = IncidentResponseTimes.of(incidents);
+        }
+        return responseTimes;
+    }
+    
+    /**
+     * @return the surge detector, fed every appended incident
+     */
+    IncidentSurgeDetector surges() {
+        if (surges == null) {
+            surges = IncidentSurgeDetector.of(incidents, time());
+        }
+        return surges;
+    }
+    
+    /**
+     * Chooses how to answer a query. Each index that applies estimates its
+     * candidates: the smallest bitmap, the shortest trigram posting list, or
+     * the exact size of the date range. The most selective one supplies the
+     * candidates, and the others are intersected in, most selective first,
+     * while more than INTERSECT_THRESHOLD candidates remain. Without usable
+     * criteria every slot is scanned.
+     *
+     * Queries ordered by date read their results from the time index,
+     * stopping at the limit, unless few enough candidates remain that
+     * sorting them is cheaper.
+     * @param query The query
+     * @return the plan
+     */
+    IncidentQueryPlan plan(IncidentQuery query) {
+        IncidentFilter filter = query.getFilter();
+        int[] estimates = new int[IncidentQueryPlan.Access.values().length];
+        estimates[IncidentQueryPlan.Access.COLUMNS.ordinal()] = columns().estimate(filter);
+        estimates[IncidentQueryPlan.Access.TEXT.ordinal()] =
+            filter.getSearchText() == null ? -1 : text().estimate(filter.getSearchText());
+        estimates[IncidentQueryPlan.Access.TIME.ordinal()] =
+            query.hasDateRange() ? time().count(query.getReportedFrom(), query.getReportedBefore()) : -1;
+        
+        Set<IncidentQueryPlan.Access> used = EnumSet.noneOf(IncidentQueryPlan.Access.class);
+        BitSet candidates = null;
+        int estimate = columns().size();
+        for (IncidentQueryPlan.Access next = mostSelective(estimates, used); next != null;
+                next = mostSelective(estimates, used)) {
+            if (candidates != null && estimate <= INTERSECT_THRESHOLD) {
+                break;
+            }
+            BitSet selected = select(next, query);
+            if (candidates == null) {
+                candidates = selected;
+            } else {
+                candidates.and(selected);
+            }
+            used.add(next);
+            estimate = candidates.cardinality();
+        }
+        
+        boolean walkTime = query.getOrder() != IncidentQuery.Order.STORAGE
+            && (candidates == null || estimate > INTERSECT_THRESHOLD);
+        return new IncidentQueryPlan(query, used, candidates, estimate, walkTime ? time() : null);
+    }
+    
+    /** Finds the unused index with the smallest estimate, or null if none applies */
+    private static IncidentQueryPlan.Access mostSelective(int[] estimates, Set<IncidentQueryPlan.Access> used) {
+        IncidentQueryPlan.Access best = null;
+        for (IncidentQueryPlan.Access access : IncidentQueryPlan.Access.values()) {
+            int estimate = estimates[access.ordinal()];
+            if (estimate >= 0 && !used.contains(access)
+                    && (best == null || estimate < estimates[best.ordinal()])) {
+                best = access;
+            }
+        }
+        return best;
+    }
+    
+    private BitSet select(IncidentQueryPlan.Access access, IncidentQuery query) {
+        return switch (access) {
+            case COLUMNS -> columns().select(query.getFilter());
+            case TEXT -> text().select(query.getFilter().getSearchText());
+            case TIME -> time().select(query.getReportedFrom(), query.getReportedBefore());
+        };
+    }
+    
+    private IncidentBitmapIndex columns() {
+        if (columns == null) {
+            columns = IncidentBitmapIndex.of(incidents);
+        }
+        return columns;
+    }
+    
+    private IncidentTextIndex text() {
+        if (text == null) {
+            text = IncidentTextIndex.of(incidents);
+        }
+        return text;
+    }
+    
+    private IncidentTimeIndex time() {
+        if (time == null) {
+            time = IncidentTimeIndex.of(incidents);
+        }
+        return time;
+    }
+}
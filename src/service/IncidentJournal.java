@@ -0,0 +1,308 @@
+package service;
+
+import model.Incident;
+import util.DurabilityPolicy;
+import util.ReportDates;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only segment of the incident write-ahead journal.
+ *
+ * Each entry is framed as a 4-byte payload length, a 4-byte CRC32 of the
+ * payload, and the payload itself: an event kind followed by its fields.
+ * A torn last entry fails its length or checksum test and is dropped on replay.
+ *
+ * Report, response and resolution times are stored as varints (0 if unknown,
+ * else zigzag + 1, as in IncidentSnapshotFile), so replay never re-parses
+ * date text; only a report date that is not a readable date is kept as text.
+ */
+public class IncidentJournal implements Closeable {
+    
+    private static final byte CREATED = 1;
+    private static final byte STATUS_CHANGED = 2;
+    
+    private static final int HEADER_SIZE = 8;
+    
+    /**
+     * Receives journal events in the order they were written.
+     */
+    public interface Listener {
+        
+        /** An incident was reported */
+        void created(Incident incident);
+        
+        /** The incident with the given id changed status at the given time */
+        void statusChanged(String id, String status, long changedAt);
+    }
+    
+    private final Path path;
+    private final FileChannel channel;
+    private long size;
+    private int entryCount;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * Opens a segment for appending, creating it if needed.
+     * @param path Segment file
+     * @param entryCount Number of entries already in the segment
+     * @throws IOException if the file cannot be opened
+     */
+    public IncidentJournal(Path path, int entryCount) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.size = channel.size();
+        this.entryCount = entryCount;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Appends an incident creation event.
+     * @param incident The reported incident
+     * @throws IOException if the entry cannot be written
+     */
+    public void appendCreated(Incident incident) throws IOException {
+        append(List.of(encodeCreated(incident)));
+    }
+    
+    /**
+     * Appends creation events for a batch of incidents in a single write.
+     * @param incidents The reported incidents
+     * @throws IOException if the entries cannot be written
+     */
+    public void appendCreated(List<Incident> incidents) throws IOException {
+        List<byte[]> payloads = new ArrayList<>(incidents.size());
+        for (Incident incident : incidents) {
+            payloads.add(encodeCreated(incident));
+        }
+        append(payloads);
+    }
+    
+    /**
+     * Appends a status change event.
+     * @param id Id of the incident
+     * @param status New status
+     * @param changedAt Time of the change (see ReportDates)
+     * @throws IOException if the entry cannot be written
+     */
+    public void appendStatusChanged(String id, String status, long changedAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(56);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(STATUS_CHANGED);
+        writeString(out, id);
+        writeString(out, status);
+        writeTime(out, changedAt);
+        append(List.of(bytes.toByteArray()));
+    }
+    
+    /**
+     * Applies a durability policy to the entries appended by the last call.
+     * @param durability Policy deciding whether to force now
+     * @param entries Number of entries just appended
+     * @param force Whether the entries must be on disk now regardless of policy
+     * @throws IOException if forcing fails
+     */
+    public void sync(DurabilityPolicy durability, int entries, boolean force) throws IOException {
+        durability.afterWrite(path, channel, entries, force);
+    }
+    
+    /**
+     * @return number of entries in this segment
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+    
+    /**
+     * @return location of the segment file
+     */
+    public Path getPath() {
+        return path;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    /**
+     * Replays every intact entry of a segment.
+     * @param path Segment file
+     * @param listener Receives the events
+     * @param repair Whether to truncate a torn tail so new entries follow the last intact one
+     * @return number of entries replayed
+     * @throws IOException if the file cannot be read
+     */
+    public static int replay(Path path, Listener listener, boolean repair) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        
+        CRC32 crc = new CRC32();
+        int count = 0;
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.array(), buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            if (!dispatch(payload, listener)) {
+                System.err.println("Skipping journal entry without an incident id at byte " + start + " of " + path);
+            }
+            count++;
+        }
+        
+        if (buffer.hasRemaining()) {
+            System.err.println("Recovering torn journal entry at byte " + buffer.position() + " of " + path);
+            if (repair) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(buffer.position());
+                }
+            }
+        }
+        return count;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void append(List<byte[]> payloads) throws IOException {
+        int total = 0;
+        for (byte[] payload : payloads) {
+            total += HEADER_SIZE + payload.length;
+        }
+        
+        CRC32 crc = new CRC32();
+        ByteBuffer entries = ByteBuffer.allocate(total);
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            entries.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        entries.flip();
+        while (entries.hasRemaining()) {
+            channel.write(entries, size + entries.position());
+        }
+        size += total;
+        entryCount += payloads.size();
+    }
+    
+    private static byte[] encodeCreated(Incident incident) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(CREATED);
+        writeString(out, incident.getId());
+        writeString(out, incident.getType());
+        writeString(out, incident.getLocation());
+        writeString(out, incident.getDescription());
+        writeString(out, incident.getReporter());
+        writeString(out, incident.getContact());
+        writeString(out, incident.getStatus());
+        writeTime(out, incident.getTimestamp());
+        if (incident.getTimestamp() == ReportDates.UNKNOWN) {
+            writeString(out, incident.getDate());
+        }
+        writeTime(out, incident.getRespondedAt());
+        writeTime(out, incident.getResolvedAt());
+        return bytes.toByteArray();
+    }
+    
+    /** @return false if the entry is corrupt: every event must name an incident */
+    private static boolean dispatch(ByteBuffer payload, Listener listener) {
+        byte kind = payload.get();
+        if (kind == CREATED) {
+            String id = readString(payload);
+            String type = readString(payload);
+            String location = readString(payload);
+            String description = readString(payload);
+            String reporter = readString(payload);
+            String contact = readString(payload);
+            String status = readString(payload);
+            long timestamp = readTime(payload);
+            String date = timestamp == ReportDates.UNKNOWN ? readString(payload) : null;
+            if (id.isEmpty()) {
+                return false;
+            }
+            Incident incident = date == null
+                ? new Incident(id, type, location, description, reporter, contact, status, timestamp)
+                : new Incident(id, type, location, description, reporter, contact, status, date);
+            incident.setRespondedAt(readTime(payload));
+            incident.setResolvedAt(readTime(payload));
+            listener.created(incident);
+        } else if (kind == STATUS_CHANGED) {
+            String id = readString(payload);
+            String status = readString(payload);
+            long changedAt = readTime(payload);
+            if (id.isEmpty()) {
+                return false;
+            }
+            listener.statusChanged(id, status, changedAt);
+        }
+        // Unknown kinds come from a newer version and are skipped
+        return true;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /** Zigzag + 1 keeps 0 free to mean unknown */
+    private static void writeTime(DataOutputStream out, long time) throws IOException {
+        long value = time == ReportDates.UNKNOWN ? 0 : ((time << 1) ^ (time >> 63)) + 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readTime(ByteBuffer payload) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = payload.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value == 0 ? ReportDates.UNKNOWN : ((value - 1) >>> 1) ^ -((value - 1) & 1);
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+    
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        String value = new String(payload.array(), payload.arrayOffset() + payload.position(),
+                                  length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,467 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming reader for the incident JSON array and JSON Lines formats.
+ * Decodes UTF-8 bytes straight from a buffered channel into Incident objects
+ * in a single pass, so memory use stays flat no matter how large the file is.
+ *
+ * Structural JSON characters are all ASCII and never appear inside a UTF-8
+ * multi-byte sequence, so the parser works on raw bytes and only decodes the
+ * contents of string values.
+ */
+public class IncidentJsonReader implements Closeable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean jsonLines;
+    
+    /** Scratch space for the bytes of the string value being decoded */
+    private byte[] text = new byte[256];
+    private int textLength;
+    
+    /** Byte offset of the next unread byte */
+    private long position;
+    private boolean endOfInput;
+    
+    private boolean arrayOpened;
+    private boolean arrayClosed;
+    private boolean truncated;
+    private boolean trailingRecords;
+    private long lastRecordEnd;
+    private long recordStart;
+    
+    // ==================== Constructors ====================
+    
+    public IncidentJsonReader(ReadableByteChannel channel) {
+        this(channel, false);
+    }
+    
+    /**
+     * @param channel Channel to read from
+     * @param jsonLines true for one object per line, false for a JSON array
+     */
+    public IncidentJsonReader(ReadableByteChannel channel, boolean jsonLines) {
+        this.channel = channel;
+        this.jsonLines = jsonLines;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+        // JSON Lines has no opening bracket to wait for
+        this.arrayOpened = jsonLines;
+    }
+    
+    /**
+     * Opens a reader over the given file.
+     * @param path Path of the JSON file
+     * @return reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static IncidentJsonReader open(Path path) throws IOException {
+        return new IncidentJsonReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+    
+    /**
+     * Opens a reader over a JSON Lines file.
+     * @param path Path of the JSON Lines file
+     * @return reader positioned at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static IncidentJsonReader openLines(Path path) throws IOException {
+        return new IncidentJsonReader(FileChannel.open(path, StandardOpenOption.READ), true);
+    }
+    
+    /**
+     * Opens a reader that resumes at a record boundary, such as an offset
+     * previously returned by getLastRecordEnd.
+     * @param path Path of the JSON or JSON Lines file
+     * @param offset Byte offset of a record boundary; 0 for the start of the file
+     * @param jsonLines true for JSON Lines, false for a JSON array
+     * @return reader positioned at the offset
+     * @throws IOException if the file cannot be opened
+     */
+    public static IncidentJsonReader openAt(Path path, long offset, boolean jsonLines) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        IncidentJsonReader reader = new IncidentJsonReader(channel, jsonLines);
+        if (offset > 0) {
+            channel.position(offset);
+            reader.position = offset;
+            reader.lastRecordEnd = offset;
+            // Past the opening bracket, inside the array
+            reader.arrayOpened = true;
+        }
+        return reader;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Reads the next incident from the stream.
+     * @return the next incident, or null once the input is exhausted
+     * @throws IOException if the input cannot be read or is not incident JSON
+     */
+    public Incident next() throws IOException {
+        try {
+            if (!arrayOpened) {
+                int c = skipWhitespace();
+                if (c == -1) {
+                    return null;
+                }
+                expect(c, '[');
+                arrayOpened = true;
+                lastRecordEnd = position;
+            }
+            
+            int c = skipSeparators();
+            recordStart = position - 1;
+            if (jsonLines) {
+                if (c == -1) {
+                    return null;
+                }
+                expect(c, '{');
+                Incident incident = readObject();
+                lastRecordEnd = position;
+                return incident;
+            }
+            if (!arrayClosed && c == ']') {
+                arrayClosed = true;
+                c = skipSeparators();
+            }
+            if (c == -1) {
+                // End of input before the closing bracket means a torn write
+                truncated |= !arrayClosed;
+                return null;
+            }
+            expect(c, '{');
+            trailingRecords |= arrayClosed;
+            
+            Incident incident = readObject();
+            lastRecordEnd = position;
+            return incident;
+        } catch (EOFException e) {
+            truncated = true;
+            return null;
+        }
+    }
+    
+    /**
+     * Whether the input ended in the middle of the array or a record.
+     * @return true if the last write to the file was torn
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    /**
+     * Whether records were found after the closing bracket, as left behind
+     * by the old append-after-bracket save path.
+     * @return true if records follow the end of the array
+     */
+    public boolean hasTrailingRecords() {
+        return trailingRecords;
+    }
+    
+    /**
+     * Byte offset just past the last complete record (or the opening bracket).
+     * @return offset of the end of the last good record
+     */
+    public long getLastRecordEnd() {
+        return lastRecordEnd;
+    }
+    
+    /**
+     * Byte offset of the first byte of the last record read or attempted,
+     * so a caller can skip a malformed JSON Lines record by its line.
+     * @return offset where the last record began
+     */
+    public long getRecordStart() {
+        return recordStart;
+    }
+    
+    /**
+     * Exposes the remaining records as a lazy stream. Closing the stream
+     * closes the reader; read errors surface as UncheckedIOException.
+     * @return stream of the remaining incidents
+     */
+    public Stream<Incident> stream() {
+        Spliterator<Incident> records = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Incident> action) {
+                try {
+                    Incident incident = next();
+                    if (incident == null) {
+                        return false;
+                    }
+                    action.accept(incident);
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(records, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Parses one object whose opening brace has already been consumed */
+    private Incident readObject() throws IOException {
+        String id = null, type = "", location = "", description = "",
+               reporter = "", contact = "", date = "", status = "";
+        long respondedAt = ReportDates.UNKNOWN, resolvedAt = ReportDates.UNKNOWN;
+        
+        int c = skipWhitespace();
+        if (c == '}') {
+            return new Incident(id, type, location, description, reporter, contact, status, date);
+        }
+        
+        while (true) {
+            expect(c, '"');
+            String key = readString();
+            expect(skipWhitespace(), ':');
+            
+            c = skipWhitespace();
+            if (c == '"') {
+                String value = readString();
+                switch (key) {
+                    case "id" -> id = value.isEmpty() ? null : value;
+                    case "type" -> type = value;
+                    case "location" -> location = value;
+                    case "description" -> description = value;
+                    case "reporter" -> reporter = value;
+                    case "contact" -> contact = value;
+                    case "date" -> date = value;
+                    case "status" -> status = value;
+                    case "respondedAt" -> respondedAt = ReportDates.parse(value);
+                    case "resolvedAt" -> resolvedAt = ReportDates.parse(value);
+                }
+                c = skipWhitespace();
+            } else {
+                c = skipValue(c);
+            }
+            
+            if (c == '}') {
+                break;
+            }
+            expect(c, ',');
+            c = skipWhitespace();
+        }
+        
+        Incident incident = new Incident(id, type, location, description, reporter, contact, status, date);
+        incident.setRespondedAt(respondedAt);
+        incident.setResolvedAt(resolvedAt);
+        return incident;
+    }
+    
+    /** Decodes a string whose opening quote has already been consumed */
+    private String readString() throws IOException {
+        textLength = 0;
+        while (true) {
+            int c = readByte();
+            if (c == '"') {
+                return new String(text, 0, textLength, StandardCharsets.UTF_8);
+            }
+            if (c == '\\') {
+                readEscape();
+            } else {
+                appendByte(c);
+            }
+        }
+    }
+    
+    private void readEscape() throws IOException {
+        int c = readByte();
+        switch (c) {
+            case '"', '\\', '/' -> appendByte(c);
+            case 'b' -> appendByte('\b');
+            case 'f' -> appendByte('\f');
+            case 'n' -> appendByte('\n');
+            case 'r' -> appendByte('\r');
+            case 't' -> appendByte('\t');
+            case 'u' -> {
+                int codePoint = readHex4();
+                if (Character.isHighSurrogate((char) codePoint)) {
+                    // A surrogate pair arrives as two consecutive \\u escapes
+                    expect(readByte(), '\\');
+                    expect(readByte(), 'u');
+                    codePoint = Character.toCodePoint((char) codePoint, (char) readHex4());
+                }
+                appendCodePoint(codePoint);
+            }
+            default -> throw malformed(c);
+        }
+    }
+    
+    private int readHex4() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(readByte(), 16);
+            if (digit < 0) {
+                throw new IOException("Malformed unicode escape at byte " + (position - 1));
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+    
+    private void appendCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            appendByte(codePoint);
+        } else if (codePoint < 0x800) {
+            appendByte(0xC0 | (codePoint >> 6));
+            appendByte(0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            appendByte(0xE0 | (codePoint >> 12));
+            appendByte(0x80 | ((codePoint >> 6) & 0x3F));
+            appendByte(0x80 | (codePoint & 0x3F));
+        } else {
+            appendByte(0xF0 | (codePoint >> 18));
+            appendByte(0x80 | ((codePoint >> 12) & 0x3F));
+            appendByte(0x80 | ((codePoint >> 6) & 0x3F));
+            appendByte(0x80 | (codePoint & 0x3F));
+        }
+    }
+    
+    private void appendByte(int b) {
+        if (textLength == text.length) {
+            byte[] grown = new byte[text.length * 2];
+            System.arraycopy(text, 0, grown, 0, textLength);
+            text = grown;
+        }
+        text[textLength++] = (byte) b;
+    }
+    
+    /**
+     * Skips a non-string value (number, literal, nested object or array).
+     * @return the first non-whitespace byte after the value
+     */
+    private int skipValue(int c) throws IOException {
+        int depth = 0;
+        while (true) {
+            if (c == -1) {
+                throw new EOFException("Unexpected end of incident data at byte " + position);
+            }
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) {
+                    return c;
+                }
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                return c;
+            }
+            c = skipWhitespace();
+        }
+    }
+    
+    private void skipString() throws IOException {
+        while (true) {
+            int c = readByte();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readByte();
+            }
+        }
+    }
+    
+    /** Skips whitespace and the commas between records */
+    private int skipSeparators() throws IOException {
+        int c = skipWhitespace();
+        while (c == ',') {
+            c = skipWhitespace();
+        }
+        return c;
+    }
+    
+    /** @return the next non-whitespace byte, or -1 at end of input */
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+    
+    /** Reads a byte that must exist; end of input here means a torn record */
+    private int readByte() throws IOException {
+        int c = read();
+        if (c == -1) {
+            throw new EOFException("Unexpected end of incident data at byte " + position);
+        }
+        return c;
+    }
+    
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            if (endOfInput || !fill()) {
+                return -1;
+            }
+        }
+        position++;
+        return buffer.get() & 0xFF;
+    }
+    
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        if (n < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+    
+    private void expect(int actual, char expected) throws IOException {
+        if (actual == -1) {
+            throw new EOFException("Unexpected end of incident data at byte " + position);
+        }
+        if (actual != expected) {
+            throw malformed(actual);
+        }
+    }
+    
+    private IOException malformed(int c) {
+        return new IOException("Malformed incident JSON: unexpected '" + (char) c
+                               + "' at byte " + (position - 1));
+    }
+}
@@ -0,0 +1,175 @@
+package service;
+
+import model.Incident;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary-key index from incident id to the byte offset of its record in a
+ * JSON or JSON Lines data file, so one incident is read without a scan. It
+ * also keeps the offset of every record in storage order, so a page cursor
+ * can be a record position that survives rewrites of the file.
+ *
+ * The index remembers the file size and modification time it describes.
+ * A change it was not told about (another process, a rewrite) makes it stale,
+ * and the next lookup rebuilds it with one pass over the file. Callers hold
+ * the repository's write lock around every method.
+ */
+class IncidentOffsetIndex {
+    
+    private final Path file;
+    private final boolean jsonLines;
+    private final Map<String, Long> offsets = new HashMap<>();
+    private long[] positions = new long[64];
+    private int count;
+    
+    private long indexedSize = -1;
+    private long indexedModified = -1;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param file Data file the offsets point into
+     * @param jsonLines true for JSON Lines, false for a JSON array
+     */
+    IncidentOffsetIndex(Path file, boolean jsonLines) {
+        this.file = file;
+        this.jsonLines = jsonLines;
+    }
+    
+    // ==================== Methods ====================
+    
+    /**
+     * Reads the incident with the given id, rebuilding the index first if the
+     * file changed behind its back.
+     * @param id Incident id
+     * @return the incident, or null if the file has none with that id
+     * @throws IOException if the file cannot be read
+     */
+    Incident find(String id) throws IOException {
+        if (!isCurrent()) {
+            rebuild();
+        }
+        Long offset = offsets.get(id);
+        if (offset == null) {
+            return null;
+        }
+        
+        try (IncidentJsonReader reader = IncidentJsonReader.openAt(file, offset, jsonLines)) {
+            Incident incident = reader.next();
+            if (incident != null && id.equals(incident.getId())) {
+                return incident;
+            }
+        }
+        
+        // The stamp matched but the content moved; fall back to a fresh scan
+        rebuild();
+        offset = offsets.get(id);
+        if (offset == null) {
+            return null;
+        }
+        try (IncidentJsonReader reader = IncidentJsonReader.openAt(file, offset, jsonLines)) {
+            return reader.next();
+        }
+    }
+    
+    /**
+     * Finds where the record at a position in storage order can be read,
+     * rebuilding the index first if the file changed behind its back.
+     * Rewrites keep records in order, so a position stays valid after one.
+     * @param position Number of records before the wanted one
+     * @return a byte offset to open a reader at, or -1 past the last record
+     * @throws IOException if the file cannot be read
+     */
+    long offsetOf(long position) throws IOException {
+        if (!isCurrent()) {
+            rebuild();
+        }
+        return position >= 0 && position < count ? positions[(int) position] : -1;
+    }
+    
+    /**
+     * Records the offsets of records the repository just appended.
+     * @param wasCurrent Whether the index was current before the append
+     * @param incidents The appended incidents
+     * @param recordOffsets Byte offset of each appended record
+     * @throws IOException if the file attributes cannot be read
+     */
+    void appended(boolean wasCurrent, List<Incident> incidents, long[] recordOffsets) throws IOException {
+        if (!wasCurrent) {
+            // Left stale; the next lookup rebuilds from the file anyway
+            return;
+        }
+        for (int i = 0; i < incidents.size(); i++) {
+            offsets.put(incidents.get(i).getId(), recordOffsets[i]);
+            addPosition(recordOffsets[i]);
+        }
+        stamp();
+    }
+    
+    /**
+     * @return whether the index describes the file as it is now
+     */
+    boolean isCurrent() throws IOException {
+        if (indexedSize < 0) {
+            return false;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() == indexedSize
+                && attributes.lastModifiedTime().toMillis() == indexedModified;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Forgets every offset, for example after the file was rewritten.
+     */
+    void invalidate() {
+        offsets.clear();
+        count = 0;
+        indexedSize = -1;
+        indexedModified = -1;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void rebuild() throws IOException {
+        invalidate();
+        try (IncidentJsonReader reader = IncidentJsonReader.openAt(file, 0, jsonLines)) {
+            long start = reader.getLastRecordEnd();
+            Incident incident;
+            while ((incident = reader.next()) != null) {
+                if (incident.getId() != null) {
+                    offsets.put(incident.getId(), start);
+                }
+                addPosition(start);
+                start = reader.getLastRecordEnd();
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        stamp();
+    }
+    
+    private void addPosition(long offset) {
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+        }
+        positions[count++] = offset;
+    }
+    
+    private void stamp() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        indexedSize = attributes.size();
+        indexedModified = attributes.lastModifiedTime().toMillis();
+    }
+}
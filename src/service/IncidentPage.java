@@ -0,0 +1,106 @@
+package service;
+
+import model.Incident;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * One page of incidents from keyset pagination.
+ *
+ * A cursor marks where the previous page stopped in storage order, so
+ * fetching the next page resumes there instead of counting past every
+ * earlier record. Cursors are opaque: pass FIRST for the first page and
+ * getNextCursor() for each following page. Every repository uses the
+ * record's position in storage order; file-backed ones map it to a byte
+ * offset through their offset index, so a cursor stays valid when the file
+ * is rewritten.
+ */
+public class IncidentPage {
+    
+    /** Cursor for the first page */
+    public static final long FIRST = 0;
+    
+    /** Next cursor of the last page */
+    public static final long END = -1;
+    
+    private final List<Incident> incidents;
+    private final long nextCursor;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param incidents Incidents on this page, in storage order
+     * @param nextCursor Cursor of the following page, or END
+     */
+    public IncidentPage(List<Incident> incidents, long nextCursor) {
+        this.incidents = Collections.unmodifiableList(incidents);
+        this.nextCursor = nextCursor;
+    }
+    
+    // ==================== Getters ====================
+    
+    public List<Incident> getIncidents() {
+        return incidents;
+    }
+    
+    public long getNextCursor() {
+        return nextCursor;
+    }
+    
+    /**
+     * @return true if more incidents may follow this page
+     */
+    public boolean hasMore() {
+        return nextCursor != END;
+    }
+    
+    // ==================== Factory Methods ====================
+    
+    /**
+     * Pages through an in-memory list, using list positions as cursors.
+     * Only the records from the cursor up to the end of the page are examined.
+     * @param source Incidents in storage order
+     * @param filter Criteria the page's incidents must match
+     * @param cursor Position to resume from
+     * @param pageSize Maximum number of incidents on the page
+     * @return the page
+     */
+    public static IncidentPage fromList(List<Incident> source, IncidentFilter filter, long cursor, int pageSize) {
+        List<Incident> page = new ArrayList<>(Math.min(pageSize, source.size()));
+        int i = (int) Math.max(cursor, 0);
+        while (i < source.size() && page.size() < pageSize) {
+            Incident incident = source.get(i++);
+            if (filter.test(incident)) {
+                page.add(incident);
+            }
+        }
+        return new IncidentPage(page, i < source.size() ? i : END);
+    }
+    
+    /**
+     * Pages through an in-memory list using a bitmap of candidate positions,
+     * so positions that cannot match are skipped without being examined.
+     * @param source Incidents in storage order
+     * @param candidates Positions that may match
+     * @param verify Check a candidate must pass to be on the page
+     * @param cursor Position to resume from
+     * @param pageSize Maximum number of incidents on the page
+     * @return the page
+     */
+    public static IncidentPage fromBitmap(List<Incident> source, BitSet candidates, Predicate<Incident> verify,
+                                          long cursor, int pageSize) {
+        List<Incident> page = new ArrayList<>(Math.min(pageSize, source.size()));
+        int i = candidates.nextSetBit((int) Math.max(cursor, 0));
+        while (i >= 0 && i < source.size() && page.size() < pageSize) {
+            Incident incident = source.get(i);
+            if (verify.test(incident)) {
+                page.add(incident);
+            }
+            i = candidates.nextSetBit(i + 1);
+        }
+        return new IncidentPage(page, i >= 0 && i < source.size() ? i : END);
+    }
+}
@@ -0,0 +1,311 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Query over incidents: column criteria and search text (an IncidentFilter),
+ * a report date range, extra predicates, an order and a limit.
+ *
+ * Queries are immutable and built with IncidentQuery.builder(). Repositories
+ * answer them through IIncidentRepository.query, using whatever indexes
+ * their storage offers for the filter part and checking the date range and
+ * predicates on the remaining candidates.
+ */
+public class IncidentQuery implements Predicate<Incident> {
+    
+    /** Limit meaning "return every match" */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+    
+    /** Order of the returned incidents */
+    public enum Order {
+        /** Order in which the incidents were saved */
+        STORAGE,
+        /** Most recently reported first; incidents without a readable date last */
+        NEWEST_FIRST,
+        /** Earliest reported first; incidents without a readable date last */
+        OLDEST_FIRST
+    }
+    
+    private final IncidentFilter filter;
+    private final long reportedFrom;
+    private final long reportedBefore;
+    private final List<Predicate<Incident>> predicates;
+    private final Order order;
+    private final int limit;
+    
+    // ==================== Constructor ====================
+    
+    private IncidentQuery(Builder builder) {
+        this.filter = new IncidentFilter(builder.type, builder.status, builder.location, builder.searchText);
+        this.reportedFrom = builder.reportedFrom;
+        this.reportedBefore = builder.reportedBefore;
+        this.predicates = Collections.unmodifiableList(new ArrayList<>(builder.predicates));
+        this.order = builder.order;
+        this.limit = builder.limit;
+    }
+    
+    // ==================== Factory Methods ====================
+    
+    /**
+     * @return a builder for a query matching every incident in storage order
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Wraps dashboard filter criteria in a query without ordering or limit.
+     * @param filter Criteria to match
+     * @return the query
+     */
+    public static IncidentQuery of(IncidentFilter filter) {
+        return builder()
+            .type(filter.getTypeFilter())
+            .status(filter.getStatusFilter())
+            .location(filter.getLocationFilter())
+            .search(filter.getSearchText())
+            .build();
+    }
+    
+    // ==================== Getters ====================
+    
+    /** @return the type, status, location and search criteria */
+    public IncidentFilter getFilter() {
+        return filter;
+    }
+    
+    /** @return earliest report timestamp to match (inclusive), or Long.MIN_VALUE for no bound */
+    public long getReportedFrom() {
+        return reportedFrom;
+    }
+    
+    /** @return report timestamp matches must be before (exclusive), or Long.MAX_VALUE for no bound */
+    public long getReportedBefore() {
+        return reportedBefore;
+    }
+    
+    /** @return true if the query restricts report dates */
+    public boolean hasDateRange() {
+        return reportedFrom != Long.MIN_VALUE || reportedBefore != Long.MAX_VALUE;
+    }
+    
+    public Order getOrder() {
+        return order;
+    }
+    
+    /** @return maximum number of incidents to return, or NO_LIMIT */
+    public int getLimit() {
+        return limit;
+    }
+    
+    /**
+     * @return true if the query has criteria no index can resolve: a date
+     *         range or extra predicates
+     */
+    public boolean hasResidualCriteria() {
+        return hasDateRange() || !predicates.isEmpty();
+    }
+    
+    /**
+     * Key identifying the query for result caching: the criteria normalized
+     * the way they are matched, the date range, the order and the limit.
+     * @return the key, or null if the query has extra predicates, which
+     *         cannot be compared
+     */
+    public Object cacheKey() {
+        if (hasPredicates()) {
+            return null;
+        }
+        return Arrays.asList(lower(filter.getTypeFilter()), lower(filter.getStatusFilter()),
+                             lower(filter.getLocationFilter()), filter.getSearchText(),
+                             reportedFrom, reportedBefore, order, limit);
+    }
+    
+    // ==================== Matching ====================
+    
+    @Override
+    public boolean test(Incident incident) {
+        return filter.test(incident) && matchesResidualCriteria(incident);
+    }
+    
+    /** Checks the date range and extra predicates, but not the filter */
+    public boolean matchesResidualCriteria(Incident incident) {
+        return matchesDateRange(incident) && matchesPredicates(incident);
+    }
+    
+    /** Checks if the incident was reported in the query's date range */
+    public boolean matchesDateRange(Incident incident) {
+        if (!hasDateRange()) {
+            return true;
+        }
+        long reported = incident.getTimestamp();
+        return reported != ReportDates.UNKNOWN && reported >= reportedFrom && reported < reportedBefore;
+    }
+    
+    /** Checks the extra predicates */
+    public boolean matchesPredicates(Incident incident) {
+        for (Predicate<Incident> predicate : predicates) {
+            if (!predicate.test(incident)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /** @return true if the query has extra predicates */
+    public boolean hasPredicates() {
+        return !predicates.isEmpty();
+    }
+    
+    // ==================== Execution ====================
+    
+    /**
+     * Runs the query over incidents in storage order by checking each one.
+     * In storage order the stream stops as soon as the limit is reached.
+     * @param incidents Incidents in storage order
+     * @return the matching incidents, ordered and limited
+     */
+    public List<Incident> execute(Stream<Incident> incidents) {
+        return collect(incidents.filter(this));
+    }
+    
+    /**
+     * Orders and limits incidents that are already known to match.
+     * @param matches Matching incidents in storage order
+     * @return the incidents to return
+     */
+    public List<Incident> collect(Stream<Incident> matches) {
+        if (order == Order.STORAGE) {
+            return matches.limit(limit).collect(Collectors.toList());
+        }
+        return sorted(matches.collect(Collectors.toCollection(ArrayList::new)));
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private static String lower(String criterion) {
+        return criterion == null ? null : criterion.toLowerCase(Locale.ROOT);
+    }
+    
+    /** Stable sort by report timestamp, unknown dates last */
+    private List<Incident> sorted(List<Incident> matches) {
+        boolean newestFirst = order == Order.NEWEST_FIRST;
+        matches.sort((a, b) -> compareTimestamps(a.getTimestamp(), b.getTimestamp(), newestFirst));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+    
+    /**
+     * Compares two report timestamps for sorting, placing unknown dates last.
+     * @param newestFirst Whether later timestamps come first
+     */
+    private static int compareTimestamps(long a, long b, boolean newestFirst) {
+        if (a == ReportDates.UNKNOWN || b == ReportDates.UNKNOWN) {
+            return Boolean.compare(a == ReportDates.UNKNOWN, b == ReportDates.UNKNOWN);
+        }
+        return newestFirst ? Long.compare(b, a) : Long.compare(a, b);
+    }
+    
+    // ==================== Builder ====================
+    
+    /**
+     * Builder for IncidentQuery. Unset criteria match every incident.
+     */
+    public static class Builder {
+        
+        private String type;
+        private String status;
+        private String location;
+        private String searchText;
+        private long reportedFrom = Long.MIN_VALUE;
+        private long reportedBefore = Long.MAX_VALUE;
+        private final List<Predicate<Incident>> predicates = new ArrayList<>();
+        private Order order = Order.STORAGE;
+        private int limit = NO_LIMIT;
+        
+        private Builder() {
+        }
+        
+        /** Matches incidents of a type, ignoring case; null or "[None]" for any */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+        
+        /** Matches incidents with a status, ignoring case; null or "[None]" for any */
+        public Builder status(String status) {
+            this.status = status;
+            return this;
+        }
+        
+        /** Matches incidents at a location, ignoring case; null or "[None]" for any */
+        public Builder location(String location) {
+            this.location = location;
+            return this;
+        }
+        
+        /** Matches incidents whose searchable text contains the text, ignoring case */
+        public Builder search(String searchText) {
+            this.searchText = searchText;
+            return this;
+        }
+        
+        /**
+         * Matches incidents reported in a time range. Incidents without a
+         * readable date never match a range.
+         * @param from Earliest report time (inclusive), or null for no bound
+         * @param before Time reports must precede (exclusive), or null for no bound
+         */
+        public Builder reportedBetween(LocalDateTime from, LocalDateTime before) {
+            return reportedBetween(from == null ? Long.MIN_VALUE : ReportDates.of(from),
+                                   before == null ? Long.MAX_VALUE : ReportDates.of(before));
+        }
+        
+        /**
+         * Matches incidents reported in a range of timestamps (see ReportDates).
+         * @param from Earliest report timestamp (inclusive), or Long.MIN_VALUE
+         * @param before Timestamp reports must precede (exclusive), or Long.MAX_VALUE
+         */
+        public Builder reportedBetween(long from, long before) {
+            this.reportedFrom = from;
+            this.reportedBefore = before;
+            return this;
+        }
+        
+        /** Adds a predicate every match must also satisfy */
+        public Builder where(Predicate<Incident> predicate) {
+            predicates.add(predicate);
+            return this;
+        }
+        
+        public Builder orderBy(Order order) {
+            this.order = order;
+            return this;
+        }
+        
+        /**
+         * @param limit Maximum number of incidents to return
+         * @throws IllegalArgumentException if the limit is negative
+         */
+        public Builder limit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit must not be negative: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+        
+        public IncidentQuery build() {
+            return new IncidentQuery(this);
+        }
+    }
+}
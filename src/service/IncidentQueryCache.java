@@ -0,0 +1,166 @@
+package service;
+
+import model.Incident;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of query results for an in-memory incident store.
+ *
+ * Entries are keyed on IncidentQuery.cacheKey(), so the dashboard's repeated
+ * filter combinations are answered with a hash lookup. Every entry records
+ * the generation it was computed in; the owning store calls invalidate() on
+ * every save, status change and reload, which advances the generation, so a
+ * stale entry is never served. Not thread-safe; owners synchronize access.
+ */
+public class IncidentQueryCache {
+    
+    /** Default number of cached results */
+    public static final int DEFAULT_CAPACITY = 64;
+    
+    private final int capacity;
+    private final LinkedHashMap<Object, Entry> entries;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param capacity Maximum number of cached results
+     */
+    public IncidentQueryCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > IncidentQueryCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Looks up the result of a query computed in the current generation.
+     * @param query The query
+     * @return a copy of the cached result, or null on a miss or for queries
+     *         that cannot be cached
+     */
+    public List<Incident> get(IncidentQuery query) {
+        Object key = query.cacheKey();
+        if (key == null) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null || entry.generation != generation) {
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return new ArrayList<>(entry.result);
+    }
+    
+    /**
+     * Stores the result of a query for the current generation.
+     * @param query The query
+     * @param result Its result; the cache keeps its own copy
+     */
+    public void put(IncidentQuery query, List<Incident> result) {
+        Object key = query.cacheKey();
+        if (key != null && capacity > 0) {
+            entries.put(key, new Entry(generation, Collections.unmodifiableList(new ArrayList<>(result))));
+        }
+    }
+    
+    /**
+     * Marks every cached result as stale. Called by the owner whenever its
+     * incidents change.
+     */
+    public void invalidate() {
+        generation++;
+    }
+    
+    /**
+     * @return the current counters
+     */
+    public Stats getStats() {
+        return new Stats(hits, misses, evictions, entries.size(), generation);
+    }
+    
+    // ==================== Nested Types ====================
+    
+    private static class Entry {
+        final long generation;
+        final List<Incident> result;
+        
+        Entry(long generation, List<Incident> result) {
+            this.generation = generation;
+            this.result = result;
+        }
+    }
+    
+    /**
+     * Point-in-time counters of a query cache.
+     */
+    public static class Stats {
+        
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final long generation;
+        
+        public Stats(long hits, long misses, long evictions, int size, long generation) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.generation = generation;
+        }
+        
+        public long getHits() {
+            return hits;
+        }
+        
+        public long getMisses() {
+            return misses;
+        }
+        
+        public long getEvictions() {
+            return evictions;
+        }
+        
+        /** @return number of results currently cached, including stale ones not yet dropped */
+        public int getSize() {
+            return size;
+        }
+        
+        public long getGeneration() {
+            return generation;
+        }
+        
+        /** @return hits divided by lookups, or 0 before the first lookup */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.2f size=%d evictions=%d",
+                                 hits, misses, getHitRate(), size, evictions);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package service;
+
+import model.Incident;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How an in-memory store answers a query: which indexes supply the candidate
+ * slots, which criteria are still checked on each candidate, and whether
+ * results are read in time order from the time index. Plans are chosen by
+ * IncidentIndexes.plan and are only valid until the list changes.
+ */
+class IncidentQueryPlan {
+    
+    /** Indexes a plan can take candidates from */
+    enum Access {
+        /** Type, status and location bitmaps; exact */
+        COLUMNS,
+        /** Trigram postings of the search text; a superset */
+        TEXT,
+        /** Report date range from the time index; exact */
+        TIME
+    }
+    
+    private final IncidentQuery query;
+    private final Set<Access> access;
+    private final BitSet candidates;
+    private final int estimate;
+    private final IncidentTimeIndex timeWalk;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param query The query being answered
+     * @param access Indexes the candidates were taken from; empty to scan every slot
+     * @param candidates Candidate slots, or null to scan every slot
+     * @param estimate Planner's estimate of the number of candidates
+     * @param timeWalk Time index to read ordered results from, or null to sort the matches
+     */
+    IncidentQueryPlan(IncidentQuery query, Set<Access> access, BitSet candidates, int estimate,
+                      IncidentTimeIndex timeWalk) {
+        this.query = query;
+        this.access = access.isEmpty() ? EnumSet.noneOf(Access.class) : EnumSet.copyOf(access);
+        this.candidates = candidates;
+        this.estimate = estimate;
+        this.timeWalk = timeWalk;
+    }
+    
+    // ==================== Getters ====================
+    
+    Set<Access> getAccess() {
+        return access;
+    }
+    
+    int getEstimate() {
+        return estimate;
+    }
+    
+    /** @return true if ordered results are read from the time index instead of sorted */
+    boolean walksTimeIndex() {
+        return timeWalk != null;
+    }
+    
+    // ==================== Execution ====================
+    
+    /**
+     * Runs the plan. Candidates are examined only until the limit is reached,
+     * both in storage order and when walking the time index.
+     * @param source Incidents in storage order, indexed by slot
+     * @return the matching incidents, ordered and limited
+     */
+    List<Incident> execute(List<Incident> source) {
+        if (timeWalk != null) {
+            return walk(source);
+        }
+        
+        boolean storageOrder = query.getOrder() == IncidentQuery.Order.STORAGE;
+        int limit = storageOrder ? query.getLimit() : IncidentQuery.NO_LIMIT;
+        BitSet slots = candidates(source.size());
+        
+        List<Incident> matches = new ArrayList<>(Math.min(limit, slots.cardinality()));
+        for (int i = slots.nextSetBit(0); i >= 0 && i < source.size() && matches.size() < limit;
+                i = slots.nextSetBit(i + 1)) {
+            Incident incident = source.get(i);
+            if (verify(incident)) {
+                matches.add(incident);
+            }
+        }
+        return storageOrder ? matches : query.collect(matches.stream());
+    }
+    
+    /**
+     * Counts the matches, ignoring order and limit. When the candidates are
+     * exact no incident is examined.
+     * @param source Incidents in storage order, indexed by slot
+     * @return number of matching incidents
+     */
+    long count(List<Incident> source) {
+        IncidentFilter filter = query.getFilter();
+        boolean columnsExact = access.contains(Access.COLUMNS) || !hasColumnCriteria(filter);
+        boolean datesExact = access.contains(Access.TIME) || !query.hasDateRange();
+        BitSet slots = candidates(source.size());
+        if (columnsExact && datesExact && filter.getSearchText() == null && !query.hasPredicates()) {
+            return slots.cardinality();
+        }
+        
+        long count = 0;
+        for (int i = slots.nextSetBit(0); i >= 0 && i < source.size(); i = slots.nextSetBit(i + 1)) {
+            if (verify(source.get(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @param size Number of slots in the list
+     * @return a new bitmap of the candidate slots
+     */
+    BitSet candidates(int size) {
+        if (candidates != null) {
+            return (BitSet) candidates.clone();
+        }
+        BitSet all = new BitSet(size);
+        all.set(0, size);
+        return all;
+    }
+    
+    /**
+     * Checks a candidate against the criteria its indexes do not already
+     * guarantee. Search text is always checked, as trigrams only narrow.
+     * @param incident Incident at a candidate slot
+     * @return true if it matches the query
+     */
+    boolean verify(Incident incident) {
+        IncidentFilter filter = query.getFilter();
+        if (!access.contains(Access.COLUMNS)
+                && !(filter.matchesTypeFilter(incident)
+                     && filter.matchesStatusFilter(incident)
+                     && filter.matchesLocationFilter(incident))) {
+            return false;
+        }
+        return filter.matchesSearchText(incident)
+            && (access.contains(Access.TIME) || query.matchesDateRange(incident))
+            && query.matchesPredicates(incident);
+    }
+    
+    @Override
+    public String toString() {
+        return (access.isEmpty() ? "SCAN" : access.toString()) + " (~" + estimate + " candidates)"
+            + (timeWalk != null ? ", walking time index" : "");
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Reads matches newest or oldest first from the time index, stopping at
+     * the limit. Undated incidents sort last, so they are only read when the
+     * query has no date range and the limit has not been reached.
+     */
+    private List<Incident> walk(List<Incident> source) {
+        int limit = query.getLimit();
+        List<Incident> matches = new ArrayList<>(Math.min(limit, 64));
+        boolean newestFirst = query.getOrder() == IncidentQuery.Order.NEWEST_FIRST;
+        
+        timeWalk.forEach(query.getReportedFrom(), query.getReportedBefore(), newestFirst, slot -> {
+            if (slot < source.size() && (candidates == null || candidates.get(slot))) {
+                Incident incident = source.get(slot);
+                if (verify(incident)) {
+                    matches.add(incident);
+                }
+            }
+            return matches.size() < limit;
+        });
+        
+        if (!query.hasDateRange() && matches.size() < limit) {
+            BitSet undated = timeWalk.undated();
+            if (candidates != null) {
+                undated.and(candidates);
+            }
+            for (int i = undated.nextSetBit(0); i >= 0 && i < source.size() && matches.size() < limit;
+                    i = undated.nextSetBit(i + 1)) {
+                Incident incident = source.get(i);
+                if (verify(incident)) {
+                    matches.add(incident);
+                }
+            }
+        }
+        return matches;
+    }
+    
+    private static boolean hasColumnCriteria(IncidentFilter filter) {
+        return filter.getTypeFilter() != null || filter.getStatusFilter() != null
+            || filter.getLocationFilter() != null;
+    }
+}
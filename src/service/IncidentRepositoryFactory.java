@@ -0,0 +1,181 @@
+package service;
+
+import model.Incident;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Creates the incident repository selected for this deployment.
+ * The storage format is chosen with the "eligtas.storage" system property:
+ * "json" (default) for the JSON array file, "jsonl" for JSON Lines, or
+ * "journal" for the write-ahead journal with periodic checkpoints.
+ */
+public class IncidentRepositoryFactory {
+    
+    /** System property selecting the storage format */
+    public static final String STORAGE_PROPERTY = "eligtas.storage";
+    
+    /** How often the shared cache writes its binary snapshot */
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 5 * 60 * 1000;
+    
+    private static CachingIncidentRepository cachedRepository;
+    private static JournalIncidentRepository journalRepository;
+    private static BatchingIncidentWriter batchingWriter;
+    
+    /**
+     * Supported incident storage formats.
+     */
+    public enum StorageMode {
+        JSON,
+        JSON_LINES,
+        JOURNAL;
+        
+        /**
+         * Parses a storage mode name, defaulting to JSON.
+         * @param name "json", "jsonl", "journal" or null
+         * @return the matching storage mode
+         */
+        public static StorageMode fromName(String name) {
+            if (name == null) {
+                return JSON;
+            }
+            return switch (name.trim().toLowerCase()) {
+                case "jsonl", "json_lines", "ndjson" -> JSON_LINES;
+                case "journal", "wal" -> JOURNAL;
+                default -> JSON;
+            };
+        }
+    }
+    
+    // ==================== Factory Methods ====================
+    
+    /**
+     * @return the storage mode configured for this deployment
+     */
+    public static StorageMode getStorageMode() {
+        return StorageMode.fromName(System.getProperty(STORAGE_PROPERTY));
+    }
+    
+    /**
+     * Create a repository for the configured storage mode.
+     * @return repository reading and writing the data file directly
+     */
+    public static IIncidentRepository createRepository() {
+        return createRepository(getStorageMode());
+    }
+    
+    /**
+     * Create a repository for the given storage mode.
+     * @param mode Storage format to use
+     * @return repository reading and writing the data file directly
+     */
+    public static IIncidentRepository createRepository(StorageMode mode) {
+        if (mode == StorageMode.JOURNAL) {
+            return getJournalRepository();
+        }
+        if (mode == StorageMode.JSON_LINES) {
+            JsonLinesIncidentRepository repository = new JsonLinesIncidentRepository();
+            migrateIfNeeded(repository.getFilePath());
+            return repository;
+        }
+        return new JsonIncidentRepository();
+    }
+    
+    /**
+     * Get the shared in-memory cached repository for the configured storage mode,
+     * for read-heavy screens such as the dashboard. It starts from the binary
+     * snapshot next to the data file when that snapshot is fresh. The journal
+     * already keeps its state in memory, so it is returned as-is.
+     * @return caching repository over the configured data file
+     */
+    public static synchronized IIncidentRepository getCachedRepository() {
+        if (getStorageMode() == StorageMode.JOURNAL) {
+            return getJournalRepository();
+        }
+        if (cachedRepository == null) {
+            IIncidentRepository repository = createRepository();
+            Path source = getFilePath(repository);
+            IncidentSnapshotFile snapshotFile = new IncidentSnapshotFile(
+                source.resolveSibling(source.getFileName() + ".snapshot"));
+            
+            cachedRepository = new CachingIncidentRepository(repository, source,
+                CachingIncidentRepository.DEFAULT_RECHECK_MILLIS, snapshotFile);
+            cachedRepository.scheduleSnapshots(SNAPSHOT_INTERVAL_MILLIS);
+        }
+        return cachedRepository;
+    }
+    
+    /**
+     * Get the shared group-commit writer for the configured storage mode, for
+     * screens that submit reports. Concurrent submissions are committed
+     * together, and anything still queued is committed when the JVM exits.
+     * It writes through the shared cached repository, so committed reports
+     * reach the cache's indexes directly instead of looking like an outside
+     * change to the data file that forces a full reload.
+     * @return batching writer over the shared cached repository
+     */
+    public static synchronized BatchingIncidentWriter getBatchingWriter() {
+        if (batchingWriter == null) {
+            batchingWriter = new BatchingIncidentWriter(getCachedRepository());
+            Runtime.getRuntime().addShutdownHook(new Thread(batchingWriter::close, "incident-writer-shutdown"));
+        }
+        return batchingWriter;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * The journal keeps its state in memory, so every caller in the process
+     * must share one instance to see each other's writes.
+     */
+    private static synchronized JournalIncidentRepository getJournalRepository() {
+        if (journalRepository == null) {
+            journalRepository = new JournalIncidentRepository();
+            seedJournalIfNeeded(journalRepository.getDirectory());
+        }
+        return journalRepository;
+    }
+    
+    private static Path getFilePath(IIncidentRepository repository) {
+        if (repository instanceof JsonLinesIncidentRepository jsonLines) {
+            return jsonLines.getFilePath();
+        }
+        return ((JsonIncidentRepository) repository).getFilePath();
+    }
+    
+    /** Converts the JSON array file the first time JSON Lines storage is used */
+    private static void migrateIfNeeded(Path target) {
+        Path source = Paths.get(JsonToJsonLinesConverter.DEFAULT_SOURCE);
+        if (Files.exists(target) || !Files.exists(source)) {
+            return;
+        }
+        
+        try {
+            int count = JsonToJsonLinesConverter.convert(source, target);
+            System.out.println("Migrated " + count + " incidents to " + target);
+        } catch (IOException e) {
+            System.err.println("Error migrating incidents: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /** Starts the journal from the JSON array file the first time it is used */
+    private static void seedJournalIfNeeded(Path directory) {
+        Path source = Paths.get(JsonToJsonLinesConverter.DEFAULT_SOURCE);
+        if (Files.exists(directory) || !Files.exists(source)) {
+            return;
+        }
+        
+        try {
+            List<Incident> incidents = new JsonIncidentRepository(source).loadAllIncidents();
+            JournalIncidentRepository.createFrom(directory, incidents);
+            System.out.println("Migrated " + incidents.size() + " incidents to " + directory);
+        } catch (IOException e) {
+            System.err.println("Error migrating incidents: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
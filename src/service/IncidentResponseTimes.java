@@ -0,0 +1,211 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Time-to-respond and time-to-resolve histograms of the incidents of a
+ * store, in total, per type and per location.
+ *
+ * Time to respond runs from the report date to the first change to
+ * Responding (or to Resolved, for incidents resolved directly), and time to
+ * resolve from the report date to the first change to Resolved. Each series
+ * keeps one LatencyHistogram per metric, so memory grows with the number of
+ * types and barangays, not with the number of incidents, and percentiles
+ * never look at individual incidents. Incidents without a readable report
+ * date are not counted. Not thread-safe; owners synchronize access.
+ */
+public class IncidentResponseTimes {
+    
+    /** Durations that can be measured */
+    public enum Metric {
+        TIME_TO_RESPOND, TIME_TO_RESOLVE
+    }
+    
+    private final LatencyHistogram[] total = series();
+    private final Map<String, LatencyHistogram[]> types = new HashMap<>();
+    private final Map<String, LatencyHistogram[]> locations = new HashMap<>();
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Measures the incidents of a list.
+     * @param incidents Incidents to measure
+     * @return the histograms
+     */
+    public static IncidentResponseTimes of(List<Incident> incidents) {
+        IncidentResponseTimes times = new IncidentResponseTimes();
+        for (Incident incident : incidents) {
+            times.add(incident);
+        }
+        return times;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Counts the response times an incident already has.
+     */
+    public void add(Incident incident) {
+        record(incident, Metric.TIME_TO_RESPOND, incident.getRespondedAt());
+        record(incident, Metric.TIME_TO_RESOLVE, incident.getResolvedAt());
+    }
+    
+    /**
+     * Counts the response times an incident gained in a status change.
+     * Transition times never change once recorded, so only new ones count.
+     */
+    public void replaced(Incident before, Incident after) {
+        if (before.getRespondedAt() == ReportDates.UNKNOWN) {
+            record(after, Metric.TIME_TO_RESPOND, after.getRespondedAt());
+        }
+        if (before.getResolvedAt() == ReportDates.UNKNOWN) {
+            record(after, Metric.TIME_TO_RESOLVE, after.getResolvedAt());
+        }
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Reads the percentiles of one metric.
+     * @param metric Time to respond or time to resolve
+     * @return percentiles in total, by type and by location
+     */
+    public Breakdown breakdown(Metric metric) {
+        return new Breakdown(metric, Percentiles.of(total[metric.ordinal()]),
+                             percentilesAll(types, metric), percentilesAll(locations, metric));
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void record(Incident incident, Metric metric, long reachedAt) {
+        long reportedAt = incident.getTimestamp();
+        if (reachedAt == ReportDates.UNKNOWN || reportedAt == ReportDates.UNKNOWN) {
+            return;
+        }
+        long millis = reachedAt - reportedAt;
+        total[metric.ordinal()].record(millis);
+        series(types, incident.getType())[metric.ordinal()].record(millis);
+        series(locations, incident.getLocation())[metric.ordinal()].record(millis);
+    }
+    
+    private static LatencyHistogram[] series(Map<String, LatencyHistogram[]> map, String value) {
+        return map.computeIfAbsent(value == null ? "" : value, key -> series());
+    }
+    
+    private static LatencyHistogram[] series() {
+        LatencyHistogram[] series = new LatencyHistogram[Metric.values().length];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new LatencyHistogram();
+        }
+        return series;
+    }
+    
+    /** Reads every series of a map, merging values that differ only in case */
+    private static Map<String, Percentiles> percentilesAll(Map<String, LatencyHistogram[]> map, Metric metric) {
+        Map<String, LatencyHistogram> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.forEach((value, series) -> {
+            LatencyHistogram histogram = series[metric.ordinal()];
+            if (histogram.getCount() > 0) {
+                merged.merge(value, histogram.copy(), LatencyHistogram::merge);
+            }
+        });
+        Map<String, Percentiles> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.forEach((value, histogram) -> result.put(value, Percentiles.of(histogram)));
+        return result;
+    }
+    
+    // ==================== Nested Types ====================
+    
+    /**
+     * Percentiles of one metric, taken at one point in time.
+     */
+    public static class Breakdown {
+        
+        private final Metric metric;
+        private final Percentiles overall;
+        private final Map<String, Percentiles> byType;
+        private final Map<String, Percentiles> byLocation;
+        
+        public Breakdown(Metric metric, Percentiles overall, Map<String, Percentiles> byType,
+                         Map<String, Percentiles> byLocation) {
+            this.metric = metric;
+            this.overall = overall;
+            this.byType = Collections.unmodifiableMap(byType);
+            this.byLocation = Collections.unmodifiableMap(byLocation);
+        }
+        
+        public Metric getMetric() {
+            return metric;
+        }
+        
+        public Percentiles getOverall() {
+            return overall;
+        }
+        
+        /** @return percentiles by type, ignoring case and sorted by type */
+        public Map<String, Percentiles> getByType() {
+            return byType;
+        }
+        
+        /** @return percentiles by location, ignoring case and sorted by location */
+        public Map<String, Percentiles> getByLocation() {
+            return byLocation;
+        }
+    }
+    
+    /**
+     * Count and p50, p90 and p99 of a set of durations, in milliseconds.
+     */
+    public static class Percentiles {
+        
+        private final long count;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+        
+        public Percentiles(long count, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+        
+        /**
+         * @param histogram Histogram to read
+         * @return its percentiles
+         */
+        public static Percentiles of(LatencyHistogram histogram) {
+            return new Percentiles(histogram.getCount(), histogram.valueAtPercentile(50),
+                                   histogram.valueAtPercentile(90), histogram.valueAtPercentile(99),
+                                   histogram.getMaxMillis());
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public long getP50() {
+            return p50;
+        }
+        
+        public long getP90() {
+            return p90;
+        }
+        
+        public long getP99() {
+            return p99;
+        }
+        
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window counts of recent reports, in total, per type and per
+ * location, for "last hour / 24 hours / 7 days" figures.
+ *
+ * Every series keeps two fixed ring buffers of int counters: one bucket per
+ * minute for the last hour and one per hour for the last week. A report is
+ * counted in the buckets of its report time. A clock moves the rings
+ * forward, and buckets that fall out of a ring are zeroed as it moves, so
+ * nothing is ever rescanned and memory does not grow with history. A
+ * window query adds up at most 168 buckets per series.
+ *
+ * Windows end at the current bucket and are counted in whole buckets: the
+ * last hour is this minute and the 59 before it, and the last day is this
+ * hour and the 23 before it. Reports dated after the clock count in the
+ * current bucket. Reports without a readable date are not counted. Not
+ * thread-safe; owners synchronize access.
+ */
+public class IncidentRollups {
+    
+    /** Number of minute buckets */
+    public static final int MINUTE_BUCKETS = 60;
+    
+    /** Number of hour buckets */
+    public static final int HOUR_BUCKETS = 168;
+    
+    private static final long MILLIS_PER_HOUR = 60 * ReportDates.MILLIS_PER_MINUTE;
+    
+    /** Windows the rollups can answer */
+    public enum Window {
+        LAST_HOUR(ReportDates.MILLIS_PER_MINUTE, 60),
+        LAST_DAY(MILLIS_PER_HOUR, 24),
+        LAST_WEEK(MILLIS_PER_HOUR, 168);
+        
+        private final long bucketMillis;
+        private final int buckets;
+        
+        Window(long bucketMillis, int buckets) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+        
+        /**
+         * @param now Current time as wall-clock milliseconds (see ReportDates)
+         * @return start of the window's first bucket
+         */
+        public long since(long now) {
+            return (Math.floorDiv(now, bucketMillis) - (buckets - 1)) * bucketMillis;
+        }
+    }
+    
+    private final LongSupplier clock;
+    private final Series total = new Series();
+    private final Map<String, Series> types = new HashMap<>();
+    private final Map<String, Series> locations = new HashMap<>();
+    private long minuteHead;
+    private long hourHead;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Creates empty rollups that follow the local clock.
+     */
+    public IncidentRollups() {
+        this(ReportDates::now);
+    }
+    
+    /**
+     * @param clock Current time as wall-clock milliseconds (see ReportDates)
+     */
+    public IncidentRollups(LongSupplier clock) {
+        this.clock = clock;
+        long now = clock.getAsLong();
+        this.minuteHead = Math.floorDiv(now, ReportDates.MILLIS_PER_MINUTE);
+        this.hourHead = Math.floorDiv(now, MILLIS_PER_HOUR);
+    }
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Builds rollups over a list, reading only the last week of reports from
+     * its time index.
+     * @param incidents Incidents in storage order
+     * @param time Time index over the list
+     * @return the rollups
+     */
+    static IncidentRollups of(List<Incident> incidents, IncidentTimeIndex time) {
+        IncidentRollups rollups = new IncidentRollups();
+        long since = Window.LAST_WEEK.since(rollups.clock.getAsLong());
+        time.forEach(since, Long.MAX_VALUE, false, slot -> {
+            Incident incident = incidents.get(slot);
+            rollups.record(incident.getTimestamp(), incident);
+            return true;
+        });
+        return rollups;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Counts a newly stored report.
+     */
+    public void add(Incident incident) {
+        long timestamp = incident.getTimestamp();
+        if (timestamp == ReportDates.UNKNOWN) {
+            return;
+        }
+        advance(clock.getAsLong());
+        record(timestamp, incident);
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Counts the reports in a window.
+     * @param window The window
+     * @return the total and the counts by type and by location
+     */
+    public Counts counts(Window window) {
+        advance(clock.getAsLong());
+        return new Counts(window, sum(total, window), sumAll(types, window), sumAll(locations, window));
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void record(long timestamp, Incident incident) {
+        long minute = Math.min(Math.floorDiv(timestamp, ReportDates.MILLIS_PER_MINUTE), minuteHead);
+        long hour = Math.min(Math.floorDiv(timestamp, MILLIS_PER_HOUR), hourHead);
+        total.add(minute, hour);
+        series(types, incident.getType()).add(minute, hour);
+        series(locations, incident.getLocation()).add(minute, hour);
+    }
+    
+    private Series series(Map<String, Series> map, String value) {
+        return map.computeIfAbsent(value == null ? "" : value, key -> new Series());
+    }
+    
+    /** Moves the rings up to the current minute and hour, zeroing the buckets they reuse */
+    private void advance(long now) {
+        long minute = Math.floorDiv(now, ReportDates.MILLIS_PER_MINUTE);
+        long hour = Math.floorDiv(now, MILLIS_PER_HOUR);
+        if (minute > minuteHead) {
+            total.clearMinutes(minuteHead, minute);
+            types.values().forEach(series -> series.clearMinutes(minuteHead, minute));
+            locations.values().forEach(series -> series.clearMinutes(minuteHead, minute));
+            minuteHead = minute;
+        }
+        if (hour > hourHead) {
+            total.clearHours(hourHead, hour);
+            types.values().forEach(series -> series.clearHours(hourHead, hour));
+            locations.values().forEach(series -> series.clearHours(hourHead, hour));
+            hourHead = hour;
+        }
+    }
+    
+    private int sum(Series series, Window window) {
+        boolean minutes = window.bucketMillis == ReportDates.MILLIS_PER_MINUTE;
+        int[] ring = minutes ? series.minutes : series.hours;
+        long head = minutes ? minuteHead : hourHead;
+        int sum = 0;
+        for (int i = 0; i < window.buckets; i++) {
+            sum += ring[(int) Math.floorMod(head - i, (long) ring.length)];
+        }
+        return sum;
+    }
+    
+    /** Sums every series of a map, merging values that differ only in case */
+    private Map<String, Integer> sumAll(Map<String, Series> map, Window window) {
+        Map<String, Integer> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        map.forEach((value, series) -> {
+            int count = sum(series, window);
+            if (count != 0) {
+                result.merge(value, count, Integer::sum);
+            }
+        });
+        return result;
+    }
+    
+    // ==================== Nested Types ====================
+    
+    /**
+     * Minute and hour rings of one series.
+     */
+    private class Series {
+        
+        final int[] minutes = new int[MINUTE_BUCKETS];
+        final int[] hours = new int[HOUR_BUCKETS];
+        
+        void add(long minute, long hour) {
+            if (minute > minuteHead - MINUTE_BUCKETS) {
+                minutes[(int) Math.floorMod(minute, (long) MINUTE_BUCKETS)]++;
+            }
+            if (hour > hourHead - HOUR_BUCKETS) {
+                hours[(int) Math.floorMod(hour, (long) HOUR_BUCKETS)]++;
+            }
+        }
+        
+        void clearMinutes(long from, long to) {
+            clear(minutes, from, to);
+        }
+        
+        void clearHours(long from, long to) {
+            clear(hours, from, to);
+        }
+        
+        /** Zeroes the buckets of (from, to], or the whole ring if it wrapped */
+        private void clear(int[] ring, long from, long to) {
+            long start = Math.max(from + 1, to - ring.length + 1);
+            for (long bucket = start; bucket <= to; bucket++) {
+                ring[(int) Math.floorMod(bucket, (long) ring.length)] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Report counts of one window, taken at one point in time.
+     */
+    public static class Counts {
+        
+        private final Window window;
+        private final int total;
+        private final Map<String, Integer> byType;
+        private final Map<String, Integer> byLocation;
+        
+        public Counts(Window window, int total, Map<String, Integer> byType, Map<String, Integer> byLocation) {
+            this.window = window;
+            this.total = total;
+            this.byType = Collections.unmodifiableMap(byType);
+            this.byLocation = Collections.unmodifiableMap(byLocation);
+        }
+        
+        /**
+         * Counts the reports of a list in a window, for stores that keep no
+         * rollups.
+         * @param window The window
+         * @param incidents Reports made since the window's start
+         * @return the counts
+         */
+        public static Counts of(Window window, List<Incident> incidents) {
+            Map<String, Integer> byType = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            Map<String, Integer> byLocation = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Incident incident : incidents) {
+                byType.merge(incident.getType() == null ? "" : incident.getType(), 1, Integer::sum);
+                byLocation.merge(incident.getLocation() == null ? "" : incident.getLocation(), 1, Integer::sum);
+            }
+            return new Counts(window, incidents.size(), byType, byLocation);
+        }
+        
+        public Window getWindow() {
+            return window;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        /** @return counts by type, ignoring case and sorted by type */
+        public Map<String, Integer> getByType() {
+            return byType;
+        }
+        
+        /** @return counts by location, ignoring case and sorted by location */
+        public Map<String, Integer> getByLocation() {
+            return byLocation;
+        }
+    }
+}
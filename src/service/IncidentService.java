@@ -2,21 +2,35 @@ package service;
 
 import model.Incident;
 import model.IncidentStatistics;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * Service class handling business logic for incidents.
  * Follows Single Responsibility Principle - handles business logic only.
  * Follows Dependency Inversion Principle - depends on IIncidentRepository abstraction.
+ * Analytics are read from the repository when it implements
+ * IIncidentAnalytics, and otherwise computed by scanning it.
  */
 public class IncidentService {
     
+    /** Lists at least this long are counted in parallel by calculateStatistics */
+    public static final int PARALLEL_THRESHOLD = 65_536;
+    
     private final IIncidentRepository repository;
+    private final IIncidentAnalytics analytics;
     
     // ==================== Constructor (Dependency Injection) ====================
     
     public IncidentService(IIncidentRepository repository) {
         this.repository = repository;
+        this.analytics = repository instanceof IIncidentAnalytics indexed
+                         ? indexed : new ScanningIncidentAnalytics(repository);
     }
     
     // ==================== Business Logic Methods ====================
@@ -52,21 +66,146 @@ public class IncidentService {
                                               locationFilter, searchText);
     }
     
+    /**
+     * Run a query with criteria, date range, order and limit.
+     * @param query The query
+     * @return Matching incidents
+     */
+    public List<Incident> queryIncidents(IncidentQuery query) {
+        return repository.query(query);
+    }
+    
+    /**
+     * Run a query and map each matching incident.
+     * @param query The query
+     * @param projection Mapping applied to each match
+     * @return Mapped results, in the query's order
+     */
+    public <T> List<T> queryIncidents(IncidentQuery query, Function<? super Incident, ? extends T> projection) {
+        return repository.query(query, projection);
+    }
+    
+    /**
+     * Get one page of filtered incidents.
+     * @param filter Filter criteria
+     * @param cursor IncidentPage.FIRST, or the previous page's next cursor
+     * @param pageSize Maximum number of incidents on the page
+     * @return The page and the cursor of the next one
+     */
+    public IncidentPage getIncidentPage(IncidentFilter filter, long cursor, int pageSize) {
+        return repository.getPage(filter, cursor, pageSize);
+    }
+    
+    /**
+     * Count filtered incidents without loading them into a list.
+     * @param filter Filter criteria
+     * @return Number of matching incidents
+     */
+    public long countIncidents(IncidentFilter filter) {
+        return repository.count(filter);
+    }
+    
+    /**
+     * Move an incident to a new status, e.g. from Pending to Responding.
+     * @param id Incident id
+     * @param status New status
+     * @return True if the status was changed, false otherwise
+     */
+    public boolean updateIncidentStatus(String id, String status) {
+        if (status == null || status.trim().isEmpty()) {
+            return false;
+        }
+        return repository.updateStatus(id, status.trim());
+    }
+    
+    /**
+     * Find an incident by its id.
+     * @param id Incident id
+     * @return The incident, or null if there is none with that id
+     */
+    public Incident findIncident(String id) {
+        return repository.findById(id);
+    }
+    
+    /**
+     * Get statistics over every stored incident from the repository's
+     * count cube, without loading the incidents.
+     * @return IncidentStatistics object with current statistics
+     */
+    public IncidentStatistics getStatistics() {
+        return analytics.getStatistics();
+    }
+    
+    /**
+     * Count stored incidents in a slice grouped by one dimension, e.g.
+     * pending floods per location or reports per day.
+     * @param dimension Dimension to group by
+     * @param slice Type, status, location and report days to count
+     * @return counts by value
+     */
+    public Map<String, Integer> countBy(IncidentCube.Dimension dimension, IncidentCube.Slice slice) {
+        return analytics.rollUp(dimension, slice);
+    }
+    
+    /**
+     * Count reports made in a recent window, in total, by type and by
+     * location, from the repository's sliding-window rollups.
+     * @param window Last hour, day or week
+     * @return the counts
+     */
+    public IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window) {
+        return analytics.getRecentCounts(window);
+    }
+    
+    /**
+     * Estimate distinct contact numbers and reporters and the most reported
+     * locations and types over a date range, e.g. this week's distinct
+     * reporters or the top 10 barangays of the year. The range is widened to
+     * whole weeks.
+     * @param from First report day, or null for no lower bound
+     * @param before Day after the last report day, or null for no upper bound
+     * @return the summary
+     */
+    public IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before) {
+        return analytics.getReportSummary(from, before);
+    }
+    
+    /**
+     * Read p50, p90 and p99 of time to respond or time to resolve, in total,
+     * by type and by location, from the repository's histograms.
+     * @param metric Time to respond or time to resolve
+     * @return the percentiles, in milliseconds
+     */
+    public IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric) {
+        return analytics.getResponseTimes(metric);
+    }
+    
+    /**
+     * Read the current surge alert levels from the repository's streaming
+     * detector, e.g. an unusual number of floods in one barangay in the last
+     * quarter hour.
+     * @return the overall level and the raised series, most severe first
+     */
+    public IncidentSurgeDetector.Status getSurgeStatus() {
+        return analytics.getSurgeStatus();
+    }
+    
     /**
      * Calculate statistics from a list of incidents.
+     * Long lists are split across cores with a fork/join task.
      * @param incidents List of incidents to analyze
      * @return IncidentStatistics object with computed statistics
      */
     public IncidentStatistics calculateStatistics(List<Incident> incidents) {
-        IncidentStatistics stats = new IncidentStatistics();
-        
-        for (Incident incident : incidents) {
-            stats.incrementTotal();
-            stats.incrementStatusCount(incident.getStatus());
-            stats.incrementTypeCount(incident.getType());
+        if (incidents.size() < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            IncidentStatistics stats = new IncidentStatistics();
+            for (Incident incident : incidents) {
+                stats.add(incident);
+            }
+            return stats;
         }
-        
-        return stats;
+        List<Incident> list = incidents instanceof RandomAccess ? incidents : new ArrayList<>(incidents);
+        return ForkJoinPool.commonPool().invoke(new IncidentStatisticsTask(list));
     }
     
     /**
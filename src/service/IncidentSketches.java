@@ -0,0 +1,262 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Approximate report analytics over long histories: distinct contact
+ * numbers and reporters, and the most reported locations and types.
+ *
+ * Reports are partitioned by the week, Monday to Sunday, of their report
+ * date. Each week keeps a HyperLogLog of contact numbers, one of reporter
+ * names, and HeavyHitters of locations and of types, about 20 KB in all
+ * however many reports the week has. A summary merges the weeks it covers,
+ * so it costs one merge per week rather than a pass over the reports.
+ * Reports without a readable date have a partition of their own, included
+ * only in summaries of the whole history.
+ *
+ * Contact numbers are compared without spaces and dashes, and reporter
+ * names ignoring case. Sketches of different stores or time ranges merge
+ * week by week. Not thread-safe; owners synchronize access.
+ */
+public class IncidentSketches {
+    
+    /** Partition of reports without a readable date */
+    private static final long UNDATED = Long.MIN_VALUE;
+    
+    private final NavigableMap<Long, Partition> weeks = new TreeMap<>();
+    private long lastWeek = UNDATED;
+    private Partition lastPartition;
+    private int total;
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Sketches the reports of a list.
+     * @param incidents Incidents to sketch
+     * @return the sketches
+     */
+    public static IncidentSketches of(List<Incident> incidents) {
+        IncidentSketches sketches = new IncidentSketches();
+        for (Incident incident : incidents) {
+            sketches.add(incident);
+        }
+        return sketches;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Records a newly stored report.
+     */
+    public void add(Incident incident) {
+        long timestamp = incident.getTimestamp();
+        long week = timestamp == ReportDates.UNKNOWN
+            ? UNDATED : week(Math.floorDiv(timestamp, ReportDates.MILLIS_PER_DAY));
+        // Reports mostly arrive in date order, so the last week is usually the one
+        if (lastPartition == null || week != lastWeek) {
+            lastPartition = weeks.computeIfAbsent(week, key -> new Partition());
+            lastWeek = week;
+        }
+        lastPartition.add(incident);
+        total++;
+    }
+    
+    /**
+     * Adds another set of sketches to this one, week by week.
+     * @param other Sketches of other reports
+     * @return this set
+     */
+    public IncidentSketches merge(IncidentSketches other) {
+        other.weeks.forEach((week, partition) ->
+            weeks.merge(week, partition.copy(), Partition::merge));
+        total += other.total;
+        return this;
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Summarizes the reports of the whole history.
+     * @return the summary
+     */
+    public Summary summarize() {
+        return summarize(weeks.values());
+    }
+    
+    /**
+     * Summarizes the reports of a date range, counted in whole weeks: every
+     * week containing a day of the range is included.
+     * @param from First day, or null for no lower bound
+     * @param before Day after the last, or null for no upper bound
+     * @return the summary
+     */
+    public Summary summarize(LocalDate from, LocalDate before) {
+        if (from == null && before == null) {
+            return summarize();
+        }
+        long first = from == null ? UNDATED + 1 : week(from.toEpochDay());
+        long last = before == null ? Long.MAX_VALUE : week(before.toEpochDay() - 1);
+        if (first > last) {
+            return new Summary(new Partition());
+        }
+        return summarize(weeks.subMap(first, true, last, true).values());
+    }
+    
+    /**
+     * @return the number of reports recorded
+     */
+    public int getTotal() {
+        return total;
+    }
+    
+    // ==================== Package Methods ====================
+    
+    /** The partitions by week number, for storage; UNDATED holds reports without a date */
+    NavigableMap<Long, Partition> weeks() {
+        return weeks;
+    }
+    
+    /** Restores a partition read back from storage */
+    void addPartition(long week, Partition partition) {
+        weeks.put(week, partition);
+        lastPartition = null;
+        total += partition.count;
+    }
+    
+    /**
+     * @param epochDay Day as days since 1970-01-01
+     * @return the number of the Monday-to-Sunday week containing it
+     */
+    static long week(long epochDay) {
+        // 1970-01-01 was a Thursday, three days after the week's Monday
+        return Math.floorDiv(epochDay + 3, 7);
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private static Summary summarize(Iterable<Partition> partitions) {
+        Partition merged = new Partition();
+        for (Partition partition : partitions) {
+            merged.merge(partition);
+        }
+        return new Summary(merged);
+    }
+    
+    // ==================== Nested Types ====================
+    
+    /**
+     * Sketches of one week's reports.
+     */
+    static class Partition {
+        
+        final HyperLogLog contacts;
+        final HyperLogLog reporters;
+        final HeavyHitters locations;
+        final HeavyHitters types;
+        int count;
+        
+        Partition() {
+            this(new HyperLogLog(), new HyperLogLog(), new HeavyHitters(), new HeavyHitters(), 0);
+        }
+        
+        Partition(HyperLogLog contacts, HyperLogLog reporters, HeavyHitters locations, HeavyHitters types,
+                  int count) {
+            this.contacts = contacts;
+            this.reporters = reporters;
+            this.locations = locations;
+            this.types = types;
+            this.count = count;
+        }
+        
+        void add(Incident incident) {
+            contacts.add(compact(incident.getContact()));
+            String reporter = incident.getReporter() == null ? "" : incident.getReporter().trim();
+            if (!reporter.isEmpty()) {
+                reporters.addHash(SketchHash.ofIgnoreCase(reporter));
+            }
+            locations.add(incident.getLocation());
+            types.add(incident.getType());
+            count++;
+        }
+        
+        Partition merge(Partition other) {
+            contacts.merge(other.contacts);
+            reporters.merge(other.reporters);
+            locations.merge(other.locations);
+            types.merge(other.types);
+            count += other.count;
+            return this;
+        }
+        
+        Partition copy() {
+            return new Partition(contacts.copy(), reporters.copy(), locations.copy(), types.copy(), count);
+        }
+        
+        /** Drops spaces and dashes from a contact number, as the phone validator does */
+        private static String compact(String contact) {
+            if (contact == null) {
+                return null;
+            }
+            StringBuilder compact = null;
+            for (int i = 0; i < contact.length(); i++) {
+                char c = contact.charAt(i);
+                boolean separator = c == '-' || Character.isWhitespace(c);
+                if (separator && compact == null) {
+                    compact = new StringBuilder(contact.length()).append(contact, 0, i);
+                } else if (!separator && compact != null) {
+                    compact.append(c);
+                }
+            }
+            return compact == null ? contact : compact.toString();
+        }
+    }
+    
+    /**
+     * Approximate figures for the reports of a range of weeks.
+     */
+    public static class Summary {
+        
+        private final Partition merged;
+        
+        Summary(Partition merged) {
+            this.merged = merged;
+        }
+        
+        /** @return the exact number of reports covered */
+        public int getReportCount() {
+            return merged.count;
+        }
+        
+        /** @return the estimated number of distinct contact numbers */
+        public long getDistinctContacts() {
+            return merged.contacts.estimate();
+        }
+        
+        /** @return the estimated number of distinct reporter names */
+        public long getDistinctReporters() {
+            return merged.reporters.estimate();
+        }
+        
+        /**
+         * @param k Number of locations wanted, at most HeavyHitters.DEFAULT_CAPACITY
+         * @return the most reported locations and their estimated counts, most reported first
+         */
+        public Map<String, Integer> getTopLocations(int k) {
+            return merged.locations.top(k);
+        }
+        
+        /**
+         * @param k Number of types wanted, at most HeavyHitters.DEFAULT_CAPACITY
+         * @return the most reported types and their estimated counts, most reported first
+         */
+        public Map<String, Integer> getTopTypes(int k) {
+            return merged.types.top(k);
+        }
+    }
+}
@@ -0,0 +1,535 @@
+package service;
+
+import model.Incident;
+import util.AtomicFiles;
+import util.ReportDates;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of the incident store for fast startup.
+ *
+ * Layout (all integers are unsigned LEB128 varints unless noted):
+ * <pre>
+ *   magic "ELIS" (4 bytes), format version
+ *   source modified time, source size   (zigzag; used to detect a stale snapshot)
+ *   dictionaries: type, status, location (count, then length-prefixed UTF-8 values)
+ *   record count, then per record:
+ *     id                                  (length-prefixed UTF-8, never empty)
+ *     type id, status id, location id,
+ *     date (kind tag + zigzag value, or a length-prefixed string),
+ *     description, reporter, contact      (length-prefixed UTF-8)
+ *     responded and resolved times        (0 if unknown, else zigzag + 1)
+ *   extension sections (tag, length, bytes) terminated by tag 0:
+ *     1 = count cube: type, status and location dictionaries, day count
+ *         and zigzag epoch days, then cell count and per non-zero cell
+ *         type id, status id, location id, day id, count
+ *     2 = report sketches: partition count, then per partition zigzag
+ *         week number and report count, contact and reporter HyperLogLogs
+ *         (precision, register bytes), and location and type HeavyHitters
+ *         (capacity, sketch depth and width, counters, candidate values)
+ * </pre>
+ * Low-cardinality fields are stored once in the dictionaries, so each record
+ * costs a few bytes plus its free text. The file is read through a
+ * memory-mapped FileChannel. Readers skip sections they do not know, so
+ * sections can be added without a new version.
+ */
+public class IncidentSnapshotFile {
+    
+    private static final int MAGIC = 0x454C4953; // "ELIS"
+    private static final int VERSION = 1;
+    
+    private static final int DATE_TEXT = 0;
+    private static final int DATE_DAY = 1;
+    private static final int DATE_MINUTE = 2;
+    
+    private static final int SECTION_END = 0;
+    private static final int SECTION_CUBE = 1;
+    private static final int SECTION_SKETCHES = 2;
+    
+    private final Path path;
+    
+    // ==================== Constructor ====================
+    
+    public IncidentSnapshotFile(Path path) {
+        this.path = path;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * @return location of the snapshot file
+     */
+    public Path getPath() {
+        return path;
+    }
+    
+    /**
+     * Writes a snapshot of the incidents, replacing any previous snapshot atomically.
+     * @param incidents Incidents to store
+     * @param sourceModified Modification time of the data file the incidents came from
+     * @param sourceSize Size of the data file the incidents came from
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(List<Incident> incidents, long sourceModified, long sourceSize) throws IOException {
+        // A cache snapshot can always be rebuilt from the data file, so it is not forced
+        write(incidents, sourceModified, sourceSize, false);
+    }
+    
+    /**
+     * Writes a snapshot of the incidents, replacing any previous snapshot atomically.
+     * @param incidents Incidents to store
+     * @param sourceModified Modification time of the data file the incidents came from
+     * @param sourceSize Size of the data file the incidents came from
+     * @param force Whether the snapshot must be on disk before it replaces the old one
+     * @throws IOException if the snapshot cannot be written or an incident has no id
+     */
+    public void write(List<Incident> incidents, long sourceModified, long sourceSize,
+                      boolean force) throws IOException {
+        AtomicFiles.write(path, out -> {
+            Encoder encoder = new Encoder(out);
+            encoder.writeFixedInt(MAGIC);
+            encoder.writeVarint(VERSION);
+            encoder.writeVarlong(zigzag(sourceModified));
+            encoder.writeVarlong(zigzag(sourceSize));
+            
+            Map<String, Integer> types = new HashMap<>();
+            Map<String, Integer> statuses = new HashMap<>();
+            Map<String, Integer> locations = new HashMap<>();
+            List<String> typeValues = new ArrayList<>();
+            List<String> statusValues = new ArrayList<>();
+            List<String> locationValues = new ArrayList<>();
+            int[] ids = new int[incidents.size() * 3];
+            for (int i = 0; i < incidents.size(); i++) {
+                Incident incident = incidents.get(i);
+                ids[i * 3] = dictionaryId(types, typeValues, incident.getType());
+                ids[i * 3 + 1] = dictionaryId(statuses, statusValues, incident.getStatus());
+                ids[i * 3 + 2] = dictionaryId(locations, locationValues, incident.getLocation());
+            }
+            encoder.writeDictionary(typeValues);
+            encoder.writeDictionary(statusValues);
+            encoder.writeDictionary(locationValues);
+            
+            encoder.writeVarint(incidents.size());
+            for (int i = 0; i < incidents.size(); i++) {
+                Incident incident = incidents.get(i);
+                if (incident.getId() == null || incident.getId().isEmpty()) {
+                    throw new IOException("Incident " + i + " has no id");
+                }
+                encoder.writeString(incident.getId());
+                encoder.writeVarint(ids[i * 3]);
+                encoder.writeVarint(ids[i * 3 + 1]);
+                encoder.writeVarint(ids[i * 3 + 2]);
+                encoder.writeDate(incident);
+                encoder.writeString(incident.getDescription());
+                encoder.writeString(incident.getReporter());
+                encoder.writeString(incident.getContact());
+                encoder.writeTime(incident.getRespondedAt());
+                encoder.writeTime(incident.getResolvedAt());
+            }
+            
+            encoder.writeVarint(SECTION_CUBE);
+            encoder.writeBytes(encodeCube(IncidentCube.of(incidents)));
+            encoder.writeVarint(SECTION_SKETCHES);
+            encoder.writeBytes(encodeSketches(IncidentSketches.of(incidents)));
+            
+            encoder.writeVarint(SECTION_END);
+        }, force);
+    }
+    
+    /**
+     * Reads the snapshot if it was taken from the data file in its current state.
+     * @param sourceModified Current modification time of the data file
+     * @param sourceSize Current size of the data file
+     * @return the stored incidents, or null if the snapshot is missing, stale or unreadable
+     */
+    public List<Incident> readIfFresh(long sourceModified, long sourceSize) {
+        Contents contents = readContentsIfFresh(sourceModified, sourceSize);
+        return contents == null ? null : contents.getIncidents();
+    }
+    
+    /**
+     * Reads the snapshot and the count cube and sketches stored with it if it
+     * was taken from the data file in its current state.
+     * @param sourceModified Current modification time of the data file
+     * @param sourceSize Current size of the data file
+     * @return the contents, or null if the snapshot is missing, stale or unreadable
+     */
+    public Contents readContentsIfFresh(long sourceModified, long sourceSize) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Decoder decoder = new Decoder(buffer);
+            
+            if (buffer.getInt() != MAGIC) {
+                return null;
+            }
+            if (decoder.readVarint() != VERSION) {
+                return null;
+            }
+            if (unzigzag(decoder.readVarlong()) != sourceModified
+                || unzigzag(decoder.readVarlong()) != sourceSize) {
+                return null;
+            }
+            
+            String[] types = decoder.readDictionary();
+            String[] statuses = decoder.readDictionary();
+            String[] locations = decoder.readDictionary();
+            
+            int count = decoder.readVarint();
+            List<Incident> incidents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = decoder.readString();
+                if (id.isEmpty()) {
+                    throw new IOException("record " + i + " has no id");
+                }
+                String type = types[decoder.readVarint()];
+                String status = statuses[decoder.readVarint()];
+                String location = locations[decoder.readVarint()];
+                int dateKind = decoder.readVarint();
+                long dateValue = dateKind == DATE_TEXT ? 0 : unzigzag(decoder.readVarlong());
+                String dateText = dateKind == DATE_TEXT ? decoder.readString() : null;
+                String description = decoder.readString();
+                String reporter = decoder.readString();
+                String contact = decoder.readString();
+                long respondedAt = decoder.readTime();
+                long resolvedAt = decoder.readTime();
+                Incident incident = switch (dateKind) {
+                    case DATE_DAY -> new Incident(id, type, location, description, reporter, contact, status,
+                                                  ReportDates.formatDay(dateValue * ReportDates.MILLIS_PER_DAY));
+                    case DATE_MINUTE -> new Incident(id, type, location, description, reporter, contact, status,
+                                                     dateValue * ReportDates.MILLIS_PER_MINUTE);
+                    default -> new Incident(id, type, location, description, reporter, contact, status, dateText);
+                };
+                incident.setRespondedAt(respondedAt);
+                incident.setResolvedAt(resolvedAt);
+                incidents.add(incident);
+            }
+            
+            IncidentCube cube = null;
+            IncidentSketches sketches = null;
+            for (int tag = decoder.readVarint(); tag != SECTION_END; tag = decoder.readVarint()) {
+                int length = decoder.readVarint();
+                if (tag == SECTION_CUBE) {
+                    cube = decoder.readCube();
+                } else if (tag == SECTION_SKETCHES) {
+                    sketches = decoder.readSketches();
+                } else {
+                    // Skip extension sections this version does not understand
+                    buffer.position(buffer.position() + length);
+                }
+            }
+            return new Contents(incidents, cube, sketches);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A damaged snapshot is never fatal; the data file is the source of truth
+            System.err.println("Ignoring unreadable snapshot " + path + ": " + e);
+            return null;
+        }
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private static int dictionaryId(Map<String, Integer> ids, List<String> values, String value) {
+        String key = value == null ? "" : value;
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = values.size();
+            ids.put(key, id);
+            values.add(key);
+        }
+        return id;
+    }
+    
+    private static byte[] encodeCube(IncidentCube cube) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Encoder encoder = new Encoder(bytes);
+        encoder.writeDictionary(cube.values(IncidentCube.Dimension.TYPE));
+        encoder.writeDictionary(cube.values(IncidentCube.Dimension.STATUS));
+        encoder.writeDictionary(cube.values(IncidentCube.Dimension.LOCATION));
+        long[] days = cube.days();
+        encoder.writeVarint(days.length);
+        for (long day : days) {
+            encoder.writeVarlong(zigzag(day));
+        }
+        
+        List<int[]> cells = new ArrayList<>();
+        cube.forEachCell((type, status, location, day, count) ->
+            cells.add(new int[]{type, status, location, day, count}));
+        encoder.writeVarint(cells.size());
+        for (int[] cell : cells) {
+            for (int value : cell) {
+                encoder.writeVarint(value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static byte[] encodeSketches(IncidentSketches sketches) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Encoder encoder = new Encoder(bytes);
+        encoder.writeVarint(sketches.weeks().size());
+        for (Map.Entry<Long, IncidentSketches.Partition> entry : sketches.weeks().entrySet()) {
+            IncidentSketches.Partition partition = entry.getValue();
+            encoder.writeVarlong(zigzag(entry.getKey()));
+            encoder.writeVarint(partition.count);
+            encoder.writeHyperLogLog(partition.contacts);
+            encoder.writeHyperLogLog(partition.reporters);
+            encoder.writeHeavyHitters(partition.locations);
+            encoder.writeHeavyHitters(partition.types);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    // ==================== Encoder ====================
+    
+    /**
+     * Writes varints, strings and dates to a buffered stream.
+     */
+    private static class Encoder {
+        
+        private final OutputStream out;
+        
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+        
+        void writeFixedInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+        
+        void writeVarint(int value) throws IOException {
+            writeVarlong(value & 0xFFFFFFFFL);
+        }
+        
+        void writeVarlong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+        
+        void writeString(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+        
+        /** Writes 0 for an unknown time, so records without one cost a single byte */
+        void writeTime(long time) throws IOException {
+            writeVarlong(time == ReportDates.UNKNOWN ? 0 : zigzag(time) + 1);
+        }
+        
+        void writeBytes(byte[] bytes) throws IOException {
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+        
+        void writeDictionary(List<String> values) throws IOException {
+            writeVarint(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+        
+        void writeHyperLogLog(HyperLogLog sketch) throws IOException {
+            writeVarint(sketch.getPrecision());
+            writeBytes(sketch.registers());
+        }
+        
+        void writeHeavyHitters(HeavyHitters hitters) throws IOException {
+            CountMinSketch sketch = hitters.sketch();
+            writeVarint(hitters.getCapacity());
+            writeVarint(sketch.getDepth());
+            writeVarint(sketch.getWidth());
+            for (int count : sketch.cells()) {
+                writeVarint(count);
+            }
+            writeDictionary(hitters.candidateValues());
+        }
+        
+        /**
+         * Stores the two date formats the app produces as numbers, falling back
+         * to text for anything that would not round-trip exactly.
+         */
+        void writeDate(Incident incident) throws IOException {
+            long timestamp = incident.getTimestamp();
+            String date = incident.getDate();
+            if (timestamp != ReportDates.UNKNOWN) {
+                if (timestamp % ReportDates.MILLIS_PER_DAY == 0 && ReportDates.formatDay(timestamp).equals(date)) {
+                    writeVarint(DATE_DAY);
+                    writeVarlong(zigzag(timestamp / ReportDates.MILLIS_PER_DAY));
+                    return;
+                }
+                if (timestamp % ReportDates.MILLIS_PER_MINUTE == 0
+                        && ReportDates.formatReportDate(timestamp).equals(date)) {
+                    writeVarint(DATE_MINUTE);
+                    writeVarlong(zigzag(timestamp / ReportDates.MILLIS_PER_MINUTE));
+                    return;
+                }
+            }
+            writeVarint(DATE_TEXT);
+            writeString(date);
+        }
+    }
+    
+    // ==================== Decoder ====================
+    
+    /**
+     * Reads varints and strings from a mapped buffer.
+     */
+    private static class Decoder {
+        
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+        
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        int readVarint() {
+            return (int) readVarlong();
+        }
+        
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new BufferUnderflowException();
+        }
+        
+        long readTime() {
+            long value = readVarlong();
+            return value == 0 ? ReportDates.UNKNOWN : unzigzag(value - 1);
+        }
+        
+        String readString() {
+            int length = readVarint();
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        
+        String[] readDictionary() {
+            String[] values = new String[readVarint()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+        
+        IncidentCube readCube() {
+            String[] types = readDictionary();
+            String[] statuses = readDictionary();
+            String[] locations = readDictionary();
+            long[] days = new long[readVarint()];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = unzigzag(readVarlong());
+            }
+            
+            IncidentCube cube = IncidentCube.withDictionaries(types, statuses, locations, days);
+            for (int cells = readVarint(); cells > 0; cells--) {
+                cube.addCount(readVarint(), readVarint(), readVarint(), readVarint(), readVarint());
+            }
+            return cube;
+        }
+        
+        IncidentSketches readSketches() {
+            IncidentSketches sketches = new IncidentSketches();
+            for (int partitions = readVarint(); partitions > 0; partitions--) {
+                long week = unzigzag(readVarlong());
+                int count = readVarint();
+                sketches.addPartition(week, new IncidentSketches.Partition(
+                    readHyperLogLog(), readHyperLogLog(), readHeavyHitters(), readHeavyHitters(), count));
+            }
+            return sketches;
+        }
+        
+        HyperLogLog readHyperLogLog() {
+            int precision = readVarint();
+            byte[] registers = new byte[readVarint()];
+            buffer.get(registers);
+            return new HyperLogLog(precision, registers);
+        }
+        
+        HeavyHitters readHeavyHitters() {
+            int capacity = readVarint();
+            int depth = readVarint();
+            int width = readVarint();
+            int[] cells = new int[depth * width];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = readVarint();
+            }
+            HeavyHitters hitters = new HeavyHitters(new CountMinSketch(depth, width, cells), capacity);
+            for (String value : readDictionary()) {
+                hitters.addCandidate(value);
+            }
+            return hitters;
+        }
+    }
+    
+    // ==================== Contents ====================
+    
+    /**
+     * What a snapshot holds: the incidents in storage order and, for
+     * snapshots that store them, the count cube and the report sketches.
+     */
+    public static class Contents {
+        
+        private final List<Incident> incidents;
+        private final IncidentCube cube;
+        private final IncidentSketches sketches;
+        
+        Contents(List<Incident> incidents, IncidentCube cube, IncidentSketches sketches) {
+            this.incidents = incidents;
+            this.cube = cube;
+            this.sketches = sketches;
+        }
+        
+        public List<Incident> getIncidents() {
+            return incidents;
+        }
+        
+        /** @return the stored cube, or null if the snapshot has none */
+        public IncidentCube getCube() {
+            return cube;
+        }
+        
+        /** @return the stored sketches, or null if the snapshot has none */
+        public IncidentSketches getSketches() {
+            return sketches;
+        }
+    }
+}
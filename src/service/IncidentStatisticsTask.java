@@ -0,0 +1,70 @@
+package service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join task counting the statistics of a large incident list.
+ *
+ * The list is split in halves until a part has at most the threshold
+ * number of incidents; each part is counted into its own IncidentStatistics
+ * and the parts are merged on the way back up. The list must support fast
+ * random access and must not change while the task runs.
+ */
+public class IncidentStatisticsTask extends RecursiveTask<IncidentStatistics> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    /** Default size of the parts counted sequentially */
+    public static final int DEFAULT_THRESHOLD = 16_384;
+    
+    private final List<Incident> incidents;
+    private final int from;
+    private final int to;
+    private final int threshold;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * @param incidents Incidents to count
+     */
+    public IncidentStatisticsTask(List<Incident> incidents) {
+        this(incidents, DEFAULT_THRESHOLD);
+    }
+    
+    /**
+     * @param incidents Incidents to count
+     * @param threshold Size of the parts counted sequentially
+     */
+    public IncidentStatisticsTask(List<Incident> incidents, int threshold) {
+        this(incidents, 0, incidents.size(), Math.max(1, threshold));
+    }
+    
+    private IncidentStatisticsTask(List<Incident> incidents, int from, int to, int threshold) {
+        this.incidents = incidents;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+    
+    // ==================== RecursiveTask Implementation ====================
+    
+    @Override
+    protected IncidentStatistics compute() {
+        if (to - from <= threshold) {
+            IncidentStatistics stats = new IncidentStatistics();
+            for (int i = from; i < to; i++) {
+                stats.add(incidents.get(i));
+            }
+            return stats;
+        }
+        
+        int middle = (from + to) >>> 1;
+        IncidentStatisticsTask left = new IncidentStatisticsTask(incidents, from, middle, threshold);
+        left.fork();
+        IncidentStatistics right = new IncidentStatisticsTask(incidents, middle, to, threshold).compute();
+        return left.join().merge(right);
+    }
+}
@@ -0,0 +1,192 @@
+package service;
+
+import model.Incident;
+import util.DurabilityPolicy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of status changes kept beside a JSON or JSON Lines data
+ * file, merged into incidents as they are read.
+ *
+ * A status update appends one small journal entry instead of rewriting the
+ * data file. Every change is kept with its time, in order, so merging
+ * restores when an incident first became Responding and Resolved as well as
+ * its latest status. Once the log holds enough entries the repository folds
+ * the statuses into the data file with a single rewrite and clears the log.
+ * Callers hold the repository's write lock around every method.
+ */
+class IncidentStatusLog {
+    
+    /** Number of logged changes after which the repository folds them into the data file */
+    static final int DEFAULT_COMPACT_ENTRIES = 1000;
+    
+    private final Path path;
+    private final Map<String, List<Change>> changes = new HashMap<>();
+    
+    private IncidentJournal journal;
+    private int entryCount;
+    private long loadedSize = -1;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param dataFile Data file whose incidents the log applies to
+     */
+    IncidentStatusLog(Path dataFile) {
+        this.path = pathFor(dataFile);
+    }
+    
+    /**
+     * @param dataFile Data file of a repository
+     * @return location of the status log kept beside it
+     */
+    static Path pathFor(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + ".status");
+    }
+    
+    // ==================== Methods ====================
+    
+    /**
+     * Appends a status change.
+     * @param id Incident id
+     * @param status New status
+     * @param changedAt Time of the change (see ReportDates)
+     * @param durability Policy deciding when the entry is forced to disk
+     * @throws IOException if the entry cannot be written
+     */
+    void record(String id, String status, long changedAt, DurabilityPolicy durability) throws IOException {
+        refresh();
+        if (journal == null) {
+            journal = new IncidentJournal(path, entryCount);
+        }
+        journal.appendStatusChanged(id, status, changedAt);
+        journal.sync(durability, 1, false);
+        entryCount++;
+        add(id, status, changedAt);
+        loadedSize = Files.size(path);
+    }
+    
+    /**
+     * Applies the logged status changes of an incident, if any.
+     * @param incident Incident read from the data file
+     * @return the same incident
+     * @throws IOException if the log cannot be read
+     */
+    Incident apply(Incident incident) throws IOException {
+        refresh();
+        return merge(incident, changes);
+    }
+    
+    /**
+     * @return a copy of the logged changes per incident id, for applying
+     *         outside the write lock with merge
+     * @throws IOException if the log cannot be read
+     */
+    Map<String, List<Change>> snapshot() throws IOException {
+        refresh();
+        Map<String, List<Change>> copy = new HashMap<>(changes.size() * 2);
+        changes.forEach((id, list) -> copy.put(id, new ArrayList<>(list)));
+        return copy;
+    }
+    
+    /**
+     * Applies the changes of an incident in a snapshot, if any.
+     * @param incident Incident read from the data file
+     * @param changes Snapshot of logged changes
+     * @return the same incident
+     */
+    static Incident merge(Incident incident, Map<String, List<Change>> changes) {
+        List<Change> logged = incident.getId() == null ? null : changes.get(incident.getId());
+        if (logged != null) {
+            for (Change change : logged) {
+                incident.changeStatus(change.status, change.changedAt);
+            }
+        }
+        return incident;
+    }
+    
+    /**
+     * @return whether the log has grown enough to be folded into the data file
+     * @throws IOException if the log cannot be read
+     */
+    boolean needsCompaction() throws IOException {
+        refresh();
+        return entryCount >= DEFAULT_COMPACT_ENTRIES;
+    }
+    
+    /**
+     * Deletes the log after its statuses were written into the data file.
+     * @throws IOException if the log cannot be deleted
+     */
+    void clear() throws IOException {
+        closeJournal();
+        Files.deleteIfExists(path);
+        changes.clear();
+        entryCount = 0;
+        loadedSize = 0;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Replays the log again if another repository instance changed it */
+    private void refresh() throws IOException {
+        long size;
+        try {
+            size = Files.size(path);
+        } catch (NoSuchFileException e) {
+            size = 0;
+        }
+        if (size == loadedSize) {
+            return;
+        }
+        
+        closeJournal();
+        changes.clear();
+        entryCount = IncidentJournal.replay(path, new IncidentJournal.Listener() {
+            @Override
+            public void created(Incident incident) {
+                // Not written to status logs
+            }
+            
+            @Override
+            public void statusChanged(String id, String status, long changedAt) {
+                add(id, status, changedAt);
+            }
+        }, true);
+        loadedSize = entryCount > 0 ? Files.size(path) : 0;
+    }
+    
+    private void add(String id, String status, long changedAt) {
+        changes.computeIfAbsent(id, key -> new ArrayList<>(2)).add(new Change(status, changedAt));
+    }
+    
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+    
+    // ==================== Change ====================
+    
+    /**
+     * One logged status change.
+     */
+    static class Change {
+        
+        final String status;
+        final long changedAt;
+        
+        Change(String status, long changedAt) {
+            this.status = status;
+            this.changedAt = changedAt;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Streaming surge detection over incoming reports, for the whole
+ * municipality, per barangay and per barangay and type.
+ *
+ * Reports are counted in fixed intervals. Every series keeps only the count
+ * of its current interval and an exponentially weighted mean and variance of
+ * its past interval counts. When a report starts a new interval the finished
+ * count is folded into the mean and variance, and any empty intervals in
+ * between are decayed in closed form, so each report costs O(1) and no
+ * history is ever rescanned.
+ *
+ * A series is elevated or surging when the count of its current interval is
+ * both high in absolute terms and several standard deviations above its
+ * mean. A level is held for one more interval after the one that raised it,
+ * so an alert does not vanish on the interval boundary. Reports dated before
+ * a series' current interval are already part of its baseline and are
+ * skipped; reports dated after the clock count as current; undated reports
+ * are not counted. Not thread-safe; owners synchronize access.
+ */
+public class IncidentSurgeDetector {
+    
+    /** Length of one counting interval */
+    public static final long INTERVAL_MILLIS = 15 * ReportDates.MILLIS_PER_MINUTE;
+    
+    /** Number of intervals the mean and variance mostly remember (one day) */
+    public static final int BASELINE_INTERVALS = 96;
+    
+    /** Reports needed in an interval for ELEVATED */
+    public static final int ELEVATED_COUNT = 3;
+    
+    /** Standard deviations above the mean needed for ELEVATED */
+    public static final double ELEVATED_SCORE = 3.0;
+    
+    /** Reports needed in an interval for SURGE */
+    public static final int SURGE_COUNT = 5;
+    
+    /** Standard deviations above the mean needed for SURGE */
+    public static final double SURGE_SCORE = 5.0;
+    
+    /** Weight of the newest interval in the mean and variance */
+    private static final double ALPHA = 2.0 / (BASELINE_INTERVALS + 1);
+    
+    /** Variance floor, so a quiet series needs a real burst to alert */
+    private static final double MIN_VARIANCE = 1.0;
+    
+    /** How far back a new detector replays stored reports to warm up its baselines */
+    private static final long WARM_UP_MILLIS = 7 * 24 * 60 * ReportDates.MILLIS_PER_MINUTE;
+    
+    /** Alert levels, in increasing order of severity */
+    public enum Level {
+        NORMAL, ELEVATED, SURGE
+    }
+    
+    private final LongSupplier clock;
+    private final Series total = new Series(null, null);
+    private final Map<String, Series> locations = new HashMap<>();
+    private final Map<String, Map<String, Series>> locationTypes = new HashMap<>();
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Creates a detector with no history that follows the local clock.
+     */
+    public IncidentSurgeDetector() {
+        this(ReportDates::now);
+    }
+    
+    /**
+     * @param clock Current time as wall-clock milliseconds (see ReportDates)
+     */
+    public IncidentSurgeDetector(LongSupplier clock) {
+        this.clock = clock;
+    }
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Builds a detector over a list, replaying the last week of reports from
+     * its time index in report order to warm up the baselines.
+     * @param incidents Incidents in storage order
+     * @param time Time index over the list
+     * @return the detector
+     */
+    static IncidentSurgeDetector of(List<Incident> incidents, IncidentTimeIndex time) {
+        IncidentSurgeDetector detector = new IncidentSurgeDetector();
+        long now = detector.clock.getAsLong();
+        time.forEach(now - WARM_UP_MILLIS, Long.MAX_VALUE, false, slot -> {
+            detector.record(incidents.get(slot), now);
+            return true;
+        });
+        return detector;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Counts a newly stored report.
+     */
+    public void add(Incident incident) {
+        record(incident, clock.getAsLong());
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Evaluates every series at the current time.
+     * @return the overall level and the series above NORMAL, most severe first
+     */
+    public Status status() {
+        long now = interval(clock.getAsLong());
+        List<Alert> alerts = new ArrayList<>();
+        total.evaluate(now, alerts);
+        for (Series series : locations.values()) {
+            series.evaluate(now, alerts);
+        }
+        for (Map<String, Series> types : locationTypes.values()) {
+            for (Series series : types.values()) {
+                series.evaluate(now, alerts);
+            }
+        }
+        alerts.sort((a, b) -> a.level != b.level ? b.level.compareTo(a.level)
+                                                 : Double.compare(b.score, a.score));
+        return new Status(alerts);
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void record(Incident incident, long now) {
+        long timestamp = incident.getTimestamp();
+        if (timestamp == ReportDates.UNKNOWN) {
+            return;
+        }
+        long interval = interval(Math.min(timestamp, now));
+        String location = incident.getLocation() == null ? "" : incident.getLocation();
+        String type = incident.getType() == null ? "" : incident.getType();
+        String locationKey = location.toLowerCase(Locale.ROOT);
+        
+        Series place = locations.computeIfAbsent(locationKey, key -> new Series(location, null));
+        total.add(interval);
+        place.add(interval);
+        locationTypes.computeIfAbsent(locationKey, key -> new HashMap<>())
+            .computeIfAbsent(type.toLowerCase(Locale.ROOT), key -> new Series(place.location, type)).add(interval);
+    }
+    
+    private static long interval(long millis) {
+        return Math.floorDiv(millis, INTERVAL_MILLIS);
+    }
+    
+    private static Level level(int count, double score) {
+        if (count >= SURGE_COUNT && score >= SURGE_SCORE) {
+            return Level.SURGE;
+        }
+        if (count >= ELEVATED_COUNT && score >= ELEVATED_SCORE) {
+            return Level.ELEVATED;
+        }
+        return Level.NORMAL;
+    }
+    
+    // ==================== Nested Types ====================
+    
+    /**
+     * Current interval count and baseline of one series.
+     */
+    private static class Series {
+        
+        final String location;
+        final String type;
+        long interval = Long.MIN_VALUE;
+        int count;
+        double mean;
+        double variance;
+        /** Count and score of the interval just before the current one, for holding its level */
+        int previousCount;
+        double previousScore;
+        
+        Series(String location, String type) {
+            this.location = location;
+            this.type = type;
+        }
+        
+        void add(long at) {
+            if (interval == Long.MIN_VALUE) {
+                interval = at;
+            } else if (at > interval) {
+                roll(at);
+            } else if (at < interval) {
+                return;
+            }
+            count++;
+        }
+        
+        /** Folds the current count into the baseline and decays it over the empty intervals up to the given one */
+        private void roll(long to) {
+            boolean adjacent = to == interval + 1;
+            previousCount = adjacent ? count : 0;
+            previousScore = adjacent ? score(count) : 0;
+            
+            double diff = count - mean;
+            mean += ALPHA * diff;
+            variance = (1 - ALPHA) * (variance + ALPHA * diff * diff);
+            
+            // k zero counts: mean' = b^k mean, variance' = b^k (variance + mean^2 (1 - b^k)), b = 1 - alpha
+            long empty = to - interval - 1;
+            if (empty > 0) {
+                double decay = Math.pow(1 - ALPHA, empty);
+                variance = decay * (variance + mean * mean * (1 - decay));
+                mean *= decay;
+            }
+            interval = to;
+            count = 0;
+        }
+        
+        double score(int observed) {
+            return (observed - mean) / Math.sqrt(Math.max(variance, MIN_VARIANCE));
+        }
+        
+        /** Adds an alert if the series is above NORMAL at the given interval */
+        void evaluate(long now, List<Alert> alerts) {
+            int observed;
+            double score;
+            if (interval == now) {
+                observed = count;
+                score = score(count);
+                if (level(previousCount, previousScore).compareTo(level(observed, score)) > 0) {
+                    observed = previousCount;
+                    score = previousScore;
+                }
+            } else if (interval == now - 1) {
+                observed = count;
+                score = score(count);
+            } else {
+                return;
+            }
+            Level level = level(observed, score);
+            if (level != Level.NORMAL) {
+                alerts.add(new Alert(level, location, type, observed, mean, score));
+            }
+        }
+    }
+    
+    /**
+     * A series above NORMAL.
+     */
+    public static class Alert {
+        
+        private final Level level;
+        private final String location;
+        private final String type;
+        private final int count;
+        private final double expected;
+        private final double score;
+        
+        public Alert(Level level, String location, String type, int count, double expected, double score) {
+            this.level = level;
+            this.location = location;
+            this.type = type;
+            this.count = count;
+            this.expected = expected;
+            this.score = score;
+        }
+        
+        public Level getLevel() {
+            return level;
+        }
+        
+        /** @return the barangay, or null for the whole municipality */
+        public String getLocation() {
+            return location;
+        }
+        
+        /** @return the incident type, or null for all types */
+        public String getType() {
+            return type;
+        }
+        
+        /** @return reports in the interval that raised the alert */
+        public int getCount() {
+            return count;
+        }
+        
+        /** @return reports expected per interval from the baseline */
+        public double getExpected() {
+            return expected;
+        }
+        
+        /** @return standard deviations above the expected count */
+        public double getScore() {
+            return score;
+        }
+        
+        /** @return a short description, e.g. "6 Flood reports in Agdum" */
+        public String describe() {
+            return count + (type == null ? "" : " " + type) + (count == 1 ? " report" : " reports")
+                   + (location == null ? " town-wide" : " in " + location);
+        }
+    }
+    
+    /**
+     * Alert levels at one point in time.
+     */
+    public static class Status {
+        
+        private final List<Alert> alerts;
+        
+        public Status(List<Alert> alerts) {
+            this.alerts = Collections.unmodifiableList(alerts);
+        }
+        
+        /** @return the most severe level of any series, NORMAL if none is raised */
+        public Level getLevel() {
+            return alerts.isEmpty() ? Level.NORMAL : alerts.get(0).getLevel();
+        }
+        
+        /** @return raised series, most severe first, then by score */
+        public List<Alert> getAlerts() {
+            return alerts;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package service;
+
+import model.Incident;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Trigram index over the searchable incident text.
+ *
+ * Every distinct three-character sequence of IncidentFilter.searchableText
+ * keeps a sorted posting list of the slots whose text contains it. Any text
+ * containing the search text also contains all of its trigrams, so the
+ * intersection of the query's posting lists is a superset of the matches:
+ * "0917" finds contact numbers and "dela" finds "Juan Dela Cruz", including
+ * matches that start mid-word or span two fields. Callers still check
+ * IncidentFilter.matchesSearchText on each candidate to drop the false
+ * positives.
+ *
+ * Trigrams are packed into longs and kept in a primitive open-addressing
+ * table, and a query intersects the sorted posting arrays in place using
+ * scratch arrays kept between calls, so the only allocation per query is
+ * the result bitmap. Not thread-safe; owners synchronize access.
+ */
+public class IncidentTextIndex {
+    
+    /** Shortest search text that can be decomposed into trigrams */
+    public static final int MIN_QUERY_LENGTH = 3;
+    
+    private final TrigramTable postings = new TrigramTable();
+    
+    // Reused by every call; callers synchronize, so one set is enough
+    private long[] trigrams = new long[64];
+    private long[] otherTrigrams = new long[64];
+    private Postings[] lists = new Postings[16];
+    private int[] cursors = new int[16];
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Builds an index over a list, using list positions as slots.
+     * @param incidents Incidents to index
+     * @return the index
+     */
+    public static IncidentTextIndex of(List<Incident> incidents) {
+        IncidentTextIndex index = new IncidentTextIndex();
+        for (int i = 0; i < incidents.size(); i++) {
+            index.add(i, incidents.get(i));
+        }
+        return index;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Indexes an incident stored at a slot.
+     * @param slot Position of the incident in the owner's list
+     * @param incident The incident
+     */
+    public void add(int slot, Incident incident) {
+        int count = trigrams(IncidentFilter.searchableText(incident));
+        for (int i = 0; i < count; i++) {
+            postings.getOrCreate(trigrams[i]).add(slot);
+        }
+    }
+    
+    /**
+     * Re-indexes a slot whose incident was replaced, e.g. by a status change.
+     * @param slot Position of the incident
+     * @param before Incident previously at the slot
+     * @param after Incident now at the slot
+     */
+    public void replaced(int slot, Incident before, Incident after) {
+        int oldCount = trigrams(IncidentFilter.searchableText(before));
+        long[] oldTrigrams = trigrams;
+        trigrams = otherTrigrams;
+        otherTrigrams = oldTrigrams;
+        int newCount = trigrams(IncidentFilter.searchableText(after));
+        long[] newTrigrams = trigrams;
+        
+        // Both are sorted, so one merge pass finds what was dropped and what was added
+        int i = 0, j = 0;
+        while (i < oldCount || j < newCount) {
+            if (j == newCount || i < oldCount && oldTrigrams[i] < newTrigrams[j]) {
+                Postings list = postings.get(oldTrigrams[i++]);
+                if (list != null) {
+                    list.remove(slot);
+                }
+            } else if (i == oldCount || newTrigrams[j] < oldTrigrams[i]) {
+                postings.getOrCreate(newTrigrams[j++]).add(slot);
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Finds the slots whose text contains every trigram of the search text.
+     * @param searchText Lowercased search text
+     * @return a new bitmap of candidate slots, or null if the text is shorter
+     *         than MIN_QUERY_LENGTH and cannot narrow the search
+     */
+    public BitSet select(String searchText) {
+        if (searchText.length() < MIN_QUERY_LENGTH) {
+            return null;
+        }
+        
+        int n = trigrams(searchText);
+        if (lists.length < n) {
+            lists = new Postings[n];
+            cursors = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            Postings list = postings.get(trigrams[i]);
+            if (list == null || list.size == 0) {
+                return new BitSet();
+            }
+            lists[i] = list;
+        }
+        
+        // Walk the rarest list and look each slot up in the others, so the
+        // work is bounded by the rarest trigram
+        sortBySize(lists, n);
+        Postings rarest = lists[0];
+        Arrays.fill(cursors, 0, n, 0);
+        BitSet result = new BitSet();
+        candidates:
+        for (int k = 0; k < rarest.size; k++) {
+            int slot = rarest.slots[k];
+            for (int i = 1; i < n; i++) {
+                Postings list = lists[i];
+                int at = Arrays.binarySearch(list.slots, cursors[i], list.size, slot);
+                if (at < 0) {
+                    cursors[i] = -at - 1;
+                    if (cursors[i] == list.size) {
+                        break candidates;
+                    }
+                    continue candidates;
+                }
+                cursors[i] = at + 1;
+            }
+            result.set(slot);
+        }
+        Arrays.fill(lists, 0, n, null);
+        return result;
+    }
+    
+    /**
+     * Estimates how many slots select would return: the length of the
+     * shortest posting list among the query's trigrams.
+     * @param searchText Lowercased search text
+     * @return the estimate, or -1 if the text is too short to use the index
+     */
+    public int estimate(String searchText) {
+        if (searchText.length() < MIN_QUERY_LENGTH) {
+            return -1;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0, n = trigrams(searchText); i < n; i++) {
+            Postings list = postings.get(trigrams[i]);
+            if (list == null) {
+                return 0;
+            }
+            estimate = Math.min(estimate, list.size);
+        }
+        return estimate;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Collects the distinct trigrams of a text, each packed into a long, into
+     * the front of the trigrams array in increasing order.
+     * @return number of distinct trigrams
+     */
+    private int trigrams(String text) {
+        int count = Math.max(0, text.length() - MIN_QUERY_LENGTH + 1);
+        if (trigrams.length < count) {
+            trigrams = new long[Math.max(count, trigrams.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32)
+                          | ((long) text.charAt(i + 1) << 16)
+                          | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return distinct;
+    }
+    
+    /** Insertion sort by posting list length; queries have only a few trigrams */
+    private static void sortBySize(Postings[] lists, int n) {
+        for (int i = 1; i < n; i++) {
+            Postings list = lists[i];
+            int j = i - 1;
+            while (j >= 0 && lists[j].size > list.size) {
+                lists[j + 1] = lists[j];
+                j--;
+            }
+            lists[j + 1] = list;
+        }
+    }
+    
+    // ==================== Trigram Table ====================
+    
+    /**
+     * Open-addressing map from packed trigram to posting list, so lookups
+     * never box the key. Lists that become empty stay in the table.
+     */
+    private static class TrigramTable {
+        
+        long[] keys = new long[1024];
+        Postings[] values = new Postings[1024];
+        int size;
+        
+        Postings get(long trigram) {
+            int mask = keys.length - 1;
+            for (int at = hash(trigram) & mask; values[at] != null; at = (at + 1) & mask) {
+                if (keys[at] == trigram) {
+                    return values[at];
+                }
+            }
+            return null;
+        }
+        
+        Postings getOrCreate(long trigram) {
+            int mask = keys.length - 1;
+            int at = hash(trigram) & mask;
+            for (; values[at] != null; at = (at + 1) & mask) {
+                if (keys[at] == trigram) {
+                    return values[at];
+                }
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                return getOrCreate(trigram);
+            }
+            keys[at] = trigram;
+            values[at] = new Postings();
+            size++;
+            return values[at];
+        }
+        
+        private void grow() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int at = hash(oldKeys[i]) & mask;
+                    while (values[at] != null) {
+                        at = (at + 1) & mask;
+                    }
+                    keys[at] = oldKeys[i];
+                    values[at] = oldValues[i];
+                }
+            }
+        }
+        
+        private static int hash(long trigram) {
+            long h = trigram * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+    
+    // ==================== Posting List ====================
+    
+    /**
+     * Sorted, growable array of slots. Slots are usually appended in
+     * increasing order, so adding is amortized constant time.
+     */
+    private static class Postings {
+        
+        int[] slots = new int[4];
+        int size;
+        
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] >= slot) {
+                int at = Arrays.binarySearch(slots, 0, size, slot);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, slot);
+                return;
+            }
+            insert(size, slot);
+        }
+        
+        boolean remove(int slot) {
+            int at = Arrays.binarySearch(slots, 0, size, slot);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(slots, at + 1, slots, at, size - at - 1);
+            size--;
+            return true;
+        }
+        
+        private void insert(int at, int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, at, slots, at + 1, size - at);
+            slots[at] = slot;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package service;
+
+import model.Incident;
+import util.ReportDates;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Time-ordered index over report timestamps.
+ *
+ * Parallel sorted arrays hold (timestamp, slot) pairs ordered by timestamp
+ * and then slot, so a report-date range is found with two binary searches
+ * and read in O(log n + k), and the most recent incidents are read from the
+ * end without sorting anything. New reports carry the latest timestamps, so
+ * adding them is an append. Incidents without a readable date are kept
+ * apart and never match a range. Not thread-safe; owners synchronize access.
+ */
+public class IncidentTimeIndex {
+    
+    private long[] timestamps = new long[16];
+    private int[] slots = new int[16];
+    private int size;
+    private final BitSet undated = new BitSet();
+    
+    // ==================== Factory Method ====================
+    
+    /**
+     * Builds an index over a list, using list positions as slots. The pairs
+     * are collected in one pass and sorted once, so the build is
+     * O(n log n) whatever order the dates are in.
+     * @param incidents Incidents to index
+     * @return the index
+     */
+    public static IncidentTimeIndex of(List<Incident> incidents) {
+        IncidentTimeIndex index = new IncidentTimeIndex();
+        long[] timestamps = new long[incidents.size()];
+        int[] slots = new int[incidents.size()];
+        int size = 0;
+        boolean sorted = true;
+        for (int i = 0; i < incidents.size(); i++) {
+            long timestamp = incidents.get(i).getTimestamp();
+            if (timestamp == ReportDates.UNKNOWN) {
+                index.undated.set(i);
+                continue;
+            }
+            sorted &= size == 0 || timestamps[size - 1] <= timestamp;
+            timestamps[size] = timestamp;
+            slots[size++] = i;
+        }
+        if (!sorted) {
+            sortBySlotWithinTimestamp(timestamps, slots, size);
+        }
+        index.timestamps = size == 0 ? new long[16] : timestamps;
+        index.slots = size == 0 ? new int[16] : slots;
+        index.size = size;
+        return index;
+    }
+    
+    // ==================== Maintenance ====================
+    
+    /**
+     * Indexes an incident appended at a slot. Slots must be added in
+     * increasing order.
+     * @param slot Position of the incident in the owner's list
+     * @param incident The incident
+     */
+    public void add(int slot, Incident incident) {
+        long timestamp = incident.getTimestamp();
+        if (timestamp == ReportDates.UNKNOWN) {
+            undated.set(slot);
+            return;
+        }
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        // The slot is the largest so far, so it goes after every equal timestamp
+        int at = upperBound(timestamp);
+        System.arraycopy(timestamps, at, timestamps, at + 1, size - at);
+        System.arraycopy(slots, at, slots, at + 1, size - at);
+        timestamps[at] = timestamp;
+        slots[at] = slot;
+        size++;
+    }
+    
+    // ==================== Queries ====================
+    
+    /**
+     * Counts the incidents reported in a range.
+     * @param from Earliest timestamp (inclusive)
+     * @param before Timestamp reports must precede (exclusive)
+     * @return number of incidents in the range
+     */
+    public int count(long from, long before) {
+        return Math.max(0, lowerBound(before) - lowerBound(from));
+    }
+    
+    /**
+     * Finds the incidents reported in a range.
+     * @param from Earliest timestamp (inclusive)
+     * @param before Timestamp reports must precede (exclusive)
+     * @return a new bitmap of their slots
+     */
+    public BitSet select(long from, long before) {
+        BitSet result = new BitSet();
+        for (int i = lowerBound(from), end = lowerBound(before); i < end; i++) {
+            result.set(slots[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * Visits the incidents reported in a range in time order until the
+     * visitor returns false. Incidents with equal timestamps are visited in
+     * slot order in both directions, like a stable sort.
+     * @param from Earliest timestamp (inclusive)
+     * @param before Timestamp reports must precede (exclusive)
+     * @param newestFirst Whether to start from the most recent
+     * @param visitor Receives each slot; returns false to stop
+     * @return false if the visitor stopped the walk
+     */
+    public boolean forEach(long from, long before, boolean newestFirst, IntPredicate visitor) {
+        int start = lowerBound(from);
+        int end = lowerBound(before);
+        if (!newestFirst) {
+            for (int i = start; i < end; i++) {
+                if (!visitor.test(slots[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        int i = end - 1;
+        while (i >= start) {
+            int run = i;
+            while (run > start && timestamps[run - 1] == timestamps[i]) {
+                run--;
+            }
+            for (int j = run; j <= i; j++) {
+                if (!visitor.test(slots[j])) {
+                    return false;
+                }
+            }
+            i = run - 1;
+        }
+        return true;
+    }
+    
+    /**
+     * @return a new bitmap of the slots whose incidents have no readable date
+     */
+    public BitSet undated() {
+        return (BitSet) undated.clone();
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Sorts pairs by timestamp, then slot. Each timestamp is replaced by its
+     * rank among the distinct timestamps, so a pair packs into one long
+     * (rank above, slot below) and a single primitive sort orders them.
+     */
+    private static void sortBySlotWithinTimestamp(long[] timestamps, int[] slots, int size) {
+        long[] distinct = Arrays.copyOf(timestamps, size);
+        Arrays.sort(distinct);
+        int ranks = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || distinct[i] != distinct[ranks - 1]) {
+                distinct[ranks++] = distinct[i];
+            }
+        }
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long rank = Arrays.binarySearch(distinct, 0, ranks, timestamps[i]);
+            keys[i] = rank << 32 | slots[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = distinct[(int) (keys[i] >>> 32)];
+            slots[i] = (int) keys[i];
+        }
+    }
+    
+    /** First position whose timestamp is not less than the given one */
+    private int lowerBound(long timestamp) {
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /** First position whose timestamp is greater than the given one */
+    private int upperBound(long timestamp) {
+        if (size == 0 || timestamps[size - 1] <= timestamp) {
+            return size;
+        }
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,540 @@
+package service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import util.DurabilityPolicy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Write-ahead journal implementation of IIncidentRepository.
+ *
+ * Every change is appended to the active journal segment as an event
+ * (incident created, status changed) and applied to the in-memory state.
+ * After a number of events the segment is sealed and a background task folds
+ * the previous checkpoint and the sealed segments into a new checkpoint, then
+ * deletes what it replaced. Startup loads the newest checkpoint and replays
+ * only the segments written after it.
+ *
+ * The in-memory state is indexed by id, by bitmap indexes over type, status
+ * and location, by a full-text index and by report time, so lookups,
+ * filters and date-ordered queries avoid full scans. A count cube over type,
+ * status, location and day and sliding-window rollups of recent reports are
+ * kept up to date on every event and answer its IIncidentAnalytics queries.
+ *
+ * Files in the journal directory:
+ * <pre>
+ *   checkpoint-N.snapshot   state before segment N (IncidentSnapshotFile format)
+ *   journal-N.log           events of segment N (IncidentJournal format)
+ * </pre>
+ */
+public class JournalIncidentRepository implements IIncidentRepository, IIncidentAnalytics, Closeable {
+    
+    /** Directory storing the journal and its checkpoints */
+    private static final String DIRECTORY = "src/resources/incident_journal";
+    
+    /** Default number of events per segment before a checkpoint is taken */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".snapshot";
+    
+    private final Path directory;
+    private final int checkpointInterval;
+    private final DurabilityPolicy durability;
+    private final ExecutorService compactor;
+    
+    private List<Incident> incidents;
+    private Map<String, Integer> slots;
+    private IncidentIndexes indexes;
+    private final IncidentQueryCache queryCache = new IncidentQueryCache(IncidentQueryCache.DEFAULT_CAPACITY);
+    private IncidentJournal journal;
+    private long activeSegment;
+    
+    // ==================== Constructors ====================
+    
+    public JournalIncidentRepository() {
+        this(Paths.get(DIRECTORY), DEFAULT_CHECKPOINT_INTERVAL);
+    }
+    
+    /**
+     * Constructor for using a custom journal directory.
+     * @param directory Directory storing the journal and its checkpoints
+     * @param checkpointInterval Number of events per segment before a checkpoint is taken
+     */
+    public JournalIncidentRepository(Path directory, int checkpointInterval) {
+        this(directory, checkpointInterval, DurabilityPolicy.configured());
+    }
+    
+    /**
+     * Constructor for using a custom journal directory and durability policy.
+     * @param directory Directory storing the journal and its checkpoints
+     * @param checkpointInterval Number of events per segment before a checkpoint is taken
+     * @param durability When journal entries are forced to disk
+     */
+    public JournalIncidentRepository(Path directory, int checkpointInterval, DurabilityPolicy durability) {
+        this.directory = directory;
+        this.checkpointInterval = checkpointInterval;
+        this.durability = durability;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "incident-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    // ==================== Interface Implementation ====================
+    
+    @Override
+    public synchronized List<Incident> loadAllIncidents() {
+        if (!ensureOpen()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(incidents);
+    }
+    
+    /**
+     * Appends a creation event to the journal and applies it in memory.
+     *
+     * @param incident the incident to save
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public synchronized boolean saveIncident(Incident incident) {
+        if (incident == null || !ensureOpen()) {
+            return false;
+        }
+        
+        incident.ensureId();
+        try {
+            journal.appendCreated(incident);
+            journal.sync(durability, 1, false);
+        } catch (IOException e) {
+            System.err.println("Error saving incident: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        indexes.add(incidents.size(), incident);
+        register(incidents, slots, incident);
+        queryCache.invalidate();
+        sealIfFull();
+        return true;
+    }
+    
+    /**
+     * Appends creation events for the whole batch in a single write.
+     *
+     * @param batch the incidents to save
+     * @param force whether to flush the journal to the storage device
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public synchronized boolean saveIncidents(List<Incident> batch, boolean force) {
+        if (batch.stream().anyMatch(incident -> incident == null) || !ensureOpen()) {
+            return false;
+        }
+        
+        batch.forEach(Incident::ensureId);
+        try {
+            journal.appendCreated(batch);
+            journal.sync(durability, batch.size(), force);
+        } catch (IOException e) {
+            System.err.println("Error saving incidents: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        for (Incident incident : batch) {
+            indexes.add(incidents.size(), incident);
+            register(incidents, slots, incident);
+        }
+        queryCache.invalidate();
+        sealIfFull();
+        return true;
+    }
+    
+    @Override
+    public List<Incident> getFilteredIncidents(String typeFilter, String statusFilter,
+                                               String locationFilter, String searchText) {
+        return query(IncidentQuery.of(new IncidentFilter(typeFilter, statusFilter, locationFilter, searchText)));
+    }
+    
+    /**
+     * Answers repeated queries from the query cache; other queries are
+     * planned against the indexes and their results cached.
+     */
+    @Override
+    public synchronized List<Incident> query(IncidentQuery query) {
+        if (!ensureOpen()) {
+            return new ArrayList<>();
+        }
+        List<Incident> cached = queryCache.get(query);
+        if (cached != null) {
+            return cached;
+        }
+        List<Incident> result = indexes.plan(query).execute(incidents);
+        queryCache.put(query, result);
+        return result;
+    }
+    
+    /**
+     * Streams a point-in-time copy of the state, so later saves do not
+     * disturb a stream that is still being consumed.
+     */
+    @Override
+    public synchronized Stream<Incident> streamIncidents() {
+        if (!ensureOpen()) {
+            return Stream.empty();
+        }
+        return new ArrayList<>(incidents).stream();
+    }
+    
+    @Override
+    public synchronized long count(IncidentFilter filter) {
+        if (!ensureOpen()) {
+            return 0;
+        }
+        return indexes.plan(IncidentQuery.of(filter)).count(incidents);
+    }
+    
+    @Override
+    public synchronized IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        if (!ensureOpen()) {
+            return new IncidentPage(new ArrayList<>(), IncidentPage.END);
+        }
+        IncidentQueryPlan plan = indexes.plan(IncidentQuery.of(filter));
+        return IncidentPage.fromBitmap(incidents, plan.candidates(incidents.size()), plan::verify, cursor, pageSize);
+    }
+    
+    @Override
+    public synchronized Incident findById(String id) {
+        if (id == null || !ensureOpen()) {
+            return null;
+        }
+        Integer slot = slots.get(id);
+        return slot == null ? null : incidents.get(slot);
+    }
+    
+    /**
+     * Rolls up the live count cube instead of counting the state.
+     */
+    @Override
+    public synchronized IncidentStatistics getStatistics() {
+        if (!ensureOpen()) {
+            return new IncidentStatistics();
+        }
+        return indexes.cube().statistics();
+    }
+    
+    @Override
+    public synchronized Map<String, Integer> rollUp(IncidentCube.Dimension dimension, IncidentCube.Slice slice) {
+        if (!ensureOpen()) {
+            return new TreeMap<>();
+        }
+        return indexes.cube().rollUp(dimension, slice);
+    }
+    
+    @Override
+    public synchronized IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window) {
+        if (!ensureOpen()) {
+            return IncidentRollups.Counts.of(window, new ArrayList<>());
+        }
+        return indexes.rollups().counts(window);
+    }
+    
+    @Override
+    public synchronized IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before) {
+        if (!ensureOpen()) {
+            return new IncidentSketches().summarize();
+        }
+        return indexes.sketches().summarize(from, before);
+    }
+    
+    @Override
+    public synchronized IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric) {
+        if (!ensureOpen()) {
+            return new IncidentResponseTimes().breakdown(metric);
+        }
+        return indexes.responseTimes().breakdown(metric);
+    }
+    
+    @Override
+    public synchronized IncidentSurgeDetector.Status getSurgeStatus() {
+        if (!ensureOpen()) {
+            return new IncidentSurgeDetector().status();
+        }
+        return indexes.surges().status();
+    }
+    
+    /**
+     * Appends a status change event to the journal and applies it in memory.
+     * The incident is replaced by a copy so lists already handed out are unaffected.
+     *
+     * @param id the incident id
+     * @param status the new status
+     * @param changedAt when the change was made
+     * @return true if the change was recorded, false if the incident does not exist or writing failed
+     */
+    @Override
+    public synchronized boolean updateStatus(String id, String status, long changedAt) {
+        if (id == null || status == null || !ensureOpen()) {
+            return false;
+        }
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            return false;
+        }
+        
+        try {
+            journal.appendStatusChanged(id, status, changedAt);
+            journal.sync(durability, 1, false);
+        } catch (IOException e) {
+            System.err.println("Error updating incident status: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        Incident updated = incidents.get(slot).withStatus(status, changedAt);
+        indexes.replaced(slot, incidents.get(slot), updated);
+        incidents.set(slot, updated);
+        queryCache.invalidate();
+        sealIfFull();
+        return true;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Seals the active segment and folds everything before it into a new
+     * checkpoint in the background.
+     * @return the pending compaction
+     */
+    public synchronized Future<?> checkpoint() {
+        if (!ensureOpen()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return seal();
+    }
+    
+    /**
+     * @return hit, miss and eviction counters of the query result cache
+     */
+    public synchronized IncidentQueryCache.Stats getQueryCacheStats() {
+        return queryCache.getStats();
+    }
+    
+    /**
+     * Path of the journal directory backing this repository.
+     * @return the journal directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Stops background compaction and closes the active segment.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+        durability.flush();
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        incidents = null;
+        slots = null;
+        indexes = null;
+        queryCache.invalidate();
+    }
+    
+    /**
+     * Seeds an empty journal directory with an initial checkpoint, used when
+     * migrating from another storage format.
+     * @param directory Journal directory
+     * @param incidents Incidents the journal starts from; any without an id are given one
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public static void createFrom(Path directory, List<Incident> incidents) throws IOException {
+        incidents.forEach(Incident::ensureId);
+        Files.createDirectories(directory);
+        new IncidentSnapshotFile(checkpointPath(directory, 0)).write(incidents, 0, 0, true);
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Loads the newest checkpoint and replays the journal tail on first use.
+     * @return false if the journal could not be opened
+     */
+    private boolean ensureOpen() {
+        if (journal != null) {
+            return true;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            TreeSet<Long> segments = listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX);
+            
+            List<Incident> state = new ArrayList<>();
+            Map<String, Integer> stateSlots = new HashMap<>();
+            long base = loadCheckpoint(Long.MAX_VALUE, state, stateSlots);
+            long last = segments.isEmpty() ? base : Math.max(base, segments.last());
+            
+            int tailEntries = 0;
+            for (long segment : segments.tailSet(base)) {
+                tailEntries = IncidentJournal.replay(segmentPath(directory, segment),
+                                                     applyTo(state, stateSlots), segment == last);
+            }
+            
+            incidents = state;
+            slots = stateSlots;
+            indexes = IncidentIndexes.of(state);
+            queryCache.invalidate();
+            activeSegment = last;
+            journal = new IncidentJournal(segmentPath(directory, last), tailEntries);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error opening incident journal: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    private void sealIfFull() {
+        if (journal.getEntryCount() >= checkpointInterval) {
+            seal();
+        }
+    }
+    
+    /** Starts a new segment and queues compaction of everything before it */
+    private Future<?> seal() {
+        try {
+            IncidentJournal next = new IncidentJournal(segmentPath(directory, activeSegment + 1), 0);
+            journal.close();
+            journal = next;
+            activeSegment++;
+        } catch (IOException e) {
+            // Keep appending to the current segment and try again later
+            System.err.println("Error starting journal segment: " + e.getMessage());
+        }
+        
+        long upTo = activeSegment;
+        return compactor.submit(() -> compact(upTo));
+    }
+    
+    /**
+     * Folds the newest checkpoint and the sealed segments before upTo into
+     * checkpoint upTo, then removes the files it replaces. Runs on the
+     * compactor thread and only reads files that are no longer written to.
+     */
+    private void compact(long upTo) {
+        try {
+            List<Incident> state = new ArrayList<>();
+            Map<String, Integer> stateSlots = new HashMap<>();
+            long base = loadCheckpoint(upTo, state, stateSlots);
+            if (base == upTo) {
+                return;
+            }
+            
+            for (long segment : listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX).subSet(base, upTo)) {
+                IncidentJournal.replay(segmentPath(directory, segment), applyTo(state, stateSlots), false);
+            }
+            new IncidentSnapshotFile(checkpointPath(directory, upTo)).write(state, upTo, 0, true);
+            
+            for (long segment : listNumbers(SEGMENT_PREFIX, SEGMENT_SUFFIX).headSet(upTo)) {
+                Files.deleteIfExists(segmentPath(directory, segment));
+            }
+            for (long checkpoint : listNumbers(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX).headSet(upTo)) {
+                Files.deleteIfExists(checkpointPath(directory, checkpoint));
+            }
+        } catch (IOException e) {
+            System.err.println("Error compacting incident journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Loads the newest readable checkpoint at or before a segment number.
+     * @return the segment the checkpoint covers up to, or 0 if there is none
+     */
+    private long loadCheckpoint(long atMost, List<Incident> state, Map<String, Integer> stateSlots)
+            throws IOException {
+        for (long checkpoint : listNumbers(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX).headSet(atMost, true)
+                                   .descendingSet()) {
+            List<Incident> stored = new IncidentSnapshotFile(checkpointPath(directory, checkpoint))
+                .readIfFresh(checkpoint, 0);
+            if (stored != null) {
+                for (Incident incident : stored) {
+                    register(state, stateSlots, incident);
+                }
+                return checkpoint;
+            }
+        }
+        return 0;
+    }
+    
+    private TreeSet<Long> listNumbers(String prefix, String suffix) throws IOException {
+        TreeSet<Long> numbers = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        return numbers;
+    }
+    
+    private static IncidentJournal.Listener applyTo(List<Incident> state, Map<String, Integer> stateSlots) {
+        return new IncidentJournal.Listener() {
+            @Override
+            public void created(Incident incident) {
+                register(state, stateSlots, incident);
+            }
+            
+            @Override
+            public void statusChanged(String id, String status, long changedAt) {
+                Integer slot = stateSlots.get(id);
+                if (slot != null) {
+                    state.set(slot, state.get(slot).withStatus(status, changedAt));
+                }
+            }
+        };
+    }
+    
+    /**
+     * Appends an incident to the state and indexes its slot.
+     */
+    private static void register(List<Incident> state, Map<String, Integer> stateSlots, Incident incident) {
+        stateSlots.put(incident.getId(), state.size());
+        state.add(incident);
+    }
+    
+    private static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+    
+    private static Path checkpointPath(Path directory, long checkpoint) {
+        return directory.resolve(String.format("%s%010d%s", CHECKPOINT_PREFIX, checkpoint, CHECKPOINT_SUFFIX));
+    }
+}
@@ -1,27 +1,76 @@
 package service;
 
 import model.Incident;
-import java.io.FileWriter;
+import util.AtomicFiles;
+import util.DurabilityPolicy;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * JSON implementation of IIncidentRepository.
  * Handles loading, saving, and filtering incident data stored in a JSON file.
+ * An id-to-offset index lets findById read a single record, and status
+ * updates go to a small log beside the file instead of rewriting it.
  */
 public class JsonIncidentRepository implements IIncidentRepository {
     
     /** Path to the JSON file storing incident reports */
     private static final String FILE_PATH = "src/resources/incident_report.json";
     
+    /** How many bytes at the end of the file are inspected to find the closing bracket */
+    private static final int TAIL_WINDOW = 4096;
+    
+    /** Serializes appends and repairs across repository instances */
+    private static final Object WRITE_LOCK = new Object();
+    
+    private final Path filePath;
+    private final DurabilityPolicy durability;
+    private final IncidentOffsetIndex index;
+    private final IncidentStatusLog statusLog;
+    
+    // ==================== Constructors ====================
+    
+    public JsonIncidentRepository() {
+        this(Paths.get(FILE_PATH));
+    }
+    
+    /**
+     * Constructor for using a custom data file.
+     * @param filePath Path to the JSON file storing incident reports
+     */
+    public JsonIncidentRepository(Path filePath) {
+        this(filePath, DurabilityPolicy.configured());
+    }
+    
+    /**
+     * Constructor for using a custom data file and durability policy.
+     * @param filePath Path to the JSON file storing incident reports
+     * @param durability When appended records are forced to disk
+     */
+    public JsonIncidentRepository(Path filePath, DurabilityPolicy durability) {
+        this.filePath = filePath;
+        this.durability = durability;
+        this.index = new IncidentOffsetIndex(filePath, false);
+        this.statusLog = new IncidentStatusLog(filePath);
+    }
+    
     // ==================== Interface Implementation ====================
     
     /**
      * Loads all incidents from the JSON file.
+     * Records written before incidents had ids are given one, and the file is
+     * rewritten once so the ids stay stable.
      *
      * @return list of all incidents
      */
@@ -30,11 +79,9 @@ public class JsonIncidentRepository implements IIncidentRepository {
         List<Incident> incidents = new ArrayList<>();
         
         try {
-            // Read entire JSON file as a string
-            String json = new String(Files.readAllBytes(Paths.get(FILE_PATH)));
-            
-            // Convert JSON string into Incident objects
-            incidents = parseJsonToIncidents(json);
+            synchronized (WRITE_LOCK) {
+                readAndRepair(incidents);
+            }
         } catch (Exception e) {
             // Handle file read or parsing errors
             System.err.println("Error loading incidents: " + e.getMessage());
@@ -45,16 +92,58 @@ public class JsonIncidentRepository implements IIncidentRepository {
     }
     
     /**
-     * Saves a single incident by appending it to the JSON file.
+     * Saves a single incident by appending it inside the JSON array.
+     * Only the tail of the file is touched, so appends stay constant-time
+     * as the file grows and the file remains valid JSON after every save.
      *
      * @param incident the incident to save
      * @return true if saved successfully, false otherwise
      */
     @Override
     public boolean saveIncident(Incident incident) {
-        try (FileWriter writer = new FileWriter(FILE_PATH, true)) {
-            // Append incident JSON representation to file
-            writer.write(incident.toJson() + ",\n");
+        if (incident == null) {
+            return false;
+        }
+        return saveIncidents(List.of(incident), false);
+    }
+    
+    /**
+     * Saves a batch of incidents with a single write inside the JSON array.
+     *
+     * @param incidents the incidents to save
+     * @param force whether to flush the write to the storage device
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public boolean saveIncidents(List<Incident> incidents, boolean force) {
+        if (incidents.stream().anyMatch(incident -> incident == null)) {
+            return false;
+        }
+        if (incidents.isEmpty()) {
+            return true;
+        }
+        
+        List<String> records = new ArrayList<>(incidents.size());
+        for (Incident incident : incidents) {
+            incident.ensureId();
+            records.add(incident.toJson());
+        }
+        
+        try {
+            synchronized (WRITE_LOCK) {
+                boolean indexed = index.isCurrent();
+                long[] offsets = tryAppend(records, force);
+                if (offsets == null) {
+                    // Tail is damaged; repair it through the reader and try again
+                    readAndRepair(new ArrayList<>());
+                    indexed = false;
+                    offsets = tryAppend(records, force);
+                    if (offsets == null) {
+                        throw new IOException("Cannot locate end of incident array in " + filePath);
+                    }
+                }
+                index.appended(indexed, incidents, offsets);
+            }
             return true;
         } catch (IOException e) {
             // Handle file write errors
@@ -74,111 +163,344 @@ public class JsonIncidentRepository implements IIncidentRepository {
                                                String locationFilter, String searchText) {
         // Load all incidents first
         List<Incident> allIncidents = loadAllIncidents();
+        IncidentFilter filter = new IncidentFilter(typeFilter, statusFilter, 
+                                                   locationFilter, searchText);
         
         // Apply filters using Java Streams
         return allIncidents.stream()
-            .filter(incident -> matchesTypeFilter(incident, typeFilter))
-            .filter(incident -> matchesStatusFilter(incident, statusFilter))
-            .filter(incident -> matchesLocationFilter(incident, locationFilter))
-            .filter(incident -> matchesSearchText(incident, searchText))
+            .filter(filter)
             .collect(Collectors.toList());
     }
     
-    // ==================== Private Helper Methods ====================
+    /**
+     * Streams incidents straight from the file as the stream is consumed.
+     * The stream holds the file open until it is closed.
+     *
+     * @return lazy stream of all incidents
+     */
+    @Override
+    public Stream<Incident> streamIncidents() {
+        try {
+            Map<String, List<IncidentStatusLog.Change>> statuses;
+            synchronized (WRITE_LOCK) {
+                statuses = statusLog.snapshot();
+            }
+            return IncidentJsonReader.open(filePath).stream()
+                .map(incident -> IncidentStatusLog.merge(incident, statuses));
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            System.err.println("Error loading incidents: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
     
     /**
-     * Converts raw JSON text into a list of Incident objects.
+     * Reads one page starting at the record where the previous page stopped.
+     * The cursor is a record position in storage order, which the offset
+     * index turns into a byte offset, so each page costs only the records it
+     * covers. Rewrites keep records in order, so a cursor held across an id
+     * backfill, a status-log compaction or a repair still resumes at the
+     * right record.
+     *
+     * @return the page, whose next cursor is a record position
      */
-    private List<Incident> parseJsonToIncidents(String json) {
-        List<Incident> incidents = new ArrayList<>();
+    @Override
+    public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        List<Incident> page = new ArrayList<>();
+        if (cursor == IncidentPage.END) {
+            return new IncidentPage(page, IncidentPage.END);
+        }
         
-        // Remove surrounding JSON array brackets
-        json = json.trim();
-        if (json.startsWith("[")) json = json.substring(1);
-        if (json.endsWith("]")) json = json.substring(0, json.length() - 1);
+        synchronized (WRITE_LOCK) {
+            try {
+                long offset = index.offsetOf(cursor);
+                if (offset < 0) {
+                    return new IncidentPage(page, IncidentPage.END);
+                }
+                Map<String, List<IncidentStatusLog.Change>> statuses = statusLog.snapshot();
+                try (IncidentJsonReader reader = IncidentJsonReader.openAt(filePath, offset, false)) {
+                    long position = cursor;
+                    Incident incident;
+                    while (page.size() < pageSize && (incident = reader.next()) != null) {
+                        position++;
+                        if (filter.test(IncidentStatusLog.merge(incident, statuses))) {
+                            page.add(incident);
+                        }
+                    }
+                    return new IncidentPage(page, page.size() < pageSize ? IncidentPage.END : position);
+                }
+            } catch (NoSuchFileException e) {
+                return new IncidentPage(page, IncidentPage.END);
+            } catch (IOException e) {
+                System.err.println("Error loading incidents: " + e.getMessage());
+                e.printStackTrace();
+                return new IncidentPage(new ArrayList<>(), IncidentPage.END);
+            }
+        }
+    }
+    
+    /**
+     * Reads one incident through the id-to-offset index.
+     *
+     * @param id the incident id
+     * @return the incident, or null if there is none with that id
+     */
+    @Override
+    public Incident findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        
+        synchronized (WRITE_LOCK) {
+            try {
+                Incident incident = index.find(id);
+                return incident == null ? null : statusLog.apply(incident);
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                System.err.println("Error loading incident " + id + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Records the new status in the status log beside the data file. The
+     * statuses are folded into the data file once the log has grown, so a
+     * stream of updates costs one rewrite per thousand changes.
+     *
+     * @param id the incident id
+     * @param status the new status
+     * @param changedAt when the change was made
+     * @return true if the change was recorded, false if the incident does not exist or writing failed
+     */
+    @Override
+    public boolean updateStatus(String id, String status, long changedAt) {
+        if (id == null || status == null) {
+            return false;
+        }
         
-        // Split JSON into individual objects
-        String[] objects = json.split("\\},\\s*\\{");
+        synchronized (WRITE_LOCK) {
+            try {
+                if (index.find(id) == null) {
+                    return false;
+                }
+                statusLog.record(id, status, changedAt, durability);
+                if (statusLog.needsCompaction()) {
+                    List<Incident> incidents = new ArrayList<>();
+                    readAndRepair(incidents);
+                    rewriteAll(incidents);
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error updating incident status: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Path of the JSON file backing this repository.
+     * @return the data file path
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Streams every record into the list, then repairs the file if the reader
+     * found a torn write, records left after the closing bracket, or records
+     * without an id. Malformed bytes with no record after them, such as the
+     * zeros or garbage a crash can leave, are a torn write too; malformed
+     * data between records is still an error.
+     */
+    private void readAndRepair(List<Incident> incidents) throws IOException {
+        boolean truncated, trailingRecords;
+        long lastRecordEnd;
         
-        for (String obj : objects) {
-            // Remove remaining braces
-            obj = obj.replace("{", "").replace("}", "");
-            
-            // Initialize incident fields
-            String type = "", location = "", description = "",
-                   reporter = "", contact = "", date = "", status = "";
-            
-            // Split fields while preserving quoted text
-            String[] fields = obj.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-            
-            for (String field : fields) {
-                String[] kv = field.split(":", 2);
-                if (kv.length < 2) continue;
-                
-                String key = kv[0].replace("\"", "").trim();
-                String value = kv[1].replace("\"", "").trim();
-                
-                // Assign values based on JSON keys
-                switch (key) {
-                    case "type" -> type = value;
-                    case "location" -> location = value;
-                    case "description" -> description = value;
-                    case "reporter" -> reporter = value;
-                    case "contact" -> contact = value;
-                    case "date" -> date = value;
-                    case "status" -> status = value;
+        try (IncidentJsonReader reader = IncidentJsonReader.open(filePath)) {
+            // Stream records straight from the file in a single pass
+            try {
+                Incident incident;
+                while ((incident = reader.next()) != null) {
+                    incidents.add(incident);
                 }
+                truncated = reader.isTruncated();
+            } catch (IOException e) {
+                if (hasRecordAfter(reader.getRecordStart() + 1)) {
+                    throw e;
+                }
+                truncated = true;
             }
-            
-            // Create Incident object and add to list
-            Incident incident = new Incident(type, location, description, 
-                                            reporter, contact, status, date);
-            incidents.add(incident);
+            trailingRecords = reader.hasTrailingRecords();
+            lastRecordEnd = reader.getLastRecordEnd();
         }
         
-        return incidents;
+        Map<String, List<IncidentStatusLog.Change>> statuses = statusLog.snapshot();
+        int missingIds = 0;
+        for (Incident incident : incidents) {
+            if (incident.getId() == null) {
+                incident.ensureId();
+                missingIds++;
+            }
+            IncidentStatusLog.merge(incident, statuses);
+        }
+        
+        if (trailingRecords) {
+            // Records sit outside the array, so the whole array must be rebuilt
+            System.err.println("Repairing records appended after the end of " + filePath);
+            rewriteAll(incidents);
+        } else if (missingIds > 0) {
+            // Persist the new ids so every load hands out the same ones
+            System.err.println("Assigning ids to " + missingIds + " incidents in " + filePath);
+            rewriteAll(incidents);
+        } else if (truncated) {
+            // Drop the torn record and close the array after the last good one
+            System.err.println("Recovering torn write at byte " + lastRecordEnd + " of " + filePath);
+            index.invalidate();
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE)) {
+                channel.truncate(lastRecordEnd);
+                writeFully(channel, lastRecordEnd, "\n]\n");
+            }
+        } else if (lastRecordEnd == 0) {
+            // Blank file: start a fresh empty array
+            rewriteAll(incidents);
+        }
     }
     
-    /** Checks if incident matches selected type filter */
-    private boolean matchesTypeFilter(Incident incident, String typeFilter) {
-        if (typeFilter == null || typeFilter.equals("[None]")) {
-            return true;
+    /**
+     * Writes the records over the closing bracket and re-terminates the array
+     * in a single write. A crash part-way through leaves the file without its
+     * closing bracket, which the next load detects and repairs.
+     *
+     * @return byte offset of each written record, or null if the file does not
+     *         end with a closed array
+     */
+    private long[] tryAppend(List<String> records, boolean force) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            String joined = String.join(",\n", records);
+            long firstRecord;
+            if (channel.size() == 0) {
+                writeFully(channel, 0, "[\n" + joined + "\n]\n");
+                firstRecord = 2;
+            } else {
+                long insertAt = findInsertPosition(channel);
+                if (insertAt < 0) {
+                    return null;
+                }
+                
+                boolean emptyArray = readByteAt(channel, insertAt - 1) == '[';
+                String separator = emptyArray ? "\n" : ",\n";
+                long end = insertAt + writeFully(channel, insertAt, separator + joined + "\n]\n");
+                channel.truncate(end);
+                firstRecord = insertAt + separator.length();
+            }
+            
+            durability.afterWrite(filePath, channel, records.size(), force);
+            
+            long[] offsets = new long[records.size()];
+            long offset = firstRecord;
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = offset;
+                offset += records.get(i).getBytes(StandardCharsets.UTF_8).length + 2;
+            }
+            return offsets;
         }
-        return incident.getType().equalsIgnoreCase(typeFilter);
     }
     
-    /** Checks if incident matches selected status filter */
-    private boolean matchesStatusFilter(Incident incident, String statusFilter) {
-        if (statusFilter == null || statusFilter.equals("[None]")) {
-            return true;
+    /**
+     * Looks for the start of another record, a comma followed by optional
+     * whitespace and an opening brace, at or after an offset.
+     */
+    private boolean hasRecordAfter(long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            boolean afterComma = false;
+            long position = offset;
+            int n;
+            while ((n = channel.read(buffer.clear(), position)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = buffer.get(i);
+                    if (afterComma && b == '{') {
+                        return true;
+                    }
+                    afterComma = b == ',' || (afterComma && isWhitespace(b));
+                }
+                position += n;
+            }
+            return false;
         }
-        return incident.getStatus().equalsIgnoreCase(statusFilter);
     }
     
-    /** Checks if incident matches selected location filter */
-    private boolean matchesLocationFilter(Incident incident, String locationFilter) {
-        if (locationFilter == null || locationFilter.equals("[None]")) {
-            return true;
+    /**
+     * Scans backwards over the closing bracket and whitespace.
+     * @return offset just past the last record (or the opening bracket),
+     *         or -1 if the file does not end with a closed array
+     */
+    private long findInsertPosition(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int window = (int) Math.min(size, TAIL_WINDOW);
+        ByteBuffer tail = ByteBuffer.allocate(window);
+        while (tail.hasRemaining()) {
+            if (channel.read(tail, size - window + tail.position()) < 0) {
+                break;
+            }
+        }
+        
+        int i = window - 1;
+        while (i >= 0 && isWhitespace(tail.get(i))) i--;
+        if (i < 0 || tail.get(i) != ']') {
+            return -1;
         }
-        return incident.getLocation().equalsIgnoreCase(locationFilter);
+        i--;
+        while (i >= 0 && isWhitespace(tail.get(i))) i--;
+        if (i < 0 || (tail.get(i) != '}' && tail.get(i) != '[')) {
+            return -1;
+        }
+        return size - window + i + 1;
     }
     
-    /** Checks if incident contains the search text */
-    private boolean matchesSearchText(Incident incident, String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            return true;
+    /**
+     * Rewrites the whole array to a temp file and atomically swaps it in.
+     * The incidents already carry their logged statuses, so the status log
+     * is cleared afterwards.
+     */
+    private void rewriteAll(List<Incident> incidents) throws IOException {
+        index.invalidate();
+        AtomicFiles.writeText(filePath, writer -> {
+            writer.write("[\n");
+            for (int i = 0; i < incidents.size(); i++) {
+                writer.write(incidents.get(i).toJson());
+                writer.write(i < incidents.size() - 1 ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        }, durability.forcesRewrites());
+        statusLog.clear();
+    }
+
+    
+    private int writeFully(FileChannel channel, long position, String text) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        int length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes, position + bytes.position());
         }
-        
-        String searchLower = searchText.toLowerCase();
-        String combinedText = (
-            incident.getType() + 
-            incident.getLocation() + 
-            incident.getDescription() + 
-            incident.getContact() + 
-            incident.getReporter() + 
-            incident.getStatus()
-        ).toLowerCase();
-        
-        return combinedText.contains(searchLower);
+        return length;
+    }
+    
+    private int readByteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position) == 1 ? one.get(0) : -1;
+    }
+    
+    private boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
     }
 }
@@ -0,0 +1,565 @@
+package service;
+
+import model.Incident;
+import util.AtomicFiles;
+import util.DurabilityPolicy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * JSON Lines implementation of IIncidentRepository.
+ * Stores one incident per line, so saving is a single append with no bracket
+ * bookkeeping and loading can stream line by line, or in parallel across
+ * line-aligned chunks for large files. An id-to-offset index lets findById
+ * read a single line, and status updates go to a small log beside the file
+ * instead of rewriting it.
+ */
+public class JsonLinesIncidentRepository implements IIncidentRepository {
+    
+    /** Path to the JSON Lines file storing incident reports */
+    private static final String FILE_PATH = "src/resources/incident_report.jsonl";
+    
+    /** Files larger than this are parsed in parallel chunks */
+    private static final long PARALLEL_THRESHOLD = 8L * 1024 * 1024;
+    
+    /** Target size of each parallel chunk */
+    private static final long CHUNK_SIZE = 4L * 1024 * 1024;
+    
+    /** Serializes appends and repairs across repository instances */
+    private static final Object WRITE_LOCK = new Object();
+    
+    private final Path filePath;
+    private final DurabilityPolicy durability;
+    private final IncidentOffsetIndex index;
+    private final IncidentStatusLog statusLog;
+    
+    // ==================== Constructors ====================
+    
+    public JsonLinesIncidentRepository() {
+        this(Paths.get(FILE_PATH));
+    }
+    
+    /**
+     * Constructor for using a custom data file.
+     * @param filePath Path to the JSON Lines file storing incident reports
+     */
+    public JsonLinesIncidentRepository(Path filePath) {
+        this(filePath, DurabilityPolicy.configured());
+    }
+    
+    /**
+     * Constructor for using a custom data file and durability policy.
+     * @param filePath Path to the JSON Lines file storing incident reports
+     * @param durability When appended lines are forced to disk
+     */
+    public JsonLinesIncidentRepository(Path filePath, DurabilityPolicy durability) {
+        this.filePath = filePath;
+        this.durability = durability;
+        this.index = new IncidentOffsetIndex(filePath, true);
+        this.statusLog = new IncidentStatusLog(filePath);
+    }
+    
+    // ==================== Interface Implementation ====================
+    
+    /**
+     * Loads all incidents from the JSON Lines file.
+     * Lines written before incidents had ids are given one, and the file is
+     * rewritten once so the ids stay stable.
+     *
+     * @return list of all incidents
+     */
+    @Override
+    public List<Incident> loadAllIncidents() {
+        try {
+            synchronized (WRITE_LOCK) {
+                return readAll();
+            }
+        } catch (NoSuchFileException e) {
+            // Nothing has been reported yet
+            return new ArrayList<>();
+        } catch (Exception e) {
+            // Handle file read or parsing errors
+            System.err.println("Error loading incidents: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Saves a single incident as one appended line.
+     *
+     * @param incident the incident to save
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public boolean saveIncident(Incident incident) {
+        if (incident == null) {
+            return false;
+        }
+        return saveIncidents(List.of(incident), false);
+    }
+    
+    /**
+     * Saves a batch of incidents as one appended block of lines.
+     *
+     * @param incidents the incidents to save
+     * @param force whether to flush the write to the storage device
+     * @return true if saved successfully, false otherwise
+     */
+    @Override
+    public boolean saveIncidents(List<Incident> incidents, boolean force) {
+        if (incidents.stream().anyMatch(incident -> incident == null)) {
+            return false;
+        }
+        if (incidents.isEmpty()) {
+            return true;
+        }
+        
+        StringBuilder lines = new StringBuilder();
+        int[] lineLengths = new int[incidents.size()];
+        for (int i = 0; i < incidents.size(); i++) {
+            Incident incident = incidents.get(i);
+            incident.ensureId();
+            String line = incident.toJsonLine();
+            lines.append(line).append('\n');
+            lineLengths[i] = line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        byte[] block = lines.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (WRITE_LOCK) {
+                boolean indexed = index.isCurrent();
+                long[] offsets = new long[incidents.size()];
+                try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                                                            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long size = channel.size();
+                    if (size > 0 && readByteAt(channel, size - 1) != '\n') {
+                        // Last write was interrupted; fix its line before appending
+                        size = terminateLastLine(channel);
+                        indexed = false;
+                    }
+                    ByteBuffer bytes = ByteBuffer.wrap(block);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes, size + bytes.position());
+                    }
+                    durability.afterWrite(filePath, channel, incidents.size(), force);
+                    
+                    for (int i = 0; i < offsets.length; i++) {
+                        offsets[i] = size;
+                        size += lineLengths[i];
+                    }
+                }
+                index.appended(indexed, incidents, offsets);
+            }
+            return true;
+        } catch (IOException e) {
+            // Handle file write errors
+            System.err.println("Error saving incident: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    /**
+     * Retrieves incidents filtered by type, status, location, and search text.
+     *
+     * @return filtered list of incidents
+     */
+    @Override
+    public List<Incident> getFilteredIncidents(String typeFilter, String statusFilter,
+                                               String locationFilter, String searchText) {
+        IncidentFilter filter = new IncidentFilter(typeFilter, statusFilter,
+                                                   locationFilter, searchText);
+        return loadAllIncidents().stream()
+            .filter(filter)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Streams incidents straight from the file as the stream is consumed.
+     * The stream holds the file open until it is closed.
+     *
+     * @return lazy stream of all incidents
+     */
+    @Override
+    public Stream<Incident> streamIncidents() {
+        try {
+            Map<String, List<IncidentStatusLog.Change>> statuses;
+            synchronized (WRITE_LOCK) {
+                statuses = statusLog.snapshot();
+            }
+            return IncidentJsonReader.openLines(filePath).stream()
+                .map(incident -> IncidentStatusLog.merge(incident, statuses));
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        } catch (IOException e) {
+            System.err.println("Error loading incidents: " + e.getMessage());
+            e.printStackTrace();
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Reads one page starting at the record where the previous page stopped.
+     * The cursor is a record position in storage order, which the offset
+     * index turns into a byte offset, so each page costs only the records it
+     * covers. Rewrites keep records in order, so a cursor held across an id
+     * backfill, a status-log compaction or a repair still resumes at the
+     * right record.
+     *
+     * @return the page, whose next cursor is a record position
+     */
+    @Override
+    public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+        List<Incident> page = new ArrayList<>();
+        if (cursor == IncidentPage.END) {
+            return new IncidentPage(page, IncidentPage.END);
+        }
+        
+        synchronized (WRITE_LOCK) {
+            try {
+                long offset = index.offsetOf(cursor);
+                if (offset < 0) {
+                    return new IncidentPage(page, IncidentPage.END);
+                }
+                Map<String, List<IncidentStatusLog.Change>> statuses = statusLog.snapshot();
+                try (IncidentJsonReader reader = IncidentJsonReader.openAt(filePath, offset, true)) {
+                    long position = cursor;
+                    Incident incident;
+                    while (page.size() < pageSize && (incident = reader.next()) != null) {
+                        position++;
+                        if (filter.test(IncidentStatusLog.merge(incident, statuses))) {
+                            page.add(incident);
+                        }
+                    }
+                    return new IncidentPage(page, page.size() < pageSize ? IncidentPage.END : position);
+                }
+            } catch (NoSuchFileException e) {
+                return new IncidentPage(page, IncidentPage.END);
+            } catch (IOException e) {
+                System.err.println("Error loading incidents: " + e.getMessage());
+                e.printStackTrace();
+                return new IncidentPage(new ArrayList<>(), IncidentPage.END);
+            }
+        }
+    }
+    
+    /**
+     * Reads one incident through the id-to-offset index.
+     *
+     * @param id the incident id
+     * @return the incident, or null if there is none with that id
+     */
+    @Override
+    public Incident findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        
+        synchronized (WRITE_LOCK) {
+            try {
+                Incident incident = index.find(id);
+                return incident == null ? null : statusLog.apply(incident);
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                System.err.println("Error loading incident " + id + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Records the new status in the status log beside the data file. The
+     * statuses are folded into the data file once the log has grown, so a
+     * stream of updates costs one rewrite per thousand changes.
+     *
+     * @param id the incident id
+     * @param status the new status
+     * @param changedAt when the change was made
+     * @return true if the change was recorded, false if the incident does not exist or writing failed
+     */
+    @Override
+    public boolean updateStatus(String id, String status, long changedAt) {
+        if (id == null || status == null) {
+            return false;
+        }
+        
+        synchronized (WRITE_LOCK) {
+            try {
+                if (index.find(id) == null) {
+                    return false;
+                }
+                statusLog.record(id, status, changedAt, durability);
+                if (statusLog.needsCompaction()) {
+                    rewriteAll(readAll());
+                }
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error updating incident status: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Path of the JSON Lines file backing this repository.
+     * @return the data file path
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /**
+     * Reads every record with its logged status, assigning ids where missing.
+     */
+    private List<Incident> readAll() throws IOException {
+        List<Incident> incidents;
+        if (Files.size(filePath) > PARALLEL_THRESHOLD) {
+            incidents = readParallel();
+        } else {
+            incidents = new ArrayList<>();
+            readRange(0, Long.MAX_VALUE, incidents);
+        }
+        Map<String, List<IncidentStatusLog.Change>> statuses = statusLog.snapshot();
+        for (Incident incident : incidents) {
+            IncidentStatusLog.merge(incident, statuses);
+        }
+        assignMissingIds(incidents);
+        return incidents;
+    }
+    
+    /**
+     * Reads the records between two byte offsets, repairing a torn last line.
+     * A malformed line is logged and skipped, so one bad record does not
+     * hide the rest of the history.
+     */
+    private void readRange(long start, long end, List<Incident> incidents) throws IOException {
+        boolean truncated = false;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            for (long from = start; from < end; ) {
+                try (IncidentJsonReader reader = new IncidentJsonReader(new RangeChannel(channel, from, end), true)) {
+                    try {
+                        Incident incident;
+                        while ((incident = reader.next()) != null) {
+                            incidents.add(incident);
+                        }
+                        truncated = reader.isTruncated();
+                        break;
+                    } catch (IOException e) {
+                        long lineStart = from + reader.getRecordStart();
+                        System.err.println("Skipping malformed line at byte " + lineStart + " of " + filePath
+                                           + ": " + e.getMessage());
+                        from = nextLineStart(channel, lineStart);
+                    }
+                }
+            }
+        }
+        if (!truncated || end != Long.MAX_VALUE) {
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            terminateLastLine(channel);
+        }
+    }
+    
+    /**
+     * Gives every incident loaded without an id a new one and rewrites the
+     * file so the ids are kept.
+     */
+    private void assignMissingIds(List<Incident> incidents) throws IOException {
+        int missingIds = 0;
+        for (Incident incident : incidents) {
+            if (incident.getId() == null) {
+                incident.ensureId();
+                missingIds++;
+            }
+        }
+        if (missingIds == 0) {
+            return;
+        }
+        
+        System.err.println("Assigning ids to " + missingIds + " incidents in " + filePath);
+        rewriteAll(incidents);
+    }
+    
+    /**
+     * Rewrites the whole file to a temp file and atomically swaps it in.
+     * The incidents already carry their logged statuses, so the status log
+     * is cleared afterwards.
+     */
+    private void rewriteAll(List<Incident> incidents) throws IOException {
+        index.invalidate();
+        AtomicFiles.writeText(filePath, writer -> {
+            for (Incident incident : incidents) {
+                writer.write(incident.toJsonLine());
+                writer.write('\n');
+            }
+        }, durability.forcesRewrites());
+        statusLog.clear();
+    }
+    
+    /**
+     * Splits the file into line-aligned chunks and parses them concurrently.
+     */
+    private List<Incident> readParallel() throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            boundaries.add(0L);
+            for (long target = CHUNK_SIZE; target < size; ) {
+                long lineStart = nextLineStart(channel, target);
+                if (lineStart >= size) {
+                    break;
+                }
+                boundaries.add(lineStart);
+                target = lineStart + CHUNK_SIZE;
+            }
+            boundaries.add(Long.MAX_VALUE);
+        }
+        
+        int chunks = boundaries.size() - 1;
+        List<List<Incident>> parts = IntStream.range(0, chunks).parallel()
+            .mapToObj(i -> {
+                List<Incident> part = new ArrayList<>();
+                try {
+                    readRange(boundaries.get(i), boundaries.get(i + 1), part);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return part;
+            })
+            .collect(Collectors.toList());
+        
+        List<Incident> incidents = new ArrayList<>();
+        for (List<Incident> part : parts) {
+            incidents.addAll(part);
+        }
+        return incidents;
+    }
+    
+    /** @return offset of the first byte after the next newline at or after position */
+    private long nextLineStart(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (true) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+    }
+    
+    /**
+     * Repairs a last line that has no newline: a complete record just gets its
+     * newline, while a torn record is truncated away.
+     * @return the new file size
+     */
+    private long terminateLastLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long lineStart = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (long end = size; end > 0 && lineStart == 0; ) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            channel.read(buffer, start);
+            for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    lineStart = start + i + 1;
+                    break;
+                }
+            }
+            end = start;
+        }
+        
+        boolean complete;
+        try (IncidentJsonReader reader = new IncidentJsonReader(new RangeChannel(channel, lineStart, size), true)) {
+            complete = reader.next() != null && !reader.isTruncated();
+        }
+        
+        if (complete) {
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}), size);
+            return size + 1;
+        }
+        System.err.println("Recovering torn write at byte " + lineStart + " of " + filePath);
+        channel.truncate(lineStart);
+        return lineStart;
+    }
+    
+    private int readByteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position) == 1 ? one.get(0) : -1;
+    }
+    
+    // ==================== Range Channel ====================
+    
+    /**
+     * Read-only view of a byte range of a file channel, using positional reads
+     * so several ranges of the same file can be read concurrently.
+     */
+    private static class RangeChannel implements ReadableByteChannel {
+        
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        
+        RangeChannel(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+        
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int limit = destination.limit();
+            long remaining = end - position;
+            if (remaining < destination.remaining()) {
+                destination.limit(destination.position() + (int) remaining);
+            }
+            int n = channel.read(destination, position);
+            destination.limit(limit);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+        
+        @Override
+        public void close() {
+            // The underlying channel is owned and closed by the caller
+        }
+    }
+}
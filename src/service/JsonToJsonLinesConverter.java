@@ -0,0 +1,71 @@
+package service;
+
+import model.Incident;
+import util.AtomicFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-shot converter from the JSON array incident file to JSON Lines.
+ * Streams records through IncidentJsonReader, so files of any size convert
+ * with flat memory use. The output is written to a temp file and moved into
+ * place, so an interrupted conversion never leaves a half-written target.
+ *
+ * Usage: java service.JsonToJsonLinesConverter [source.json] [target.jsonl]
+ */
+public class JsonToJsonLinesConverter {
+    
+    /** Default source file, as used by JsonIncidentRepository */
+    public static final String DEFAULT_SOURCE = "src/resources/incident_report.json";
+    
+    /** Default target file, as used by JsonLinesIncidentRepository */
+    public static final String DEFAULT_TARGET = "src/resources/incident_report.jsonl";
+    
+    /**
+     * Converts a JSON array file into a JSON Lines file.
+     * @param source JSON array file to read
+     * @param target JSON Lines file to create or replace
+     * @return number of incidents converted
+     * @throws IOException if reading or writing fails
+     */
+    public static int convert(Path source, Path target) throws IOException {
+        int[] count = {0};
+        // Carry over status updates not yet folded into the source file
+        Map<String, List<IncidentStatusLog.Change>> statuses = new IncidentStatusLog(source).snapshot();
+        
+        try (IncidentJsonReader reader = IncidentJsonReader.open(source)) {
+            AtomicFiles.writeText(target, writer -> {
+                Incident incident;
+                while ((incident = reader.next()) != null) {
+                    writer.write(IncidentStatusLog.merge(incident, statuses).toJsonLine());
+                    writer.write('\n');
+                    count[0]++;
+                }
+            }, true);
+        }
+        return count[0];
+    }
+    
+    public static void main(String[] args) {
+        Path source = Paths.get(args.length > 0 ? args[0] : DEFAULT_SOURCE);
+        Path target = Paths.get(args.length > 1 ? args[1] : DEFAULT_TARGET);
+        
+        if (Files.exists(target)) {
+            System.err.println(target + " already exists; remove it first to convert again.");
+            System.exit(1);
+        }
+        
+        try {
+            int count = convert(source, target);
+            System.out.println("Converted " + count + " incidents from " + source + " to " + target);
+        } catch (IOException e) {
+            System.err.println("Error converting incidents: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
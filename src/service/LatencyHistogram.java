@@ -0,0 +1,155 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory histogram of durations with log-linear buckets, in the style
+ * of HdrHistogram, for percentiles of response times.
+ *
+ * Durations are counted in whole seconds. Below 64 seconds every second has
+ * its own bucket; above that each power of two is split into 32 buckets, so
+ * a bucket is never wider than about 3% of the values it holds, and a
+ * percentile read from the middle of its bucket is within about 1.6% of the
+ * true value. 896 int counters (3.5 KB) cover durations up to 2^32 seconds;
+ * longer ones are counted in the last bucket. Recording is a few shifts and
+ * an increment, and percentiles walk the buckets, so raw durations are never
+ * stored or sorted.
+ *
+ * Histograms merge by adding their counters. Not thread-safe; owners
+ * synchronize access.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    
+    /** Values below this have a bucket each */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    
+    /** Largest magnitude (highest set bit) with buckets of its own */
+    private static final int MAX_MAGNITUDE = 31;
+    
+    private static final int BUCKETS = index(-1L >>> (63 - MAX_MAGNITUDE)) + 1;
+    
+    private final int[] counts;
+    private long count;
+    private long totalSeconds;
+    private long maxMillis;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new int[BUCKETS];
+    }
+    
+    private LatencyHistogram(LatencyHistogram other) {
+        this.counts = Arrays.copyOf(other.counts, other.counts.length);
+        this.count = other.count;
+        this.totalSeconds = other.totalSeconds;
+        this.maxMillis = other.maxMillis;
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * Counts one duration. Negative durations count as zero.
+     * @param millis Duration in milliseconds
+     */
+    public void record(long millis) {
+        long clamped = Math.max(0, millis);
+        long seconds = clamped / 1000;
+        counts[Math.min(index(seconds), BUCKETS - 1)]++;
+        count++;
+        totalSeconds += seconds;
+        maxMillis = Math.max(maxMillis, clamped);
+    }
+    
+    /**
+     * @param percentile Percentile from 0 to 100, e.g. 99 for p99
+     * @return the duration in milliseconds that the given percentage of the
+     *         counted durations do not exceed, to within a bucket, or 0 if
+     *         nothing was counted
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(middle(i) * 1000, maxMillis);
+            }
+        }
+        return maxMillis;
+    }
+    
+    /**
+     * Adds another histogram's counts to this one.
+     * @param other Histogram to add
+     * @return this histogram
+     */
+    public LatencyHistogram merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        totalSeconds += other.totalSeconds;
+        maxMillis = Math.max(maxMillis, other.maxMillis);
+        return this;
+    }
+    
+    /**
+     * @return an independent copy of this histogram
+     */
+    public LatencyHistogram copy() {
+        return new LatencyHistogram(this);
+    }
+    
+    /**
+     * @return the number of durations counted
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * @return the mean duration in milliseconds, at one-second resolution, or 0 if nothing was counted
+     */
+    public long getMeanMillis() {
+        return count == 0 ? 0 : totalSeconds * 1000 / count;
+    }
+    
+    /**
+     * @return the longest duration counted, exactly, in milliseconds
+     */
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Bucket of a duration in seconds */
+    private static int index(long seconds) {
+        if (seconds < LINEAR_LIMIT) {
+            return (int) seconds;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(seconds) - SUB_BUCKET_BITS;
+        int subBucket = (int) (seconds >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    /** Middle of a bucket, in seconds */
+    private static long middle(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long lowest = (long) (SUB_BUCKETS + (index - LINEAR_LIMIT) % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) / 2;
+    }
+}
@@ -0,0 +1,88 @@
+package service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import util.ReportDates;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * IIncidentAnalytics for repositories that keep no indexes: every call
+ * streams the repository and builds the structure it needs from scratch.
+ */
+class ScanningIncidentAnalytics implements IIncidentAnalytics {
+    
+    /** How far back the surge detector replays reports to warm up */
+    private static final long SURGE_WARM_UP_MILLIS = 7 * 24 * 60 * ReportDates.MILLIS_PER_MINUTE;
+    
+    private final IIncidentRepository repository;
+    
+    // ==================== Constructor ====================
+    
+    /**
+     * @param repository Repository to scan
+     */
+    ScanningIncidentAnalytics(IIncidentRepository repository) {
+        this.repository = repository;
+    }
+    
+    // ==================== Interface Implementation ====================
+    
+    @Override
+    public IncidentStatistics getStatistics() {
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            return incidents.collect(IncidentStatistics.collector());
+        }
+    }
+    
+    @Override
+    public Map<String, Integer> rollUp(IncidentCube.Dimension dimension, IncidentCube.Slice slice) {
+        IncidentCube cube = new IncidentCube();
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            incidents.forEach(cube::add);
+        }
+        return cube.rollUp(dimension, slice);
+    }
+    
+    /**
+     * Queries the window's date range.
+     */
+    @Override
+    public IncidentRollups.Counts getRecentCounts(IncidentRollups.Window window) {
+        long since = window.since(ReportDates.now());
+        List<Incident> recent = repository.query(IncidentQuery.builder().reportedBetween(since, Long.MAX_VALUE).build());
+        return IncidentRollups.Counts.of(window, recent);
+    }
+    
+    @Override
+    public IncidentSketches.Summary getReportSummary(LocalDate from, LocalDate before) {
+        IncidentSketches sketches = new IncidentSketches();
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            incidents.forEach(sketches::add);
+        }
+        return sketches.summarize(from, before);
+    }
+    
+    @Override
+    public IncidentResponseTimes.Breakdown getResponseTimes(IncidentResponseTimes.Metric metric) {
+        IncidentResponseTimes times = new IncidentResponseTimes();
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            incidents.forEach(times::add);
+        }
+        return times.breakdown(metric);
+    }
+    
+    /**
+     * Replays the last week of reports, oldest first, into a new detector.
+     */
+    @Override
+    public IncidentSurgeDetector.Status getSurgeStatus() {
+        long since = ReportDates.now() - SURGE_WARM_UP_MILLIS;
+        IncidentSurgeDetector detector = new IncidentSurgeDetector();
+        repository.query(IncidentQuery.builder().reportedBetween(since, Long.MAX_VALUE)
+                             .orderBy(IncidentQuery.Order.OLDEST_FIRST).build()).forEach(detector::add);
+        return detector.status();
+    }
+}
@@ -0,0 +1,87 @@
+package test.benchmark;
+
+import model.Incident;
+import service.BatchingIncidentWriter;
+import service.IIncidentRepository;
+import service.JsonLinesIncidentRepository;
+import util.DurabilityPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Benchmark measuring the cost of each durability mode for incident saves,
+ * one report at a time and through the group-commit writer.
+ *
+ * Usage: java test.benchmark.DurabilityBenchmark [count]
+ * Defaults to 2000 saves per mode.
+ */
+public class DurabilityBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0].replace("_", "")) : 2_000;
+        
+        System.out.printf("%10s %14s %14s %16s %16s%n",
+                          "mode", "single (ms)", "single ops/s", "batched (ms)", "batched ops/s");
+        
+        for (DurabilityPolicy.Mode mode : DurabilityPolicy.Mode.values()) {
+            long single = runSingle(mode, count);
+            long batched = runBatched(mode, count);
+            System.out.printf("%10s %14d %14d %16d %16d%n", mode,
+                              single, opsPerSecond(count, single), batched, opsPerSecond(count, batched));
+        }
+    }
+    
+    // ==================== Measurement ====================
+    
+    /** Saves one incident per call, as the report screen did before group commit */
+    private static long runSingle(DurabilityPolicy.Mode mode, int count) throws IOException {
+        Path file = Files.createTempFile("durability-bench", ".jsonl");
+        try {
+            IIncidentRepository repository = new JsonLinesIncidentRepository(file, policy(mode));
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                repository.saveIncident(IncidentParserBenchmark.sampleIncident(i));
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /** Submits every incident at once, as a surge of concurrent reports would */
+    private static long runBatched(DurabilityPolicy.Mode mode, int count) throws IOException {
+        Path file = Files.createTempFile("durability-bench", ".jsonl");
+        BatchingIncidentWriter writer = new BatchingIncidentWriter(
+            new JsonLinesIncidentRepository(file, policy(mode)));
+        try {
+            long start = System.nanoTime();
+            List<CompletableFuture<Boolean>> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(writer.submit(IncidentParserBenchmark.sampleIncident(i)));
+            }
+            for (CompletableFuture<Boolean> result : results) {
+                if (!result.join()) {
+                    throw new IllegalStateException("Save failed");
+                }
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            writer.close();
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private static DurabilityPolicy policy(DurabilityPolicy.Mode mode) {
+        return new DurabilityPolicy(mode, DurabilityPolicy.DEFAULT_DELAY_MILLIS,
+                                    DurabilityPolicy.DEFAULT_MAX_RECORDS);
+    }
+    
+    private static long opsPerSecond(int count, long millis) {
+        return count * 1000L / Math.max(1, millis);
+    }
+}
@@ -0,0 +1,92 @@
+package test.benchmark;
+
+import model.Incident;
+import service.IncidentBitmapIndex;
+import service.IncidentFilter;
+import service.IncidentTextIndex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Benchmark comparing dashboard filters evaluated by scanning every incident
+ * with filters resolved through the bitmap and full-text indexes. Indexed
+ * candidates are verified with the filter, as the repositories do.
+ *
+ * Usage: java test.benchmark.FilterIndexBenchmark [count ...]
+ * Defaults to 100k and 1M incidents.
+ */
+public class FilterIndexBenchmark {
+    
+    private static final int ROUNDS = 20;
+    
+    private static final IncidentFilter[] FILTERS = {
+        new IncidentFilter("Fire", null, null, null),
+        new IncidentFilter("Fire", "Pending", null, null),
+        new IncidentFilter("Flood", "Resolved", "Agdum", null),
+        new IncidentFilter(null, null, "Nowhere", null),
+        new IncidentFilter(null, null, null, "reporter 42"),
+        new IncidentFilter("Fire", null, null, "number 12345"),
+        new IncidentFilter(null, null, null, "7654"),
+    };
+    
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{100_000, 1_000_000};
+        
+        System.out.printf("%10s %8s %12s %12s %10s%n", "incidents", "filter", "scan (us)", "index (us)", "matches");
+        
+        for (int size : sizes) {
+            List<Incident> incidents = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                incidents.add(IncidentParserBenchmark.sampleIncident(i));
+            }
+            IncidentBitmapIndex index = IncidentBitmapIndex.of(incidents);
+            IncidentTextIndex text = IncidentTextIndex.of(incidents);
+            
+            for (int f = 0; f < FILTERS.length; f++) {
+                IncidentFilter filter = FILTERS[f];
+                long scanNs = Long.MAX_VALUE, bitmapNs = Long.MAX_VALUE;
+                int scanMatches = 0, bitmapMatches = 0;
+                
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    scanMatches = 0;
+                    for (Incident incident : incidents) {
+                        if (filter.test(incident)) {
+                            scanMatches++;
+                        }
+                    }
+                    scanNs = Math.min(scanNs, System.nanoTime() - start);
+                    
+                    start = System.nanoTime();
+                    BitSet candidates = index.select(filter);
+                    if (filter.getSearchText() != null) {
+                        candidates.and(text.select(filter.getSearchText()));
+                    }
+                    bitmapMatches = 0;
+                    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                        if (filter.matchesSearchText(incidents.get(i))) {
+                            bitmapMatches++;
+                        }
+                    }
+                    bitmapNs = Math.min(bitmapNs, System.nanoTime() - start);
+                }
+                
+                if (scanMatches != bitmapMatches) {
+                    throw new IllegalStateException("Scan found " + scanMatches + ", bitmap " + bitmapMatches);
+                }
+                System.out.printf("%10d %8d %12d %12d %10d%n", size, f + 1,
+                                  scanNs / 1000, bitmapNs / 1000, bitmapMatches);
+            }
+        }
+    }
+    
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,182 @@
+package test.benchmark;
+
+import model.Incident;
+import service.IncidentJsonReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark comparing the streaming IncidentJsonReader with the previous
+ * readAllBytes + regex split parser.
+ *
+ * Peak heap is read from the heap memory pools: their peak usage is reset
+ * after a GC, and the sum of the pool peaks during the parse, less the heap
+ * in use before it, is reported. Pools can peak at different moments, so the
+ * figure is an upper bound.
+ *
+ * Usage: java test.benchmark.IncidentParserBenchmark [count ...]
+ * Defaults to 10k, 100k and 1M incidents.
+ */
+public class IncidentParserBenchmark {
+    
+    private static final String[] TYPES = {"Fire", "Flood", "Accident", "Crime", "Medical"};
+    private static final String[] STATUSES = {"Pending", "Responding", "Resolved"};
+    private static final String[] LOCATIONS = {"Agdum", "Aguiauan", "Alimodias", "Awang", "Bacauan", "Bacolod"};
+    private static final int ROUNDS = 3;
+    
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{10_000, 100_000, 1_000_000};
+        
+        System.out.printf("%10s %12s %14s %14s %16s %16s%n",
+                          "incidents", "file (KB)", "legacy (ms)", "stream (ms)",
+                          "legacy heap (MB)", "stream heap (MB)");
+        
+        for (int size : sizes) {
+            Path file = Files.createTempFile("incident-bench", ".json");
+            try {
+                writeSampleFile(file, size);
+                
+                long legacyMs = Long.MAX_VALUE, streamMs = Long.MAX_VALUE;
+                long legacyHeap = 0, streamHeap = 0;
+                
+                for (int round = 0; round < ROUNDS; round++) {
+                    long[] legacy = measure(() -> legacyParse(file), size);
+                    long[] stream = measure(() -> streamParse(file), size);
+                    legacyMs = Math.min(legacyMs, legacy[0]);
+                    streamMs = Math.min(streamMs, stream[0]);
+                    legacyHeap = Math.max(legacyHeap, legacy[1]);
+                    streamHeap = Math.max(streamHeap, stream[1]);
+                }
+                
+                System.out.printf("%10d %12d %14d %14d %16d %16d%n",
+                                  size, Files.size(file) / 1024, legacyMs, streamMs,
+                                  legacyHeap >> 20, streamHeap >> 20);
+            } catch (OutOfMemoryError e) {
+                System.out.printf("%10d  out of memory (raise -Xmx)%n", size);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    // ==================== Measurement ====================
+    
+    private interface Parser {
+        int parse() throws IOException;
+    }
+    
+    /** @return elapsed milliseconds and peak heap growth in bytes */
+    private static long[] measure(Parser parser, int expected) throws IOException {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        System.gc();
+        long heapBefore = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+            heapBefore += pool.getUsage().getUsed();
+        }
+        
+        long start = System.nanoTime();
+        int count = parser.parse();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        
+        long heapPeak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            heapPeak += pool.getPeakUsage().getUsed();
+        }
+        if (count != expected) {
+            throw new IllegalStateException("Parsed " + count + " incidents, expected " + expected);
+        }
+        return new long[]{elapsed, heapPeak - heapBefore};
+    }
+    
+    private static int streamParse(Path file) throws IOException {
+        int count = 0;
+        try (IncidentJsonReader reader = IncidentJsonReader.open(file)) {
+            while (reader.next() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /** The parser JsonIncidentRepository used before the streaming reader */
+    private static int legacyParse(Path file) throws IOException {
+        String json = new String(Files.readAllBytes(file));
+        List<Incident> incidents = new ArrayList<>();
+        
+        json = json.trim();
+        if (json.startsWith("[")) json = json.substring(1);
+        if (json.endsWith("]")) json = json.substring(0, json.length() - 1);
+        
+        for (String obj : json.split("\\},\\s*\\{")) {
+            obj = obj.replace("{", "").replace("}", "");
+            String type = "", location = "", description = "",
+                   reporter = "", contact = "", date = "", status = "";
+            
+            for (String field : obj.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")) {
+                String[] kv = field.split(":", 2);
+                if (kv.length < 2) continue;
+                String key = kv[0].replace("\"", "").trim();
+                String value = kv[1].replace("\"", "").trim();
+                switch (key) {
+                    case "type" -> type = value;
+                    case "location" -> location = value;
+                    case "description" -> description = value;
+                    case "reporter" -> reporter = value;
+                    case "contact" -> contact = value;
+                    case "date" -> date = value;
+                    case "status" -> status = value;
+                }
+            }
+            incidents.add(new Incident(type, location, description, reporter, contact, status, date));
+        }
+        return incidents.size();
+    }
+    
+    // ==================== Sample Data ====================
+    
+    private static void writeSampleFile(Path file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < count; i++) {
+                writer.write(sampleIncident(i).toJson());
+                writer.write(i < count - 1 ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        }
+    }
+    
+    static Incident sampleIncident(int i) {
+        return new Incident(
+            TYPES[i % TYPES.length],
+            LOCATIONS[i % LOCATIONS.length],
+            "Sample incident report number " + i,
+            "Reporter " + (i % 1000),
+            String.format("09%09d", i),
+            STATUSES[i % STATUSES.length],
+            "2024-03-" + String.format("%02d", 1 + i % 28)
+        );
+    }
+    
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,94 @@
+package test.benchmark;
+
+import model.Incident;
+import service.IncidentTimeIndex;
+import util.ReportDates;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Benchmark comparing "latest 50" and "last 6 hours" answered by sorting or
+ * scanning the whole list with the same questions answered by the time index.
+ *
+ * Usage: java test.benchmark.RecentIncidentsBenchmark [count ...]
+ * Defaults to 100k and 1M incidents, one report every minute.
+ */
+public class RecentIncidentsBenchmark {
+    
+    private static final int ROUNDS = 10;
+    private static final int LATEST = 50;
+    private static final long SIX_HOURS = 6 * 60 * ReportDates.MILLIS_PER_MINUTE;
+    
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{100_000, 1_000_000};
+        
+        System.out.printf("%10s %12s %16s %12s %14s%n",
+                          "incidents", "sort (us)", "index latest (us)", "scan (us)", "index 6h (us)");
+        
+        for (int size : sizes) {
+            long start = ReportDates.parse("2024-01-01");
+            List<Incident> incidents = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Incident incident = IncidentParserBenchmark.sampleIncident(i);
+                // Mostly increasing report times with some late arrivals
+                incident.setTimestamp(start + (i - (i % 97 == 0 ? 30 : 0)) * ReportDates.MILLIS_PER_MINUTE);
+                incidents.add(incident);
+            }
+            IncidentTimeIndex index = IncidentTimeIndex.of(incidents);
+            long now = start + size * ReportDates.MILLIS_PER_MINUTE;
+            
+            long sortNs = Long.MAX_VALUE, walkNs = Long.MAX_VALUE, scanNs = Long.MAX_VALUE, rangeNs = Long.MAX_VALUE;
+            int scanMatches = 0, rangeMatches = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long t = System.nanoTime();
+                List<Incident> sorted = new ArrayList<>(incidents);
+                sorted.sort(Comparator.comparingLong(Incident::getTimestamp).reversed());
+                List<Incident> latest = new ArrayList<>(sorted.subList(0, LATEST));
+                sortNs = Math.min(sortNs, System.nanoTime() - t);
+                
+                t = System.nanoTime();
+                List<Incident> walked = new ArrayList<>(LATEST);
+                index.forEach(Long.MIN_VALUE, Long.MAX_VALUE, true, slot -> {
+                    walked.add(incidents.get(slot));
+                    return walked.size() < LATEST;
+                });
+                walkNs = Math.min(walkNs, System.nanoTime() - t);
+                
+                if (latest.get(LATEST - 1).getTimestamp() != walked.get(LATEST - 1).getTimestamp()) {
+                    throw new IllegalStateException("Sort and index disagree on the latest incidents");
+                }
+                
+                t = System.nanoTime();
+                scanMatches = 0;
+                for (Incident incident : incidents) {
+                    if (incident.getTimestamp() >= now - SIX_HOURS) {
+                        scanMatches++;
+                    }
+                }
+                scanNs = Math.min(scanNs, System.nanoTime() - t);
+                
+                t = System.nanoTime();
+                BitSet range = index.select(now - SIX_HOURS, Long.MAX_VALUE);
+                rangeMatches = range.cardinality();
+                rangeNs = Math.min(rangeNs, System.nanoTime() - t);
+            }
+            
+            if (scanMatches != rangeMatches) {
+                throw new IllegalStateException("Scan found " + scanMatches + ", index " + rangeMatches);
+            }
+            System.out.printf("%10d %12d %16d %12d %14d%n", size,
+                              sortNs / 1000, walkNs / 1000, scanNs / 1000, rangeNs / 1000);
+        }
+    }
+    
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
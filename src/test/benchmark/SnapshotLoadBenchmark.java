@@ -0,0 +1,105 @@
+package test.benchmark;
+
+import model.Incident;
+import service.CachingIncidentRepository;
+import service.IncidentQuery;
+import service.IncidentResponseTimes;
+import service.IncidentSnapshotFile;
+import service.JsonIncidentRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark comparing startup loads from the JSON data file with loads from
+ * the binary snapshot, and timing real repository startup from the snapshot:
+ * constructing a CachingIncidentRepository and answering the dashboard's
+ * first screen (statistics and the latest reports), then every other index.
+ *
+ * Usage: java test.benchmark.SnapshotLoadBenchmark [count ...]
+ * Defaults to 10k, 100k and 500k incidents.
+ */
+public class SnapshotLoadBenchmark {
+    
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{10_000, 100_000, 500_000};
+        
+        System.out.printf("%10s %12s %14s %12s %14s %14s %14s%n", "incidents", "json (KB)",
+                          "snapshot (KB)", "json (ms)", "snapshot (ms)", "startup (ms)", "all idx (ms)");
+        
+        for (int size : sizes) {
+            Path json = Files.createTempFile("incident-bench", ".json");
+            Path snapshot = Files.createTempFile("incident-bench", ".snapshot");
+            try {
+                JsonIncidentRepository repository = new JsonIncidentRepository(json);
+                List<Incident> incidents = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    incidents.add(IncidentParserBenchmark.sampleIncident(i));
+                }
+                writeJson(json, incidents);
+                // The first load assigns ids and rewrites the file; snapshot what it stored
+                incidents = repository.loadAllIncidents();
+                long modified = Files.getLastModifiedTime(json).toMillis();
+                IncidentSnapshotFile snapshotFile = new IncidentSnapshotFile(snapshot);
+                snapshotFile.write(incidents, modified, Files.size(json));
+                
+                long jsonMs = Long.MAX_VALUE, snapshotMs = Long.MAX_VALUE;
+                long startupMs = Long.MAX_VALUE, allIndexesMs = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    int jsonCount = repository.loadAllIncidents().size();
+                    jsonMs = Math.min(jsonMs, (System.nanoTime() - start) / 1_000_000);
+                    
+                    start = System.nanoTime();
+                    int snapshotCount = snapshotFile.readIfFresh(modified, Files.size(json)).size();
+                    snapshotMs = Math.min(snapshotMs, (System.nanoTime() - start) / 1_000_000);
+                    
+                    start = System.nanoTime();
+                    CachingIncidentRepository cached = new CachingIncidentRepository(
+                        repository, json, CachingIncidentRepository.DEFAULT_RECHECK_MILLIS, snapshotFile);
+                    int startupCount = cached.getStatistics().getTotalIncidents();
+                    cached.query(IncidentQuery.builder().orderBy(IncidentQuery.Order.NEWEST_FIRST).limit(20).build());
+                    startupMs = Math.min(startupMs, (System.nanoTime() - start) / 1_000_000);
+                    
+                    cached.getFilteredIncidents("[None]", "Pending", "[None]", "flood");
+                    cached.getSurgeStatus();
+                    cached.getResponseTimes(IncidentResponseTimes.Metric.TIME_TO_RESPOND);
+                    cached.getReportSummary(null, null);
+                    allIndexesMs = Math.min(allIndexesMs, (System.nanoTime() - start) / 1_000_000);
+                    
+                    if (jsonCount != size || snapshotCount != size || startupCount != size) {
+                        throw new IllegalStateException("Loaded " + jsonCount + "/" + snapshotCount + "/"
+                                                        + startupCount + " incidents, expected " + size);
+                    }
+                }
+                
+                System.out.printf("%10d %12d %14d %12d %14d %14d %14d%n", size, Files.size(json) / 1024,
+                                  Files.size(snapshot) / 1024, jsonMs, snapshotMs, startupMs, allIndexesMs);
+            } finally {
+                Files.deleteIfExists(json);
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+    
+    private static void writeJson(Path file, List<Incident> incidents) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < incidents.size(); i++) {
+            json.append(incidents.get(i).toJson()).append(i < incidents.size() - 1 ? ",\n" : "\n");
+        }
+        Files.writeString(file, json.append("]\n"));
+    }
+    
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
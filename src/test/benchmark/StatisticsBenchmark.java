@@ -0,0 +1,70 @@
+package test.benchmark;
+
+import model.Incident;
+import model.IncidentStatistics;
+import service.IncidentStatisticsTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark comparing a sequential statistics pass with the fork/join task
+ * and a parallel stream collector over the same list.
+ *
+ * Usage: java test.benchmark.StatisticsBenchmark [count ...]
+ * Defaults to 100k and 1M incidents. Speed-up depends on the number of
+ * cores, which is printed first.
+ */
+public class StatisticsBenchmark {
+    
+    private static final int ROUNDS = 10;
+    
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{100_000, 1_000_000};
+        
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors()
+                           + ", fork/join parallelism: " + ForkJoinPool.getCommonPoolParallelism());
+        System.out.printf("%10s %16s %16s %16s%n", "incidents", "sequential (ms)", "fork/join (ms)", "collector (ms)");
+        
+        for (int size : sizes) {
+            List<Incident> incidents = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                incidents.add(IncidentParserBenchmark.sampleIncident(i));
+            }
+            
+            long sequentialNs = Long.MAX_VALUE, taskNs = Long.MAX_VALUE, collectorNs = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long t = System.nanoTime();
+                IncidentStatistics sequential = new IncidentStatistics();
+                for (Incident incident : incidents) {
+                    sequential.add(incident);
+                }
+                sequentialNs = Math.min(sequentialNs, System.nanoTime() - t);
+                
+                t = System.nanoTime();
+                IncidentStatistics forked = ForkJoinPool.commonPool().invoke(new IncidentStatisticsTask(incidents));
+                taskNs = Math.min(taskNs, System.nanoTime() - t);
+                
+                t = System.nanoTime();
+                IncidentStatistics collected = incidents.parallelStream().collect(IncidentStatistics.collector());
+                collectorNs = Math.min(collectorNs, System.nanoTime() - t);
+                
+                if (forked.getTotalIncidents() != size || !forked.getTypeCounts().equals(sequential.getTypeCounts())
+                        || !collected.getStatusCounts().equals(sequential.getStatusCounts())) {
+                    throw new IllegalStateException("Parallel counts differ from the sequential pass");
+                }
+            }
+            System.out.printf("%10d %16.1f %16.1f %16.1f%n", size,
+                              sequentialNs / 1e6, taskNs / 1e6, collectorNs / 1e6);
+        }
+    }
+    
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
@@ -8,9 +8,14 @@ import controller.DashboardController;
 
 import org.junit.Before;
 import service.IIncidentRepository;
+import service.IncidentFilter;
+import service.IncidentPage;
+import util.ReportDates;
 import static org.junit.Assert.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JUnit test class for DashboardController.
@@ -153,6 +158,74 @@ public class DashboardControllerTest {
         assertEquals(0, filtered.size());
     }
     
+    // ==================== Paging Tests ====================
+    
+    /**
+     * Tests paging through filtered incidents with cursors.
+     */
+    @Test
+    public void testGetIncidentPage() {
+        IncidentPage first = controller.getIncidentPage("[None]", "[None]", "[None]", "",
+                                                        IncidentPage.FIRST, 3);
+        IncidentPage second = controller.getIncidentPage("[None]", "[None]", "[None]", "",
+                                                         first.getNextCursor(), 3);
+        
+        assertEquals(3, first.getIncidents().size());
+        assertTrue(first.hasMore());
+        assertEquals(1, second.getIncidents().size());
+        assertEquals("Accident", second.getIncidents().get(0).getType());
+        assertFalse(second.hasMore());
+    }
+    
+    /**
+     * Tests counting filtered incidents.
+     */
+    @Test
+    public void testCountIncidents() {
+        assertEquals(4, controller.countIncidents("[None]", "[None]", "[None]", ""));
+        assertEquals(2, controller.countIncidents("[None]", "Pending", "[None]", ""));
+    }
+    
+    // ==================== Recent Incidents Tests ====================
+    
+    /**
+     * Tests getIncidentsReportedWithin keeps recent reports and drops old ones.
+     */
+    @Test
+    public void testGetIncidentsReportedWithin() {
+        Incident recent = new Incident("Fire", "Downtown", "Kitchen fire", "Ana Cruz", "09111222333");
+        recent.setTimestamp(ReportDates.now() - Duration.ofHours(6).toMillis());
+        Incident old = new Incident("Flood", "Downtown", "Old flooding", "Ana Cruz", "09111222333");
+        old.setTimestamp(ReportDates.now() - Duration.ofHours(8).toMillis());
+        mockRepository.saveIncident(old);
+        mockRepository.saveIncident(recent);
+        
+        List<Incident> result = controller.getIncidentsReportedWithin(Duration.ofHours(6));
+        
+        assertEquals(1, result.size());
+        assertEquals(recent.getId(), result.get(0).getId());
+    }
+    
+    /**
+     * Tests a report just outside the period is dropped even though the
+     * query itself starts at the hour.
+     */
+    @Test
+    public void testGetIncidentsReportedWithinExactBound() {
+        long now = ReportDates.now();
+        Incident inside = new Incident("Fire", "Downtown", "Kitchen fire", "Ana Cruz", "09111222333");
+        inside.setTimestamp(now - Duration.ofHours(6).minusMinutes(1).toMillis());
+        Incident outside = new Incident("Flood", "Downtown", "Street flooding", "Ana Cruz", "09111222333");
+        outside.setTimestamp(now - Duration.ofHours(6).plusMinutes(1).toMillis());
+        mockRepository.saveIncident(outside);
+        mockRepository.saveIncident(inside);
+        
+        List<Incident> result = controller.getIncidentsReportedWithin(Duration.ofHours(6));
+        
+        assertEquals(1, result.size());
+        assertEquals(inside.getId(), result.get(0).getId());
+    }
+    
     // ==================== calculateStatistics Tests ====================
     
     /**
@@ -340,6 +413,21 @@ public class DashboardControllerTest {
             return filtered;
         }
         
+        @Override
+        public Stream<Incident> streamIncidents() {
+            return incidents.stream();
+        }
+        
+        @Override
+        public long count(IncidentFilter filter) {
+            return incidents.stream().filter(filter).count();
+        }
+        
+        @Override
+        public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+            return IncidentPage.fromList(incidents, filter, cursor, pageSize);
+        }
+        
         private boolean matchesFilters(Incident incident, String typeFilter, 
                                       String statusFilter, String locationFilter, String searchText) {
             if (typeFilter != null && !typeFilter.equals("[None]") && 
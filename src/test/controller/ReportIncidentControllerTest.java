@@ -7,10 +7,13 @@ import controller.ReportIncidentController;
 
 import org.junit.Before;
 import service.IIncidentRepository;
+import service.IncidentFilter;
+import service.IncidentPage;
 import util.IValidator;
 import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JUnit test class for ReportIncidentController.
@@ -392,6 +395,21 @@ public class ReportIncidentControllerTest {
             return new ArrayList<>();
         }
         
+        @Override
+        public Stream<Incident> streamIncidents() {
+            return savedIncidents.stream();
+        }
+        
+        @Override
+        public long count(IncidentFilter filter) {
+            return savedIncidents.stream().filter(filter).count();
+        }
+        
+        @Override
+        public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+            return IncidentPage.fromList(savedIncidents, filter, cursor, pageSize);
+        }
+        
         public List<Incident> getSavedIncidents() {
             return savedIncidents;
         }
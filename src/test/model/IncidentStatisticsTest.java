@@ -2,10 +2,13 @@ package test.model;
 
 import org.junit.Test;
 
+import model.Incident;
 import model.IncidentStatistics;
 
 import org.junit.Before;
 import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JUnit test class for IncidentStatistics model.
@@ -168,6 +171,19 @@ public class IncidentStatisticsTest {
         assertEquals(0, stats.getMedicalCount());
     }
     
+    /**
+     * Tests types without a dedicated getter are still counted.
+     */
+    @Test
+    public void testOtherTypesAreKept() {
+        stats.incrementTypeCount("Landslide");
+        stats.addTypeCount("landslide", 2);
+        
+        assertEquals(3, stats.getTypeCount("LANDSLIDE"));
+        assertEquals(1, stats.getTypeCounts().size());
+        assertEquals(0, stats.getTypeCount(null));
+    }
+    
     /**
      * Tests incrementStatusCount method correctly increments pending count.
      */
@@ -237,4 +253,46 @@ public class IncidentStatisticsTest {
         assertEquals(1, stats.getRespondingCount());
         assertEquals(1, stats.getResolvedCount());
     }
+    
+    // ==================== Merge Tests ====================
+    
+    /**
+     * Tests merging adds every count, ignoring the case of names.
+     */
+    @Test
+    public void testMerge() {
+        stats.add(new Incident("Fire", "Agdum", "Fire", "Ana", "0911", "Pending", "2024-03-01"));
+        IncidentStatistics other = new IncidentStatistics();
+        other.add(new Incident("fire", "Agdum", "Fire", "Ana", "0911", "Resolved", "2024-03-01"));
+        other.add(new Incident("Landslide", "Awang", "Slide", "Ana", "0911", "Pending", "2024-03-02"));
+        
+        assertSame(stats, stats.merge(other));
+        assertEquals(3, stats.getTotalIncidents());
+        assertEquals(2, stats.getFireCount());
+        assertEquals(1, stats.getTypeCount("Landslide"));
+        assertEquals(2, stats.getPendingCount());
+        assertEquals(1, stats.getResolvedCount());
+    }
+    
+    /**
+     * Tests a parallel stream collects the same counts as a loop.
+     */
+    @Test
+    public void testParallelCollector() {
+        String[] types = {"Fire", "Flood", "Accident", "Crime", "Medical"};
+        String[] statuses = {"Pending", "Responding", "Resolved"};
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Incident incident = new Incident(types[i % 5], "Agdum", "Report", "Ana", "0911",
+                                             statuses[i % 3], "2024-03-01");
+            incidents.add(incident);
+            stats.add(incident);
+        }
+        
+        IncidentStatistics collected = incidents.parallelStream().collect(IncidentStatistics.collector());
+        
+        assertEquals(stats.getTotalIncidents(), collected.getTotalIncidents());
+        assertEquals(stats.getTypeCounts(), collected.getTypeCounts());
+        assertEquals(stats.getStatusCounts(), collected.getStatusCounts());
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package test.model;
 import org.junit.Test;
 
 import model.Incident;
+import util.ReportDates;
 
 import static org.junit.Assert.*;
 
@@ -102,6 +103,20 @@ public class IncidentTest {
         
         incident.setDate("December 19, 2025 03:00 PM");
         assertEquals("December 19, 2025 03:00 PM", incident.getDate());
+        assertEquals(ReportDates.parse("December 19, 2025 03:00 PM"), incident.getTimestamp());
+    }
+    
+    /**
+     * Tests incidents created from a timestamp format their date text on demand.
+     */
+    @Test
+    public void testTimestampConstructor() {
+        long timestamp = ReportDates.parse("March 05, 2024 08:45 AM");
+        Incident incident = new Incident("id-1", "Fire", "Agdum", "Test", "Tester", "0917", "Pending", timestamp);
+        
+        assertEquals(timestamp, incident.getTimestamp());
+        assertEquals("March 05, 2024 08:45 AM", incident.getDate());
+        assertEquals(timestamp, incident.withStatus("Resolved").getTimestamp());
     }
     
     // ==================== Business Logic Tests ====================
@@ -180,6 +195,47 @@ public class IncidentTest {
         assertTrue(json.contains("John\\\\Doe"));
     }
     
+    /**
+     * Tests new incidents get distinct ids that survive a JSON round trip.
+     */
+    @Test
+    public void testIdAssignedAndSerialized() {
+        Incident first = new Incident("Fire", "Downtown", "Building fire", "John Doe", "09123456789");
+        Incident second = new Incident();
+        
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertTrue(first.toJson().contains("\"id\": \"" + first.getId() + "\""));
+        
+        Incident legacy = new Incident("Fire", "Downtown", "Old", "Jane", "0912", "Pending", "2024-03-01");
+        assertNull(legacy.getId());
+        assertFalse(legacy.toJson().contains("\"id\""));
+        assertEquals(legacy.ensureId(), legacy.getId());
+    }
+    
+    /**
+     * Tests the first change to Responding and to Resolved is timed, copies
+     * keep the times, and known times are written to JSON.
+     */
+    @Test
+    public void testStatusTransitionTimes() {
+        Incident incident = new Incident("Fire", "Agdum", "House fire", "Ana", "0911", "Pending", "2024-03-01");
+        long responded = incident.getTimestamp() + 15 * ReportDates.MILLIS_PER_MINUTE;
+        long resolved = responded + 60 * ReportDates.MILLIS_PER_MINUTE;
+        
+        Incident responding = incident.withStatus("Responding", responded);
+        Incident done = responding.withStatus("Pending", resolved).withStatus("Resolved", resolved);
+        
+        assertEquals(ReportDates.UNKNOWN, incident.getRespondedAt());
+        assertFalse(incident.toJson().contains("respondedAt"));
+        assertEquals(responded, done.getRespondedAt());
+        assertEquals(resolved, done.getResolvedAt());
+        assertTrue(done.toJson().contains("\"resolvedAt\": \"March 01, 2024 01:15 AM\""));
+        
+        incident.changeStatus("Resolved", resolved);
+        assertEquals(resolved, incident.getRespondedAt());
+    }
+    
     /**
      * Tests toString method returns formatted string representation.
      */
@@ -0,0 +1,152 @@
+package test.service;
+
+import model.Incident;
+import service.BatchingIncidentWriter;
+import service.IIncidentRepository;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit test class for BatchingIncidentWriter.
+ * Uses a recording repository to observe how submissions are grouped.
+ */
+public class BatchingIncidentWriterTest {
+    
+    private BatchingIncidentWriter writer;
+    
+    /**
+     * Stops the writer thread after each test.
+     */
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+    
+    // ==================== Batching Tests ====================
+    
+    /**
+     * Tests incidents queued while a batch is being written are committed together.
+     */
+    @Test
+    public void testGroupsQueuedIncidents() throws Exception {
+        RecordingRepository repository = new RecordingRepository();
+        repository.blockFirstBatch();
+        writer = new BatchingIncidentWriter(repository, 0, 100, true);
+        
+        CompletableFuture<Boolean> first = writer.submit(sample("Fire"));
+        assertTrue(repository.firstBatchStarted.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<Boolean>> rest = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rest.add(writer.submit(sample("Flood")));
+        }
+        repository.release.countDown();
+        
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Boolean> result : rest) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1, 5), repository.batchSizes);
+        assertTrue(repository.forced);
+        assertEquals(6, repository.saved.size());
+    }
+    
+    /**
+     * Tests a failed batch reports false to every caller in it.
+     */
+    @Test
+    public void testReportsFailureToEachCaller() {
+        RecordingRepository repository = new RecordingRepository();
+        repository.fail = true;
+        writer = new BatchingIncidentWriter(repository);
+        
+        assertFalse(writer.saveIncident(sample("Fire")));
+        assertFalse(writer.submit(null).join());
+    }
+    
+    /**
+     * Tests close commits everything already queued and rejects later submissions.
+     */
+    @Test
+    public void testCloseDrainsQueue() {
+        RecordingRepository repository = new RecordingRepository();
+        writer = new BatchingIncidentWriter(repository, 50, 100, false);
+        
+        CompletableFuture<Boolean> queued = writer.submit(sample("Fire"));
+        writer.close();
+        
+        assertTrue(queued.join());
+        assertEquals(1, repository.saved.size());
+        assertFalse(writer.submit(sample("Flood")).join());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident sample(String type) {
+        return new Incident(type, "Agdum", "Batch test", "Tester", "09123456789",
+                            "Pending", "2024-03-01");
+    }
+    
+    /**
+     * Repository recording each batch it is asked to save.
+     */
+    private static class RecordingRepository implements IIncidentRepository {
+        
+        final List<Incident> saved = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean block;
+        volatile boolean fail;
+        volatile boolean forced;
+        
+        void blockFirstBatch() {
+            block = true;
+        }
+        
+        @Override
+        public List<Incident> loadAllIncidents() {
+            return new ArrayList<>(saved);
+        }
+        
+        @Override
+        public boolean saveIncident(Incident incident) {
+            return saveIncidents(List.of(incident), false);
+        }
+        
+        @Override
+        public boolean saveIncidents(List<Incident> incidents, boolean force) {
+            firstBatchStarted.countDown();
+            if (block) {
+                block = false;
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fail) {
+                return false;
+            }
+            batchSizes.add(incidents.size());
+            saved.addAll(incidents);
+            forced |= force;
+            return true;
+        }
+        
+        @Override
+        public List<Incident> getFilteredIncidents(String typeFilter, String statusFilter,
+                                                   String locationFilter, String searchText) {
+            return loadAllIncidents();
+        }
+    }
+}
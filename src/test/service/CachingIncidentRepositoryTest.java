@@ -0,0 +1,271 @@
+package test.service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import service.CachingIncidentRepository;
+import service.IncidentQueryCache;
+import service.IncidentRollups;
+import service.IncidentService;
+import service.IncidentSnapshotFile;
+import service.JsonIncidentRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * JUnit test class for CachingIncidentRepository.
+ * Wraps a counting JSON repository to verify when the file is actually read.
+ */
+public class CachingIncidentRepositoryTest {
+    
+    private Path file;
+    private CountingRepository delegate;
+    private CachingIncidentRepository repository;
+    
+    /**
+     * Creates a temporary data file and a cache that checks it on every call.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("incidents", ".json");
+        Files.writeString(file, "[]");
+        delegate = new CountingRepository(file);
+        repository = new CachingIncidentRepository(delegate, file, 0);
+    }
+    
+    /**
+     * Removes the temporary data file after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".status"));
+    }
+    
+    // ==================== Caching Tests ====================
+    
+    /**
+     * Tests repeated filtering only loads the file once.
+     */
+    @Test
+    public void testFilteringUsesSnapshot() {
+        delegate.saveIncident(sample("Fire"));
+        delegate.saveIncident(sample("Flood"));
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, repository.getFilteredIncidents("Fire", "[None]", "[None]", "").size());
+        }
+        
+        assertEquals(1, delegate.loads);
+    }
+    
+    /**
+     * Tests saving through the cache updates the snapshot without reloading.
+     */
+    @Test
+    public void testSaveUpdatesSnapshot() {
+        repository.loadAllIncidents();
+        
+        assertTrue(repository.saveIncident(sample("Crime")));
+        List<Incident> incidents = repository.loadAllIncidents();
+        
+        assertEquals(1, incidents.size());
+        assertEquals("Crime", incidents.get(0).getType());
+        assertEquals(1, delegate.loads);
+    }
+    
+    /**
+     * Tests an external write to the file triggers a reload.
+     */
+    @Test
+    public void testExternalChangeTriggersReload() {
+        repository.loadAllIncidents();
+        
+        new JsonIncidentRepository(file).saveIncident(sample("Medical"));
+        
+        assertEquals(1, repository.loadAllIncidents().size());
+        assertEquals(2, delegate.loads);
+    }
+    
+    /**
+     * Tests a failed save leaves the snapshot unchanged.
+     */
+    @Test
+    public void testFailedSave() {
+        repository.loadAllIncidents();
+        
+        assertFalse(repository.saveIncident(null));
+        assertEquals(0, repository.loadAllIncidents().size());
+    }
+    
+    /**
+     * Tests a status update replaces the cached incident without reloading,
+     * while another writer's update is noticed through the status log.
+     */
+    @Test
+    public void testStatusUpdates() {
+        Incident fire = sample("Fire");
+        Incident flood = sample("Flood");
+        repository.saveIncident(fire);
+        repository.saveIncident(flood);
+        int loads = delegate.loads;
+        
+        assertTrue(repository.updateStatus(fire.getId(), "Responding"));
+        assertEquals("Responding", repository.findById(fire.getId()).getStatus());
+        assertEquals(loads, delegate.loads);
+        
+        assertTrue(new JsonIncidentRepository(file).updateStatus(flood.getId(), "Resolved"));
+        assertEquals("Resolved", repository.findById(flood.getId()).getStatus());
+        assertEquals(loads + 1, delegate.loads);
+    }
+    
+    // ==================== Query Cache Tests ====================
+    
+    /**
+     * Tests repeated filters are served from the query cache until a save or
+     * status update makes them stale.
+     */
+    @Test
+    public void testQueryCacheInvalidatedByWrites() {
+        Incident fire = sample("Fire");
+        repository.saveIncident(fire);
+        
+        assertEquals(1, repository.getFilteredIncidents("Fire", "Pending", "[None]", "").size());
+        assertEquals(1, repository.getFilteredIncidents("FIRE", "pending", null, null).size());
+        assertEquals(1, repository.getQueryCacheStats().getHits());
+        
+        repository.saveIncident(sample("Fire"));
+        assertEquals(2, repository.getFilteredIncidents("Fire", "Pending", "[None]", "").size());
+        
+        repository.updateStatus(fire.getId(), "Resolved");
+        assertEquals(1, repository.getFilteredIncidents("Fire", "Pending", "[None]", "").size());
+        
+        IncidentQueryCache.Stats stats = repository.getQueryCacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(3, stats.getMisses());
+    }
+    
+    /**
+     * Tests the least recently used result is evicted once the cache is full.
+     */
+    @Test
+    public void testQueryCacheEvictsLeastRecentlyUsed() {
+        repository.saveIncident(sample("Fire"));
+        
+        for (int i = 0; i <= IncidentQueryCache.DEFAULT_CAPACITY; i++) {
+            repository.getFilteredIncidents(null, null, null, "search " + i);
+        }
+        IncidentQueryCache.Stats stats = repository.getQueryCacheStats();
+        assertEquals(IncidentQueryCache.DEFAULT_CAPACITY, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        
+        repository.getFilteredIncidents(null, null, null, "search 0");
+        assertEquals(0, repository.getQueryCacheStats().getHits());
+    }
+    
+    // ==================== Statistics Tests ====================
+    
+    /**
+     * Tests the counters follow saves and status updates without reloading,
+     * and snapshots already handed out do not change.
+     */
+    @Test
+    public void testStatisticsFollowWrites() {
+        Incident fire = sample("Fire");
+        repository.saveIncident(fire);
+        repository.saveIncident(sample("Flood"));
+        IncidentStatistics before = repository.getStatistics();
+        int loads = delegate.loads;
+        
+        repository.updateStatus(fire.getId(), "Responding");
+        repository.saveIncident(sample("FIRE"));
+        IncidentStatistics after = repository.getStatistics();
+        
+        assertEquals(2, before.getTotalIncidents());
+        assertEquals(2, before.getPendingCount());
+        assertEquals(1, before.getFireCount());
+        assertEquals(3, after.getTotalIncidents());
+        assertEquals(2, after.getPendingCount());
+        assertEquals(1, after.getRespondingCount());
+        assertEquals(2, after.getFireCount());
+        assertEquals(1, after.getFloodCount());
+        assertEquals(loads, delegate.loads);
+    }
+    
+    /**
+     * Tests new reports appear in the recent windows and old ones do not.
+     */
+    @Test
+    public void testRecentCounts() {
+        repository.saveIncident(sample("Fire"));
+        repository.saveIncident(new Incident("Flood", "Awang", "Rising water", "Ana", "0911"));
+        
+        IncidentRollups.Counts hour = repository.getRecentCounts(IncidentRollups.Window.LAST_HOUR);
+        assertEquals(1, hour.getTotal());
+        assertEquals(1, (int) hour.getByLocation().get("Awang"));
+        assertEquals(hour.getTotal(),
+                     new IncidentService(new JsonIncidentRepository(file)).getRecentCounts(IncidentRollups.Window.LAST_HOUR).getTotal());
+    }
+    
+    // ==================== Snapshot Tests ====================
+    
+    /**
+     * Tests a fresh binary snapshot is loaded instead of parsing the file.
+     */
+    @Test
+    public void testStartsFromFreshSnapshot() throws IOException {
+        Path snapshotPath = Files.createTempFile("incidents", ".snapshot");
+        try {
+            IncidentSnapshotFile snapshotFile = new IncidentSnapshotFile(snapshotPath);
+            delegate.saveIncident(sample("Fire"));
+            
+            CachingIncidentRepository first = new CachingIncidentRepository(delegate, file, 0, snapshotFile);
+            first.loadAllIncidents();
+            assertTrue(first.writeSnapshot());
+            assertEquals(1, delegate.loads);
+            
+            CachingIncidentRepository second = new CachingIncidentRepository(delegate, file, 0, snapshotFile);
+            List<Incident> incidents = second.loadAllIncidents();
+            assertEquals(1, incidents.size());
+            assertEquals("Fire", incidents.get(0).getType());
+            assertEquals(1, delegate.loads);
+            
+            delegate.saveIncident(sample("Flood"));
+            assertEquals(2, second.loadAllIncidents().size());
+            assertEquals(2, delegate.loads);
+        } finally {
+            Files.deleteIfExists(snapshotPath);
+        }
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident sample(String type) {
+        return new Incident(type, "Agdum", "Sample", "Juan Dela Cruz",
+                            "09123456789", "Pending", "2024-03-01");
+    }
+    
+    /**
+     * JSON repository that counts how many times the file is loaded.
+     */
+    private static class CountingRepository extends JsonIncidentRepository {
+        
+        private int loads;
+        
+        CountingRepository(Path file) {
+            super(file);
+        }
+        
+        @Override
+        public List<Incident> loadAllIncidents() {
+            loads++;
+            return super.loadAllIncidents();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentBitmapIndex;
+import service.IncidentFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentBitmapIndex.
+ * Checks bitmap results against IncidentFilter's own per-incident matching.
+ */
+public class IncidentBitmapIndexTest {
+    
+    private List<Incident> incidents;
+    private IncidentBitmapIndex index;
+    
+    /**
+     * Builds an index over a small mixed set of incidents.
+     */
+    @Before
+    public void setUp() {
+        incidents = new ArrayList<>();
+        incidents.add(sample("Fire", "Pending", "Agdum"));
+        incidents.add(sample("Flood", "Pending", "Awang"));
+        incidents.add(sample("fire", "Resolved", "Agdum"));
+        incidents.add(sample("Crime", "Responding", "AGDUM"));
+        index = IncidentBitmapIndex.of(incidents);
+    }
+    
+    // ==================== Selection Tests ====================
+    
+    /**
+     * Tests combined criteria resolve to the same incidents a scan finds, ignoring case.
+     */
+    @Test
+    public void testSelectMatchesScan() {
+        String[][] criteria = {
+            {"Fire", null, null},
+            {"FIRE", "pending", null},
+            {null, null, "agdum"},
+            {"Fire", "[None]", "Agdum"},
+            {"Medical", null, null},
+            {null, null, null},
+        };
+        for (String[] c : criteria) {
+            IncidentFilter filter = new IncidentFilter(c[0], c[1], c[2], null);
+            assertEquals(scan(filter), index.select(filter));
+        }
+    }
+    
+    /**
+     * Tests the index follows appends and status changes.
+     */
+    @Test
+    public void testMaintenance() {
+        Incident medical = sample("Medical", "Pending", "Awang");
+        index.add(incidents.size(), medical);
+        incidents.add(medical);
+        index.statusChanged(0, "Pending", "Resolved");
+        incidents.set(0, incidents.get(0).withStatus("Resolved"));
+        
+        IncidentFilter resolved = new IncidentFilter(null, "Resolved", null, null);
+        IncidentFilter pending = new IncidentFilter(null, "Pending", null, null);
+        assertEquals(scan(resolved), index.select(resolved));
+        assertEquals(scan(pending), index.select(pending));
+        assertEquals(5, index.select(new IncidentFilter(null, null, null, null)).cardinality());
+    }
+    
+    /**
+     * Tests the returned bitmap is a copy the caller may modify.
+     */
+    @Test
+    public void testSelectReturnsCopy() {
+        IncidentFilter fire = new IncidentFilter("Fire", null, null, null);
+        index.select(fire).clear();
+        
+        assertEquals(2, index.select(fire).cardinality());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private BitSet scan(IncidentFilter filter) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < incidents.size(); i++) {
+            if (filter.test(incidents.get(i))) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+    
+    private Incident sample(String type, String status, String location) {
+        return new Incident(type, location, "Bitmap test", "Tester", "09123456789", status, "2024-03-01");
+    }
+}
@@ -0,0 +1,129 @@
+package test.service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import service.IncidentCube;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JUnit test class for IncidentCube.
+ * Checks slices and roll-ups against counts taken by scanning the incidents.
+ */
+public class IncidentCubeTest {
+    
+    private static final String[] TYPES = {"Fire", "Flood", "Accident", "Crime", "Medical", "Landslide"};
+    private static final String[] STATUSES = {"Pending", "Responding", "Resolved"};
+    
+    private List<Incident> incidents;
+    private IncidentCube cube;
+    
+    /**
+     * Builds incidents spread over more types, locations and days than the
+     * cube's initial capacity, plus one without a readable date.
+     */
+    @Before
+    public void setUp() {
+        incidents = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String day = LocalDate.of(2024, 1, 1).plusDays(i % 40).toString();
+            incidents.add(new Incident(TYPES[i % TYPES.length], "Barangay " + (i % 23), "Report " + i,
+                                       "Ana", "0911", STATUSES[i % 7 % 3], day));
+        }
+        incidents.add(new Incident("flood", "Barangay 1", "Undated", "Ana", "0911", "pending", "sometime"));
+        cube = IncidentCube.of(incidents);
+    }
+    
+    // ==================== Slice Tests ====================
+    
+    /**
+     * Tests slices count the same incidents as a scan, ignoring case.
+     */
+    @Test
+    public void testSlicesMatchScan() {
+        assertEquals(incidents.size(), cube.count(IncidentCube.Slice.ALL));
+        assertEquals(scan("Flood", "Pending", null, null, null),
+                     cube.count(IncidentCube.Slice.ALL.type("FLOOD").status("pending")));
+        assertEquals(scan(null, null, "Barangay 7", null, null),
+                     cube.count(IncidentCube.Slice.ALL.location("barangay 7")));
+        assertEquals(0, cube.count(IncidentCube.Slice.ALL.type("Tsunami")));
+    }
+    
+    /**
+     * Tests day ranges select whole days and never match undated incidents.
+     */
+    @Test
+    public void testDaySlices() {
+        LocalDate from = LocalDate.of(2024, 1, 10);
+        LocalDate before = LocalDate.of(2024, 1, 20);
+        
+        assertEquals(scan("Fire", null, null, from, before),
+                     cube.count(IncidentCube.Slice.ALL.type("Fire").days(from, before)));
+        assertEquals(incidents.size() - 1,
+                     cube.count(IncidentCube.Slice.ALL.days(LocalDate.of(2000, 1, 1), null)));
+    }
+    
+    // ==================== Roll-up Tests ====================
+    
+    /**
+     * Tests a cross-tab of pending floods per location and a roll-up by day.
+     */
+    @Test
+    public void testRollUps() {
+        Map<String, Integer> byLocation = cube.rollUp(IncidentCube.Dimension.LOCATION,
+                                                      IncidentCube.Slice.ALL.type("Flood").status("Pending"));
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : byLocation.entrySet()) {
+            assertEquals(scan("Flood", "Pending", entry.getKey(), null, null), (int) entry.getValue());
+            sum += entry.getValue();
+        }
+        assertEquals(scan("Flood", "Pending", null, null, null), sum);
+        
+        Map<String, Integer> byDay = cube.rollUp(IncidentCube.Dimension.DAY, IncidentCube.Slice.ALL);
+        assertEquals(40, byDay.size());
+        assertEquals("2024-01-01", byDay.keySet().iterator().next());
+        assertEquals(scan(null, null, null, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)),
+                     (int) byDay.get("2024-01-05"));
+    }
+    
+    /**
+     * Tests status changes move counts and new categories are kept.
+     */
+    @Test
+    public void testStatusChangesAndNewCategories() {
+        Incident before = incidents.get(0);
+        cube.replaced(before, before.withStatus("Resolved"));
+        cube.add(new Incident("Volcanic Ash", "Barangay 99", "Ash fall", "Ana", "0911", "Pending", "2025-02-01"));
+        
+        IncidentStatistics stats = cube.statistics();
+        assertEquals(incidents.size() + 1, stats.getTotalIncidents());
+        assertEquals(1, stats.getTypeCount("volcanic ash"));
+        assertEquals(scan("Landslide", null, null, null, null), stats.getTypeCount("Landslide"));
+        assertEquals(scan(null, "Resolved", null, null, null) + 1, stats.getResolvedCount());
+        assertEquals(1, cube.count(IncidentCube.Slice.ALL.location("Barangay 99")));
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private int scan(String type, String status, String location, LocalDate from, LocalDate before) {
+        int count = 0;
+        for (Incident incident : incidents) {
+            LocalDate day = incident.getTimestamp() == Long.MIN_VALUE ? null
+                : LocalDate.ofEpochDay(Math.floorDiv(incident.getTimestamp(), 86_400_000L));
+            if ((type == null || type.equalsIgnoreCase(incident.getType()))
+                    && (status == null || status.equalsIgnoreCase(incident.getStatus()))
+                    && (location == null || location.equalsIgnoreCase(incident.getLocation()))
+                    && (from == null || (day != null && !day.isBefore(from)))
+                    && (before == null || (day != null && day.isBefore(before)))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
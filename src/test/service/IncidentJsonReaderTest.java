@@ -0,0 +1,195 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentJsonReader;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentJsonReader.
+ * Tests streaming parsing of the incident JSON array format.
+ */
+public class IncidentJsonReaderTest {
+    
+    // ==================== Basic Parsing Tests ====================
+    
+    /**
+     * Tests reading a well-formed array of incidents.
+     */
+    @Test
+    public void testReadsAllIncidents() throws IOException {
+        String json = "[\n" +
+            "  {\"type\": \"Fire\", \"location\": \"Agdum\", \"description\": \"House fire\", " +
+            "\"reporter\": \"Juan Dela Cruz\", \"contact\": \"09123456789\", " +
+            "\"date\": \"2024-03-01\", \"status\": \"Pending\"},\n" +
+            "  {\"type\": \"Flood\", \"location\": \"Awang\", \"description\": \"Street flooded\", " +
+            "\"reporter\": \"Maria Santos\", \"contact\": \"09987654321\", " +
+            "\"date\": \"2024-03-02\", \"status\": \"Resolved\"}\n" +
+            "]\n";
+        
+        List<Incident> incidents = readAll(json);
+        
+        assertEquals(2, incidents.size());
+        assertEquals("Fire", incidents.get(0).getType());
+        assertEquals("Agdum", incidents.get(0).getLocation());
+        assertEquals("Juan Dela Cruz", incidents.get(0).getReporter());
+        assertEquals("2024-03-01", incidents.get(0).getDate());
+        assertEquals("Resolved", incidents.get(1).getStatus());
+    }
+    
+    /**
+     * Tests reading an empty array and an empty file.
+     */
+    @Test
+    public void testReadsEmptyInput() throws IOException {
+        assertEquals(0, readAll("[]").size());
+        assertEquals(0, readAll("  \n").size());
+    }
+    
+    /**
+     * Tests that output of Incident.toJson can be read back unchanged.
+     */
+    @Test
+    public void testRoundTripsToJson() throws IOException {
+        Incident original = new Incident("Crime", "Bacolod", "Said \"help\"\nthen ran \\ away",
+                                        "Ana", "09111222333", "Responding", "December 20, 2025 10:00 AM");
+        
+        List<Incident> incidents = readAll("[" + original.toJson() + "]");
+        
+        assertEquals(1, incidents.size());
+        assertEquals(original.getDescription(), incidents.get(0).getDescription());
+        assertEquals(original.getDate(), incidents.get(0).getDate());
+    }
+    
+    // ==================== Escaping Tests ====================
+    
+    /**
+     * Tests descriptions containing characters that broke the old regex parser.
+     */
+    @Test
+    public void testDescriptionWithSeparators() throws IOException {
+        String json = "[{\"type\": \"Fire\", \"description\": \"a},{b, c: d\", \"status\": \"Pending\"}]";
+        
+        List<Incident> incidents = readAll(json);
+        
+        assertEquals(1, incidents.size());
+        assertEquals("a},{b, c: d", incidents.get(0).getDescription());
+        assertEquals("Pending", incidents.get(0).getStatus());
+    }
+    
+    /**
+     * Tests standard and unicode escapes, including surrogate pairs.
+     */
+    @Test
+    public void testEscapes() throws IOException {
+        String json = "[{\"description\": \"tab\\tslash\\/ \\u00f1 \\ud83d\\udd25\"}]";
+        
+        List<Incident> incidents = readAll(json);
+        
+        assertEquals("tab\tslash/ ñ 🔥", incidents.get(0).getDescription());
+    }
+    
+    /**
+     * Tests raw multi-byte UTF-8 text is decoded correctly.
+     */
+    @Test
+    public void testMultiByteText() throws IOException {
+        List<Incident> incidents = readAll("[{\"reporter\": \"Niño Peña\"}]");
+        
+        assertEquals("Niño Peña", incidents.get(0).getReporter());
+    }
+    
+    /**
+     * Tests unknown keys and non-string values are skipped.
+     */
+    @Test
+    public void testSkipsUnknownValues() throws IOException {
+        String json = "[{\"extra\": {\"a\": [1, 2, \"}\"]}, \"count\": 42, \"type\": \"Medical\"}]";
+        
+        List<Incident> incidents = readAll(json);
+        
+        assertEquals(1, incidents.size());
+        assertEquals("Medical", incidents.get(0).getType());
+    }
+    
+    // ==================== Damaged Input Tests ====================
+    
+    /**
+     * Tests a torn record is dropped and reported as truncated.
+     */
+    @Test
+    public void testTruncatedRecord() throws IOException {
+        String json = "[{\"type\": \"Fire\"},\n{\"type\": \"Flo";
+        IncidentJsonReader reader = reader(json);
+        
+        assertEquals("Fire", reader.next().getType());
+        assertNull(reader.next());
+        assertTrue(reader.isTruncated());
+        assertEquals(json.indexOf('}') + 1, reader.getLastRecordEnd());
+    }
+    
+    /**
+     * Tests a record torn inside an unknown number or literal is treated as
+     * torn rather than read forever.
+     */
+    @Test(timeout = 5000)
+    public void testTruncatedInsideSkippedValue() throws IOException {
+        IncidentJsonReader reader = reader("[{\"type\": \"Fire\"},\n{\"type\":\"Flood\",\"n\":12");
+        
+        assertEquals("Fire", reader.next().getType());
+        assertNull(reader.next());
+        assertTrue(reader.isTruncated());
+        
+        reader = reader("[{\"type\":\"Fire\",\"urgent\":tru");
+        assertNull(reader.next());
+        assertTrue(reader.isTruncated());
+    }
+    
+    /**
+     * Tests records appended after the closing bracket are still read.
+     */
+    @Test
+    public void testTrailingRecords() throws IOException {
+        String json = "[{\"type\": \"Fire\"}]{\"type\": \"Crime\"},\n";
+        IncidentJsonReader reader = reader(json);
+        
+        assertEquals("Fire", reader.next().getType());
+        assertEquals("Crime", reader.next().getType());
+        assertNull(reader.next());
+        assertTrue(reader.hasTrailingRecords());
+        assertFalse(reader.isTruncated());
+    }
+    
+    /**
+     * Tests malformed input is reported as an IOException.
+     */
+    @Test(expected = IOException.class)
+    public void testMalformedInput() throws IOException {
+        readAll("[{\"type\" \"Fire\"}]");
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private IncidentJsonReader reader(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new IncidentJsonReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+    
+    private List<Incident> readAll(String json) throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        try (IncidentJsonReader reader = reader(json)) {
+            Incident incident;
+            while ((incident = reader.next()) != null) {
+                incidents.add(incident);
+            }
+        }
+        return incidents;
+    }
+}
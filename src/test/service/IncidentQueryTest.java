@@ -0,0 +1,176 @@
+package test.service;
+
+import model.Incident;
+import service.CachingIncidentRepository;
+import service.IncidentQuery;
+import service.JsonIncidentRepository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentQuery.
+ * Checks query semantics over a plain list, and that the indexed plans of
+ * CachingIncidentRepository return exactly what a scan returns.
+ */
+public class IncidentQueryTest {
+    
+    private static final String[] TYPES = {"Fire", "Flood", "Crime", "Medical"};
+    private static final String[] STATUSES = {"Pending", "Responding", "Resolved"};
+    private static final String[] LOCATIONS = {"Agdum", "Awang", "Bagong Silang"};
+    
+    private Path file;
+    private List<Incident> incidents;
+    private CachingIncidentRepository repository;
+    
+    /**
+     * Stores enough incidents that every access path of the planner is used.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("incidents", ".json");
+        Files.writeString(file, "[]");
+        incidents = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            incidents.add(new Incident(TYPES[i % 4], LOCATIONS[i % 3], "Report " + i,
+                                       "Reporter " + (i % 50), String.format("0917%07d", i),
+                                       STATUSES[i % 3 == 0 ? 0 : i % 7 % 3],
+                                       String.format("2024-%02d-%02d", 1 + i % 12, 1 + i % 28)));
+        }
+        incidents.add(new Incident("Fire", "Agdum", "Undated report", "Reporter 1", "09170000000",
+                                   "Pending", "sometime"));
+        JsonIncidentRepository json = new JsonIncidentRepository(file);
+        assertTrue(json.saveIncidents(incidents, false));
+        repository = new CachingIncidentRepository(json, file, 0);
+    }
+    
+    /**
+     * Removes the temporary data file after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    // ==================== Query Semantics Tests ====================
+    
+    /**
+     * Tests a limit in storage order returns the first matches.
+     */
+    @Test
+    public void testLimitInStorageOrder() {
+        IncidentQuery query = IncidentQuery.builder().type("fire").limit(3).build();
+        List<Incident> result = query.execute(incidents.stream());
+        
+        assertEquals(3, result.size());
+        assertSame(incidents.get(0), result.get(0));
+        assertSame(incidents.get(8), result.get(2));
+    }
+    
+    /**
+     * Tests date ranges are half-open and ordering puts the newest first.
+     */
+    @Test
+    public void testDateRangeAndOrder() {
+        IncidentQuery query = IncidentQuery.builder()
+            .reportedBetween(LocalDateTime.of(2024, 12, 4, 0, 0), LocalDateTime.of(2024, 12, 28, 0, 0))
+            .orderBy(IncidentQuery.Order.NEWEST_FIRST)
+            .build();
+        List<Incident> result = query.execute(incidents.stream());
+        
+        assertFalse(result.isEmpty());
+        assertEquals("2024-12-24", result.get(0).getDate());
+        assertEquals("2024-12-04", result.get(result.size() - 1).getDate());
+    }
+    
+    /**
+     * Tests extra predicates and projections.
+     */
+    @Test
+    public void testPredicatesAndProjection() {
+        IncidentQuery query = IncidentQuery.builder()
+            .location("Agdum")
+            .where(incident -> incident.getReporter().endsWith(" 9"))
+            .build();
+        List<String> reporters = repository.query(query, Incident::getReporter);
+        
+        assertFalse(reporters.isEmpty());
+        for (String reporter : reporters) {
+            assertEquals("Reporter 9", reporter);
+        }
+    }
+    
+    /**
+     * Tests negative limits are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        IncidentQuery.builder().limit(-1);
+    }
+    
+    // ==================== Planner Tests ====================
+    
+    /**
+     * Tests indexed plans return exactly what checking every incident returns.
+     */
+    @Test
+    public void testIndexedPlansMatchScan() {
+        List<IncidentQuery> queries = new ArrayList<>();
+        queries.add(IncidentQuery.builder().build());
+        queries.add(IncidentQuery.builder().status("Pending").build());
+        queries.add(IncidentQuery.builder().search("rt 12").build());
+        queries.add(IncidentQuery.builder().type("Flood").search("report").build());
+        queries.add(IncidentQuery.builder().type("Crime").search("0917000").limit(5).build());
+        queries.add(IncidentQuery.builder().search("ab").status("Resolved").build());
+        queries.add(IncidentQuery.builder().location("awang").search("reporter 4")
+            .orderBy(IncidentQuery.Order.OLDEST_FIRST).limit(10).build());
+        queries.add(IncidentQuery.builder().type("Medical").status("Nope").build());
+        queries.add(IncidentQuery.builder().orderBy(IncidentQuery.Order.NEWEST_FIRST).limit(50).build());
+        queries.add(IncidentQuery.builder().orderBy(IncidentQuery.Order.OLDEST_FIRST).build());
+        queries.add(IncidentQuery.builder().status("Pending").orderBy(IncidentQuery.Order.NEWEST_FIRST).build());
+        queries.add(IncidentQuery.builder().search("reporter 1").orderBy(IncidentQuery.Order.NEWEST_FIRST)
+            .limit(7).build());
+        queries.add(IncidentQuery.builder()
+            .reportedBetween(LocalDateTime.of(2024, 3, 1, 0, 0), LocalDateTime.of(2024, 3, 15, 0, 0)).build());
+        queries.add(IncidentQuery.builder().type("Fire")
+            .reportedBetween(LocalDateTime.of(2024, 6, 1, 0, 0), null)
+            .orderBy(IncidentQuery.Order.NEWEST_FIRST).limit(20).build());
+        
+        List<Incident> stored = repository.loadAllIncidents();
+        for (IncidentQuery query : queries) {
+            assertEquals(query.execute(stored.stream()), repository.query(query));
+        }
+    }
+    
+    /**
+     * Tests the counts used by the dashboard agree with the returned lists.
+     */
+    @Test
+    public void testCountMatchesQuery() {
+        IncidentQuery query = IncidentQuery.builder().status("Resolved")
+            .reportedBetween(LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 5, 1, 0, 0)).build();
+        
+        assertEquals(query.execute(repository.loadAllIncidents().stream()).size(),
+                     repository.query(query).size());
+        assertEquals(incidents.size(), repository.count(IncidentQuery.builder().build().getFilter()));
+    }
+    
+    /**
+     * Tests the dashboard filter call goes through the same plans.
+     */
+    @Test
+    public void testFilteredIncidentsUsePlans() {
+        List<Incident> expected = IncidentQuery.builder().type("Fire").search("agdum").build()
+            .execute(repository.loadAllIncidents().stream());
+        
+        assertEquals(expected, repository.getFilteredIncidents("Fire", "[None]", "[None]", "AGDUM"));
+    }
+}
@@ -0,0 +1,103 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentResponseTimes;
+import service.LatencyHistogram;
+import util.ReportDates;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentResponseTimes and LatencyHistogram.
+ * Compares percentiles read from the histograms with exact ones.
+ */
+public class IncidentResponseTimesTest {
+    
+    private static final long MINUTE = ReportDates.MILLIS_PER_MINUTE;
+    
+    // ==================== Histogram Tests ====================
+    
+    /**
+     * Tests percentiles stay within 2% of the exact values from seconds to
+     * days, and short durations are exact.
+     */
+    @Test
+    public void testPercentileAccuracy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long minutes = 1; minutes <= 10_000; minutes++) {
+            histogram.record(minutes * MINUTE);
+        }
+        
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5000 * MINUTE, histogram.valueAtPercentile(50), 5000 * MINUTE * 0.02);
+        assertEquals(9000 * MINUTE, histogram.valueAtPercentile(90), 9000 * MINUTE * 0.02);
+        assertEquals(9900 * MINUTE, histogram.valueAtPercentile(99), 9900 * MINUTE * 0.02);
+        assertEquals(10_000 * MINUTE, histogram.getMaxMillis());
+        
+        LatencyHistogram brief = new LatencyHistogram();
+        brief.record(42_000);
+        brief.record(-5);
+        assertEquals(42_000, brief.valueAtPercentile(99));
+        assertEquals(0, brief.valueAtPercentile(50));
+    }
+    
+    /**
+     * Tests merged histograms give the percentiles of all their durations.
+     */
+    @Test
+    public void testMerge() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(5 * MINUTE);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(300 * MINUTE);
+        }
+        
+        LatencyHistogram merged = fast.copy().merge(slow);
+        assertEquals(100, merged.getCount());
+        assertEquals(5 * MINUTE, merged.valueAtPercentile(90));
+        assertEquals(300 * MINUTE, merged.valueAtPercentile(99), 300 * MINUTE * 0.02);
+        assertEquals(90, fast.getCount());
+    }
+    
+    // ==================== Breakdown Tests ====================
+    
+    /**
+     * Tests status changes add response times by type and by barangay,
+     * ignoring case, and incidents without transitions are not counted.
+     */
+    @Test
+    public void testBreakdownByTypeAndLocation() {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            incidents.add(new Incident(i < 5 ? "Fire" : "FIRE", i % 2 == 0 ? "Agdum" : "Awang",
+                                       "Report", "Ana", "0911", "Pending", "2024-03-01"));
+        }
+        IncidentResponseTimes times = IncidentResponseTimes.of(incidents);
+        assertEquals(0, times.breakdown(IncidentResponseTimes.Metric.TIME_TO_RESPOND).getOverall().getCount());
+        
+        for (int i = 0; i < incidents.size(); i++) {
+            Incident before = incidents.get(i);
+            long respondedAt = before.getTimestamp() + (i + 1) * 10 * MINUTE;
+            times.replaced(before, before.withStatus("Responding", respondedAt));
+        }
+        Incident last = incidents.get(9).withStatus("Responding", incidents.get(9).getTimestamp() + 100 * MINUTE);
+        times.replaced(last, last.withStatus("Resolved", last.getTimestamp() + 200 * MINUTE));
+        
+        IncidentResponseTimes.Breakdown respond = times.breakdown(IncidentResponseTimes.Metric.TIME_TO_RESPOND);
+        assertEquals(10, respond.getOverall().getCount());
+        assertEquals(50 * MINUTE, respond.getOverall().getP50(), 50 * MINUTE * 0.02);
+        assertEquals(100 * MINUTE, respond.getOverall().getP99(), 100 * MINUTE * 0.02);
+        assertEquals(1, respond.getByType().size());
+        assertEquals(5, respond.getByLocation().get("agdum").getCount());
+        
+        IncidentResponseTimes.Breakdown resolve = times.breakdown(IncidentResponseTimes.Metric.TIME_TO_RESOLVE);
+        assertEquals(1, resolve.getOverall().getCount());
+        assertEquals(200 * MINUTE, resolve.getByLocation().get("Awang").getP90(), 200 * MINUTE * 0.02);
+    }
+}
@@ -0,0 +1,111 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentRollups;
+import util.ReportDates;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDateTime;
+
+/**
+ * JUnit test class for IncidentRollups.
+ * Drives the rollups with a manual clock to check how windows slide.
+ */
+public class IncidentRollupsTest {
+    
+    private static final long MINUTE = ReportDates.MILLIS_PER_MINUTE;
+    private static final long HOUR = 60 * MINUTE;
+    
+    private long now;
+    private IncidentRollups rollups;
+    
+    /**
+     * Starts the clock at 2024-03-01 12:30 with no reports.
+     */
+    @Before
+    public void setUp() {
+        now = ReportDates.of(LocalDateTime.of(2024, 3, 1, 12, 30));
+        rollups = new IncidentRollups(() -> now);
+    }
+    
+    // ==================== Window Tests ====================
+    
+    /**
+     * Tests reports are counted in every window that covers them, by type
+     * and by location ignoring case.
+     */
+    @Test
+    public void testCountsByWindow() {
+        rollups.add(report("Fire", "Agdum", now));
+        rollups.add(report("fire", "agdum", now - 30 * MINUTE));
+        rollups.add(report("Flood", "Awang", now - 5 * HOUR));
+        rollups.add(report("Crime", "Awang", now - 3 * 24 * HOUR));
+        
+        IncidentRollups.Counts hour = rollups.counts(IncidentRollups.Window.LAST_HOUR);
+        assertEquals(2, hour.getTotal());
+        assertEquals(2, (int) hour.getByType().get("FIRE"));
+        assertEquals(2, (int) hour.getByLocation().get("Agdum"));
+        
+        assertEquals(3, rollups.counts(IncidentRollups.Window.LAST_DAY).getTotal());
+        IncidentRollups.Counts week = rollups.counts(IncidentRollups.Window.LAST_WEEK);
+        assertEquals(4, week.getTotal());
+        assertEquals(2, (int) week.getByLocation().get("Awang"));
+    }
+    
+    /**
+     * Tests counts leave the windows as the clock advances, including jumps
+     * longer than a whole ring.
+     */
+    @Test
+    public void testWindowsSlideWithClock() {
+        rollups.add(report("Fire", "Agdum", now));
+        
+        now += 59 * MINUTE;
+        assertEquals(1, rollups.counts(IncidentRollups.Window.LAST_HOUR).getTotal());
+        now += MINUTE;
+        assertEquals(0, rollups.counts(IncidentRollups.Window.LAST_HOUR).getTotal());
+        assertEquals(1, rollups.counts(IncidentRollups.Window.LAST_DAY).getTotal());
+        
+        now += 24 * HOUR;
+        assertEquals(0, rollups.counts(IncidentRollups.Window.LAST_DAY).getTotal());
+        assertEquals(1, rollups.counts(IncidentRollups.Window.LAST_WEEK).getTotal());
+        
+        now += 30 * 24 * HOUR;
+        rollups.add(report("Flood", "Awang", now));
+        IncidentRollups.Counts week = rollups.counts(IncidentRollups.Window.LAST_WEEK);
+        assertEquals(1, week.getTotal());
+        assertNull(week.getByType().get("Fire"));
+    }
+    
+    /**
+     * Tests reports older than the last week and undated reports are not
+     * counted, and reports dated after the clock count as current.
+     */
+    @Test
+    public void testOldUndatedAndFutureReports() {
+        rollups.add(report("Fire", "Agdum", now - 8 * 24 * HOUR));
+        rollups.add(new Incident("Fire", "Agdum", "Undated", "Ana", "0911", "Pending", "sometime"));
+        rollups.add(report("Fire", "Agdum", now + 2 * HOUR));
+        
+        assertEquals(1, rollups.counts(IncidentRollups.Window.LAST_HOUR).getTotal());
+        assertEquals(1, rollups.counts(IncidentRollups.Window.LAST_WEEK).getTotal());
+    }
+    
+    /**
+     * Tests a window starts at its first whole bucket.
+     */
+    @Test
+    public void testWindowStart() {
+        long time = now + 17 * 1000;
+        assertEquals(now - 59 * MINUTE, IncidentRollups.Window.LAST_HOUR.since(time));
+        assertEquals(now - 30 * MINUTE - 23 * HOUR, IncidentRollups.Window.LAST_DAY.since(time));
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident report(String type, String location, long timestamp) {
+        return new Incident(null, type, location, "Report", "Ana", "0911", "Pending", timestamp);
+    }
+}
@@ -3,13 +3,18 @@ package test.service;
 import model.Incident;
 import model.IncidentStatistics;
 import service.IIncidentRepository;
+import service.IncidentFilter;
+import service.IncidentPage;
 import service.IncidentService;
+import service.IncidentStatisticsTask;
 
 import org.junit.Test;
 import org.junit.Before;
 import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * JUnit test class for IncidentService.
@@ -221,6 +226,26 @@ public class IncidentServiceTest {
         assertEquals(1, stats.getCrimeCount());
     }
     
+    /**
+     * Tests the fork/join task counts the same as a sequential pass when
+     * the list is split into many parts.
+     */
+    @Test
+    public void testStatisticsTaskMatchesSequentialCount() {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            incidents.add(new Incident(i % 2 == 0 ? "Fire" : "Flood", "Agdum", "Report " + i, "Ana",
+                                       "0911", i % 3 == 0 ? "Resolved" : "Pending", "2024-03-01"));
+        }
+        
+        IncidentStatistics expected = service.calculateStatistics(incidents);
+        IncidentStatistics actual = ForkJoinPool.commonPool().invoke(new IncidentStatisticsTask(incidents, 100));
+        
+        assertEquals(5000, actual.getTotalIncidents());
+        assertEquals(expected.getTypeCounts(), actual.getTypeCounts());
+        assertEquals(expected.getStatusCounts(), actual.getStatusCounts());
+    }
+    
     // ==================== normalizeIncidentType Tests ====================
     
     /**
@@ -317,6 +342,21 @@ public class IncidentServiceTest {
             return filtered;
         }
         
+        @Override
+        public Stream<Incident> streamIncidents() {
+            return incidents.stream();
+        }
+        
+        @Override
+        public long count(IncidentFilter filter) {
+            return incidents.stream().filter(filter).count();
+        }
+        
+        @Override
+        public IncidentPage getPage(IncidentFilter filter, long cursor, int pageSize) {
+            return IncidentPage.fromList(incidents, filter, cursor, pageSize);
+        }
+        
         /**
          * Helper method to check if an incident matches all filter criteria.
          */
@@ -0,0 +1,137 @@
+package test.service;
+
+import model.Incident;
+import service.HeavyHitters;
+import service.HyperLogLog;
+import service.IncidentSketches;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JUnit test class for IncidentSketches and the sketches it is built from.
+ * Compares estimates with exact counts and checks that merged sketches
+ * match sketches of the combined reports.
+ */
+public class IncidentSketchesTest {
+    
+    // ==================== Sketch Tests ====================
+    
+    /**
+     * Tests distinct counts stay within a few percent at small and large sizes.
+     */
+    @Test
+    public void testHyperLogLogAccuracy() {
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            String contact = String.format("09%09d", i);
+            if (i < 100) {
+                small.add(contact);
+                small.add(contact);
+            }
+            large.add(contact);
+        }
+        
+        assertEquals(100, small.estimate(), 3);
+        assertEquals(100_000, large.estimate(), 100_000 * 0.05);
+    }
+    
+    /**
+     * Tests merged HyperLogLogs equal the sketch of the union.
+     */
+    @Test
+    public void testHyperLogLogMerge() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 5000; i++) {
+            String value = "reporter " + i;
+            (i % 2 == 0 ? first : second).add(value);
+            both.add(value);
+        }
+        
+        assertEquals(both.estimate(), first.merge(second).estimate());
+    }
+    
+    /**
+     * Tests the most frequent values are found among many rare ones,
+     * ignoring case, and are never underestimated.
+     */
+    @Test
+    public void testHeavyHitters() {
+        HeavyHitters hitters = new HeavyHitters();
+        for (int i = 0; i < 20_000; i++) {
+            hitters.add("Rare " + i);
+            if (i % 4 == 0) {
+                hitters.add(i % 8 == 0 ? "Agdum" : "AGDUM");
+            }
+            if (i % 10 == 0) {
+                hitters.add("Awang");
+            }
+        }
+        
+        Map<String, Integer> top = hitters.top(2);
+        assertEquals(List.of("Agdum", "Awang"), new ArrayList<>(top.keySet()));
+        assertTrue(top.get("Agdum") >= 5000);
+        assertTrue(top.get("Awang") >= 2000);
+    }
+    
+    // ==================== Partition Tests ====================
+    
+    /**
+     * Tests summaries cover whole Monday-to-Sunday weeks and leave undated
+     * reports to the whole history.
+     */
+    @Test
+    public void testWeeklyPartitions() {
+        IncidentSketches sketches = new IncidentSketches();
+        sketches.add(report("Agdum", "0911", "2024-03-03"));
+        sketches.add(report("Agdum", "0911", "2024-03-04"));
+        sketches.add(report("Awang", "0922", "2024-03-10"));
+        sketches.add(report("Awang", "0933", "2024-03-11"));
+        sketches.add(report("Awang", "0944", "sometime"));
+        
+        IncidentSketches.Summary week = sketches.summarize(LocalDate.of(2024, 3, 6), LocalDate.of(2024, 3, 7));
+        assertEquals(2, week.getReportCount());
+        assertEquals(2, week.getDistinctContacts());
+        assertEquals(4, sketches.summarize(LocalDate.of(2024, 1, 1), null).getReportCount());
+        assertEquals(5, sketches.summarize().getReportCount());
+        assertEquals(4, sketches.summarize().getDistinctContacts());
+    }
+    
+    /**
+     * Tests sketches of separate stores merge into the sketches of all
+     * their reports.
+     */
+    @Test
+    public void testMergePartitions() {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String day = LocalDate.of(2024, 1, 1).plusDays(i % 60).toString();
+            incidents.add(report("Barangay " + (i % 7), "09" + (i % 500), day));
+        }
+        IncidentSketches first = IncidentSketches.of(incidents.subList(0, 1000));
+        IncidentSketches merged = IncidentSketches.of(incidents.subList(1000, 3000)).merge(first);
+        IncidentSketches all = IncidentSketches.of(incidents);
+        
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate before = LocalDate.of(2024, 2, 1);
+        assertEquals(all.getTotal(), merged.getTotal());
+        assertEquals(all.summarize(from, before).getReportCount(), merged.summarize(from, before).getReportCount());
+        assertEquals(all.summarize(from, before).getDistinctContacts(),
+                     merged.summarize(from, before).getDistinctContacts());
+        assertEquals(all.summarize().getTopLocations(3), merged.summarize().getTopLocations(3));
+        assertEquals(1000, first.getTotal());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident report(String location, String contact, String date) {
+        return new Incident("Fire", location, "Report", "Ana", contact, "Pending", date);
+    }
+}
@@ -0,0 +1,178 @@
+package test.service;
+
+import model.Incident;
+import model.IncidentStatistics;
+import service.IncidentCube;
+import service.IncidentSketches;
+import service.IncidentSnapshotFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentSnapshotFile.
+ * Tests binary snapshot round-trips and freshness checks.
+ */
+public class IncidentSnapshotFileTest {
+    
+    private Path path;
+    private IncidentSnapshotFile snapshotFile;
+    
+    /**
+     * Creates a temporary snapshot location before each test.
+     */
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("incidents", ".snapshot");
+        snapshotFile = new IncidentSnapshotFile(path);
+    }
+    
+    /**
+     * Removes the temporary snapshot after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+    
+    // ==================== Round-trip Tests ====================
+    
+    /**
+     * Tests every field survives a write and read.
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(new Incident(Incident.newId(), "Fire", "Agdum", "House fire", "Juan Dela Cruz",
+                                   "09123456789", "Pending", "2024-03-01"));
+        incidents.add(new Incident(Incident.newId(), "Flood", "Awang", "Baha sa kalye, \"grabe\"", "Niño Peña",
+                                   "09987654321", "Responding", "December 20, 2025 10:30 AM"));
+        incidents.add(new Incident(Incident.newId(), "Fire", "Agdum", "Second fire", "Ana",
+                                   "09111222333", "Pending", "sometime yesterday"));
+        
+        snapshotFile.write(incidents, 1234L, 5678L);
+        List<Incident> loaded = snapshotFile.readIfFresh(1234L, 5678L);
+        
+        assertNotNull(loaded);
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < incidents.size(); i++) {
+            Incident expected = incidents.get(i);
+            Incident actual = loaded.get(i);
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getLocation(), actual.getLocation());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getReporter(), actual.getReporter());
+            assertEquals(expected.getContact(), actual.getContact());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getDate(), actual.getDate());
+            assertEquals(expected.getId(), actual.getId());
+        }
+    }
+    
+    /**
+     * Tests an empty incident list round-trips.
+     */
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        snapshotFile.write(new ArrayList<>(), 1L, 0L);
+        
+        assertEquals(0, snapshotFile.readIfFresh(1L, 0L).size());
+    }
+    
+    /**
+     * Tests the count cube is stored with the incidents.
+     */
+    @Test
+    public void testCubeStored() throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(new Incident("Fire", "Agdum", "House fire", "Ana", "0911", "Pending", "2024-03-01"));
+        incidents.add(new Incident("fire", "Awang", "Grass fire", "Ana", "0911", "Resolved", "2024-03-02"));
+        incidents.add(new Incident("Crime", "Agdum", "Theft", "Ana", "0911", "Pending", "2024-03-03"));
+        incidents.forEach(Incident::ensureId);
+        snapshotFile.write(incidents, 1L, 2L);
+        
+        IncidentSnapshotFile.Contents contents = snapshotFile.readContentsIfFresh(1L, 2L);
+        IncidentStatistics stats = contents.getCube().statistics();
+        
+        assertEquals(3, contents.getIncidents().size());
+        assertEquals(3, stats.getTotalIncidents());
+        assertEquals(2, stats.getFireCount());
+        assertEquals(1, stats.getCrimeCount());
+        assertEquals(2, stats.getPendingCount());
+        assertEquals(1, stats.getResolvedCount());
+        assertEquals(2, contents.getCube().count(IncidentCube.Slice.ALL.location("agdum")));
+    }
+    
+    /**
+     * Tests the report sketches are stored with the snapshot and still
+     * answer by week.
+     */
+    @Test
+    public void testSketchesStored() throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(new Incident("Fire", "Agdum", "House fire", "Ana", "0911 111 1111", "Pending", "2024-03-04"));
+        incidents.add(new Incident("Flood", "agdum", "Flooded road", "Ben", "0911-111-1111", "Pending", "2024-03-05"));
+        incidents.add(new Incident("Crime", "Awang", "Theft", "Cy", "0922 222 2222", "Pending", "2024-03-12"));
+        incidents.forEach(Incident::ensureId);
+        snapshotFile.write(incidents, 1L, 2L);
+        
+        IncidentSketches sketches = snapshotFile.readContentsIfFresh(1L, 2L).getSketches();
+        IncidentSketches.Summary firstWeek = sketches.summarize(LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 11));
+        
+        assertEquals(3, sketches.getTotal());
+        assertEquals(2, firstWeek.getReportCount());
+        assertEquals(1, firstWeek.getDistinctContacts());
+        assertEquals(2, firstWeek.getDistinctReporters());
+        assertEquals(2, (int) firstWeek.getTopLocations(1).get("Agdum"));
+        assertEquals(2, sketches.summarize().getDistinctContacts());
+    }
+    
+    // ==================== Freshness Tests ====================
+    
+    /**
+     * Tests a snapshot taken from a different file state is not used.
+     */
+    @Test
+    public void testStaleSnapshotIgnored() throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(new Incident("Crime", "Bacolod", "Theft", "Ana", "0911", "Pending", "2024-03-01"));
+        incidents.forEach(Incident::ensureId);
+        snapshotFile.write(incidents, 1000L, 200L);
+        
+        assertNull(snapshotFile.readIfFresh(1000L, 201L));
+        assertNull(snapshotFile.readIfFresh(1001L, 200L));
+    }
+    
+    /**
+     * Tests incidents without ids are refused, since their records would be corrupt.
+     */
+    @Test(expected = IOException.class)
+    public void testIncidentWithoutIdRefused() throws IOException {
+        List<Incident> incidents = new ArrayList<>();
+        incidents.add(new Incident("Fire", "Agdum", "No id", "Ana", "09111222333", "Pending", "2024-03-01"));
+        
+        snapshotFile.write(incidents, 1L, 1L);
+    }
+    
+    /**
+     * Tests a missing or damaged snapshot is reported as unusable.
+     */
+    @Test
+    public void testMissingOrDamagedSnapshot() throws IOException {
+        assertNull(snapshotFile.readIfFresh(0L, 0L));
+        
+        Files.write(path, new byte[]{'E', 'L', 'I', 'S', 1, 0, 0, 5});
+        assertNull(snapshotFile.readIfFresh(0L, 0L));
+        
+        Files.delete(path);
+        assertNull(snapshotFile.readIfFresh(0L, 0L));
+    }
+}
@@ -0,0 +1,124 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentSurgeDetector;
+import util.ReportDates;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDateTime;
+
+/**
+ * JUnit test class for IncidentSurgeDetector.
+ * Feeds reports against a manual clock to check when levels rise and fall.
+ */
+public class IncidentSurgeDetectorTest {
+    
+    private static final long INTERVAL = IncidentSurgeDetector.INTERVAL_MILLIS;
+    
+    private long now;
+    private IncidentSurgeDetector detector;
+    
+    /**
+     * Starts the clock at 2024-03-01 12:00 and feeds a day of steady
+     * background: one report every interval, rotating over three barangays.
+     */
+    @Before
+    public void setUp() {
+        now = ReportDates.of(LocalDateTime.of(2024, 3, 1, 12, 0)) - 96 * INTERVAL;
+        detector = new IncidentSurgeDetector(() -> now);
+        String[] locations = {"Agdum", "Awang", "Baybay"};
+        for (int i = 0; i < 96; i++) {
+            detector.add(report("Fire", locations[i % 3], now));
+            now += INTERVAL;
+        }
+    }
+    
+    // ==================== Level Tests ====================
+    
+    /**
+     * Tests steady background stays normal, a few extra reports raise the
+     * barangay to elevated, and a burst raises its type to a surge.
+     */
+    @Test
+    public void testLevelsRiseWithBurst() {
+        detector.add(report("Fire", "Agdum", now));
+        detector.add(report("Flood", "agdum", now));
+        detector.add(report("Flood", "Agdum", now));
+        assertEquals(IncidentSurgeDetector.Level.NORMAL, detector.status().getLevel());
+        
+        detector.add(report("Flood", "Agdum", now));
+        IncidentSurgeDetector.Status status = detector.status();
+        assertEquals(IncidentSurgeDetector.Level.ELEVATED, status.getLevel());
+        assertEquals("Agdum", status.getAlerts().get(0).getLocation());
+        assertNull(status.getAlerts().get(0).getType());
+        
+        detector.add(report("Flood", "Agdum", now));
+        detector.add(report("Flood", "Agdum", now));
+        status = detector.status();
+        assertEquals(IncidentSurgeDetector.Level.SURGE, status.getLevel());
+        IncidentSurgeDetector.Alert flood = null;
+        for (IncidentSurgeDetector.Alert alert : status.getAlerts()) {
+            if ("Flood".equals(alert.getType())) {
+                flood = alert;
+            }
+        }
+        assertNotNull(flood);
+        assertEquals(IncidentSurgeDetector.Level.SURGE, flood.getLevel());
+        assertEquals("5 Flood reports in Agdum", flood.describe());
+    }
+    
+    /**
+     * Tests a level is held through the next interval and then cleared, and
+     * a series that has seen the same burst rate for a while stops alerting.
+     */
+    @Test
+    public void testLevelsFallAsIntervalsPass() {
+        burst("Crime", "Awang", 6);
+        assertEquals(IncidentSurgeDetector.Level.SURGE, detector.status().getLevel());
+        
+        now += INTERVAL;
+        detector.add(report("Fire", "Baybay", now));
+        assertEquals(IncidentSurgeDetector.Level.SURGE, detector.status().getLevel());
+        now += INTERVAL;
+        assertEquals(IncidentSurgeDetector.Level.NORMAL, detector.status().getLevel());
+        
+        for (int i = 0; i < 200; i++) {
+            now += INTERVAL;
+            burst("Crime", "Awang", 6);
+        }
+        assertEquals(IncidentSurgeDetector.Level.NORMAL, detector.status().getLevel());
+    }
+    
+    /**
+     * Tests reports older than a series' current interval and undated
+     * reports are not counted, and a long quiet spell lowers the baseline.
+     */
+    @Test
+    public void testLateUndatedAndQuietSpell() {
+        for (int i = 0; i < 6; i++) {
+            detector.add(report("Fire", "Agdum", now - 4 * INTERVAL));
+            detector.add(new Incident("Fire", "Agdum", "Undated", "Ana", "0911", "Pending", "sometime"));
+        }
+        assertEquals(IncidentSurgeDetector.Level.NORMAL, detector.status().getLevel());
+        
+        now += 7 * 24 * 4 * INTERVAL;
+        burst("Fire", "Agdum", 4);
+        IncidentSurgeDetector.Status status = detector.status();
+        assertEquals(IncidentSurgeDetector.Level.ELEVATED, status.getLevel());
+        assertTrue(status.getAlerts().get(0).getExpected() < 0.01);
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private void burst(String type, String location, int count) {
+        for (int i = 0; i < count; i++) {
+            detector.add(report(type, location, now));
+        }
+    }
+    
+    private Incident report(String type, String location, long timestamp) {
+        return new Incident(null, type, location, "Report", "Ana", "0911", "Pending", timestamp);
+    }
+}
@@ -0,0 +1,120 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentFilter;
+import service.IncidentTextIndex;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentTextIndex.
+ * Checks verified candidates against IncidentFilter's substring matching.
+ */
+public class IncidentTextIndexTest {
+    
+    private List<Incident> incidents;
+    private IncidentTextIndex index;
+    
+    /**
+     * Builds an index over a few incidents with distinct reporters and contacts.
+     */
+    @Before
+    public void setUp() {
+        incidents = new ArrayList<>();
+        incidents.add(new Incident("Fire", "Agdum", "Kitchen fire near the plaza", "Juan Dela Cruz", "09171234567", "Pending", "2024-03-01"));
+        incidents.add(new Incident("Flood", "Awang", "River overflow", "Maria Santos", "09281234567", "Pending", "2024-03-02"));
+        incidents.add(new Incident("Fire", "Awang", "Grass fire", "Pedro Reyes", "09179876543", "Resolved", "2024-03-03"));
+        index = IncidentTextIndex.of(incidents);
+    }
+    
+    // ==================== Query Tests ====================
+    
+    /**
+     * Tests candidates narrow to the incidents containing the search text.
+     */
+    @Test
+    public void testSelect() {
+        assertEquals(bits(0), index.select("dela"));
+        assertEquals(bits(0, 2), index.select("0917"));
+        assertEquals(bits(1), index.select("overflow"));
+        assertEquals(new BitSet(), index.select("landslide"));
+    }
+    
+    /**
+     * Tests verified candidates keep exact substring semantics, including
+     * matches that start mid-word or span two fields.
+     */
+    @Test
+    public void testVerifiedCandidatesMatchScan() {
+        String[] queries = {"itchen", "ruz", "fireagdum", "grass fire", "123456", "e f", "awang", "pending"};
+        for (String query : queries) {
+            assertEquals(query, scan(query), verify(query));
+        }
+    }
+    
+    /**
+     * Tests text shorter than a trigram cannot narrow the search.
+     */
+    @Test
+    public void testShortQuery() {
+        assertNull(index.select("fi"));
+    }
+    
+    // ==================== Maintenance Tests ====================
+    
+    /**
+     * Tests the index follows appends and status changes.
+     */
+    @Test
+    public void testMaintenance() {
+        Incident medical = new Incident("Medical", "Agdum", "Chest pain", "Ana Lim", "09051112222", "Pending", "2024-03-04");
+        index.add(incidents.size(), medical);
+        incidents.add(medical);
+        
+        Incident responding = incidents.get(1).withStatus("Responding");
+        index.replaced(1, incidents.get(1), responding);
+        incidents.set(1, responding);
+        
+        assertEquals(bits(3), index.select("chest"));
+        assertEquals(bits(1), index.select("respond"));
+        assertEquals(scan("pending"), verify("pending"));
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private BitSet verify(String query) {
+        IncidentFilter filter = new IncidentFilter(null, null, null, query);
+        BitSet candidates = index.select(query);
+        BitSet matches = new BitSet();
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (filter.matchesSearchText(incidents.get(i))) {
+                matches.set(i);
+            }
+        }
+        return matches;
+    }
+    
+    private BitSet scan(String query) {
+        IncidentFilter filter = new IncidentFilter(null, null, null, query);
+        BitSet matches = new BitSet();
+        for (int i = 0; i < incidents.size(); i++) {
+            if (filter.matchesSearchText(incidents.get(i))) {
+                matches.set(i);
+            }
+        }
+        return matches;
+    }
+    
+    private BitSet bits(int... slots) {
+        BitSet bits = new BitSet();
+        for (int slot : slots) {
+            bits.set(slot);
+        }
+        return bits;
+    }
+}
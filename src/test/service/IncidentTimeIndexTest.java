@@ -0,0 +1,68 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentTimeIndex;
+import util.ReportDates;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit test class for IncidentTimeIndex.
+ * Checks that a bulk build and one-by-one adds give the same order.
+ */
+public class IncidentTimeIndexTest {
+    
+    // ==================== Build Tests ====================
+    
+    /**
+     * Tests a build over cyclic dates with ties visits slots in time, then slot, order.
+     */
+    @Test
+    public void testBuildMatchesAdds() {
+        List<Incident> incidents = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Incident incident = new Incident("Fire", "Agdum", "Test", "Reporter", "09123456789");
+            incident.setTimestamp(i % 7 == 3 ? ReportDates.UNKNOWN : (i * 31 % 10) * ReportDates.MILLIS_PER_MINUTE);
+            incidents.add(incident);
+        }
+        IncidentTimeIndex built = IncidentTimeIndex.of(incidents);
+        IncidentTimeIndex added = new IncidentTimeIndex();
+        for (int i = 0; i < incidents.size(); i++) {
+            added.add(i, incidents.get(i));
+        }
+        
+        assertEquals(walk(added, false), walk(built, false));
+        assertEquals(walk(added, true), walk(built, true));
+        assertEquals(added.undated(), built.undated());
+        assertEquals(added.count(2 * ReportDates.MILLIS_PER_MINUTE, 5 * ReportDates.MILLIS_PER_MINUTE),
+                     built.count(2 * ReportDates.MILLIS_PER_MINUTE, 5 * ReportDates.MILLIS_PER_MINUTE));
+        
+        List<Integer> oldestFirst = walk(built, false);
+        for (int i = 1; i < oldestFirst.size(); i++) {
+            long previous = incidents.get(oldestFirst.get(i - 1)).getTimestamp();
+            long current = incidents.get(oldestFirst.get(i)).getTimestamp();
+            assertTrue(previous < current || previous == current && oldestFirst.get(i - 1) < oldestFirst.get(i));
+        }
+    }
+    
+    /**
+     * Tests an index built over nothing still accepts new reports.
+     */
+    @Test
+    public void testAddAfterEmptyBuild() {
+        IncidentTimeIndex index = IncidentTimeIndex.of(new ArrayList<>());
+        Incident incident = new Incident("Fire", "Agdum", "Test", "Reporter", "09123456789");
+        index.add(0, incident);
+        
+        assertEquals(1, index.count(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+    
+    private static List<Integer> walk(IncidentTimeIndex index, boolean newestFirst) {
+        List<Integer> slots = new ArrayList<>();
+        index.forEach(Long.MIN_VALUE, Long.MAX_VALUE, newestFirst, slot -> slots.add(slot));
+        return slots;
+    }
+}
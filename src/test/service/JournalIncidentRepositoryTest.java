@@ -0,0 +1,222 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentJournal;
+import service.IncidentResponseTimes;
+import service.JournalIncidentRepository;
+import util.ReportDates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for JournalIncidentRepository.
+ * Uses a temporary journal directory so the real incident data is never touched.
+ */
+public class JournalIncidentRepositoryTest {
+    
+    private Path directory;
+    private JournalIncidentRepository repository;
+    
+    /**
+     * Creates a fresh temporary journal directory before each test.
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("incident-journal");
+        repository = new JournalIncidentRepository(directory, 3);
+    }
+    
+    /**
+     * Removes the temporary journal directory after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+    
+    // ==================== Replay Tests ====================
+    
+    /**
+     * Tests saved incidents are replayed from the journal after a restart.
+     */
+    @Test
+    public void testReplaysJournalAfterRestart() throws IOException {
+        repository.saveIncident(sample("Fire"));
+        repository.saveIncident(sample("Flood"));
+        
+        List<Incident> incidents = reopen().loadAllIncidents();
+        
+        assertEquals(2, incidents.size());
+        assertEquals("Fire", incidents.get(0).getType());
+        assertEquals("Flood", incidents.get(1).getType());
+    }
+    
+    /**
+     * Tests status changes are journaled and replayed.
+     */
+    @Test
+    public void testReplaysStatusChanges() throws IOException {
+        Incident fire = sample("Fire");
+        repository.saveIncident(fire);
+        
+        assertTrue(repository.updateStatus(fire.getId(), "Resolved"));
+        assertFalse(repository.updateStatus("missing", "Resolved"));
+        
+        assertEquals("Resolved", reopen().findById(fire.getId()).getStatus());
+    }
+    
+    /**
+     * Tests status change times are replayed from the journal and kept by
+     * checkpoints.
+     */
+    @Test
+    public void testReplaysStatusChangeTimes() throws Exception {
+        Incident fire = sample("Fire");
+        repository.saveIncident(fire);
+        long responded = fire.getTimestamp() + 20 * ReportDates.MILLIS_PER_MINUTE;
+        long resolved = responded + 90 * ReportDates.MILLIS_PER_MINUTE;
+        
+        repository.updateStatus(fire.getId(), "Responding", responded);
+        repository.updateStatus(fire.getId(), "Resolved", resolved);
+        assertEquals(responded, reopen().findById(fire.getId()).getRespondedAt());
+        
+        repository.checkpoint().get();
+        Incident replayed = reopen().findById(fire.getId());
+        assertEquals(responded, replayed.getRespondedAt());
+        assertEquals(resolved, replayed.getResolvedAt());
+        assertEquals(20 * ReportDates.MILLIS_PER_MINUTE, repository.getResponseTimes(
+            IncidentResponseTimes.Metric.TIME_TO_RESPOND).getByType().get("fire").getP50());
+    }
+    
+    /**
+     * Tests report times keep their sub-minute precision through a replay,
+     * and a date that is not readable keeps its text.
+     */
+    @Test
+    public void testReplaysReportTimes() throws IOException {
+        Incident timed = sample("Fire");
+        timed.setTimestamp(ReportDates.parse("2024-03-01") + 12_345);
+        Incident undated = new Incident("Flood", "Agdum", "Journal test", "Tester", "09123456789",
+                                        "Pending", "sometime yesterday");
+        repository.saveIncident(timed);
+        repository.saveIncident(undated);
+        
+        List<Incident> incidents = reopen().loadAllIncidents();
+        
+        assertEquals(timed.getTimestamp(), incidents.get(0).getTimestamp());
+        assertEquals(ReportDates.UNKNOWN, incidents.get(1).getTimestamp());
+        assertEquals("sometime yesterday", incidents.get(1).getDate());
+    }
+    
+    /**
+     * Tests a torn last entry is dropped and later saves still replay.
+     */
+    @Test
+    public void testRecoversTornEntry() throws IOException {
+        repository.saveIncident(sample("Fire"));
+        repository.close();
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        
+        repository = new JournalIncidentRepository(directory, 3);
+        repository.saveIncident(sample("Crime"));
+        List<Incident> incidents = reopen().loadAllIncidents();
+        
+        assertEquals(2, incidents.size());
+        assertEquals("Crime", incidents.get(1).getType());
+    }
+    
+    /**
+     * Tests an entry without an incident id is treated as corrupt and skipped.
+     */
+    @Test
+    public void testSkipsEntryWithoutId() throws IOException {
+        repository.saveIncident(sample("Fire"));
+        repository.close();
+        try (IncidentJournal journal = new IncidentJournal(segments().get(0), 1)) {
+            journal.appendCreated(new Incident("Flood", "Agdum", "No id", "Reporter", "09123456789",
+                                               "Pending", "2024-03-01"));
+            journal.appendStatusChanged("", "Resolved", ReportDates.now());
+        }
+        
+        repository = new JournalIncidentRepository(directory, 10);
+        repository.saveIncident(sample("Crime"));
+        List<Incident> incidents = reopen().loadAllIncidents();
+        
+        assertEquals(2, incidents.size());
+        assertEquals("Fire", incidents.get(0).getType());
+        assertEquals("Crime", incidents.get(1).getType());
+    }
+    
+    // ==================== Checkpoint Tests ====================
+    
+    /**
+     * Tests full segments are folded into a checkpoint and removed.
+     */
+    @Test
+    public void testCheckpointReplacesSealedSegments() throws Exception {
+        List<Incident> saved = new ArrayList<>();
+        for (String type : Arrays.asList("Fire", "Flood", "Crime", "Medical")) {
+            saved.add(sample(type));
+            repository.saveIncident(saved.get(saved.size() - 1));
+        }
+        repository.updateStatus(saved.get(1).getId(), "Responding");
+        repository.checkpoint().get();
+        
+        assertEquals(1, segments().size());
+        List<Incident> incidents = reopen().loadAllIncidents();
+        assertEquals(4, incidents.size());
+        assertEquals("Medical", incidents.get(3).getType());
+        assertEquals("Responding", incidents.get(1).getStatus());
+        assertEquals(saved.get(3).getId(), incidents.get(3).getId());
+    }
+    
+    /**
+     * Tests a seeded journal starts from its initial checkpoint.
+     */
+    @Test
+    public void testStartsFromSeededCheckpoint() throws IOException {
+        repository.close();
+        JournalIncidentRepository.createFrom(directory, Arrays.asList(sample("Fire"), sample("Flood")));
+        
+        repository = new JournalIncidentRepository(directory, 3);
+        repository.saveIncident(sample("Crime"));
+        
+        assertEquals(3, reopen().loadAllIncidents().size());
+        assertEquals(1, repository.getFilteredIncidents("Flood", null, null, "").size());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private JournalIncidentRepository reopen() throws IOException {
+        repository.close();
+        repository = new JournalIncidentRepository(directory, 3);
+        return repository;
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+    
+    private Incident sample(String type) {
+        return new Incident(type, "Agdum", "Journal test", "Tester", "09123456789",
+                            "Pending", "2024-03-01");
+    }
+}
@@ -0,0 +1,370 @@
+package test.service;
+
+import model.Incident;
+import service.IncidentJsonReader;
+import service.IncidentFilter;
+import service.IncidentPage;
+import service.JsonIncidentRepository;
+import util.ReportDates;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for JsonIncidentRepository.
+ * Uses a temporary file so the real incident data is never touched.
+ */
+public class JsonIncidentRepositoryTest {
+    
+    private Path file;
+    private JsonIncidentRepository repository;
+    
+    /**
+     * Creates a fresh temporary data file before each test.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("incidents", ".json");
+        repository = new JsonIncidentRepository(file);
+    }
+    
+    /**
+     * Removes the temporary data file after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".status"));
+    }
+    
+    // ==================== saveIncident Tests ====================
+    
+    /**
+     * Tests saving into an empty file creates a valid array.
+     */
+    @Test
+    public void testSaveIntoEmptyFile() throws IOException {
+        assertTrue(repository.saveIncident(sample("Fire", "Pending")));
+        
+        assertValidArray();
+        assertEquals(1, repository.loadAllIncidents().size());
+    }
+    
+    /**
+     * Tests repeated saves keep the file a valid JSON array.
+     */
+    @Test
+    public void testSaveKeepsFileValid() throws IOException {
+        write("[\n]\n");
+        
+        repository.saveIncident(sample("Fire", "Pending"));
+        repository.saveIncident(sample("Flood", "Responding"));
+        repository.saveIncident(sample("Crime", "Resolved"));
+        
+        assertValidArray();
+        List<Incident> incidents = repository.loadAllIncidents();
+        assertEquals(3, incidents.size());
+        assertEquals("Fire", incidents.get(0).getType());
+        assertEquals("Crime", incidents.get(2).getType());
+    }
+    
+    /**
+     * Tests a batch is appended in one write after existing records.
+     */
+    @Test
+    public void testSaveBatch() throws IOException {
+        repository.saveIncident(sample("Fire", "Pending"));
+        
+        assertTrue(repository.saveIncidents(Arrays.asList(sample("Flood", "Pending"),
+                                                          sample("Crime", "Resolved")), true));
+        
+        assertValidArray();
+        List<Incident> incidents = repository.loadAllIncidents();
+        assertEquals(3, incidents.size());
+        assertEquals("Crime", incidents.get(2).getType());
+    }
+    
+    /**
+     * Tests saving a null incident fails without touching the file.
+     */
+    @Test
+    public void testSaveNullIncident() throws IOException {
+        write("[]");
+        
+        assertFalse(repository.saveIncident(null));
+        assertEquals("[]", read());
+    }
+    
+    // ==================== Recovery Tests ====================
+    
+    /**
+     * Tests a torn append is dropped and the array is closed on load.
+     */
+    @Test
+    public void testRecoversTornWrite() throws IOException {
+        repository.saveIncident(sample("Fire", "Pending"));
+        String valid = read();
+        write(valid.substring(0, valid.lastIndexOf(']')) + ",\n{\n  \"type\": \"Flo");
+        
+        List<Incident> incidents = repository.loadAllIncidents();
+        
+        assertEquals(1, incidents.size());
+        assertValidArray();
+        assertTrue(repository.saveIncident(sample("Medical", "Pending")));
+        assertEquals(2, repository.loadAllIncidents().size());
+    }
+    
+    /**
+     * Tests zeros or garbage after the last complete record count as a torn
+     * write, so the next save repairs the file instead of failing.
+     */
+    @Test
+    public void testRecoversGarbageTail() throws IOException {
+        repository.saveIncident(sample("Fire", "Pending"));
+        String valid = read();
+        write(valid.substring(0, valid.lastIndexOf(']')) + ",\n{\"type\": \"Flo\u0000\u0000\u0000\u0000");
+        
+        assertTrue(repository.saveIncident(sample("Medical", "Pending")));
+        assertValidArray();
+        assertEquals(2, repository.loadAllIncidents().size());
+        
+        valid = read();
+        write(valid.substring(0, valid.lastIndexOf(']')) + "\u0000\u0000");
+        assertEquals(2, repository.loadAllIncidents().size());
+        assertValidArray();
+    }
+    
+    /**
+     * Tests records left after the closing bracket by the old save path are recovered.
+     */
+    @Test
+    public void testRecoversRecordsAfterBracket() throws IOException {
+        write("[\n" + sample("Fire", "Pending").toJson() + "\n]" +
+              sample("Flood", "Pending").toJson() + ",\n");
+        
+        assertTrue(repository.saveIncident(sample("Crime", "Pending")));
+        
+        assertValidArray();
+        List<Incident> incidents = repository.loadAllIncidents();
+        assertEquals(3, incidents.size());
+        assertEquals("Flood", incidents.get(1).getType());
+    }
+    
+    // ==================== getFilteredIncidents Tests ====================
+    
+    /**
+     * Tests filtering works over saved incidents.
+     */
+    @Test
+    public void testGetFilteredIncidents() {
+        repository.saveIncident(sample("Fire", "Pending"));
+        repository.saveIncident(sample("Flood", "Pending"));
+        
+        assertEquals(1, repository.getFilteredIncidents("Fire", "[None]", "[None]", "").size());
+        assertEquals(2, repository.getFilteredIncidents(null, "pending", null, "").size());
+    }
+    
+    // ==================== Streaming and Paging Tests ====================
+    
+    /**
+     * Tests cursors page through the file without gaps or repeats.
+     */
+    @Test
+    public void testPagesThroughFile() {
+        String[] types = {"Fire", "Flood", "Crime", "Fire", "Medical"};
+        for (String type : types) {
+            repository.saveIncident(sample(type, "Pending"));
+        }
+        
+        List<String> seen = new ArrayList<>();
+        long cursor = IncidentPage.FIRST;
+        int pages = 0;
+        do {
+            IncidentPage page = repository.getPage(new IncidentFilter(null, null, null, null), cursor, 2);
+            page.getIncidents().forEach(incident -> seen.add(incident.getType()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != IncidentPage.END);
+        
+        assertEquals(Arrays.asList(types), seen);
+        assertEquals(3, pages);
+        
+        IncidentPage fires = repository.getPage(new IncidentFilter("Fire", null, null, null), IncidentPage.FIRST, 5);
+        assertEquals(2, fires.getIncidents().size());
+        assertFalse(fires.hasMore());
+    }
+    
+    /**
+     * Tests a cursor held while the file is rewritten resumes at the next
+     * record, not inside a moved one.
+     */
+    @Test
+    public void testCursorSurvivesRewrite() throws IOException {
+        Files.writeString(file, "[\n{\"type\": \"Fire\"},\n{\"type\": \"Flood\"},\n"
+                                + "{\"type\": \"Crime\"},\n{\"type\": \"Medical\"}\n]\n");
+        IncidentFilter all = new IncidentFilter(null, null, null, null);
+        IncidentPage first = repository.getPage(all, IncidentPage.FIRST, 2);
+        
+        // Backfilling ids rewrites the file and moves every record
+        repository.loadAllIncidents();
+        
+        IncidentPage second = repository.getPage(all, first.getNextCursor(), 2);
+        assertEquals(2, second.getIncidents().size());
+        assertEquals("Crime", second.getIncidents().get(0).getType());
+        assertNotNull(second.getIncidents().get(0).getId());
+        assertFalse(repository.getPage(all, second.getNextCursor(), 2).hasMore());
+    }
+    
+    /**
+     * Tests streaming and counting read the file lazily with the same results.
+     */
+    @Test
+    public void testStreamAndCount() {
+        repository.saveIncident(sample("Fire", "Pending"));
+        repository.saveIncident(sample("Flood", "Resolved"));
+        repository.saveIncident(sample("Fire", "Resolved"));
+        
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            assertEquals(3, incidents.count());
+        }
+        assertEquals(2, repository.count(new IncidentFilter(null, "Resolved", null, null)));
+    }
+    
+    // ==================== Id Tests ====================
+    
+    /**
+     * Tests saved incidents are found by id through the offset index, including
+     * after another writer appended behind its back.
+     */
+    @Test
+    public void testFindById() {
+        Incident fire = sample("Fire", "Pending");
+        Incident flood = sample("Flood", "Pending");
+        repository.saveIncidents(Arrays.asList(fire, flood), false);
+        
+        assertEquals("Flood", repository.findById(flood.getId()).getType());
+        assertEquals("Fire", repository.findById(fire.getId()).getType());
+        assertNull(repository.findById("missing"));
+        
+        Incident crime = sample("Crime", "Pending");
+        new JsonIncidentRepository(file).saveIncident(crime);
+        assertEquals("Crime", repository.findById(crime.getId()).getType());
+    }
+    
+    /**
+     * Tests records without ids are given ids once and keep them.
+     */
+    @Test
+    public void testAssignsMissingIds() throws IOException {
+        write("[\n" + sample("Fire", "Pending").toJson() + ",\n" + sample("Flood", "Pending").toJson() + "\n]\n");
+        
+        List<Incident> first = repository.loadAllIncidents();
+        List<Incident> second = repository.loadAllIncidents();
+        
+        assertValidArray();
+        assertNotNull(first.get(0).getId());
+        assertEquals(first.get(0).getId(), second.get(0).getId());
+        assertEquals(first.get(1).getId(), second.get(1).getId());
+        assertEquals("Flood", repository.findById(first.get(1).getId()).getType());
+    }
+    
+    // ==================== Status Update Tests ====================
+    
+    /**
+     * Tests a status update is visible to every read path without touching the data file.
+     */
+    @Test
+    public void testUpdateStatus() throws IOException {
+        Incident fire = sample("Fire", "Pending");
+        repository.saveIncident(fire);
+        repository.saveIncident(sample("Flood", "Pending"));
+        String before = read();
+        
+        assertTrue(repository.updateStatus(fire.getId(), "Responding"));
+        assertFalse(repository.updateStatus("missing", "Responding"));
+        
+        assertEquals(before, read());
+        assertEquals("Responding", repository.findById(fire.getId()).getStatus());
+        assertEquals("Responding", repository.loadAllIncidents().get(0).getStatus());
+        assertEquals(1, repository.count(new IncidentFilter(null, "Responding", null, null)));
+        assertEquals(1, repository.getPage(new IncidentFilter(null, "Pending", null, null),
+                                           IncidentPage.FIRST, 10).getIncidents().size());
+        assertEquals("Responding", new JsonIncidentRepository(file).findById(fire.getId()).getStatus());
+    }
+    
+    /**
+     * Tests status change times are read back from the status log and
+     * written into the data file when the log is folded in.
+     */
+    @Test
+    public void testStatusChangeTimes() throws IOException {
+        Incident fire = sample("Fire", "Pending");
+        repository.saveIncident(fire);
+        long responded = fire.getTimestamp() + 30 * ReportDates.MILLIS_PER_MINUTE;
+        
+        assertTrue(repository.updateStatus(fire.getId(), "Responding", responded));
+        assertEquals(responded, new JsonIncidentRepository(file).findById(fire.getId()).getRespondedAt());
+        
+        for (int i = 0; i < 1000; i++) {
+            repository.updateStatus(fire.getId(), "Resolved", responded + ReportDates.MILLIS_PER_DAY);
+        }
+        assertTrue(read().contains("\"respondedAt\""));
+        Incident folded = new JsonIncidentRepository(file).findById(fire.getId());
+        assertEquals(responded, folded.getRespondedAt());
+        assertEquals(responded + ReportDates.MILLIS_PER_DAY, folded.getResolvedAt());
+    }
+    
+    /**
+     * Tests a long run of updates is folded into the data file and the log cleared.
+     */
+    @Test
+    public void testStatusLogCompaction() throws IOException {
+        Incident fire = sample("Fire", "Pending");
+        repository.saveIncident(fire);
+        
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(repository.updateStatus(fire.getId(), i % 2 == 0 ? "Responding" : "Resolved"));
+        }
+        
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".status")));
+        assertTrue(read().contains("\"status\": \"Resolved\""));
+        assertValidArray();
+        assertEquals("Resolved", repository.findById(fire.getId()).getStatus());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident sample(String type, String status) {
+        return new Incident(type, "Agdum", type + " reported, {needs} \"help\"",
+                            "Juan Dela Cruz", "09123456789", status, "2024-03-01");
+    }
+    
+    private void write(String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String read() throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+    
+    private void assertValidArray() throws IOException {
+        try (IncidentJsonReader reader = IncidentJsonReader.open(file)) {
+            while (reader.next() != null) {
+                // drain
+            }
+            assertFalse(reader.isTruncated());
+            assertFalse(reader.hasTrailingRecords());
+        }
+        assertTrue(read().trim().endsWith("]"));
+    }
+}
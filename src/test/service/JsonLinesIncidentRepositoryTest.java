@@ -0,0 +1,195 @@
+package test.service;
+
+import model.Incident;
+import service.JsonIncidentRepository;
+import service.JsonLinesIncidentRepository;
+import service.JsonToJsonLinesConverter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * JUnit test class for JsonLinesIncidentRepository and JsonToJsonLinesConverter.
+ * Uses temporary files so the real incident data is never touched.
+ */
+public class JsonLinesIncidentRepositoryTest {
+    
+    private Path file;
+    private JsonLinesIncidentRepository repository;
+    
+    /**
+     * Creates a fresh temporary data file before each test.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("incidents", ".jsonl");
+        repository = new JsonLinesIncidentRepository(file);
+    }
+    
+    /**
+     * Removes the temporary data file after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".status"));
+    }
+    
+    // ==================== Save and Load Tests ====================
+    
+    /**
+     * Tests each saved incident becomes exactly one line.
+     */
+    @Test
+    public void testSaveWritesOneLinePerIncident() throws IOException {
+        repository.saveIncident(sample("Fire", "Line one\nline two"));
+        repository.saveIncident(sample("Flood", "Plain"));
+        
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<Incident> incidents = repository.loadAllIncidents();
+        
+        assertEquals(2, lines.size());
+        assertEquals(2, incidents.size());
+        assertEquals("Line one\nline two", incidents.get(0).getDescription());
+        assertEquals("Flood", incidents.get(1).getType());
+    }
+    
+    /**
+     * Tests loading a missing file returns an empty list.
+     */
+    @Test
+    public void testLoadMissingFile() throws IOException {
+        Files.delete(file);
+        
+        assertEquals(0, repository.loadAllIncidents().size());
+    }
+    
+    /**
+     * Tests filtering over JSON Lines storage.
+     */
+    @Test
+    public void testGetFilteredIncidents() {
+        repository.saveIncident(sample("Fire", "Kitchen fire"));
+        repository.saveIncident(sample("Crime", "Theft"));
+        
+        assertEquals(1, repository.getFilteredIncidents("[None]", "[None]", "[None]", "theft").size());
+    }
+    
+    // ==================== Recovery Tests ====================
+    
+    /**
+     * Tests a torn last line is dropped on load.
+     */
+    @Test
+    public void testRecoversTornLine() throws IOException {
+        repository.saveIncident(sample("Fire", "First"));
+        Files.writeString(file, "{ \"type\": \"Flo", StandardOpenOption.APPEND);
+        
+        assertEquals(1, repository.loadAllIncidents().size());
+        assertTrue(repository.saveIncident(sample("Medical", "Second")));
+        
+        List<Incident> incidents = repository.loadAllIncidents();
+        assertEquals(2, incidents.size());
+        assertEquals("Medical", incidents.get(1).getType());
+    }
+    
+    /**
+     * Tests a complete record missing only its newline is kept.
+     */
+    @Test
+    public void testKeepsCompleteRecordWithoutNewline() throws IOException {
+        Files.writeString(file, sample("Fire", "No newline").toJsonLine());
+        
+        assertTrue(repository.saveIncident(sample("Crime", "After")));
+        
+        assertEquals(2, repository.loadAllIncidents().size());
+    }
+    
+    /**
+     * Tests malformed lines are skipped and the records around them kept.
+     */
+    @Test
+    public void testSkipsMalformedLines() throws IOException {
+        repository.saveIncident(sample("Fire", "First"));
+        Files.writeString(file, "{\"type\" \"Flood\"}\n{\"type\": \"Crime\"}garbage\nnot json\n",
+                          StandardOpenOption.APPEND);
+        repository.saveIncident(sample("Medical", "Last"));
+        
+        List<Incident> incidents = repository.loadAllIncidents();
+        assertEquals(3, incidents.size());
+        assertEquals("Fire", incidents.get(0).getType());
+        assertEquals("Crime", incidents.get(1).getType());
+        assertEquals("Medical", incidents.get(2).getType());
+    }
+    
+    // ==================== Converter Tests ====================
+    
+    /**
+     * Tests converting a JSON array file keeps every incident.
+     */
+    @Test
+    public void testConvertFromJsonArray() throws IOException {
+        Path source = Files.createTempFile("incidents", ".json");
+        try {
+            JsonIncidentRepository jsonRepository = new JsonIncidentRepository(source);
+            jsonRepository.saveIncident(sample("Fire", "One, {two}"));
+            jsonRepository.saveIncident(sample("Flood", "Three"));
+            
+            int count = JsonToJsonLinesConverter.convert(source, file);
+            List<Incident> incidents = repository.loadAllIncidents();
+            
+            assertEquals(2, count);
+            assertEquals(2, incidents.size());
+            assertEquals("One, {two}", incidents.get(0).getDescription());
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+    
+    /**
+     * Tests saved incidents are found by id through the offset index.
+     */
+    @Test
+    public void testFindById() {
+        Incident fire = sample("Fire", "First");
+        Incident flood = sample("Flood", "Second");
+        repository.saveIncident(fire);
+        repository.saveIncident(flood);
+        
+        assertEquals("Second", repository.findById(flood.getId()).getDescription());
+        assertEquals("First", repository.findById(fire.getId()).getDescription());
+        assertNull(repository.findById("missing"));
+    }
+    
+    /**
+     * Tests status updates are seen by a new repository instance and by streams.
+     */
+    @Test
+    public void testUpdateStatus() throws IOException {
+        Incident fire = sample("Fire", "First");
+        repository.saveIncident(fire);
+        
+        assertTrue(repository.updateStatus(fire.getId(), "Resolved"));
+        
+        assertEquals("Resolved", new JsonLinesIncidentRepository(file).loadAllIncidents().get(0).getStatus());
+        try (Stream<Incident> incidents = repository.streamIncidents()) {
+            assertEquals("Resolved", incidents.findFirst().get().getStatus());
+        }
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private Incident sample(String type, String description) {
+        return new Incident(type, "Agdum", description, "Juan Dela Cruz",
+                            "09123456789", "Pending", "2024-03-01");
+    }
+}
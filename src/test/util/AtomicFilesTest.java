@@ -0,0 +1,95 @@
+package test.util;
+
+import util.AtomicFiles;
+import util.DurabilityPolicy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JUnit test class for AtomicFiles and DurabilityPolicy mode selection.
+ * Uses temporary files only.
+ */
+public class AtomicFilesTest {
+    
+    private Path file;
+    
+    /**
+     * Creates a temporary target file before each test.
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("atomic", ".json");
+        Files.writeString(file, "old content");
+    }
+    
+    /**
+     * Removes the temporary files after each test.
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+    }
+    
+    // ==================== Rewrite Tests ====================
+    
+    /**
+     * Tests the new content replaces the old and no temp file is left behind.
+     */
+    @Test
+    public void testReplacesFile() throws IOException {
+        AtomicFiles.writeText(file, writer -> writer.write("new contént"), true);
+        
+        assertEquals("new contént", Files.readString(file, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+    }
+    
+    /**
+     * Tests a write that fails part-way leaves the old file untouched.
+     */
+    @Test
+    public void testFailedWriteKeepsOldFile() {
+        try {
+            AtomicFiles.writeText(file, writer -> {
+                writer.write("half");
+                throw new IOException("disk full");
+            }, false);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        }
+        
+        assertEquals("old content", readQuietly());
+    }
+    
+    // ==================== Durability Mode Tests ====================
+    
+    /**
+     * Tests mode names are parsed and unknown names fall back to BATCHED.
+     */
+    @Test
+    public void testModeFromName() {
+        assertEquals(DurabilityPolicy.Mode.SYNC, DurabilityPolicy.Mode.fromName(" SYNC "));
+        assertEquals(DurabilityPolicy.Mode.ASYNC, DurabilityPolicy.Mode.fromName("async"));
+        assertEquals(DurabilityPolicy.Mode.BATCHED, DurabilityPolicy.Mode.fromName(null));
+        assertEquals(DurabilityPolicy.Mode.BATCHED, DurabilityPolicy.Mode.fromName("unknown"));
+        assertFalse(new DurabilityPolicy(DurabilityPolicy.Mode.ASYNC, 0, 0).forcesRewrites());
+    }
+    
+    // ==================== Helper Methods ====================
+    
+    private String readQuietly() {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package test.util;
+
+import util.ReportDates;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * JUnit test class for ReportDates.
+ * Checks the hand-written parser against java.time.
+ */
+public class ReportDatesTest {
+    
+    // ==================== Parsing Tests ====================
+    
+    /**
+     * Tests ISO days parse to midnight of that day.
+     */
+    @Test
+    public void testParseDay() {
+        assertEquals(ReportDates.of(LocalDate.of(2024, 3, 1).atStartOfDay()), ReportDates.parse("2024-03-01"));
+        assertEquals(ReportDates.of(LocalDate.of(2024, 2, 29).atStartOfDay()), ReportDates.parse("2024-02-29"));
+        assertEquals(0, ReportDates.parse("1970-01-01"));
+    }
+    
+    /**
+     * Tests the report format, including noon, midnight and lenient case.
+     */
+    @Test
+    public void testParseReportDate() {
+        assertEquals(ReportDates.of(LocalDateTime.of(2025, 12, 20, 10, 30)),
+                     ReportDates.parse("December 20, 2025 10:30 AM"));
+        assertEquals(ReportDates.of(LocalDateTime.of(2025, 12, 19, 15, 0)),
+                     ReportDates.parse("December 19, 2025 03:00 PM"));
+        assertEquals(ReportDates.of(LocalDateTime.of(2024, 5, 1, 0, 5)),
+                     ReportDates.parse("May 01, 2024 12:05 AM"));
+        assertEquals(ReportDates.of(LocalDateTime.of(2024, 5, 1, 12, 5)),
+                     ReportDates.parse("may 1, 2024 12:05 pm"));
+    }
+    
+    /**
+     * Tests text that is not a valid date is reported as unknown.
+     */
+    @Test
+    public void testParseInvalid() {
+        String[] invalid = {null, "", "yesterday", "2024-02-30", "2024-13-01", "2024/03/01",
+                            "Smarch 01, 2024 10:30 AM", "March 01, 2024 13:30 PM", "March 01, 2024 10:30",
+                            "March 32, 2024 10:30 AM", "March 01 2024 10:30 AM"};
+        for (String text : invalid) {
+            assertEquals(String.valueOf(text), ReportDates.UNKNOWN, ReportDates.parse(text));
+        }
+    }
+    
+    // ==================== Formatting Tests ====================
+    
+    /**
+     * Tests formatting reproduces the text that was parsed.
+     */
+    @Test
+    public void testFormatRoundTrip() {
+        String report = "July 04, 2024 09:15 PM";
+        assertEquals(report, ReportDates.formatReportDate(ReportDates.parse(report)));
+        assertEquals("1969-12-31", ReportDates.formatDay(ReportDates.parse("1969-12-31")));
+    }
+}
@@ -0,0 +1,97 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility class for replacing whole files safely.
+ * Content is written to a temporary sibling file, optionally forced to disk,
+ * and then renamed over the target, so a crash leaves either the old or the
+ * new file and never a half-written one.
+ */
+public class AtomicFiles {
+    
+    /**
+     * Writes binary file content.
+     */
+    public interface StreamContent {
+        void writeTo(OutputStream out) throws IOException;
+    }
+    
+    /**
+     * Writes text file content.
+     */
+    public interface TextContent {
+        void writeTo(Writer writer) throws IOException;
+    }
+    
+    /**
+     * Replaces a file with binary content.
+     * @param target File to replace
+     * @param content Writes the new content
+     * @param force Whether to force the content and the rename to disk
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path target, StreamContent content, boolean force) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            content.writeTo(out);
+            out.flush();
+            if (force) {
+                channel.force(true);
+            }
+        }
+        
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        if (force) {
+            forceDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+    
+    /**
+     * Replaces a file with UTF-8 text content.
+     * @param target File to replace
+     * @param content Writes the new content
+     * @param force Whether to force the content and the rename to disk
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeText(Path target, TextContent content, boolean force) throws IOException {
+        write(target, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+        }, force);
+    }
+    
+    /** Makes the rename itself durable where the platform allows syncing a directory */
+    private static void forceDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows); the data itself is already forced
+        }
+    }
+}
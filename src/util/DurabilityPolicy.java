@@ -0,0 +1,195 @@
+package util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when data written to a file is forced to the storage device.
+ *
+ * SYNC forces after every write, BATCHED forces once enough records or time
+ * have accumulated (a timer forces whatever is left), and ASYNC leaves
+ * flushing to the operating system. The mode is chosen per deployment with
+ * the "eligtas.durability" system property and defaults to BATCHED.
+ */
+public class DurabilityPolicy {
+    
+    /** System property selecting the durability mode */
+    public static final String MODE_PROPERTY = "eligtas.durability";
+    
+    /** System property overriding the BATCHED flush delay in milliseconds */
+    public static final String DELAY_PROPERTY = "eligtas.durability.delayMillis";
+    
+    /** System property overriding the BATCHED flush record count */
+    public static final String RECORDS_PROPERTY = "eligtas.durability.records";
+    
+    public static final long DEFAULT_DELAY_MILLIS = 1000;
+    public static final int DEFAULT_MAX_RECORDS = 100;
+    
+    /** Forces batched writes that no later write flushed in time */
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "durability-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * How much data a crash may lose.
+     */
+    public enum Mode {
+        /** Every write is on disk before it is acknowledged */
+        SYNC,
+        /** Up to the configured delay or record count may be lost */
+        BATCHED,
+        /** Whatever the operating system had not written yet may be lost */
+        ASYNC;
+        
+        /**
+         * Parses a mode name, defaulting to BATCHED.
+         * @param name "sync", "batched", "async" or null
+         * @return the matching mode
+         */
+        public static Mode fromName(String name) {
+            if (name == null) {
+                return BATCHED;
+            }
+            return switch (name.trim().toLowerCase()) {
+                case "sync" -> SYNC;
+                case "async" -> ASYNC;
+                default -> BATCHED;
+            };
+        }
+    }
+    
+    private final Mode mode;
+    private final long maxDelayMillis;
+    private final int maxRecords;
+    
+    private int unforcedRecords;
+    private long firstUnforced;
+    private Path unforcedFile;
+    private ScheduledFuture<?> pendingFlush;
+    
+    // ==================== Constructors ====================
+    
+    /**
+     * @param mode Durability mode
+     * @param maxDelayMillis BATCHED: longest time written data may stay unforced
+     * @param maxRecords BATCHED: most records that may stay unforced
+     */
+    public DurabilityPolicy(Mode mode, long maxDelayMillis, int maxRecords) {
+        this.mode = mode;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxRecords = maxRecords;
+    }
+    
+    /**
+     * @return a policy configured from the system properties
+     */
+    public static DurabilityPolicy configured() {
+        return new DurabilityPolicy(
+            Mode.fromName(System.getProperty(MODE_PROPERTY)),
+            Long.getLong(DELAY_PROPERTY, DEFAULT_DELAY_MILLIS),
+            Integer.getInteger(RECORDS_PROPERTY, DEFAULT_MAX_RECORDS));
+    }
+    
+    // ==================== Public Methods ====================
+    
+    /**
+     * @return the durability mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+    
+    /**
+     * Whether whole-file rewrites should be forced before they replace the old file.
+     * Only ASYNC skips it; a rewrite is rare enough that batching it gains nothing.
+     * @return true unless the mode is ASYNC
+     */
+    public boolean forcesRewrites() {
+        return mode != Mode.ASYNC;
+    }
+    
+    /**
+     * Applies the policy after records were written through a channel.
+     * @param file File the channel writes to, forced later if BATCHED defers it
+     * @param channel Channel the records were written through
+     * @param records Number of records written
+     * @param force Whether the caller needs this write on disk now regardless of mode
+     * @throws IOException if forcing fails
+     */
+    public synchronized void afterWrite(Path file, FileChannel channel, int records, boolean force) throws IOException {
+        if (unforcedFile != null && !unforcedFile.equals(file)) {
+            // The writer moved on to another file; settle the old one first
+            forceFile(unforcedFile);
+            reset();
+        }
+        
+        if (force || mode == Mode.SYNC) {
+            channel.force(true);
+            reset();
+            return;
+        }
+        if (mode == Mode.ASYNC) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (unforcedRecords == 0) {
+            firstUnforced = now;
+        }
+        unforcedRecords += records;
+        unforcedFile = file;
+        
+        if (unforcedRecords >= maxRecords || now - firstUnforced >= maxDelayMillis) {
+            channel.force(true);
+            reset();
+        } else if (pendingFlush == null) {
+            long delay = maxDelayMillis - (now - firstUnforced);
+            pendingFlush = FLUSHER.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Forces any records this policy has left unforced.
+     */
+    public synchronized void flush() {
+        if (unforcedFile == null) {
+            return;
+        }
+        
+        try {
+            forceFile(unforcedFile);
+        } catch (IOException e) {
+            System.err.println("Error flushing " + unforcedFile + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        reset();
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    private void reset() {
+        unforcedRecords = 0;
+        unforcedFile = null;
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+    }
+    
+    private static void forceFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        } catch (NoSuchFileException e) {
+            // Already replaced or removed; nothing left to flush
+        }
+    }
+}
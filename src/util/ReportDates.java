@@ -0,0 +1,231 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Utility class for incident report dates.
+ *
+ * Report dates are stored as wall-clock milliseconds: the local date and time
+ * the report shows, counted from 1970-01-01 00:00 as if it were UTC. No time
+ * zone is involved, so comparing two dates is a primitive comparison and a
+ * date reads back exactly as it was written.
+ *
+ * Two text forms exist: seed data uses ISO days ("2024-03-01") and new
+ * reports use "MMMM dd, yyyy hh:mm a" ("March 01, 2024 02:30 PM"). parse
+ * recognizes both by hand, without allocating, so loaders can call it for
+ * every record. Formatting back to text is only needed for display.
+ */
+public class ReportDates {
+    
+    /** Timestamp of a missing or unreadable date */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+    
+    public static final long MILLIS_PER_MINUTE = 60_000L;
+    public static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    private static final DateTimeFormatter REPORT_FORMAT =
+        DateTimeFormatter.ofPattern("MMMM dd, yyyy hh:mm a", Locale.ENGLISH);
+    
+    private static final String[] MONTHS = {
+        "January", "February", "March", "April", "May", "June",
+        "July", "August", "September", "October", "November", "December"
+    };
+    
+    private ReportDates() {
+    }
+    
+    // ==================== Parsing ====================
+    
+    /**
+     * Parses either report date form.
+     * @param text Date text, may be null
+     * @return wall-clock milliseconds, or UNKNOWN if the text is not a valid date
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            return UNKNOWN;
+        }
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            return parseDay(text);
+        }
+        return parseReportDate(text);
+    }
+    
+    /** Parses "yyyy-MM-dd" */
+    private static long parseDay(CharSequence text) {
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (!isValidDate(year, month, day)) {
+            return UNKNOWN;
+        }
+        return epochDay(year, month, day) * MILLIS_PER_DAY;
+    }
+    
+    /** Parses "MMMM dd, yyyy hh:mm a", accepting one-digit days and hours */
+    private static long parseReportDate(CharSequence text) {
+        int length = text.length();
+        int space = indexOf(text, ' ', 0);
+        if (space < 0) {
+            return UNKNOWN;
+        }
+        int month = month(text, space);
+        
+        int pos = space + 1;
+        int comma = indexOf(text, ',', pos);
+        if (month == 0 || comma < 0 || comma - pos < 1 || comma - pos > 2) {
+            return UNKNOWN;
+        }
+        int day = digits(text, pos, comma);
+        
+        pos = comma + 2;
+        if (pos + 4 > length || text.charAt(pos - 1) != ' ') {
+            return UNKNOWN;
+        }
+        int year = digits(text, pos, pos + 4);
+        
+        pos += 5;
+        int colon = indexOf(text, ':', pos);
+        if (pos - 1 >= length || text.charAt(pos - 1) != ' '
+                || colon < 0 || colon - pos < 1 || colon - pos > 2) {
+            return UNKNOWN;
+        }
+        int hour = digits(text, pos, colon);
+        
+        pos = colon + 1;
+        if (pos + 5 != length || text.charAt(pos + 2) != ' ' || !isMeridiem(text, pos + 3)) {
+            return UNKNOWN;
+        }
+        int minute = digits(text, pos, pos + 2);
+        if (hour < 1 || hour > 12 || minute < 0 || minute > 59 || !isValidDate(year, month, day)) {
+            return UNKNOWN;
+        }
+        
+        hour %= 12;
+        if (Character.toUpperCase(text.charAt(pos + 3)) == 'P') {
+            hour += 12;
+        }
+        return epochDay(year, month, day) * MILLIS_PER_DAY + (hour * 60L + minute) * MILLIS_PER_MINUTE;
+    }
+    
+    // ==================== Conversion and Formatting ====================
+    
+    /**
+     * @return the current local time as wall-clock milliseconds, truncated to
+     *         the minute like the report text
+     */
+    public static long now() {
+        return of(LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES));
+    }
+    
+    /**
+     * @param time Local date and time
+     * @return wall-clock milliseconds
+     */
+    public static long of(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+    
+    /**
+     * @param millis Wall-clock milliseconds
+     * @return the local date and time
+     */
+    public static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                                           Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+    
+    /**
+     * Formats a timestamp the way new reports show it.
+     * @param millis Wall-clock milliseconds
+     * @return text such as "March 01, 2024 02:30 PM"
+     */
+    public static String formatReportDate(long millis) {
+        return toLocalDateTime(millis).format(REPORT_FORMAT);
+    }
+    
+    /**
+     * Formats the day of a timestamp as an ISO date.
+     * @param millis Wall-clock milliseconds
+     * @return text such as "2024-03-01"
+     */
+    public static String formatDay(long millis) {
+        return toLocalDateTime(millis).toLocalDate().toString();
+    }
+    
+    // ==================== Private Helper Methods ====================
+    
+    /** Reads the month name ending before the given index, ignoring case; 0 if unknown */
+    private static int month(CharSequence text, int end) {
+        for (int m = 0; m < MONTHS.length; m++) {
+            String name = MONTHS[m];
+            if (name.length() == end && regionMatches(text, name)) {
+                return m + 1;
+            }
+        }
+        return 0;
+    }
+    
+    private static boolean regionMatches(CharSequence text, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(text.charAt(i)) != Character.toLowerCase(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isMeridiem(CharSequence text, int pos) {
+        char first = Character.toUpperCase(text.charAt(pos));
+        return (first == 'A' || first == 'P') && Character.toUpperCase(text.charAt(pos + 1)) == 'M';
+    }
+    
+    /** Reads the decimal number in [start, end), or -1 if a character is not a digit */
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+    
+    private static int indexOf(CharSequence text, char c, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static boolean isValidDate(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        int days = month == 2 ? (isLeapYear(year) ? 29 : 28)
+            : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        return day <= days;
+    }
+    
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+    
+    /** Days since 1970-01-01 of a proleptic Gregorian date */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
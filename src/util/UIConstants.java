@@ -47,6 +47,11 @@ public class UIConstants {
     public static final Color STATUS_RESPONDING = new Color(0, 153, 204);
     public static final Color STATUS_RESOLVED = new Color(51, 153, 0);
     
+    // Alert level colors
+    public static final Color ALERT_NORMAL = new Color(51, 153, 0);
+    public static final Color ALERT_ELEVATED = new Color(255, 153, 0);
+    public static final Color ALERT_SURGE = new Color(204, 0, 0);
+    
     // ==================== Private Constructor ====================
     private UIConstants() {
         // Prevent instantiation
@@ -68,6 +73,19 @@ public class UIConstants {
         };
     }
     
+    /**
+     * Get alert color based on alert level name.
+     * @param level Level name, e.g. "NORMAL", "ELEVATED" or "SURGE"
+     * @return Color for the level
+     */
+    public static Color getAlertColor(String level) {
+        return switch (level.toLowerCase()) {
+            case "elevated" -> ALERT_ELEVATED;
+            case "surge" -> ALERT_SURGE;
+            default -> ALERT_NORMAL;
+        };
+    }
+    
     /**
      * Get icon path for incident type.
      * @param type Incident type
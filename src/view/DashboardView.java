@@ -3,6 +3,9 @@ package view;
 import controller.DashboardController;
 import model.Incident;
 import model.IncidentStatistics;
+import service.IncidentResponseTimes;
+import service.IncidentRollups;
+import service.IncidentSurgeDetector;
 import util.UIConstants;
 import view.components.PanelRound;
 import view.dialogs.ReportCardDialog;
@@ -13,7 +16,9 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Dashboard View - Main dashboard displaying incident reports and statistics.
@@ -21,7 +26,15 @@ import java.util.List;
  */
 public class DashboardView extends BaseFrameWithSidebar {
     
+    /** Time between refreshes of the recent report counts */
+    private static final int RECENT_REFRESH_MILLIS = 60_000;
+    
+    /** Time between refreshes of the alert level */
+    private static final int ALERT_REFRESH_MILLIS = 15_000;
+    
     private final DashboardController controller;
+    private final Timer recentReportsTimer;
+    private final Timer alertTimer;
     
     // UI Components
     private JTable incidentsTable;
@@ -34,12 +47,18 @@ public class DashboardView extends BaseFrameWithSidebar {
     private JLabel accidentCountLabel;
     private JLabel crimeCountLabel;
     private JLabel medicalCountLabel;
+    private JLabel lastHourLabel;
+    private JLabel lastDayLabel;
+    private JLabel lastWeekLabel;
+    private JLabel alertLabel;
+    private JLabel timeToRespondLabel;
+    private JLabel timeToResolveLabel;
     private JLabel reportsCountLabel;
     private JComboBox<String> typeFilterBox;
     private JComboBox<String> statusFilterBox;
     private JComboBox<String> locationFilterBox;
     private JTextField searchField;
-    private List<Incident> allIncidents;
+    private final List<String> displayedIds = new ArrayList<>();
     
     // ==================== Constructor ====================
     
@@ -47,6 +66,13 @@ public class DashboardView extends BaseFrameWithSidebar {
         super();
         this.controller = new DashboardController();
         loadData();
+        
+        // Windows slide with the clock, so refresh them even without new reports
+        recentReportsTimer = new Timer(RECENT_REFRESH_MILLIS, e -> updateRecentReports());
+        recentReportsTimer.start();
+        
+        alertTimer = new Timer(ALERT_REFRESH_MILLIS, e -> updateAlert());
+        alertTimer.start();
     }
     
     // ==================== Abstract Method Implementations ====================
@@ -72,6 +98,8 @@ public class DashboardView extends BaseFrameWithSidebar {
         mainPanel.setBackground(UIConstants.MAIN_BG);
         
         mainPanel.add(createStatsPanel());
+        mainPanel.add(createRecentReportsPanel());
+        mainPanel.add(createResponseTimesPanel());
         mainPanel.add(createIncidentTypesPanel());
         mainPanel.add(createReportsPanel());
         
@@ -86,11 +114,24 @@ public class DashboardView extends BaseFrameWithSidebar {
         // Already on this page
     }
     
+    @Override
+    public void dispose() {
+        if (recentReportsTimer != null) {
+            recentReportsTimer.stop();
+        }
+        if (alertTimer != null) {
+            alertTimer.stop();
+        }
+        super.dispose();
+    }
+    
     // ==================== Data Loading ====================
     
     private void loadData() {
-        allIncidents = controller.loadAllIncidents();
         updateStatistics();
+        updateRecentReports();
+        updateAlert();
+        updateResponseTimes();
         applyFilters();
     }
     
@@ -153,6 +194,64 @@ public class DashboardView extends BaseFrameWithSidebar {
         return valueLabel;
     }
     
+    // ==================== Recent Reports Panel ====================
+    
+    private JPanel createRecentReportsPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(UIConstants.MAIN_BG);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        JLabel title = new JLabel("Recent Reports");
+        title.setFont(UIConstants.FONT_TITLE);
+        title.setForeground(UIConstants.ACTIVE_TEXT);
+        title.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JPanel recentGrid = new JPanel(new GridLayout(1, 4, 15, 0));
+        recentGrid.setBackground(UIConstants.MAIN_BG);
+        recentGrid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 120));
+        recentGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        lastHourLabel = createStatCard("Last Hour", UIConstants.ACTIVE_TEXT, recentGrid);
+        lastDayLabel = createStatCard("Last 24 Hours", UIConstants.ACTIVE_TEXT, recentGrid);
+        lastWeekLabel = createStatCard("Last 7 Days", UIConstants.ACTIVE_TEXT, recentGrid);
+        alertLabel = createStatCard("Alert Level", UIConstants.ALERT_NORMAL, recentGrid);
+        
+        panel.add(title);
+        panel.add(Box.createVerticalStrut(10));
+        panel.add(recentGrid);
+        
+        return panel;
+    }
+    
+    // ==================== Response Times Panel ====================
+    
+    private JPanel createResponseTimesPanel() {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(UIConstants.MAIN_BG);
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        
+        JLabel title = new JLabel("Response Times (p50 / p90 / p99)");
+        title.setFont(UIConstants.FONT_TITLE);
+        title.setForeground(UIConstants.ACTIVE_TEXT);
+        title.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        JPanel timesGrid = new JPanel(new GridLayout(1, 2, 15, 0));
+        timesGrid.setBackground(UIConstants.MAIN_BG);
+        timesGrid.setMaximumSize(new Dimension(Integer.MAX_VALUE, 120));
+        timesGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
+        
+        timeToRespondLabel = createStatCard("Time to Respond", UIConstants.STATUS_RESPONDING, timesGrid);
+        timeToResolveLabel = createStatCard("Time to Resolve", UIConstants.STATUS_RESOLVED, timesGrid);
+        
+        panel.add(title);
+        panel.add(Box.createVerticalStrut(10));
+        panel.add(timesGrid);
+        
+        return panel;
+    }
+    
     // ==================== Incident Types Panel ====================
     
     private JPanel createIncidentTypesPanel() {
@@ -365,16 +464,18 @@ public class DashboardView extends BaseFrameWithSidebar {
         
         DefaultTableModel model = (DefaultTableModel) incidentsTable.getModel();
         model.setRowCount(0);
+        displayedIds.clear();
         
         for (Incident incident : filtered) {
             model.addRow(incident.toTableRow());
+            displayedIds.add(incident.getId());
         }
         
         reportsCountLabel.setText("(" + filtered.size() + ")");
     }
     
     private void updateStatistics() {
-        IncidentStatistics stats = controller.calculateStatistics(allIncidents);
+        IncidentStatistics stats = controller.getStatistics();
         
         totalIncidentsLabel.setText(String.valueOf(stats.getTotalIncidents()));
         pendingLabel.setText(String.valueOf(stats.getPendingCount()));
@@ -388,19 +489,100 @@ public class DashboardView extends BaseFrameWithSidebar {
         medicalCountLabel.setText(String.valueOf(stats.getMedicalCount()));
     }
     
+    private void updateRecentReports() {
+        showRecentCounts(lastHourLabel, controller.getRecentCounts(IncidentRollups.Window.LAST_HOUR));
+        showRecentCounts(lastDayLabel, controller.getRecentCounts(IncidentRollups.Window.LAST_DAY));
+        showRecentCounts(lastWeekLabel, controller.getRecentCounts(IncidentRollups.Window.LAST_WEEK));
+    }
+    
+    /** Shows a window's total, with the per-type and per-barangay counts as a tooltip */
+    private void showRecentCounts(JLabel label, IncidentRollups.Counts counts) {
+        label.setText(String.valueOf(counts.getTotal()));
+        label.setToolTipText(counts.getTotal() == 0 ? null
+            : "<html>By type: " + describeCounts(counts.getByType())
+              + "<br>By barangay: " + describeCounts(counts.getByLocation()) + "</html>");
+    }
+    
+    /** Shows the surge level, with every raised barangay and type as a tooltip */
+    private void updateAlert() {
+        IncidentSurgeDetector.Status status = controller.getSurgeStatus();
+        IncidentSurgeDetector.Level level = status.getLevel();
+        alertLabel.setText(level == IncidentSurgeDetector.Level.NORMAL ? "Normal"
+                           : level == IncidentSurgeDetector.Level.SURGE ? "Surge" : "Elevated");
+        alertLabel.setForeground(UIConstants.getAlertColor(level.name()));
+        
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (IncidentSurgeDetector.Alert alert : status.getAlerts()) {
+            tooltip.append(alert.getLevel()).append(": ").append(alert.describe()).append("<br>");
+        }
+        alertLabel.setToolTipText(status.getAlerts().isEmpty() ? null : tooltip.append("</html>").toString());
+    }
+    
+    private void updateResponseTimes() {
+        showResponseTimes(timeToRespondLabel,
+                          controller.getResponseTimes(IncidentResponseTimes.Metric.TIME_TO_RESPOND));
+        showResponseTimes(timeToResolveLabel,
+                          controller.getResponseTimes(IncidentResponseTimes.Metric.TIME_TO_RESOLVE));
+    }
+    
+    /** Shows the overall percentiles, with the per-type and per-barangay ones as a tooltip */
+    private void showResponseTimes(JLabel label, IncidentResponseTimes.Breakdown breakdown) {
+        IncidentResponseTimes.Percentiles overall = breakdown.getOverall();
+        label.setText(overall.getCount() == 0 ? "-" : describePercentiles(overall));
+        label.setToolTipText(overall.getCount() == 0 ? null
+            : "<html>By type:" + describePercentiles(breakdown.getByType())
+              + "<br>By barangay:" + describePercentiles(breakdown.getByLocation()) + "</html>");
+    }
+    
+    private String describePercentiles(Map<String, IncidentResponseTimes.Percentiles> percentiles) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, IncidentResponseTimes.Percentiles> entry : percentiles.entrySet()) {
+            text.append("<br>&nbsp;&nbsp;").append(entry.getKey()).append(": ")
+                .append(describePercentiles(entry.getValue()));
+        }
+        return text.toString();
+    }
+    
+    private String describePercentiles(IncidentResponseTimes.Percentiles percentiles) {
+        return formatDuration(percentiles.getP50()) + " / " + formatDuration(percentiles.getP90())
+               + " / " + formatDuration(percentiles.getP99());
+    }
+    
+    /** Formats a duration in its two largest units, e.g. "45m", "3h 20m" or "2d 4h" */
+    private String formatDuration(long millis) {
+        long minutes = millis / 60_000;
+        if (minutes < 60) {
+            return minutes + "m";
+        }
+        long hours = minutes / 60;
+        if (hours < 24) {
+            return hours + "h " + minutes % 60 + "m";
+        }
+        return hours / 24 + "d " + hours % 24 + "h";
+    }
+    
+    private String describeCounts(Map<String, Integer> counts) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(entry.getKey()).append(" ").append(entry.getValue());
+        }
+        return text.toString();
+    }
+    
     private void openReportCard(int viewRow) {
         int modelRow = incidentsTable.convertRowIndexToModel(viewRow);
-        DefaultTableModel model = (DefaultTableModel) incidentsTable.getModel();
         
-        String type = model.getValueAt(modelRow, 0).toString();
-        String location = model.getValueAt(modelRow, 1).toString();
-        String description = model.getValueAt(modelRow, 2).toString();
-        String contact = model.getValueAt(modelRow, 3).toString();
-        String reporter = model.getValueAt(modelRow, 4).toString();
-        String date = model.getValueAt(modelRow, 5).toString();
-        String status = model.getValueAt(modelRow, 6).toString();
-        
-        Incident incident = new Incident(type, location, description, reporter, contact, status, date);
+        // Fetch the stored record by id rather than rebuilding it from cell text
+        Incident incident = controller.findIncident(displayedIds.get(modelRow));
+        if (incident == null) {
+            JOptionPane.showMessageDialog(this, "This report no longer exists.",
+                                          "Report Not Found", JOptionPane.WARNING_MESSAGE);
+            applyFilters();
+            return;
+        }
         
         ReportCardDialog dialog = new ReportCardDialog(this, incident);
         dialog.setVisible(true);
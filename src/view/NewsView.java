@@ -1,5 +1,7 @@
 package view;
 
+import controller.NewsController;
+import service.IncidentSurgeDetector;
 import util.UIConstants;
 import view.components.PanelRound;
 
@@ -15,10 +17,26 @@ import java.time.format.DateTimeFormatter;
  */
 public class NewsView extends BaseFrameWithSidebar {
     
+    /** Time between refreshes of the alert level */
+    private static final int ALERT_REFRESH_MILLIS = 15_000;
+    
+    private final NewsController controller;
+    private final Timer alertTimer;
+    
+    // UI Components
+    private JLabel alertLevelLabel;
+    private JLabel alertDescLabel;
+    
     // ==================== Constructor ====================
     
     public NewsView() {
         super();
+        this.controller = new NewsController();
+        updateAlert();
+        
+        // Levels rise as reports arrive and fall as intervals pass, so keep polling
+        alertTimer = new Timer(ALERT_REFRESH_MILLIS, e -> updateAlert());
+        alertTimer.start();
     }
     
     // ==================== Abstract Method Implementations ====================
@@ -56,6 +74,14 @@ public class NewsView extends BaseFrameWithSidebar {
         // Already on this page
     }
     
+    @Override
+    public void dispose() {
+        if (alertTimer != null) {
+            alertTimer.stop();
+        }
+        super.dispose();
+    }
+    
     // ==================== Header Creation ====================
     
     private PanelRound createHeader() {
@@ -210,19 +236,43 @@ public class NewsView extends BaseFrameWithSidebar {
         
         card.add(createSectionLabel("          Alert", 14), BorderLayout.NORTH);
         
-        JLabel statusLabel = new JLabel("Safe", SwingConstants.CENTER);
-        statusLabel.setFont(new Font(UIConstants.FONT_FAMILY, Font.BOLD, 25));
-        statusLabel.setForeground(Color.GREEN);
+        alertLevelLabel = new JLabel("Safe", SwingConstants.CENTER);
+        alertLevelLabel.setFont(new Font(UIConstants.FONT_FAMILY, Font.BOLD, 25));
+        alertLevelLabel.setForeground(UIConstants.ALERT_NORMAL);
         
-        JLabel descLabel = new JLabel("Normal", SwingConstants.CENTER);
-        descLabel.setFont(new Font(UIConstants.FONT_FAMILY, Font.PLAIN, 13));
+        alertDescLabel = new JLabel("Normal", SwingConstants.CENTER);
+        alertDescLabel.setFont(new Font(UIConstants.FONT_FAMILY, Font.PLAIN, 13));
         
-        card.add(statusLabel, BorderLayout.CENTER);
-        card.add(descLabel, BorderLayout.SOUTH);
+        card.add(alertLevelLabel, BorderLayout.CENTER);
+        card.add(alertDescLabel, BorderLayout.SOUTH);
         
         return card;
     }
     
+    // ==================== Alert Updates ====================
+    
+    /** Shows the current level and its top alert, with every raised series as a tooltip */
+    private void updateAlert() {
+        IncidentSurgeDetector.Status status = controller.getSurgeStatus();
+        IncidentSurgeDetector.Level level = status.getLevel();
+        
+        alertLevelLabel.setForeground(UIConstants.getAlertColor(level.name()));
+        if (level == IncidentSurgeDetector.Level.NORMAL) {
+            alertLevelLabel.setText("Safe");
+            alertDescLabel.setText("Normal");
+            alertDescLabel.setToolTipText(null);
+            return;
+        }
+        
+        alertLevelLabel.setText(level == IncidentSurgeDetector.Level.SURGE ? "Surge" : "Elevated");
+        alertDescLabel.setText(status.getAlerts().get(0).describe());
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (IncidentSurgeDetector.Alert alert : status.getAlerts()) {
+            tooltip.append(alert.getLevel()).append(": ").append(alert.describe()).append("<br>");
+        }
+        alertDescLabel.setToolTipText(tooltip.append("</html>").toString());
+    }
+    
     private PanelRound createAnnouncementsCard() {
         PanelRound card = createCard();
         card.setLayout(new BorderLayout());